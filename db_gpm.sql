@@ -156,7 +156,7 @@ CREATE TABLE challenge_project (
 CREATE TABLE donation (
     donation_id 				BIGINT AUTO_INCREMENT PRIMARY KEY,
     id							BIGINT,
-    tid							VARCHAR(50),
+    tid							VARCHAR(50) UNIQUE,
     project_id 					BIGINT,
     refer_id					BIGINT,
     transferred_project_id	    BIGINT,
@@ -176,7 +176,9 @@ CREATE TABLE donation (
     FOREIGN KEY (refer_id) REFERENCES account(account_id),
     FOREIGN KEY (created_by) REFERENCES account(account_id),
 	FOREIGN KEY (challenge_id) REFERENCES challenge(challenge_id),	
-	FOREIGN KEY (transferred_project_id) REFERENCES project(project_id)	
+	FOREIGN KEY (transferred_project_id) REFERENCES project(project_id),
+    INDEX idx_donation_project_created (project_id, created_at, donation_id),
+    INDEX idx_donation_transferred_project_created (transferred_project_id, created_at, donation_id)
 );
 
 
@@ -275,6 +277,56 @@ CREATE TABLE sponsor (
 
 );
 
+CREATE TABLE project_donation_ledger (
+    project_id 					BIGINT PRIMARY KEY,
+    total_donation 				DECIMAL(20,2) NOT NULL DEFAULT 0,
+    donation_count 				BIGINT NOT NULL DEFAULT 0,
+    last_donation_at 			DATETIME,
+    updated_at 					DATETIME,
+	FOREIGN KEY (project_id) REFERENCES project(project_id)
+);
+
+CREATE TABLE donation_daily_stats (
+    stat_date 					DATE NOT NULL,
+    campaign_id 				BIGINT NOT NULL,
+    total_donation 				DECIMAL(20,2) NOT NULL DEFAULT 0,
+    donation_count 				BIGINT NOT NULL DEFAULT 0,
+    wrong_donation_total 		DECIMAL(20,2) NOT NULL DEFAULT 0,
+    updated_at 					DATETIME,
+    PRIMARY KEY (stat_date, campaign_id)
+);
+
+CREATE TABLE casso_sync_cursor (
+    cursor_name 				VARCHAR(50) PRIMARY KEY,
+    last_transaction_id 		BIGINT,
+    last_transaction_at 		DATETIME,
+    from_date 					DATE,
+    last_page 					INT,
+    page_size 					INT,
+    updated_at 					DATETIME
+);
+
+CREATE TABLE casso_inbox (
+    inbox_id 					BIGINT AUTO_INCREMENT PRIMARY KEY,
+    casso_id 					BIGINT UNIQUE,
+    payload 					TEXT NOT NULL,
+    status 						VARCHAR(20) NOT NULL,
+    attempts 					INT NOT NULL DEFAULT 0,
+    next_attempt_at 			DATETIME,
+    outcome 					VARCHAR(20),
+    last_error 					NVARCHAR(1000),
+    claimed_by 					VARCHAR(64),
+    claimed_at 					DATETIME,
+    received_at 				DATETIME,
+    processed_at 				DATETIME,
+    INDEX idx_casso_inbox_status_next_attempt (status, next_attempt_at)
+);
+
+CREATE TABLE startup_seed (
+    seed_name 					VARCHAR(50) PRIMARY KEY,
+    seeded_at 					DATETIME
+);
+
 INSERT INTO campaign (title, slug, description, thumbnail, created_at, updated_at, is_active) VALUES  (
     N'Góp lẻ xây nhà','1-gop-le-xay-nha',
     N'Tiền lẻ của bạn có thể góp sức xây thêm hàng nghìn căn nhà hạnh phúc để các em nhỏ mồ côi thuộc các dân tộc thiểu số có được một mái nhà an toàn hơn, sạch sẽ hơn.',
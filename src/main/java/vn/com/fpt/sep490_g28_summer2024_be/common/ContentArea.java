@@ -0,0 +1,12 @@
+package vn.com.fpt.sep490_g28_summer2024_be.common;
+
+/**
+ * Groups of tables whose version decides whether a public read is still fresh.
+ */
+public enum ContentArea {
+    PROJECTS,
+    DONATIONS,
+    CAMPAIGNS,
+    NEWS,
+    ACCOUNTS
+}
@@ -0,0 +1,8 @@
+package vn.com.fpt.sep490_g28_summer2024_be.common;
+
+public enum RoutingCodeType {
+    PROJECT,
+    CHALLENGE,
+    REFER,
+    ACCOUNT
+}
@@ -0,0 +1,16 @@
+package vn.com.fpt.sep490_g28_summer2024_be.common;
+
+/**
+ * Order of the {@code ApplicationReadyEvent} listeners that depend on each other. Tables derived
+ * from donations are seeded first, the in-memory indexes load from them, and only then does
+ * anything start ingesting transfers.
+ */
+public final class StartupOrder {
+
+    public static final int SEED = 100;
+    public static final int INDEX = 200;
+    public static final int INGEST = 300;
+
+    private StartupOrder() {
+    }
+}
@@ -0,0 +1,7 @@
+package vn.com.fpt.sep490_g28_summer2024_be.common;
+
+public enum SuggestType {
+    PROJECT,
+    CHALLENGE,
+    AMBASSADOR
+}
@@ -1,16 +1,35 @@
 package vn.com.fpt.sep490_g28_summer2024_be.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.StripedExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    /**
+     * Runs the scheduled jobs. Declared here because the WebSocket broker registers a scheduler of its
+     * own, which would otherwise pick them up.
+     */
+    @Bean("taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("Scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+
     @Bean("emailExecutor")
     public Executor emailExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -48,4 +67,51 @@ public class AsyncConfig {
         return executor;
     }
 
+    @Bean("cassoSyncExecutor")
+    public Executor cassoSyncExecutor(@Value("${casso.sync.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(concurrency * 2);
+        executor.setThreadNamePrefix("CassoSync-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("cassoInboxExecutor")
+    public Executor cassoInboxExecutor(@Value("${casso.inbox.workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 2);
+        executor.setThreadNamePrefix("CassoInbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "donationStripedExecutor", destroyMethod = "close")
+    public StripedExecutor donationStripedExecutor(@Value("${casso.stripes:8}") int stripes) {
+        return new StripedExecutor(stripes, "DonationLane-");
+    }
+
+    /**
+     * One virtual thread per dashboard query; they mostly wait on the database.
+     */
+    @Bean(name = "dashboardExecutor", destroyMethod = "close")
+    public ExecutorService dashboardExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Dashboard-", 0).factory());
+    }
+
+    /**
+     * Writes to progress streams; a client that stops reading blocks only its own virtual thread.
+     */
+    @Bean(name = "progressStreamExecutor", destroyMethod = "close")
+    public ExecutorService progressStreamExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ProgressStream-", 0).factory());
+    }
+
 }
@@ -11,7 +11,8 @@ public class OkHttpClientConfig {
     @Bean
     public OkHttpClient okHttpClient() {
         HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+        logging.setLevel(HttpLoggingInterceptor.Level.HEADERS);
+        logging.redactHeader("Authorization");
 
         return new OkHttpClient.Builder()
                 .addInterceptor(logging)
@@ -0,0 +1,91 @@
+package vn.com.fpt.sep490_g28_summer2024_be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.regex.Pattern;
+
+/**
+ * STOMP endpoint of the live donation feed. Clients may only subscribe to the project, campaign and
+ * challenge topics; only the server sends. Outbound frames go through a bounded pool, and a session
+ * that falls behind the send time or buffer limit is closed instead of holding messages back.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private static final Pattern FEED_TOPIC = Pattern.compile("^/topic/(projects|campaigns|challenges)/\\d+$");
+
+    @Value("${feed.allowed-origins:*}")
+    private String[] allowedOrigins;
+
+    @Value("${feed.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${feed.send-buffer-size-kb:256}")
+    private int sendBufferSizeKb;
+
+    @Value("${feed.outbound-threads:4}")
+    private int outboundThreads;
+
+    @Value("${feed.outbound-queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeKb * 1024)
+                .setMessageSizeLimit(8 * 1024);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null) return message;
+                if (StompCommand.SEND.equals(accessor.getCommand())) {
+                    throw new MessagingException(message, "The donation feed is read-only");
+                }
+                if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                        && (accessor.getDestination() == null || !FEED_TOPIC.matcher(accessor.getDestination()).matches())) {
+                    throw new MessagingException(message, "Unknown topic " + accessor.getDestination());
+                }
+                return message;
+            }
+        });
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads)
+                .queueCapacity(outboundQueueCapacity);
+    }
+}
@@ -0,0 +1,33 @@
+package vn.com.fpt.sep490_g28_summer2024_be.cron;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoInboxService;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CassoInboxCron {
+
+    private final CassoInboxService cassoInboxService;
+
+    @Scheduled(fixedDelayString = "${casso.inbox.poll-interval:500}")
+    public void drainCassoInbox() {
+        try {
+            cassoInboxService.drain();
+        } catch (RuntimeException e) {
+            log.error("Casso inbox drain failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${casso.inbox.lease-check-interval:60000}")
+    public void releaseExpiredCassoInboxClaims() {
+        try {
+            cassoInboxService.releaseExpiredClaims();
+        } catch (RuntimeException e) {
+            log.error("Casso inbox lease check failed", e);
+        }
+    }
+}
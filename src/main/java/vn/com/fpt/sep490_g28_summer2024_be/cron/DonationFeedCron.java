@@ -0,0 +1,35 @@
+package vn.com.fpt.sep490_g28_summer2024_be.cron;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.DonationFeedService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.ProjectProgressService;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DonationFeedCron {
+
+    private final DonationFeedService donationFeedService;
+    private final ProjectProgressService projectProgressService;
+
+    @Scheduled(fixedDelayString = "${feed.flush-interval-ms:250}")
+    public void flushDonationFeed() {
+        try {
+            donationFeedService.flush();
+        } catch (RuntimeException e) {
+            log.error("Donation feed flush failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${progress.heartbeat-ms:15000}")
+    public void sendProgressHeartbeats() {
+        try {
+            projectProgressService.heartbeat();
+        } catch (RuntimeException e) {
+            log.error("Progress stream heartbeat failed", e);
+        }
+    }
+}
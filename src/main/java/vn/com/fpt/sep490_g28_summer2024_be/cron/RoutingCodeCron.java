@@ -0,0 +1,26 @@
+package vn.com.fpt.sep490_g28_summer2024_be.cron;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeService;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RoutingCodeCron {
+
+    private final RoutingCodeService routingCodeService;
+
+    @Scheduled(fixedDelayString = "${routing.version-check-ms:10000}")
+    public void reloadChangedRoutingCodes() {
+        try {
+            if (routingCodeService.reloadIfChanged()) {
+                log.info("Routing codes changed since the last load, reloaded");
+            }
+        } catch (RuntimeException e) {
+            log.error("Routing code version check failed", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package vn.com.fpt.sep490_g28_summer2024_be.cron;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.SnapshotCacheService;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SnapshotCacheCron {
+
+    private final SnapshotCacheService snapshotCacheService;
+
+    @Scheduled(fixedDelayString = "${snapshot.refresh-interval-ms:1000}")
+    public void refreshSnapshots() {
+        try {
+            snapshotCacheService.refresh();
+        } catch (RuntimeException e) {
+            log.error("Snapshot cache refresh failed", e);
+        }
+    }
+}
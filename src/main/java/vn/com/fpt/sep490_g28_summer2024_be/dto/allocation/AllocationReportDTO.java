@@ -0,0 +1,38 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.allocation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AllocationReportDTO {
+
+    @JsonProperty("checked_at")
+    private LocalDateTime checkedAt;
+
+    @JsonProperty("project_count")
+    private Integer projectCount;
+
+    @JsonProperty("fundable_count")
+    private Integer fundableCount;
+
+    @JsonProperty("mismatch_count")
+    private Integer mismatchCount;
+
+    @JsonProperty("mismatched_project_ids")
+    private List<BigInteger> mismatchedProjectIds;
+
+    @JsonProperty("reloaded")
+    private Boolean reloaded;
+}
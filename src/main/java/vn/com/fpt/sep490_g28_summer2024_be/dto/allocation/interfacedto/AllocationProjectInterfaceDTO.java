@@ -0,0 +1,14 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public interface AllocationProjectInterfaceDTO {
+
+    BigInteger getProjectId();
+    String getCode();
+    BigInteger getCampaignId();
+    Integer getStatus();
+    BigDecimal getGoal();
+    BigDecimal getTotalDonation();
+}
@@ -0,0 +1,9 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto;
+
+import java.math.BigInteger;
+
+public interface ChallengeMembershipInterfaceDTO {
+
+    BigInteger getChallengeId();
+    BigInteger getProjectId();
+}
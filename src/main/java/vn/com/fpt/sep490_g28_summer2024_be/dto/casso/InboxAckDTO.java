@@ -0,0 +1,21 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.casso;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InboxAckDTO {
+    @JsonProperty("accepted")
+    private Integer accepted;
+
+    @JsonProperty("duplicate")
+    private Integer duplicate;
+}
@@ -0,0 +1,44 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.casso;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InboxStatsDTO {
+    @JsonProperty("pending")
+    private Long pending;
+
+    @JsonProperty("processing")
+    private Long processing;
+
+    @JsonProperty("done")
+    private Long done;
+
+    @JsonProperty("dead")
+    private Long dead;
+
+    @JsonProperty("oldest_pending_seconds")
+    private Long oldestPendingSeconds;
+
+    @JsonProperty("processed_since_start")
+    private Long processedSinceStart;
+
+    @JsonProperty("retried_since_start")
+    private Long retriedSinceStart;
+
+    @JsonProperty("dead_since_start")
+    private Long deadSinceStart;
+
+    @JsonProperty("last_drain_at")
+    private LocalDateTime lastDrainAt;
+}
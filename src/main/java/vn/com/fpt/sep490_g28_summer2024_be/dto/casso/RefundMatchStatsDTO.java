@@ -0,0 +1,37 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.casso;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RefundMatchStatsDTO {
+    @JsonProperty("lookups")
+    private Long lookups;
+
+    @JsonProperty("token_hits")
+    private Long tokenHits;
+
+    @JsonProperty("fallback_hits")
+    private Long fallbackHits;
+
+    @JsonProperty("misses")
+    private Long misses;
+
+    @JsonProperty("token_hit_rate")
+    private Double tokenHitRate;
+
+    @JsonProperty("fallback_hit_rate")
+    private Double fallbackHitRate;
+
+    @JsonProperty("miss_rate")
+    private Double missRate;
+
+    @JsonProperty("fallback_window")
+    private Integer fallbackWindow;
+}
@@ -0,0 +1,49 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.casso;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SeenFilterStatsDTO {
+    @JsonProperty("ready")
+    private Boolean ready;
+
+    @JsonProperty("expected_insertions")
+    private Long expectedInsertions;
+
+    @JsonProperty("approximate_insertions")
+    private Long approximateInsertions;
+
+    @JsonProperty("expected_fpp")
+    private Double expectedFpp;
+
+    @JsonProperty("recent_size")
+    private Integer recentSize;
+
+    @JsonProperty("checks")
+    private Long checks;
+
+    @JsonProperty("definitely_new")
+    private Long definitelyNew;
+
+    @JsonProperty("recent_hits")
+    private Long recentHits;
+
+    @JsonProperty("db_checks")
+    private Long dbChecks;
+
+    @JsonProperty("false_positives")
+    private Long falsePositives;
+
+    @JsonProperty("skip_rate")
+    private Double skipRate;
+
+    @JsonProperty("false_positive_rate")
+    private Double falsePositiveRate;
+}
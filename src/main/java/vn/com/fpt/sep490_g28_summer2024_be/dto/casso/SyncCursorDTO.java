@@ -0,0 +1,36 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.casso;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SyncCursorDTO {
+    @JsonProperty("last_transaction_id")
+    private Long lastTransactionId;
+
+    @JsonProperty("last_transaction_at")
+    private LocalDateTime lastTransactionAt;
+
+    @JsonProperty("from_date")
+    private LocalDate fromDate;
+
+    @JsonProperty("last_page")
+    private Integer lastPage;
+
+    @JsonProperty("page_size")
+    private Integer pageSize;
+
+    @JsonProperty("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,53 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.casso;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SyncProgressDTO {
+    @JsonProperty("running")
+    private Boolean running;
+
+    @JsonProperty("started_at")
+    private LocalDateTime startedAt;
+
+    @JsonProperty("finished_at")
+    private LocalDateTime finishedAt;
+
+    @JsonProperty("total_pages")
+    private Integer totalPages;
+
+    @JsonProperty("pages_processed")
+    private Long pagesProcessed;
+
+    @JsonProperty("records_processed")
+    private Long recordsProcessed;
+
+    @JsonProperty("records_created")
+    private Long recordsCreated;
+
+    @JsonProperty("records_skipped")
+    private Long recordsSkipped;
+
+    @JsonProperty("pages_per_second")
+    private Double pagesPerSecond;
+
+    @JsonProperty("records_per_second")
+    private Double recordsPerSecond;
+
+    @JsonProperty("last_record_at")
+    private LocalDateTime lastRecordAt;
+
+    @JsonProperty("lag_seconds")
+    private Long lagSeconds;
+}
@@ -0,0 +1,32 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.casso;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.com.fpt.sep490_g28_summer2024_be.common.IngestStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.DonationResponseDTO;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionResultDTO {
+    @JsonProperty("id")
+    private Long id;
+
+    @JsonProperty("tid")
+    private String tid;
+
+    @JsonProperty("status")
+    private IngestStatus status;
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("donation")
+    private DonationResponseDTO donation;
+}
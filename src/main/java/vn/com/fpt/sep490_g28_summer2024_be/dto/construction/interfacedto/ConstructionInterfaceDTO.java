@@ -0,0 +1,13 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.construction.interfacedto;
+
+import java.math.BigInteger;
+
+public interface ConstructionInterfaceDTO {
+
+    BigInteger getConstructionId();
+    BigInteger getProjectId();
+    String getTitle();
+    Integer getQuantity();
+    String getUnit();
+    String getNote();
+}
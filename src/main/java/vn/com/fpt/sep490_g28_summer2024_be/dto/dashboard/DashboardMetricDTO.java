@@ -0,0 +1,26 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.com.fpt.sep490_g28_summer2024_be.common.MetricStatus;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardMetricDTO {
+
+    @JsonProperty("status")
+    private MetricStatus status;
+
+    @JsonProperty("elapsed_ms")
+    private Long elapsedMs;
+
+    @JsonProperty("error")
+    private String error;
+}
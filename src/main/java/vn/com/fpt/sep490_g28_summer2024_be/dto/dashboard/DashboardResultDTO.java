@@ -0,0 +1,28 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DashboardResultDTO {
+
+    /**
+     * Metric values by response key. A failed metric maps to null, a stale one to its last good value.
+     */
+    @JsonProperty("values")
+    private Map<String, Object> values;
+
+    @JsonProperty("metrics")
+    private Map<String, DashboardMetricDTO> metrics;
+
+    @JsonProperty("elapsed_ms")
+    private Long elapsedMs;
+}
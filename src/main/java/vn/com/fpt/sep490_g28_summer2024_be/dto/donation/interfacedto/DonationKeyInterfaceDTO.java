@@ -0,0 +1,9 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.donation.interfacedto;
+
+import java.math.BigInteger;
+
+public interface DonationKeyInterfaceDTO {
+
+    BigInteger getDonationId();
+    String getId();
+}
@@ -0,0 +1,43 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.feed;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.DonationResponseDTO;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DonationFeedFrameDTO {
+
+    @JsonProperty("scope")
+    private String scope;
+
+    @JsonProperty("id")
+    private BigInteger id;
+
+    @JsonProperty("donations")
+    private List<DonationResponseDTO> donations;
+
+    @JsonProperty("donation_count")
+    private Integer donationCount;
+
+    @JsonProperty("amount")
+    private BigDecimal amount;
+
+    @JsonProperty("total_donation")
+    private BigDecimal totalDonation;
+
+    @JsonProperty("sent_at")
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,35 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.feed;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DonationFeedStatsDTO {
+
+    @JsonProperty("published_donations")
+    private Long publishedDonations;
+
+    @JsonProperty("sent_frames")
+    private Long sentFrames;
+
+    @JsonProperty("coalesced_updates")
+    private Long coalescedUpdates;
+
+    @JsonProperty("dropped_updates")
+    private Long droppedUpdates;
+
+    @JsonProperty("failed_frames")
+    private Long failedFrames;
+
+    @JsonProperty("pending_topics")
+    private Integer pendingTopics;
+
+    @JsonProperty("progress_streams")
+    private Integer progressStreams;
+}
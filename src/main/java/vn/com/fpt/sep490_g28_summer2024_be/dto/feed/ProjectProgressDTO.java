@@ -0,0 +1,31 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.feed;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProjectProgressDTO {
+
+    @JsonProperty("project_id")
+    private BigInteger projectId;
+
+    @JsonProperty("target")
+    private BigDecimal target;
+
+    @JsonProperty("total_donation")
+    private BigDecimal totalDonation;
+
+    @JsonProperty("donation_count")
+    private Long donationCount;
+}
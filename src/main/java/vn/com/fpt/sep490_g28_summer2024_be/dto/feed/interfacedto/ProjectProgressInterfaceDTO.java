@@ -0,0 +1,12 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.feed.interfacedto;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public interface ProjectProgressInterfaceDTO {
+
+    BigInteger getProjectId();
+    BigDecimal getTarget();
+    BigDecimal getTotalDonation();
+    Long getDonationCount();
+}
@@ -0,0 +1,26 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ConditionalGetStatsDTO {
+
+    @JsonProperty("endpoint")
+    private String endpoint;
+
+    @JsonProperty("requests")
+    private Long requests;
+
+    @JsonProperty("not_modified")
+    private Long notModified;
+
+    @JsonProperty("not_modified_rate")
+    private Double notModifiedRate;
+}
@@ -0,0 +1,32 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SnapshotCacheStatsDTO {
+
+    @JsonProperty("entries")
+    private Integer entries;
+
+    @JsonProperty("bytes")
+    private Long bytes;
+
+    @JsonProperty("hits")
+    private Long hits;
+
+    @JsonProperty("misses")
+    private Long misses;
+
+    @JsonProperty("bypassed")
+    private Long bypassed;
+
+    @JsonProperty("rebuilds")
+    private Long rebuilds;
+}
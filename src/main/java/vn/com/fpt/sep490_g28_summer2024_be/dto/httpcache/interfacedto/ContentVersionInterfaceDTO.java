@@ -0,0 +1,9 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto;
+
+import java.time.LocalDateTime;
+
+public interface ContentVersionInterfaceDTO {
+
+    String getVersion();
+    LocalDateTime getLastModified();
+}
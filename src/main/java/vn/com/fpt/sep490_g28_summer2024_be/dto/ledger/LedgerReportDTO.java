@@ -0,0 +1,32 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.ledger;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ledger.interfacedto.LedgerDriftInterfaceDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerReportDTO {
+
+    @JsonProperty("checked_at")
+    private LocalDateTime checkedAt;
+
+    @JsonProperty("drift_count")
+    private Integer driftCount;
+
+    @JsonProperty("drifts")
+    private List<LedgerDriftInterfaceDTO> drifts;
+
+    @JsonProperty("rebuilt_projects")
+    private Integer rebuiltProjects;
+}
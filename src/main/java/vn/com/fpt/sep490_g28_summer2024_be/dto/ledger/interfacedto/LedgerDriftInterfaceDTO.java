@@ -0,0 +1,13 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.ledger.interfacedto;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public interface LedgerDriftInterfaceDTO {
+
+    BigInteger getProjectId();
+    BigDecimal getExpectedTotal();
+    BigDecimal getLedgerTotal();
+    Long getExpectedCount();
+    Long getLedgerCount();
+}
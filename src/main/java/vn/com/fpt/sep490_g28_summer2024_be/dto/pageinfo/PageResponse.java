@@ -20,4 +20,6 @@ public class PageResponse<T> {
     Integer limit;
     Integer offset;
     Integer total;
+    String nextCursor;
+    Boolean hasMore;
 }
@@ -0,0 +1,10 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto;
+
+import java.math.BigInteger;
+
+public interface ProjectImageInterfaceDTO {
+
+    BigInteger getProjectId();
+    BigInteger getProjectImageId();
+    String getImage();
+}
@@ -8,6 +8,7 @@ public interface ProjectInterfaceDTO {
     BigInteger getProjectId();
     String getTitle();
     String getCode();
+    String getSlug();
     BigInteger getCampaignId();
     String getCampaignTitle();
     String getAddress();
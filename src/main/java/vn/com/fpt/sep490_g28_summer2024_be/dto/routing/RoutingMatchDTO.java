@@ -0,0 +1,20 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigInteger;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RoutingMatchDTO {
+    private List<BigInteger> projectIds;
+    private BigInteger challengeId;
+    private BigInteger referAccountId;
+    private BigInteger accountId;
+}
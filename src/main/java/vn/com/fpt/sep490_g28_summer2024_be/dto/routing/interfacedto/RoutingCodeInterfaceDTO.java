@@ -0,0 +1,12 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.routing.interfacedto;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+
+public interface RoutingCodeInterfaceDTO {
+
+    BigInteger getId();
+    String getCode();
+    String getReferCode();
+    LocalDate getFinishedAt();
+}
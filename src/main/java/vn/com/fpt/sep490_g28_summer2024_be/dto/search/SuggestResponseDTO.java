@@ -0,0 +1,25 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SuggestResponseDTO {
+
+    /**
+     * The query as received, so a client typing ahead can drop answers to keystrokes it has moved past.
+     */
+    @JsonProperty("query")
+    private String query;
+
+    @JsonProperty("suggestions")
+    private List<SuggestionDTO> suggestions;
+}
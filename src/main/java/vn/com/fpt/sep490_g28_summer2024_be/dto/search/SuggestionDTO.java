@@ -0,0 +1,29 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SuggestType;
+
+import java.math.BigInteger;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SuggestionDTO {
+
+    @JsonProperty("type")
+    private SuggestType type;
+
+    @JsonProperty("id")
+    private BigInteger id;
+
+    @JsonProperty("code")
+    private String code;
+
+    @JsonProperty("title")
+    private String title;
+}
@@ -0,0 +1,10 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto;
+
+import java.math.BigInteger;
+
+public interface SuggestInterfaceDTO {
+
+    BigInteger getId();
+    String getCode();
+    String getTitle();
+}
@@ -0,0 +1,25 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.statistics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DailyStatsReportDTO {
+
+    @JsonProperty("rebuilt_at")
+    private LocalDateTime rebuiltAt;
+
+    @JsonProperty("rows")
+    private Integer rows;
+
+    @JsonProperty("elapsed_ms")
+    private Long elapsedMs;
+}
@@ -0,0 +1,32 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.statistics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StatisticsCacheStatsDTO {
+
+    @JsonProperty("hits")
+    private Long hits;
+
+    @JsonProperty("misses")
+    private Long misses;
+
+    @JsonProperty("hit_ratio")
+    private Double hitRatio;
+
+    @JsonProperty("closed_entries")
+    private Long closedEntries;
+
+    @JsonProperty("current_entries")
+    private Long currentEntries;
+
+    @JsonProperty("invalidations")
+    private Long invalidations;
+}
@@ -0,0 +1,9 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.interfacedto;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+
+public interface DailyStatsKeyInterfaceDTO {
+    LocalDate getStatDate();
+    BigInteger getCampaignId();
+}
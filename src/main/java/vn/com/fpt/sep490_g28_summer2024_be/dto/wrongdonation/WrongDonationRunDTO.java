@@ -0,0 +1,34 @@
+package vn.com.fpt.sep490_g28_summer2024_be.dto.wrongdonation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class WrongDonationRunDTO {
+
+    @JsonProperty("started_at")
+    private LocalDateTime startedAt;
+
+    @JsonProperty("pages")
+    private Integer pages;
+
+    @JsonProperty("scanned")
+    private Integer scanned;
+
+    @JsonProperty("reassigned")
+    private Integer reassigned;
+
+    @JsonProperty("still_pending")
+    private Long stillPending;
+
+    @JsonProperty("elapsed_ms")
+    private Long elapsedMs;
+}
@@ -8,6 +8,8 @@ import jakarta.validation.constraints.Pattern;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.hibernate.validator.constraints.Length;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeEntityListener;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexEntityListener;
 
 import java.math.BigInteger;
 import java.time.LocalDate;
@@ -15,6 +17,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "account")
+@EntityListeners({RoutingCodeEntityListener.class, SearchIndexEntityListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
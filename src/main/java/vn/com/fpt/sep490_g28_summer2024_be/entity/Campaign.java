@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.hibernate.validator.constraints.Length;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexEntityListener;
 
 import java.math.BigInteger;
 import java.time.LocalDate;
@@ -12,6 +13,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "campaign")
+@EntityListeners(SearchIndexEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
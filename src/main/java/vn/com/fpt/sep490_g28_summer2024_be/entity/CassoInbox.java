@@ -0,0 +1,64 @@
+package vn.com.fpt.sep490_g28_summer2024_be.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.com.fpt.sep490_g28_summer2024_be.common.InboxStatus;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+/**
+ * Webhook transaction accepted from Casso and waiting to be, or already, turned into a donation.
+ */
+@Entity
+@Table(name = "casso_inbox", indexes = {
+        @Index(name = "idx_casso_inbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CassoInbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "inbox_id", columnDefinition = "BIGINT")
+    private BigInteger inboxId;
+
+    @Column(name = "casso_id", columnDefinition = "BIGINT", unique = true)
+    private Long cassoId;
+
+    @Column(name = "payload", columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", columnDefinition = "VARCHAR(20)", nullable = false)
+    private InboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", columnDefinition = "DATETIME")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "outcome", columnDefinition = "VARCHAR(20)")
+    private String outcome;
+
+    @Column(name = "last_error", columnDefinition = "NVARCHAR(1000)")
+    private String lastError;
+
+    @Column(name = "claimed_by", columnDefinition = "VARCHAR(64)")
+    private String claimedBy;
+
+    @Column(name = "claimed_at", columnDefinition = "DATETIME")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "received_at", columnDefinition = "DATETIME")
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at", columnDefinition = "DATETIME")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,45 @@
+package vn.com.fpt.sep490_g28_summer2024_be.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Position reached by the Casso catch-up sync: the last transaction ingested and the page of the
+ * {@code fromDate} listing it came from.
+ */
+@Entity
+@Table(name = "casso_sync_cursor")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CassoSyncCursor {
+
+    @Id
+    @Column(name = "cursor_name", length = 50)
+    private String cursorName;
+
+    @Column(name = "last_transaction_id", columnDefinition = "BIGINT")
+    private Long lastTransactionId;
+
+    @Column(name = "last_transaction_at", columnDefinition = "DATETIME")
+    private LocalDateTime lastTransactionAt;
+
+    @Column(name = "from_date", columnDefinition = "DATE")
+    private LocalDate fromDate;
+
+    @Column(name = "last_page")
+    private Integer lastPage;
+
+    @Column(name = "page_size")
+    private Integer pageSize;
+
+    @Column(name = "updated_at", columnDefinition = "DATETIME")
+    private LocalDateTime updatedAt;
+}
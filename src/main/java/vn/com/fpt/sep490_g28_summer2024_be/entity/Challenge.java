@@ -7,6 +7,8 @@ import jakarta.validation.constraints.PastOrPresent;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import org.hibernate.validator.constraints.Length;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeEntityListener;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexEntityListener;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -16,6 +18,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "challenge")
+@EntityListeners({RoutingCodeEntityListener.class, SearchIndexEntityListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -3,11 +3,13 @@ package vn.com.fpt.sep490_g28_summer2024_be.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationEntityListener;
 
 import java.math.BigInteger;
 
 @Entity
 @Table(name = "challenge_project")
+@EntityListeners(ProjectAllocationEntityListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
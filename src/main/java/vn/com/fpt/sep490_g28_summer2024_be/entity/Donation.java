@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Length;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.SeenTransactionEntityListener;
 
 
 import java.math.BigDecimal;
@@ -13,7 +14,11 @@ import java.math.BigInteger;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "donation")
+@Table(name = "donation", indexes = {
+        @Index(name = "idx_donation_project_created", columnList = "project_id, created_at, donation_id"),
+        @Index(name = "idx_donation_transferred_project_created", columnList = "transferred_project_id, created_at, donation_id")
+})
+@EntityListeners(SeenTransactionEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,38 @@
+package vn.com.fpt.sep490_g28_summer2024_be.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Donation totals per day and campaign, kept in step with the donation table so that dashboard
+ * statistics read a few rows per day instead of scanning every donation.
+ */
+@Entity
+@Table(name = "donation_daily_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DonationDailyStats {
+
+    @EmbeddedId
+    private DonationDailyStatsId id;
+
+    @Column(name = "total_donation", columnDefinition = "DECIMAL(20,2)", nullable = false)
+    private BigDecimal totalDonation;
+
+    @Column(name = "donation_count", columnDefinition = "BIGINT", nullable = false)
+    private Long donationCount;
+
+    @Column(name = "wrong_donation_total", columnDefinition = "DECIMAL(20,2)", nullable = false)
+    private BigDecimal wrongDonationTotal;
+
+    @Column(name = "updated_at", columnDefinition = "DATETIME")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package vn.com.fpt.sep490_g28_summer2024_be.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DonationDailyStatsId implements Serializable {
+
+    @Column(name = "stat_date", columnDefinition = "DATE", nullable = false)
+    private LocalDate statDate;
+
+    /**
+     * Campaign of the project the donation counts toward, 0 when it has none.
+     */
+    @Column(name = "campaign_id", columnDefinition = "BIGINT", nullable = false)
+    private BigInteger campaignId;
+}
@@ -6,12 +6,14 @@
     import lombok.*;
     import lombok.experimental.FieldDefaults;
     import org.hibernate.validator.constraints.Length;
+    import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexEntityListener;
 
     import java.math.BigInteger;
     import java.time.LocalDateTime;
 
     @Entity
     @Table(name = "news")
+    @EntityListeners(SearchIndexEntityListener.class)
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
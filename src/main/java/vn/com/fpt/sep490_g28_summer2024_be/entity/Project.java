@@ -9,6 +9,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.validator.constraints.Length;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationEntityListener;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeEntityListener;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexEntityListener;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -17,6 +20,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "project")
+@EntityListeners({RoutingCodeEntityListener.class, ProjectAllocationEntityListener.class, SearchIndexEntityListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -118,6 +122,19 @@ public class Project {
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.MERGE, mappedBy = "transferredProject")
     private List<Donation> transferredDonations;
 
+    @PrePersist
+    void onCreate() {
+        if (updatedAt == null) {
+            updatedAt = LocalDateTime.now();
+        }
+    }
+
+    // Mọi lần ghi dự án (đổi trạng thái, nhà tài trợ đổi số tiền cần huy động...) đều phải đổi updated_at
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     @Override
     public String toString() {
         return "Project{" +
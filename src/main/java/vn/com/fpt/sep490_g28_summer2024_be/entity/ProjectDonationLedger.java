@@ -0,0 +1,40 @@
+package vn.com.fpt.sep490_g28_summer2024_be.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+
+/**
+ * Running donation total of a project, kept in step with the donation table so that
+ * project listings do not have to aggregate every donation on each read.
+ */
+@Entity
+@Table(name = "project_donation_ledger")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectDonationLedger {
+
+    @Id
+    @Column(name = "project_id", columnDefinition = "BIGINT")
+    private BigInteger projectId;
+
+    @Column(name = "total_donation", columnDefinition = "DECIMAL(20,2)", nullable = false)
+    private BigDecimal totalDonation;
+
+    @Column(name = "donation_count", columnDefinition = "BIGINT", nullable = false)
+    private Long donationCount;
+
+    @Column(name = "last_donation_at", columnDefinition = "DATETIME")
+    private LocalDateTime lastDonationAt;
+
+    @Column(name = "updated_at", columnDefinition = "DATETIME")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package vn.com.fpt.sep490_g28_summer2024_be.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a table derived from donations as seeded, so the one-off backfill runs exactly once
+ * however many rows writers added before it.
+ */
+@Entity
+@Table(name = "startup_seed")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StartupSeed {
+
+    @Id
+    @Column(name = "seed_name", length = 50)
+    private String seedName;
+
+    @Column(name = "seeded_at", columnDefinition = "DATETIME")
+    private LocalDateTime seededAt;
+}
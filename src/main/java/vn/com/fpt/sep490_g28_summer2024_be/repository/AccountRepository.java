@@ -7,6 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.account.client.interfacedto.AmbassadorInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.account.client.interfacedto.TopAmbassadorInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.interfacedto.RoutingCodeInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SuggestInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
 
 import java.math.BigDecimal;
@@ -196,6 +199,42 @@ public interface AccountRepository extends JpaRepository<Account, BigInteger> {
             """, nativeQuery = true)
     Account findAccountByDescription(@Param("description") String description);
 
+    @Query(value = """
+            SELECT a.account_id AS id,
+                   a.code,
+                   a.refer_code AS referCode,
+                   NULL AS finishedAt
+            FROM account a
+            WHERE (a.code IS NOT NULL OR a.refer_code IS NOT NULL)
+              AND (a.is_active IS NULL OR a.is_active = TRUE)
+            """, nativeQuery = true)
+    List<RoutingCodeInterfaceDTO> findActiveRoutingCodes();
+
+    @Query(value = """
+            SELECT CONCAT_WS('.', COUNT(*), IFNULL(SUM(CRC32(CONCAT_WS(':', a.account_id, a.code, a.refer_code))), 0))
+            FROM account a
+            WHERE (a.code IS NOT NULL OR a.refer_code IS NOT NULL)
+              AND (a.is_active IS NULL OR a.is_active = TRUE)
+            """, nativeQuery = true)
+    String findRoutingCodeVersion();
+
+    @Query(value = """
+            SELECT a.account_id AS id,
+                   a.code,
+                   a.fullname AS title
+            FROM account a
+            WHERE a.role_id = 4
+              AND (a.is_active IS NULL OR a.is_active = TRUE)
+            """, nativeQuery = true)
+    List<SuggestInterfaceDTO> findAmbassadorSuggestEntries();
+
+    @Query(value = """
+            SELECT CONCAT_WS('.', COUNT(*), IFNULL(MAX(a.account_id), 0), IFNULL(MAX(a.updated_at), '')) AS version,
+                   MAX(a.updated_at) AS lastModified
+            FROM account a
+            """, nativeQuery = true)
+    ContentVersionInterfaceDTO findContentVersion();
+
     @Query(value = """
             SELECT *
             FROM account a
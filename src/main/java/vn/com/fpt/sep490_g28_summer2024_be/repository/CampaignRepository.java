@@ -6,8 +6,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsByCampaignInterfaceDTO;
-import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SearchTitleInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
 
 import java.math.BigInteger;
@@ -37,37 +37,47 @@ public interface CampaignRepository extends JpaRepository<Campaign,BigInteger> {
                                           @Param("is_active") Boolean is_active,
                                           Pageable pageable);
 
-
-    Page<Campaign> findAll(Pageable pageable);
+    @Query(value = """
+    SELECT *
+    FROM campaign
+    WHERE campaign_id IN (:ids)
+    AND (:is_active IS NULL OR is_active = :is_active)
+    ORDER BY FIND_IN_SET(campaign_id, :rank)
+    """, countQuery = """
+    SELECT COUNT(*)
+    FROM campaign
+    WHERE campaign_id IN (:ids)
+    AND (:is_active IS NULL OR is_active = :is_active)
+    """, nativeQuery = true)
+    Page<Campaign> findCampaignsByFiltersInIds(@Param("ids") List<BigInteger> ids,
+                                               @Param("rank") String rank,
+                                               @Param("is_active") Boolean is_active,
+                                               Pageable pageable);
 
     @Query(value = """
-    SELECT c.campaign_id AS id, 
-           c.title AS label, 
-           IFNULL(SUM(d.value), 0) AS value
-    FROM donation d
-    LEFT JOIN project p ON (d.project_id = p.project_id AND d.transferred_project_id IS NULL)
-                       OR d.transferred_project_id = p.project_id
-    LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-    WHERE YEAR(d.created_at) = :year
-      AND MONTH(d.created_at) = :month
-    GROUP BY c.campaign_id, c.title;
+    SELECT campaign_id
+    FROM campaign
+    WHERE campaign_id IN (:ids)
+    AND (:is_active IS NULL OR is_active = :is_active)
     """, nativeQuery = true)
-    List<StatisticsByCampaignInterfaceDTO> getCampaignPieChart(@Param("month") Integer month,
-                                                               @Param("year") Integer year);
+    List<BigInteger> findCampaignIdsInIds(@Param("ids") List<BigInteger> ids,
+                                          @Param("is_active") Boolean is_active);
 
+    @Query(value = "SELECT campaign_id AS id, title FROM campaign", nativeQuery = true)
+    List<SearchTitleInterfaceDTO> findSearchTitles();
 
+    /**
+     * updated_at only holds a date here, so the version also hashes the shown columns; the table is small.
+     */
     @Query(value = """
-    SELECT IFNULL(SUM(d.value), 0) AS totalDonation,
-           COUNT(DISTINCT d.donation_id) AS totalNumberDonations
-    FROM donation d
-    LEFT JOIN project p ON (d.project_id = p.project_id AND d.transferred_project_id IS NULL)
-    				   OR d.transferred_project_id = p.project_id
-    LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-    WHERE (:campaignId IS NULL OR c.campaign_id = :campaignId)
-    AND YEAR(d.created_at) = :year
-    """, nativeQuery = true)
-    StatisticsInterfaceDTO getDonationStaticByCampaign(@Param("campaignId") BigInteger campaignId,
-                                                       @Param("year") Integer year);
+            SELECT CONCAT_WS('.', COUNT(*), IFNULL(MAX(c.campaign_id), 0),
+                             BIT_XOR(CRC32(CONCAT_WS('|', c.title, c.slug, c.description, c.thumbnail, c.is_active, c.updated_at)))) AS version,
+                   NULL AS lastModified
+            FROM campaign c
+            """, nativeQuery = true)
+    ContentVersionInterfaceDTO findContentVersion();
 
 
+    Page<Campaign> findAll(Pageable pageable);
+
 }
@@ -0,0 +1,61 @@
+package vn.com.fpt.sep490_g28_summer2024_be.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.com.fpt.sep490_g28_summer2024_be.common.InboxStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.CassoInbox;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CassoInboxRepository extends JpaRepository<CassoInbox, BigInteger> {
+
+    /**
+     * Appends a webhook transaction; a Casso id already in the inbox is ignored.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO casso_inbox (casso_id, payload, status, attempts, next_attempt_at, received_at)
+            VALUES (:cassoId, :payload, 'PENDING', 0, :now, :now)
+            """, nativeQuery = true)
+    int append(@Param("cassoId") Long cassoId, @Param("payload") String payload, @Param("now") LocalDateTime now);
+
+    // SKIP LOCKED, so several workers can claim disjoint entries
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT i FROM CassoInbox i WHERE i.status = :status AND i.nextAttemptAt <= :now ORDER BY i.inboxId")
+    List<CassoInbox> findDue(@Param("status") InboxStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT i.status, COUNT(i) FROM CassoInbox i GROUP BY i.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("SELECT MIN(i.receivedAt) FROM CassoInbox i WHERE i.status = :status")
+    LocalDateTime findOldestReceivedAt(@Param("status") InboxStatus status);
+
+    /**
+     * Hands back claims whose lease ran out, or that the given owner left behind; a null owner only
+     * releases expired ones. Claims stamped before leases existed count as expired.
+     */
+    @Modifying
+    @Query("""
+            UPDATE CassoInbox i SET i.status = :to
+            WHERE i.status = :from
+              AND (i.claimedBy = :owner OR i.claimedAt IS NULL OR i.claimedAt < :expiredBefore)
+            """)
+    int releaseClaims(@Param("from") InboxStatus from, @Param("to") InboxStatus to,
+                      @Param("owner") String owner, @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    @Modifying
+    @Query("UPDATE CassoInbox i SET i.status = :to, i.attempts = 0, i.nextAttemptAt = :now WHERE i.status = :from")
+    int requeue(@Param("from") InboxStatus from, @Param("to") InboxStatus to, @Param("now") LocalDateTime now);
+}
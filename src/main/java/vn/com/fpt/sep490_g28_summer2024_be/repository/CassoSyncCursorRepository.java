@@ -0,0 +1,53 @@
+package vn.com.fpt.sep490_g28_summer2024_be.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.CassoSyncCursor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Repository
+public interface CassoSyncCursorRepository extends JpaRepository<CassoSyncCursor, String> {
+
+    /**
+     * Moves the listing day forward, restarting at its first page; an earlier day is ignored.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO casso_sync_cursor (cursor_name, from_date, last_page, updated_at)
+            VALUES (:name, :fromDate, 1, NOW())
+            ON DUPLICATE KEY UPDATE
+                last_page = IF(from_date IS NULL OR from_date < VALUES(from_date), 1, last_page),
+                from_date = GREATEST(IFNULL(from_date, VALUES(from_date)), VALUES(from_date)),
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    void advanceFromDate(@Param("name") String name, @Param("fromDate") LocalDate fromDate);
+
+    /**
+     * Records the last page the sync ingested. Only the sync position is written: when a checkpoint
+     * moved the listing to a later day meanwhile, that day and its restart page are kept.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO casso_sync_cursor (cursor_name, last_transaction_id, last_transaction_at, from_date, last_page, page_size, updated_at)
+            VALUES (:name, :lastTransactionId, :lastTransactionAt, :fromDate, :lastPage, :pageSize, :updatedAt)
+            ON DUPLICATE KEY UPDATE
+                last_transaction_id = VALUES(last_transaction_id),
+                last_transaction_at = VALUES(last_transaction_at),
+                last_page = IF(from_date > VALUES(from_date), last_page, VALUES(last_page)),
+                page_size = IF(from_date > VALUES(from_date), page_size, VALUES(page_size)),
+                from_date = GREATEST(IFNULL(from_date, VALUES(from_date)), VALUES(from_date)),
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    void savePage(@Param("name") String name,
+                  @Param("lastTransactionId") Long lastTransactionId,
+                  @Param("lastTransactionAt") LocalDateTime lastTransactionAt,
+                  @Param("fromDate") LocalDate fromDate,
+                  @Param("lastPage") Integer lastPage,
+                  @Param("pageSize") Integer pageSize,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -1,6 +1,8 @@
 package vn.com.fpt.sep490_g28_summer2024_be.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto.ChallengeMembershipInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.ChallengeProject;
 
@@ -9,4 +11,13 @@ import java.util.List;
 
 public interface ChallengeProjectRepository extends JpaRepository<ChallengeProject, BigInteger> {
     List<ChallengeProject> findByChallenge(Challenge challenge);
+
+    @Query(value = """
+            SELECT cp.challenge_id AS challengeId,
+                   cp.project_id AS projectId
+            FROM challenge_project cp
+            WHERE cp.challenge_id IS NOT NULL
+              AND cp.project_id IS NOT NULL
+            """, nativeQuery = true)
+    List<ChallengeMembershipInterfaceDTO> findAllMemberships();
 }
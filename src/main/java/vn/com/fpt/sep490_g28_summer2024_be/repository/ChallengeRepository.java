@@ -6,6 +6,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.challenge.interfacedto.ChallengeInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.interfacedto.RoutingCodeInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SearchTitleInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SuggestInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
 
 import java.math.BigDecimal;
@@ -22,6 +25,31 @@ public interface ChallengeRepository extends JpaRepository<Challenge, BigInteger
             """, nativeQuery = true)
     Challenge findChallengeByDescription(@Param("description") String description);
 
+    @Query(value = """
+            SELECT ch.challenge_id AS id,
+                   ch.challenge_code AS code,
+                   NULL AS referCode,
+                   ch.finished_at AS finishedAt
+            FROM challenge ch
+            WHERE ch.challenge_code IS NOT NULL
+              AND ch.finished_at >= CURRENT_DATE
+            """, nativeQuery = true)
+    List<RoutingCodeInterfaceDTO> findActiveRoutingCodes();
+
+    @Query(value = """
+            SELECT CONCAT_WS('.', COUNT(*), IFNULL(SUM(CRC32(CONCAT_WS(':', ch.challenge_id, ch.challenge_code, ch.finished_at))), 0))
+            FROM challenge ch
+            WHERE ch.challenge_code IS NOT NULL
+              AND ch.finished_at >= CURRENT_DATE
+            """, nativeQuery = true)
+    String findRoutingCodeVersion();
+
+    @Query(value = "SELECT ch.challenge_id AS id, ch.title FROM challenge ch", nativeQuery = true)
+    List<SearchTitleInterfaceDTO> findSearchTitles();
+
+    @Query(value = "SELECT ch.challenge_id AS id, ch.challenge_code AS code, ch.title FROM challenge ch", nativeQuery = true)
+    List<SuggestInterfaceDTO> findSuggestEntries();
+
     @Query(value = """
     SELECT ch.challenge_id as challengeId,
            ch.challenge_code as challengeCode,
@@ -67,6 +95,70 @@ public interface ChallengeRepository extends JpaRepository<Challenge, BigInteger
             Pageable pageable
     );
 
+    @Query(value = """
+    SELECT ch.challenge_id as challengeId,
+           ch.challenge_code as challengeCode,
+           ch.title,
+           ch.slug,
+           ch.thumbnail,
+           ch.content,
+           ch.goal,
+           a.account_id as accountId,
+           a.fullname,
+           a.code,
+           a.avatar,
+           ch.created_at as createdAt,
+           ch.finished_at as finishedAt,
+           IFNULL(SUM(d.value), 0) as totalDonation
+    FROM challenge ch
+    LEFT JOIN donation d ON d.challenge_id = ch.challenge_id
+    LEFT JOIN account a ON a.account_id = ch.created_by
+    WHERE ch.challenge_id IN (:ids)
+    AND (:year IS NULL OR YEAR(ch.created_at) = :year)
+    GROUP BY ch.challenge_id, ch.challenge_code, ch.title, ch.slug, ch.thumbnail, ch.content, ch.goal,
+             a.account_id, a.fullname, a.code, a.avatar, ch.created_at, ch.finished_at
+    HAVING (:minTotalDonation IS NULL OR COALESCE(SUM(d.value), 0) >= :minTotalDonation)
+    AND    (:maxTotalDonation IS NULL OR COALESCE(SUM(d.value), 0) <= :maxTotalDonation)
+    ORDER BY FIND_IN_SET(ch.challenge_id, :rank)
+    """, countQuery = """
+    SELECT COUNT(*)
+    FROM (
+        SELECT c.challenge_id
+        FROM challenge c
+        LEFT JOIN donation d ON c.challenge_id = d.challenge_id
+        WHERE c.challenge_id IN (:ids)
+        AND (:year IS NULL OR YEAR(c.created_at) = :year)
+        GROUP BY c.challenge_id
+        HAVING (:minTotalDonation IS NULL OR COALESCE(SUM(d.value), 0) >= :minTotalDonation)
+               AND (:maxTotalDonation IS NULL OR COALESCE(SUM(d.value), 0) <= :maxTotalDonation)
+    ) AS count_query
+    """, nativeQuery = true)
+    Page<ChallengeInterfaceDTO> findChallengesByFiltersInIds(
+            @Param("ids") List<BigInteger> ids,
+            @Param("rank") String rank,
+            @Param("year") Integer year,
+            @Param("minTotalDonation") BigDecimal minDonate,
+            @Param("maxTotalDonation") BigDecimal maxDonate,
+            Pageable pageable
+    );
+
+    @Query(value = """
+    SELECT c.challenge_id
+    FROM challenge c
+    LEFT JOIN donation d ON c.challenge_id = d.challenge_id
+    WHERE c.challenge_id IN (:ids)
+    AND (:year IS NULL OR YEAR(c.created_at) = :year)
+    GROUP BY c.challenge_id
+    HAVING (:minTotalDonation IS NULL OR COALESCE(SUM(d.value), 0) >= :minTotalDonation)
+           AND (:maxTotalDonation IS NULL OR COALESCE(SUM(d.value), 0) <= :maxTotalDonation)
+    """, nativeQuery = true)
+    List<BigInteger> findChallengeIdsByFiltersInIds(
+            @Param("ids") List<BigInteger> ids,
+            @Param("year") Integer year,
+            @Param("minTotalDonation") BigDecimal minDonate,
+            @Param("maxTotalDonation") BigDecimal maxDonate
+    );
+
     @Query(value = """
     SELECT ch.challenge_id as challengeId,
            ch.challenge_code as challengeCode,
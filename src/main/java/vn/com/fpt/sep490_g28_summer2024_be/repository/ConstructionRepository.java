@@ -1,9 +1,27 @@
 package vn.com.fpt.sep490_g28_summer2024_be.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.construction.interfacedto.ConstructionInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Construction;
 
 import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
 
 public interface ConstructionRepository extends JpaRepository<Construction, BigInteger> {
+
+    @Query(value = """
+            SELECT c.construction_id AS constructionId,
+                   c.project_id AS projectId,
+                   c.title,
+                   c.quantity,
+                   c.unit,
+                   c.note
+            FROM construction c
+            WHERE c.project_id IN (:projectIds)
+            ORDER BY c.construction_id
+            """, nativeQuery = true)
+    List<ConstructionInterfaceDTO> findByProjectIds(@Param("projectIds") Collection<BigInteger> projectIds);
 }
@@ -0,0 +1,239 @@
+package vn.com.fpt.sep490_g28_summer2024_be.repository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * JDBC batch writes for donations. Donation ids are IDENTITY generated, so Hibernate cannot batch
+ * these inserts itself.
+ */
+@Repository
+public class DonationBatchRepository {
+
+    private static final String DONATION_COLUMNS = """
+            donation (id, tid, project_id, refer_id, challenge_id, created_by, transferred_project_id,
+                      created_at, value, description, bank_sub_acc_id, bank_name, corresponsive_name,
+                      corresponsive_account, corresponsive_bank_id, corresponsive_bank_name, note)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_DONATION = "INSERT INTO " + DONATION_COLUMNS;
+
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private static final String FIND_DONATION_ID = "SELECT donation_id FROM donation WHERE id = ?";
+
+    private static final String INSERT_WRONG_DONATION = "INSERT INTO wrong_donation (donation_id) VALUES (?)";
+
+    private static final String UPDATE_ROUTING = """
+            UPDATE donation
+            SET project_id = ?, transferred_project_id = ?, created_by = ?, challenge_id = ?
+            WHERE donation_id = ?
+            """;
+
+    private static final String DELETE_WRONG_DONATION = "DELETE FROM wrong_donation WHERE wrong_donation_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final String jdbcTimeZone;
+
+    public DonationBatchRepository(JdbcTemplate jdbcTemplate,
+                                   Validator validator,
+                                   @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.jdbcTimeZone = jdbcTimeZone;
+    }
+
+    /**
+     * Inserts the donations keyed by their Casso id and tells for each one whether it was new. A
+     * donation another writer already stored is left untouched and gets the stored donation id.
+     * <p>
+     * The donations are validated as a JPA persist would, then the whole list goes out as one plain
+     * INSERT batch, so the database still rejects anything it would truncate or coerce. Only when the
+     * batch hits a duplicate key is it rolled back to a savepoint and replayed row by row, which tells
+     * exactly which ids were taken; any other error fails the write. INSERT IGNORE would turn those
+     * errors into warnings, and INSERT ... ON DUPLICATE KEY UPDATE cannot tell a taken id apart: with
+     * the driver's default found-rows mode an untouched duplicate reports one affected row, just like
+     * an insert.
+     */
+    public List<Boolean> insertDonations(List<Donation> donations) {
+        if (donations.isEmpty()) return List.of();
+        validate(donations);
+
+        return jdbcTemplate.execute((ConnectionCallback<List<Boolean>>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try (PreparedStatement ps = con.prepareStatement(INSERT_DONATION, Statement.RETURN_GENERATED_KEYS)) {
+                for (Donation donation : donations) {
+                    bind(ps, donation);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<BigInteger> keys = new ArrayList<>();
+                try (ResultSet generated = ps.getGeneratedKeys()) {
+                    while (generated.next()) keys.add(new BigInteger(generated.getString(1)));
+                }
+                con.releaseSavepoint(savepoint);
+                for (int i = 0; i < donations.size(); i++) {
+                    donations.get(i).setDonationId(keys.get(i));
+                }
+                return Collections.nCopies(donations.size(), Boolean.TRUE);
+            } catch (SQLException e) {
+                if (!isDuplicateKey(e)) throw e;
+                con.rollback(savepoint);
+            }
+
+            List<Boolean> created = new ArrayList<>();
+            for (Donation donation : donations) {
+                created.add(insertOne(con, donation));
+            }
+            return created;
+        });
+    }
+
+    private boolean insertOne(Connection con, Donation donation) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(INSERT_DONATION, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, donation);
+            ps.executeUpdate();
+            try (ResultSet generated = ps.getGeneratedKeys()) {
+                generated.next();
+                donation.setDonationId(new BigInteger(generated.getString(1)));
+            }
+            return true;
+        } catch (SQLException e) {
+            // only the failed statement is undone, the transaction goes on
+            if (!isDuplicateKey(e)) throw e;
+            try (PreparedStatement ps = con.prepareStatement(FIND_DONATION_ID)) {
+                ps.setString(1, donation.getId());
+                try (ResultSet existing = ps.executeQuery()) {
+                    if (existing.next()) {
+                        donation.setDonationId(new BigInteger(existing.getString(1)));
+                        return false;
+                    }
+                }
+            }
+            // the clash is on another key, such as the tid
+            throw e;
+        }
+    }
+
+    private void validate(List<Donation> donations) {
+        Set<ConstraintViolation<Donation>> violations = new LinkedHashSet<>();
+        donations.forEach(donation -> violations.addAll(validator.validate(donation)));
+        if (!violations.isEmpty()) throw new ConstraintViolationException(violations);
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getErrorCode() == ER_DUP_ENTRY) return true;
+        }
+        return false;
+    }
+
+    private void bind(PreparedStatement ps, Donation donation) throws SQLException {
+        ps.setString(1, donation.getId());
+        ps.setString(2, donation.getTid());
+        setId(ps, 3, projectId(donation.getProject()));
+        setId(ps, 4, accountId(donation.getRefer()));
+        setId(ps, 5, challengeId(donation.getChallenge()));
+        setId(ps, 6, accountId(donation.getCreatedBy()));
+        setId(ps, 7, projectId(donation.getTransferredProject()));
+        if (donation.getCreatedAt() == null) {
+            ps.setNull(8, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(8, Timestamp.valueOf(donation.getCreatedAt()), calendar());
+        }
+        ps.setBigDecimal(9, donation.getValue());
+        ps.setString(10, donation.getDescription());
+        ps.setString(11, donation.getBankSubAccId());
+        ps.setString(12, donation.getBankName());
+        ps.setString(13, donation.getCorresponsiveName());
+        ps.setString(14, donation.getCorresponsiveAccount());
+        ps.setString(15, donation.getCorresponsiveBankId());
+        ps.setString(16, donation.getCorresponsiveBankName());
+        ps.setString(17, donation.getNote());
+    }
+
+    public void insertWrongDonations(List<BigInteger> donationIds) {
+        if (donationIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_WRONG_DONATION, donationIds, donationIds.size(),
+                (ps, donationId) -> ps.setObject(1, donationId, Types.BIGINT));
+    }
+
+    /**
+     * Rewrites where each donation is routed: project, transferred project, creator and challenge.
+     */
+    public void updateRouting(List<Donation> donations) {
+        if (donations.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPDATE_ROUTING, donations, donations.size(), (ps, donation) -> {
+            setId(ps, 1, projectId(donation.getProject()));
+            setId(ps, 2, projectId(donation.getTransferredProject()));
+            setId(ps, 3, accountId(donation.getCreatedBy()));
+            setId(ps, 4, challengeId(donation.getChallenge()));
+            ps.setObject(5, donation.getDonationId(), Types.BIGINT);
+        });
+    }
+
+    public void deleteWrongDonations(List<BigInteger> wrongDonationIds) {
+        if (wrongDonationIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate(DELETE_WRONG_DONATION, wrongDonationIds, wrongDonationIds.size(),
+                (ps, wrongDonationId) -> ps.setObject(1, wrongDonationId, Types.BIGINT));
+    }
+
+    /**
+     * Same calendar Hibernate binds timestamps with, so rows written here read back identically.
+     */
+    private Calendar calendar() {
+        TimeZone timeZone = jdbcTimeZone == null || jdbcTimeZone.isBlank()
+                ? TimeZone.getDefault()
+                : TimeZone.getTimeZone(ZoneId.of(jdbcTimeZone));
+        return Calendar.getInstance(timeZone);
+    }
+
+    private static void setId(PreparedStatement ps, int index, BigInteger id) throws SQLException {
+        if (id == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setObject(index, id, Types.BIGINT);
+        }
+    }
+
+    private static BigInteger projectId(Project project) {
+        return project == null ? null : project.getProjectId();
+    }
+
+    private static BigInteger accountId(Account account) {
+        return account == null ? null : account.getAccountId();
+    }
+
+    private static BigInteger challengeId(Challenge challenge) {
+        return challenge == null ? null : challenge.getChallengeId();
+    }
+}
@@ -0,0 +1,180 @@
+package vn.com.fpt.sep490_g28_summer2024_be.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.DonationChartByMonthInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.DonationChartByWeekInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsByCampaignInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.interfacedto.DailyStatsKeyInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.DonationDailyStats;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.DonationDailyStatsId;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads filter on a stat_date range built from the parameters, so they walk the primary key instead of
+ * applying YEAR()/MONTH() to every row.
+ */
+@Repository
+public interface DonationDailyStatsRepository extends JpaRepository<DonationDailyStats, DonationDailyStatsId> {
+
+    /**
+     * Adds (sign 1) or takes back (sign -1) the donations as they are currently stored. A donation counts
+     * toward the campaign of its transferred project, otherwise of its own project.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO donation_daily_stats (stat_date, campaign_id, total_donation, donation_count,
+                                              wrong_donation_total, updated_at)
+            SELECT DATE(d.created_at),
+                   IFNULL(p.campaign_id, 0),
+                   :sign * IFNULL(SUM(d.value), 0),
+                   :sign * COUNT(d.donation_id),
+                   :sign * IFNULL(SUM(CASE WHEN EXISTS (SELECT 1 FROM wrong_donation wd
+                                                        WHERE wd.donation_id = d.donation_id)
+                                           THEN d.value ELSE 0 END), 0),
+                   NOW()
+            FROM donation d
+            LEFT JOIN project p ON p.project_id = COALESCE(d.transferred_project_id, d.project_id)
+            WHERE d.donation_id IN (:donationIds)
+              AND d.created_at IS NOT NULL
+            GROUP BY DATE(d.created_at), IFNULL(p.campaign_id, 0)
+            ON DUPLICATE KEY UPDATE
+                total_donation = total_donation + VALUES(total_donation),
+                donation_count = donation_count + VALUES(donation_count),
+                wrong_donation_total = wrong_donation_total + VALUES(wrong_donation_total),
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    int applyDonations(@Param("donationIds") Collection<BigInteger> donationIds,
+                       @Param("sign") int sign);
+
+    @Query(value = """
+            SELECT DISTINCT DATE(d.created_at) AS statDate,
+                   IFNULL(p.campaign_id, 0) AS campaignId
+            FROM donation d
+            LEFT JOIN project p ON p.project_id = COALESCE(d.transferred_project_id, d.project_id)
+            WHERE d.donation_id IN (:donationIds)
+              AND d.created_at IS NOT NULL
+            """, nativeQuery = true)
+    List<DailyStatsKeyInterfaceDTO> findKeysOf(@Param("donationIds") Collection<BigInteger> donationIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM donation_daily_stats", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO donation_daily_stats (stat_date, campaign_id, total_donation, donation_count,
+                                              wrong_donation_total, updated_at)
+            SELECT DATE(d.created_at),
+                   IFNULL(p.campaign_id, 0),
+                   IFNULL(SUM(d.value), 0),
+                   COUNT(d.donation_id),
+                   IFNULL(SUM(CASE WHEN EXISTS (SELECT 1 FROM wrong_donation wd
+                                                WHERE wd.donation_id = d.donation_id)
+                                   THEN d.value ELSE 0 END), 0),
+                   NOW()
+            FROM donation d
+            LEFT JOIN project p ON p.project_id = COALESCE(d.transferred_project_id, d.project_id)
+            WHERE d.created_at IS NOT NULL
+            GROUP BY DATE(d.created_at), IFNULL(p.campaign_id, 0)
+            """, nativeQuery = true)
+    int insertFromDonations();
+
+    @Query(value = """
+    SELECT IFNULL(SUM(s.total_donation), 0)
+    FROM donation_daily_stats s
+    WHERE s.stat_date >= MAKEDATE(:year, 1) + INTERVAL (:month - 1) MONTH
+      AND s.stat_date < MAKEDATE(:year, 1) + INTERVAL :month MONTH
+    """, nativeQuery = true)
+    BigDecimal getTotalDonationByMonth(@Param("year") Integer year,
+                                       @Param("month") Integer month);
+
+    @Query(value = """
+    SELECT IFNULL(SUM(s.wrong_donation_total), 0)
+    FROM donation_daily_stats s
+    WHERE s.stat_date >= MAKEDATE(:year, 1) + INTERVAL (:month - 1) MONTH
+      AND s.stat_date < MAKEDATE(:year, 1) + INTERVAL :month MONTH
+    """, nativeQuery = true)
+    BigDecimal getTotalWrongDonationByMonth(@Param("year") Integer year,
+                                            @Param("month") Integer month);
+
+    @Query(value = """
+    SELECT CAST(IFNULL(SUM(s.donation_count), 0) AS SIGNED)
+    FROM donation_daily_stats s
+    WHERE s.stat_date >= MAKEDATE(:year, 1) + INTERVAL (:month - 1) MONTH
+      AND s.stat_date < MAKEDATE(:year, 1) + INTERVAL :month MONTH
+    """, nativeQuery = true)
+    Long getTotalCountDonationByMonth(@Param("year") Integer year,
+                                      @Param("month") Integer month);
+
+    @Query(value = """
+    SELECT
+        MONTH(s.stat_date) AS monthNumber,
+        SUM(s.total_donation) AS 'value'
+    FROM
+        donation_daily_stats s
+    WHERE
+        s.stat_date >= MAKEDATE(:year, 1)
+        AND s.stat_date < MAKEDATE(:year + 1, 1)
+    GROUP BY
+        MONTH(s.stat_date)
+    HAVING
+        SUM(s.donation_count) > 0
+    ORDER BY
+        monthNumber ASC
+    """, nativeQuery = true)
+    List<DonationChartByMonthInterfaceDTO> getTotalDonationByYear(@Param("year") Integer year);
+
+    @Query(value = """
+    SELECT
+        WEEK(s.stat_date, 3) - WEEK(DATE_SUB(s.stat_date, INTERVAL DAYOFMONTH(s.stat_date) - 1 DAY), 3) + 1 AS weekOfMonth,
+        SUM(s.total_donation) AS 'value'
+    FROM
+        donation_daily_stats s
+    WHERE
+        s.stat_date >= MAKEDATE(:year, 1) + INTERVAL (:month - 1) MONTH
+        AND s.stat_date < MAKEDATE(:year, 1) + INTERVAL :month MONTH
+        AND s.stat_date <= CURDATE()
+    GROUP BY
+        weekOfMonth
+    HAVING
+        SUM(s.donation_count) > 0
+    ORDER BY
+        weekOfMonth ASC
+    """, nativeQuery = true)
+    List<DonationChartByWeekInterfaceDTO> getTotalDonationByWeekOfMonth(@Param("year") Integer year,
+                                                                        @Param("month") Integer month);
+
+    @Query(value = """
+    SELECT c.campaign_id AS id,
+           c.title AS label,
+           IFNULL(SUM(s.total_donation), 0) AS value
+    FROM donation_daily_stats s
+    LEFT JOIN campaign c ON c.campaign_id = s.campaign_id
+    WHERE s.stat_date >= MAKEDATE(:year, 1) + INTERVAL (:month - 1) MONTH
+      AND s.stat_date < MAKEDATE(:year, 1) + INTERVAL :month MONTH
+    GROUP BY c.campaign_id, c.title
+    HAVING SUM(s.donation_count) > 0
+    """, nativeQuery = true)
+    List<StatisticsByCampaignInterfaceDTO> getCampaignPieChart(@Param("month") Integer month,
+                                                               @Param("year") Integer year);
+
+    @Query(value = """
+    SELECT IFNULL(SUM(s.total_donation), 0) AS totalDonation,
+           CAST(IFNULL(SUM(s.donation_count), 0) AS SIGNED) AS totalNumberDonations
+    FROM donation_daily_stats s
+    WHERE (:campaignId IS NULL OR s.campaign_id = :campaignId)
+      AND s.stat_date >= MAKEDATE(:year, 1)
+      AND s.stat_date < MAKEDATE(:year + 1, 1)
+    """, nativeQuery = true)
+    StatisticsInterfaceDTO getDonationStaticByCampaign(@Param("campaignId") BigInteger campaignId,
+                                                       @Param("year") Integer year);
+}
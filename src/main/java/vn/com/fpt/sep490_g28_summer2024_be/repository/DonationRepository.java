@@ -8,14 +8,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.FluentQuery;
 import org.springframework.data.repository.query.Param;
-import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.DonationChartByMonthInterfaceDTO;
-import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.DonationChartByWeekInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.interfacedto.DonationKeyInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
@@ -45,6 +45,52 @@ public interface DonationRepository extends JpaRepository<Donation, BigInteger>
             Pageable pageable
     );
 
+    /**
+     * One page of a project's donations after the cursor, newest first. Each side of the project match
+     * is read from its own (project, created_at, donation_id) index, walked backwards from the cursor,
+     * so a page costs about {@code size} index entries however deep it is; the
+     * {@code created_at <= :afterCreatedAt} bound is what turns the cursor into a range on that index.
+     * The index is forced because with a LIMIT the optimizer otherwise prefers walking the project's
+     * whole index prefix from the newest entry, which reads every donation newer than the cursor.
+     */
+    @Query(value = """
+            SELECT *
+            FROM ((SELECT *
+                   FROM donation d FORCE INDEX (idx_donation_project_created)
+                   WHERE d.project_id = :projectId
+                   AND (:afterId IS NULL OR (d.created_at <= :afterCreatedAt
+                        AND (d.created_at < :afterCreatedAt OR d.donation_id < :afterId)))
+                   AND (:description IS NULL OR d.description LIKE CONCAT('%', :description, '%'))
+                   ORDER BY d.created_at DESC, d.donation_id DESC
+                   LIMIT :size)
+                  UNION ALL
+                  (SELECT *
+                   FROM donation d FORCE INDEX (idx_donation_transferred_project_created)
+                   WHERE d.transferred_project_id = :projectId
+                   AND (d.project_id IS NULL OR d.project_id <> :projectId)
+                   AND (:afterId IS NULL OR (d.created_at <= :afterCreatedAt
+                        AND (d.created_at < :afterCreatedAt OR d.donation_id < :afterId)))
+                   AND (:description IS NULL OR d.description LIKE CONCAT('%', :description, '%'))
+                   ORDER BY d.created_at DESC, d.donation_id DESC
+                   LIMIT :size)) d
+            ORDER BY d.created_at DESC, d.donation_id DESC
+            LIMIT :size
+            """, nativeQuery = true)
+    List<Donation> findDonationsByFiltersAfter(@Param("projectId") BigInteger projectId,
+                                               @Param("description") String description,
+                                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                               @Param("afterId") BigInteger afterId,
+                                               @Param("size") int size);
+
+    @Query(value = """
+            SELECT COUNT(d.donation_id)
+            FROM donation d
+            WHERE (d.project_id = :projectId OR d.transferred_project_id = :projectId)
+            AND (:description IS NULL OR d.description LIKE CONCAT('%', :description, '%'))
+            """, nativeQuery = true)
+    long countDonationsByFilters(@Param("projectId") BigInteger projectId,
+                                 @Param("description") String description);
+
     @Query(value = """
             SELECT *
             FROM donation d
@@ -58,6 +104,25 @@ public interface DonationRepository extends JpaRepository<Donation, BigInteger>
     Page<Donation> findAllDonationsByFilters(@Param("description") String description,
                                              Pageable pageable);
 
+    @Query(value = """
+            SELECT *
+            FROM donation d
+            WHERE (:description IS NULL OR d.description LIKE CONCAT('%', :description, '%'))
+            AND (:afterId IS NULL OR d.donation_id < :afterId)
+            ORDER BY d.donation_id DESC
+            LIMIT :size
+            """, nativeQuery = true)
+    List<Donation> findAllDonationsByFiltersAfter(@Param("description") String description,
+                                                  @Param("afterId") BigInteger afterId,
+                                                  @Param("size") int size);
+
+    @Query(value = """
+            SELECT COUNT(d.donation_id)
+            FROM donation d
+            WHERE (:description IS NULL OR d.description LIKE CONCAT('%', :description, '%'))
+            """, nativeQuery = true)
+    long countAllDonationsByFilters(@Param("description") String description);
+
     @Query(value = "SELECT * FROM donation d WHERE d.created_by = :accountId AND " +
             "(:description IS NULL OR d.description LIKE %:description%) " +
             "ORDER BY d.created_at DESC",
@@ -69,11 +134,39 @@ public interface DonationRepository extends JpaRepository<Donation, BigInteger>
 
     List<Donation> findAllByProject(Project project);
 
+    /**
+     * Donations counted toward the project: those transferred to it, and its own that were not
+     * transferred away. Each branch is a seek on its project index.
+     */
+    @Query(value = """
+            SELECT d.donation_id
+            FROM donation d
+            WHERE d.transferred_project_id = :projectId
+            UNION ALL
+            SELECT d.donation_id
+            FROM donation d
+            WHERE d.project_id = :projectId
+            AND d.transferred_project_id IS NULL
+            """, nativeQuery = true)
+    List<BigInteger> findDonationIdsCountedFor(@Param("projectId") BigInteger projectId);
+
     @Query(value = "SELECT d.created_at FROM donation d ORDER BY d.created_at DESC LIMIT 1", nativeQuery = true)
     LocalDateTime getLastDonationDate();
 
     Boolean existsDonationById(String id);
 
+    @Query(value = "SELECT d.id FROM donation d WHERE d.id IN (:ids)", nativeQuery = true)
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    @Query(value = """
+    SELECT d.donation_id AS donationId, d.id AS id
+    FROM donation d
+    WHERE d.donation_id > :afterId AND d.id IS NOT NULL
+    ORDER BY d.donation_id
+    LIMIT :size
+    """, nativeQuery = true)
+    List<DonationKeyInterfaceDTO> findKeysAfter(@Param("afterId") BigInteger afterId, @Param("size") int size);
+
     @Query(value = """
             SELECT SUM(d.value)
             FROM donation d
@@ -137,68 +230,6 @@ public interface DonationRepository extends JpaRepository<Donation, BigInteger>
             Pageable pageable);
 
 
-    @Query(value = """
-    SELECT IFNULL(SUM(d.value), 0)
-    FROM donation d
-    WHERE (YEAR(d.created_at) = :year)
-    AND (MONTH(d.created_at) = :month)
-    """, nativeQuery = true)
-    BigDecimal getTotalDonationByMonth(@Param("year") Integer year,
-                                       @Param("month") Integer month);
-
-    @Query(value = """
-    SELECT IFNULL(SUM(d.value), 0)
-    FROM donation d
-    LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
-    WHERE wd.wrong_donation_id IS NOT NULL
-    AND (YEAR(d.created_at) = :year)
-    AND (MONTH(d.created_at) = :month)
-    """, nativeQuery = true)
-    BigDecimal getTotalWrongDonationByMonth(@Param("year") Integer year,
-                                            @Param("month") Integer month);
-
-    @Query(value = """
-    SELECT COUNT(d.donation_id)
-    FROM donation d
-    WHERE (YEAR(d.created_at) = :year)
-    AND   (MONTH(d.created_at) = :month)
-    """, nativeQuery = true)
-    Long getTotalCountDonationByMonth(@Param("year") Integer year,
-                                      @Param("month") Integer month);
-
-    @Query(value = """
-    SELECT
-        MONTH(d.created_at) AS monthNumber,
-        SUM(d.value) AS 'value'
-    FROM
-        donation d
-    WHERE
-        YEAR(d.created_at) = :year
-    GROUP BY
-        MONTH(d.created_at)
-    ORDER BY
-        monthNumber ASC;
-    """, nativeQuery = true)
-    List<DonationChartByMonthInterfaceDTO> getTotalDonationByYear(@Param("year") Integer year);
-
-    @Query(value = """
-    SELECT
-        WEEK(d.created_at, 3) - WEEK(DATE_SUB(d.created_at, INTERVAL DAYOFMONTH(d.created_at) - 1 DAY), 3) + 1 AS weekOfMonth,
-        SUM(d.value) AS 'value'
-    FROM
-        donation d
-    WHERE
-        YEAR(d.created_at) = :year
-        AND MONTH(d.created_at) = :month
-        AND d.created_at <= CURDATE()
-    GROUP BY
-        weekOfMonth
-    ORDER BY
-        weekOfMonth ASC
-    """, nativeQuery = true)
-    List<DonationChartByWeekInterfaceDTO> getTotalDonationByWeekOfMonth(@Param("year") Integer year,
-                                                                        @Param("month") Integer month);
-
     @Query(value = """
     SELECT d.*
     FROM donation d
@@ -218,6 +249,31 @@ public interface DonationRepository extends JpaRepository<Donation, BigInteger>
                                          @Param("referId") BigInteger referId,
                                          Pageable pageable);
 
+    @Query(value = """
+    SELECT d.*
+    FROM donation d
+    LEFT JOIN challenge ch ON d.challenge_id = ch.challenge_id
+    WHERE (:description IS NULL OR d.description LIKE %:description%)
+    AND ((:referId IS NULL OR d.refer_id = :referId) OR ch.created_by = :referId)
+    AND (:afterId IS NULL OR d.donation_id < :afterId)
+    ORDER BY d.donation_id DESC
+    LIMIT :size
+    """, nativeQuery = true)
+    List<Donation> getDonationsByReferIdAfter(@Param("description") String description,
+                                              @Param("referId") BigInteger referId,
+                                              @Param("afterId") BigInteger afterId,
+                                              @Param("size") int size);
+
+    @Query(value = """
+    SELECT COUNT(d.donation_id)
+    FROM donation d
+    LEFT JOIN challenge ch ON d.challenge_id = ch.challenge_id
+    WHERE (:description IS NULL OR d.description LIKE %:description%)
+    AND ((:referId IS NULL OR d.refer_id = :referId) OR ch.created_by = :referId)
+    """, nativeQuery = true)
+    long countDonationsByReferIdAndDescription(@Param("description") String description,
+                                               @Param("referId") BigInteger referId);
+
 
     @Query(value = """
             SELECT IFNULL(SUM(d.value), 0)
@@ -259,10 +315,20 @@ public interface DonationRepository extends JpaRepository<Donation, BigInteger>
 
 
     @Query(value = """
-    SELECT * 
-    FROM donation d 
-    WHERE :description LIKE CONCAT('%', d.tid, '%') 
+    SELECT d.*
+    FROM (SELECT * FROM donation ORDER BY donation_id DESC LIMIT :window) d
+    WHERE :description LIKE CONCAT('%', d.tid, '%')
+    ORDER BY d.donation_id DESC
+    LIMIT 1
     """, nativeQuery = true)
-    Donation getDonationByTid(@Param("description") String description);
+    List<Donation> findRecentByDescriptionContainingTid(@Param("description") String description,
+                                                        @Param("window") int window);
+
+    @Query("""
+    SELECT d FROM Donation d
+    LEFT JOIN FETCH d.wrongDonation
+    WHERE d.tid IN :tids
+    """)
+    List<Donation> findAllByTidIn(@Param("tids") Collection<String> tids);
 
 }
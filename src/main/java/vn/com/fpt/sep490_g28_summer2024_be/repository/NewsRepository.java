@@ -5,6 +5,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SearchTitleInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.News;
 
 import java.math.BigInteger;
@@ -36,6 +38,52 @@ public interface NewsRepository extends JpaRepository<News, BigInteger> {
                                  @Param("endDate") LocalDate endDate,
                                  Pageable pageable);
 
+    @Query(value = """
+        SELECT *
+        FROM news
+        WHERE news_id IN (:ids)
+        AND (:category_id IS NULL OR category_id = :category_id)
+        AND (:authorId IS NULL OR created_by = :authorId)
+        AND (:status IS NULL OR status = :status)
+        AND (:startDate IS NULL OR created_at >= :startDate)
+        AND (:endDate IS NULL OR created_at <= :endDate)
+        ORDER BY FIND_IN_SET(news_id, :rank)
+        """, countQuery = """
+        SELECT COUNT(*)
+        FROM news
+        WHERE news_id IN (:ids)
+        AND (:category_id IS NULL OR category_id = :category_id)
+        AND (:authorId IS NULL OR created_by = :authorId)
+        AND (:status IS NULL OR status = :status)
+        AND (:startDate IS NULL OR created_at >= :startDate)
+        AND (:endDate IS NULL OR created_at <= :endDate)
+        """, nativeQuery = true)
+    Page<News> findNewsByFiltersInIds(@Param("ids") List<BigInteger> ids,
+                                      @Param("rank") String rank,
+                                      @Param("category_id") BigInteger category_id,
+                                      @Param("authorId") BigInteger authorId,
+                                      @Param("status") Integer status,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate,
+                                      Pageable pageable);
+
+    @Query(value = """
+        SELECT news_id
+        FROM news
+        WHERE news_id IN (:ids)
+        AND (:category_id IS NULL OR category_id = :category_id)
+        AND (:authorId IS NULL OR created_by = :authorId)
+        AND (:status IS NULL OR status = :status)
+        AND (:startDate IS NULL OR created_at >= :startDate)
+        AND (:endDate IS NULL OR created_at <= :endDate)
+        """, nativeQuery = true)
+    List<BigInteger> findNewsIdsByFiltersInIds(@Param("ids") List<BigInteger> ids,
+                                               @Param("category_id") BigInteger category_id,
+                                               @Param("authorId") BigInteger authorId,
+                                               @Param("status") Integer status,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+
     @Query(value = """
         SELECT n.category_id, COUNT(*) 
         FROM news n 
@@ -66,6 +114,47 @@ public interface NewsRepository extends JpaRepository<News, BigInteger> {
                                             @Param("title") String title,
                                             Pageable pageable);
 
+    @Query(value = """
+        SELECT *
+        FROM news
+        WHERE news_id IN (:ids)
+        AND (:category_id IS NULL OR category_id = :category_id)
+        AND status = 2
+        ORDER BY FIND_IN_SET(news_id, :rank)
+        """,
+            countQuery = """
+        SELECT COUNT(*)
+        FROM news
+        WHERE news_id IN (:ids)
+        AND (:category_id IS NULL OR category_id = :category_id)
+        AND status = 2
+        """,
+            nativeQuery = true)
+    Page<News> findNewsByCategoriesInIds(@Param("ids") List<BigInteger> ids,
+                                         @Param("rank") String rank,
+                                         @Param("category_id") BigInteger category_id,
+                                         Pageable pageable);
+
+    @Query(value = """
+        SELECT news_id
+        FROM news
+        WHERE news_id IN (:ids)
+        AND (:category_id IS NULL OR category_id = :category_id)
+        AND status = 2
+        """, nativeQuery = true)
+    List<BigInteger> findNewsIdsByCategoriesInIds(@Param("ids") List<BigInteger> ids,
+                                                  @Param("category_id") BigInteger category_id);
+
+    @Query(value = "SELECT news_id AS id, title FROM news", nativeQuery = true)
+    List<SearchTitleInterfaceDTO> findSearchTitles();
+
+    @Query(value = """
+            SELECT CONCAT_WS('.', COUNT(*), IFNULL(MAX(n.news_id), 0), IFNULL(MAX(n.updated_at), '')) AS version,
+                   MAX(n.updated_at) AS lastModified
+            FROM news n
+            """, nativeQuery = true)
+    ContentVersionInterfaceDTO findContentVersion();
+
     @Query(value = """
         SELECT n.* 
         FROM news n 
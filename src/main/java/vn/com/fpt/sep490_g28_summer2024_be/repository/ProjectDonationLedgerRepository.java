@@ -0,0 +1,126 @@
+package vn.com.fpt.sep490_g28_summer2024_be.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto.AllocationProjectInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ledger.interfacedto.LedgerDriftInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ProjectDonationLedger;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProjectDonationLedgerRepository extends JpaRepository<ProjectDonationLedger, BigInteger> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO project_donation_ledger (project_id, total_donation, donation_count, last_donation_at, updated_at)
+            VALUES (:projectId, :amount, :count, :donatedAt, NOW())
+            ON DUPLICATE KEY UPDATE
+                total_donation = total_donation + VALUES(total_donation),
+                donation_count = donation_count + VALUES(donation_count),
+                last_donation_at = GREATEST(IFNULL(last_donation_at, VALUES(last_donation_at)),
+                                            IFNULL(VALUES(last_donation_at), last_donation_at)),
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    void applyDelta(@Param("projectId") BigInteger projectId,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") Long count,
+                    @Param("donatedAt") LocalDateTime donatedAt);
+
+    /**
+     * Takes the row lock on a project's entry, creating an empty entry first when the project has none,
+     * and holds it until the transaction ends. Every ledger write to the project waits on it.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO project_donation_ledger (project_id, total_donation, donation_count, updated_at)
+            VALUES (:projectId, 0, 0, NOW())
+            ON DUPLICATE KEY UPDATE project_id = project_id
+            """, nativeQuery = true)
+    void lockEntry(@Param("projectId") BigInteger projectId);
+
+    /**
+     * Reads the project and its ledger entry as committed, locking both rows until the transaction ends.
+     */
+    @Query(value = """
+            SELECT p.project_id AS projectId,
+                   p.code,
+                   p.campaign_id AS campaignId,
+                   p.status,
+                   p.amount_needed_to_raise AS goal,
+                   pl.total_donation AS totalDonation
+            FROM project p
+            JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            WHERE p.project_id = :projectId
+            FOR UPDATE
+            """, nativeQuery = true)
+    AllocationProjectInterfaceDTO findAllocationForUpdate(@Param("projectId") BigInteger projectId);
+
+    @Modifying
+    @Query(value = "DELETE FROM project_donation_ledger", nativeQuery = true)
+    int deleteAllEntries();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO project_donation_ledger (project_id, total_donation, donation_count, last_donation_at, updated_at)
+            SELECT x.project_id,
+                   SUM(x.value),
+                   SUM(CASE WHEN x.value > 0 THEN 1 ELSE 0 END),
+                   MAX(CASE WHEN x.value > 0 THEN x.created_at END),
+                   NOW()
+            FROM (SELECT COALESCE(d.transferred_project_id,
+                                  CASE WHEN wd.wrong_donation_id IS NULL THEN d.project_id END) AS project_id,
+                         d.value,
+                         d.created_at
+                  FROM donation d
+                  LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id) x
+            WHERE x.project_id IS NOT NULL
+            GROUP BY x.project_id
+            """, nativeQuery = true)
+    int insertFromDonations();
+
+    @Query(value = """
+            SELECT p.project_id AS projectId,
+                   IFNULL(e.total, 0) AS expectedTotal,
+                   IFNULL(pl.total_donation, 0) AS ledgerTotal,
+                   IFNULL(e.cnt, 0) AS expectedCount,
+                   IFNULL(pl.donation_count, 0) AS ledgerCount
+            FROM project p
+            LEFT JOIN (SELECT x.project_id,
+                              SUM(x.value) AS total,
+                              SUM(CASE WHEN x.value > 0 THEN 1 ELSE 0 END) AS cnt
+                       FROM (SELECT COALESCE(d.transferred_project_id,
+                                             CASE WHEN wd.wrong_donation_id IS NULL THEN d.project_id END) AS project_id,
+                                    d.value
+                             FROM donation d
+                             LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id) x
+                       WHERE x.project_id IS NOT NULL
+                       GROUP BY x.project_id) e ON e.project_id = p.project_id
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            WHERE IFNULL(e.total, 0) <> IFNULL(pl.total_donation, 0)
+               OR IFNULL(e.cnt, 0) <> IFNULL(pl.donation_count, 0)
+            ORDER BY p.project_id
+            """, nativeQuery = true)
+    List<LedgerDriftInterfaceDTO> findDrift();
+
+    /**
+     * Moves with every donation: the ledger covers project totals and the newest donation id the
+     * donations that reach no project, such as pure referral ones.
+     */
+    @Query(value = """
+            SELECT CONCAT_WS('.', (SELECT IFNULL(MAX(d.donation_id), 0) FROM donation d), COUNT(*),
+                             IFNULL(SUM(pl.donation_count), 0), IFNULL(SUM(pl.total_donation), 0),
+                             IFNULL(MAX(pl.updated_at), '')) AS version,
+                   GREATEST(IFNULL(MAX(pl.updated_at), TIMESTAMP '1970-01-01 00:00:00'),
+                            IFNULL((SELECT d.created_at FROM donation d ORDER BY d.donation_id DESC LIMIT 1), TIMESTAMP '1970-01-01 00:00:00')) AS lastModified
+            FROM project_donation_ledger pl
+            """, nativeQuery = true)
+    ContentVersionInterfaceDTO findContentVersion();
+}
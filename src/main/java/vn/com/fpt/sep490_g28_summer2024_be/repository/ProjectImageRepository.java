@@ -1,9 +1,39 @@
 package vn.com.fpt.sep490_g28_summer2024_be.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectImageInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.ProjectImage;
 
 import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
 
 public interface ProjectImageRepository extends JpaRepository<ProjectImage, BigInteger> {
+
+    /**
+     * First image (lowest id) of each of the given projects.
+     */
+    @Query(value = """
+            SELECT pi.project_id AS projectId,
+                   pi.project_image_id AS projectImageId,
+                   pi.image AS image
+            FROM project_image pi
+            JOIN (SELECT project_id, MIN(project_image_id) AS project_image_id
+                  FROM project_image
+                  WHERE project_id IN (:projectIds)
+                  GROUP BY project_id) f ON f.project_image_id = pi.project_image_id
+            """, nativeQuery = true)
+    List<ProjectImageInterfaceDTO> findFirstImages(@Param("projectIds") Collection<BigInteger> projectIds);
+
+    @Query(value = """
+            SELECT pi.project_id AS projectId,
+                   pi.project_image_id AS projectImageId,
+                   pi.image AS image
+            FROM project_image pi
+            WHERE pi.project_id IN (:projectIds)
+            ORDER BY pi.project_image_id
+            """, nativeQuery = true)
+    List<ProjectImageInterfaceDTO> findByProjectIds(@Param("projectIds") Collection<BigInteger> projectIds);
 }
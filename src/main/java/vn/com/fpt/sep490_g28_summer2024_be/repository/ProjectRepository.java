@@ -6,14 +6,21 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto.AllocationProjectInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.interfacedto.ProjectProgressInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectDonationInformattionDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.interfacedto.RoutingCodeInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SearchTitleInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SuggestInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -42,18 +49,15 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
                    p.district,
                    p.province,
                    p.total_budget AS totalBudget,
-                   IFNULL((SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END)+SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END)),0) as totalDonation
+                   IFNULL(pl.total_donation, 0) AS totalDonation
             FROM project p
-            LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
             LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-            LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
             WHERE (:title IS NULL OR p.title LIKE CONCAT('%', :title, '%'))
               AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
               AND (:status IS NULL OR p.status = :status)
               AND (:province IS NULL OR p.province = :province)
               AND (:year IS NULL OR YEAR(p.created_at) = :year)
-            GROUP BY p.project_id, p.title, p.code, p.created_at, p.status, p.amount_needed_to_raise,
-                     c.campaign_id, c.title, p.address, p.ward, p.district, p.province, p.total_budget
             ORDER BY p.project_id DESC
             """,
             countQuery = """
@@ -74,11 +78,153 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
                                                    @Param("status") Integer status,
                                                    Pageable pageable);
 
+    @Query(value = """
+            SELECT p.project_id AS projectId,
+                   p.title,
+                   p.code,
+                   p.created_at AS createdAt,
+                   p.status,
+                   p.amount_needed_to_raise AS amountNeededToRaise,
+                   c.campaign_id AS campaignId,
+                   c.title AS campaignTitle,
+                   p.address,
+                   p.ward,
+                   p.district,
+                   p.province,
+                   p.total_budget AS totalBudget,
+                   IFNULL(pl.total_donation, 0) AS totalDonation
+            FROM project p
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
+            WHERE p.project_id IN (:ids)
+              AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
+              AND (:status IS NULL OR p.status = :status)
+              AND (:province IS NULL OR p.province = :province)
+              AND (:year IS NULL OR YEAR(p.created_at) = :year)
+            ORDER BY FIND_IN_SET(p.project_id, :rank)
+            """,
+            countQuery = """
+                    SELECT COUNT(p.project_id)
+                    FROM project p
+                    WHERE p.project_id IN (:ids)
+                      AND (:campaign_id IS NULL OR p.campaign_id = :campaign_id)
+                      AND (:status IS NULL OR p.status = :status)
+                      AND (:province IS NULL OR p.province = :province)
+                      AND (:year IS NULL OR YEAR(p.created_at) = :year)
+                    """,
+            nativeQuery = true)
+    Page<ProjectInterfaceDTO> findProjectByFiltersInIds(@Param("ids") List<BigInteger> ids,
+                                                        @Param("rank") String rank,
+                                                        @Param("campaign_id") BigInteger campaignId,
+                                                        @Param("year") String year,
+                                                        @Param("province") String province,
+                                                        @Param("status") Integer status,
+                                                        Pageable pageable);
+
+    @Query(value = """
+            SELECT p.project_id
+            FROM project p
+            WHERE p.project_id IN (:ids)
+              AND (:campaign_id IS NULL OR p.campaign_id = :campaign_id)
+              AND (:status IS NULL OR p.status = :status)
+              AND (:province IS NULL OR p.province = :province)
+              AND (:year IS NULL OR YEAR(p.created_at) = :year)
+            """, nativeQuery = true)
+    List<BigInteger> findProjectIdsByFiltersInIds(@Param("ids") List<BigInteger> ids,
+                                                  @Param("campaign_id") BigInteger campaignId,
+                                                  @Param("year") String year,
+                                                  @Param("province") String province,
+                                                  @Param("status") Integer status);
+
+    @Query(value = """
+            SELECT p.project_id AS projectId,
+                   p.title,
+                   p.code,
+                   p.created_at AS createdAt,
+                   p.status,
+                   p.amount_needed_to_raise AS amountNeededToRaise,
+                   c.campaign_id AS campaignId,
+                   c.title AS campaignTitle,
+                   p.address,
+                   p.ward,
+                   p.district,
+                   p.province,
+                   p.total_budget AS totalBudget,
+                   IFNULL(pl.total_donation, 0) AS totalDonation
+            FROM project p
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
+            WHERE (:title IS NULL OR p.title LIKE CONCAT('%', :title, '%'))
+              AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
+              AND (:status IS NULL OR p.status = :status)
+              AND (:province IS NULL OR p.province = :province)
+              AND (:year IS NULL OR YEAR(p.created_at) = :year)
+              AND (:afterId IS NULL OR p.project_id < :afterId)
+            ORDER BY p.project_id DESC
+            LIMIT :size
+            """, nativeQuery = true)
+    List<ProjectInterfaceDTO> findProjectByFiltersAfter(@Param("title") String title,
+                                                        @Param("campaign_id") BigInteger campaignId,
+                                                        @Param("year") String year,
+                                                        @Param("province") String province,
+                                                        @Param("status") Integer status,
+                                                        @Param("afterId") BigInteger afterId,
+                                                        @Param("size") int size);
+
+    @Query(value = """
+            SELECT p.project_id AS projectId,
+                   p.title,
+                   p.code,
+                   p.created_at AS createdAt,
+                   p.status,
+                   p.amount_needed_to_raise AS amountNeededToRaise,
+                   c.campaign_id AS campaignId,
+                   c.title AS campaignTitle,
+                   p.address,
+                   p.ward,
+                   p.district,
+                   p.province,
+                   p.total_budget AS totalBudget,
+                   IFNULL(pl.total_donation, 0) AS totalDonation
+            FROM project p
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
+            WHERE p.project_id IN (:ids)
+              AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
+              AND (:status IS NULL OR p.status = :status)
+              AND (:province IS NULL OR p.province = :province)
+              AND (:year IS NULL OR YEAR(p.created_at) = :year)
+            ORDER BY p.project_id DESC
+            LIMIT :size
+            """, nativeQuery = true)
+    List<ProjectInterfaceDTO> findProjectByFiltersAfterInIds(@Param("ids") List<BigInteger> ids,
+                                                             @Param("campaign_id") BigInteger campaignId,
+                                                             @Param("year") String year,
+                                                             @Param("province") String province,
+                                                             @Param("status") Integer status,
+                                                             @Param("size") int size);
+
+    @Query(value = """
+            SELECT COUNT(p.project_id)
+            FROM project p
+            WHERE (:title IS NULL OR p.title LIKE CONCAT('%', :title, '%'))
+              AND (:campaign_id IS NULL OR p.campaign_id = :campaign_id)
+              AND (:status IS NULL OR p.status = :status)
+              AND (:province IS NULL OR p.province = :province)
+              AND (:year IS NULL OR YEAR(p.created_at) = :year)
+            """, nativeQuery = true)
+    long countProjectByFilters(@Param("title") String title,
+                               @Param("campaign_id") BigInteger campaignId,
+                               @Param("year") String year,
+                               @Param("province") String province,
+                               @Param("status") Integer status);
+
 
     @Query(value = """
     SELECT p.project_id as projectId,
            p.title,
            p.code,
+           p.slug,
            p.created_at as createdAt,
            p.status,
            p.background,
@@ -90,41 +236,29 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
            p.district,
            p.province,
            p.total_budget as totalBudget,
-           IFNULL(SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END) +
-                  SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END), 0) AS totalDonation
+           IFNULL(pl.total_donation, 0) AS totalDonation
     FROM project p
-    LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
+    LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
     LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-    LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
     WHERE (:title IS NULL OR p.title LIKE CONCAT('%', :title, '%'))
           AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
           AND (:status IS NULL OR p.status = :status)
           AND (:year IS NULL OR YEAR(p.created_at) = :year)
           AND (:code IS NULL OR (p.code) LIKE CONCAT('%', :code, '%'))
-    GROUP BY p.project_id, p.title, p.code, p.created_at, p.status, p.background, p.amount_needed_to_raise,
-             c.campaign_id, c.title, p.address, p.ward, p.district, p.province, p.total_budget
-    HAVING (:minTotalBudget IS NULL OR p.total_budget >= :minTotalBudget)
-           AND (:maxTotalBudget IS NULL OR p.total_budget <= :maxTotalBudget)
+          AND (:minTotalBudget IS NULL OR p.total_budget >= :minTotalBudget)
+          AND (:maxTotalBudget IS NULL OR p.total_budget <= :maxTotalBudget)
     ORDER BY totalBudget ASC
             """, countQuery = """
-    SELECT COUNT(*)
-    FROM (
-        SELECT p.project_id,
-               p.total_budget
-        FROM project p
-        LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
-        LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-        LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
-        WHERE (:title IS NULL OR p.title LIKE CONCAT('%', :title, '%'))
-              AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
-              AND (:status IS NULL OR p.status = :status)
-              AND (:year IS NULL OR YEAR(p.created_at) = :year)
-              AND (:code IS NULL OR (p.code) LIKE CONCAT('%', :code, '%'))
-        GROUP BY p.project_id, p.title, p.code, p.created_at, p.status, p.background, p.amount_needed_to_raise,
-                 c.campaign_id, c.title, p.address, p.ward, p.district, p.province, p.total_budget
-        HAVING (:minTotalBudget IS NULL OR p.total_budget >= :minTotalBudget)
-               AND (:maxTotalBudget IS NULL OR p.total_budget <= :maxTotalBudget)
-    ) AS count_query
+    SELECT COUNT(p.project_id)
+    FROM project p
+    LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
+    WHERE (:title IS NULL OR p.title LIKE CONCAT('%', :title, '%'))
+          AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
+          AND (:status IS NULL OR p.status = :status)
+          AND (:year IS NULL OR YEAR(p.created_at) = :year)
+          AND (:code IS NULL OR (p.code) LIKE CONCAT('%', :code, '%'))
+          AND (:minTotalBudget IS NULL OR p.total_budget >= :minTotalBudget)
+          AND (:maxTotalBudget IS NULL OR p.total_budget <= :maxTotalBudget)
     """, nativeQuery = true)
     Page<ProjectInterfaceDTO> findProjectCards(@Param("title") String title,
                                                @Param("campaign_id") BigInteger campaignId,
@@ -135,23 +269,100 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
                                                @Param("maxTotalBudget") BigDecimal maxTotalBudget,
                                                Pageable pageable);
 
+    @Query(value = """
+    SELECT p.project_id as projectId,
+           p.title,
+           p.code,
+           p.slug,
+           p.created_at as createdAt,
+           p.status,
+           p.background,
+           p.amount_needed_to_raise as amountNeededToRaise,
+           c.campaign_id as campaignId,
+           c.title as campaignTitle,
+           p.address,
+           p.ward,
+           p.district,
+           p.province,
+           p.total_budget as totalBudget,
+           IFNULL(pl.total_donation, 0) AS totalDonation
+    FROM project p
+    LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+    LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
+    WHERE p.project_id IN (:ids)
+          AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
+          AND (:status IS NULL OR p.status = :status)
+          AND (:year IS NULL OR YEAR(p.created_at) = :year)
+          AND (:code IS NULL OR (p.code) LIKE CONCAT('%', :code, '%'))
+          AND (:minTotalBudget IS NULL OR p.total_budget >= :minTotalBudget)
+          AND (:maxTotalBudget IS NULL OR p.total_budget <= :maxTotalBudget)
+    ORDER BY FIND_IN_SET(p.project_id, :rank)
+            """, countQuery = """
+    SELECT COUNT(p.project_id)
+    FROM project p
+    WHERE p.project_id IN (:ids)
+          AND (:campaign_id IS NULL OR p.campaign_id = :campaign_id)
+          AND (:status IS NULL OR p.status = :status)
+          AND (:year IS NULL OR YEAR(p.created_at) = :year)
+          AND (:code IS NULL OR (p.code) LIKE CONCAT('%', :code, '%'))
+          AND (:minTotalBudget IS NULL OR p.total_budget >= :minTotalBudget)
+          AND (:maxTotalBudget IS NULL OR p.total_budget <= :maxTotalBudget)
+    """, nativeQuery = true)
+    Page<ProjectInterfaceDTO> findProjectCardsInIds(@Param("ids") List<BigInteger> ids,
+                                                    @Param("rank") String rank,
+                                                    @Param("campaign_id") BigInteger campaignId,
+                                                    @Param("status") Integer status,
+                                                    @Param("year") Integer year,
+                                                    @Param("code") String code,
+                                                    @Param("minTotalBudget") BigDecimal minTotalBudget,
+                                                    @Param("maxTotalBudget") BigDecimal maxTotalBudget,
+                                                    Pageable pageable);
+
+    @Query(value = """
+    SELECT p.project_id
+    FROM project p
+    WHERE p.project_id IN (:ids)
+          AND (:campaign_id IS NULL OR p.campaign_id = :campaign_id)
+          AND (:status IS NULL OR p.status = :status)
+          AND (:year IS NULL OR YEAR(p.created_at) = :year)
+          AND (:code IS NULL OR (p.code) LIKE CONCAT('%', :code, '%'))
+          AND (:minTotalBudget IS NULL OR p.total_budget >= :minTotalBudget)
+          AND (:maxTotalBudget IS NULL OR p.total_budget <= :maxTotalBudget)
+    """, nativeQuery = true)
+    List<BigInteger> findProjectCardIdsInIds(@Param("ids") List<BigInteger> ids,
+                                             @Param("campaign_id") BigInteger campaignId,
+                                             @Param("status") Integer status,
+                                             @Param("year") Integer year,
+                                             @Param("code") String code,
+                                             @Param("minTotalBudget") BigDecimal minTotalBudget,
+                                             @Param("maxTotalBudget") BigDecimal maxTotalBudget);
+
 
     @Query(value = """
     SELECT p.project_id AS projectId,
-           IFNULL(SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END) +
-                  SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END), 0) AS totalDonation
+           p.title,
+           p.code,
+           p.slug,
+           p.created_at AS createdAt,
+           p.status,
+           p.background,
+           p.amount_needed_to_raise AS amountNeededToRaise,
+           c.campaign_id AS campaignId,
+           c.title AS campaignTitle,
+           p.address,
+           p.ward,
+           p.district,
+           p.province,
+           p.total_budget AS totalBudget,
+           IFNULL(pl.total_donation, 0) AS totalDonation
     FROM project p
-    LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
-    LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-    LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
+    JOIN campaign c ON c.campaign_id = p.campaign_id
+    LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
     WHERE p.campaign_id = :campaignId
       AND (:status IS NULL OR p.status = :status)
       AND (:minBudget IS NULL OR p.total_budget >= :minBudget)
       AND (:maxBudget IS NULL OR p.total_budget <= :maxBudget)
-    GROUP BY p.project_id, p.title, p.code, p.created_at, p.status, p.background, p.amount_needed_to_raise,
-             c.campaign_id, c.title, p.address, p.ward, p.district, p.province, p.total_budget
-    HAVING IFNULL(SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END) +
-    SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END), 0) < p.amount_needed_to_raise
+      AND IFNULL(pl.total_donation, 0) < p.amount_needed_to_raise
     ORDER BY p.created_at Desc
     """, nativeQuery = true)
     Page<ProjectInterfaceDTO> findProjectsClientByCampaignId(@Param("status") Integer status,
@@ -175,21 +386,16 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
                    p.district,
                    p.province,
                    p.total_budget AS totalBudget,
-                   IFNULL(SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END) +
-                          SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END), 0) AS totalDonation
+                   IFNULL(pl.total_donation, 0) AS totalDonation
             FROM project p
-            JOIN assign a ON p.project_id = a.project_id
-            LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
             LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-            LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
-            WHERE a.account_id = :accountId
+            WHERE p.project_id IN (SELECT a.project_id FROM assign a WHERE a.account_id = :accountId)
               AND (:title IS NULL OR p.title LIKE CONCAT('%', :title, '%'))
               AND (:campaign_id IS NULL OR c.campaign_id = :campaign_id)
               AND (:status IS NULL OR p.status = :status)
               AND (:province IS NULL OR p.province = :province)
               AND (:year IS NULL OR YEAR(p.created_at) = :year)
-            GROUP BY p.project_id, p.title, p.code, p.created_at, p.status, p.amount_needed_to_raise,
-                     c.campaign_id, c.title, p.address, p.ward, p.district, p.province, p.total_budget
             ORDER BY p.project_id DESC
             """, nativeQuery = true)
     Page<ProjectInterfaceDTO> findProjectsByAccountId(@Param("accountId") BigInteger accountId,
@@ -205,16 +411,13 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
                    p.code,
                    p.amount_needed_to_raise AS goal,
                    p.status,
-                   IFNULL((SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END)+
-                   SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END)),0) as totalDonation
+                   IFNULL(pl.total_donation, 0) AS totalDonation
             FROM project p
-            LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
-            LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
             WHERE (:donationDescription IS NULL OR :donationDescription LIKE CONCAT('%', p.code, '%'))
               AND (:campaignId IS NULL OR p.campaign_id = :campaignId)
               AND (:status IS NULL OR p.status = :status)
-            GROUP BY p.project_id, p.code, p.amount_needed_to_raise
-            HAVING (:isAll OR p.amount_needed_to_raise > totalDonation)
+              AND (:isAll OR p.amount_needed_to_raise > IFNULL(pl.total_donation, 0))
             ORDER BY totalDonation ASC
             LIMIT 1
             """, nativeQuery = true)
@@ -228,37 +431,90 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
             SELECT p.project_id AS projectId,
                    p.code,
                    p.amount_needed_to_raise AS goal,
-                   IFNULL((SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END) +
-                          SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END)), 0) AS totalDonation
-            FROM challenge ch
-            LEFT JOIN challenge_project cp ON ch.challenge_id = cp.challenge_id
-            LEFT JOIN project p ON p.project_id = cp.project_id
-            LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
-            LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
-            WHERE ch.challenge_id = :challengeId
+                   p.status,
+                   IFNULL(pl.total_donation, 0) AS totalDonation
+            FROM project p
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            WHERE p.project_id IN (:projectIds)
+            ORDER BY totalDonation ASC
+            LIMIT 1
+            """, nativeQuery = true)
+    ProjectTransactionDTO findProjectTransactionByProjectIds(@Param("projectIds") List<BigInteger> projectIds);
+
+    @Query(value = """
+            SELECT p.project_id AS id,
+                   p.code,
+                   NULL AS referCode,
+                   NULL AS finishedAt
+            FROM project p
+            WHERE p.code IS NOT NULL
+            """, nativeQuery = true)
+    List<RoutingCodeInterfaceDTO> findAllRoutingCodes();
+
+    @Query(value = """
+            SELECT CONCAT_WS('.', COUNT(*), IFNULL(SUM(CRC32(CONCAT_WS(':', p.project_id, p.code))), 0))
+            FROM project p
+            WHERE p.code IS NOT NULL
+            """, nativeQuery = true)
+    String findRoutingCodeVersion();
+
+    @Query(value = "SELECT p.project_id AS id, p.title FROM project p", nativeQuery = true)
+    List<SearchTitleInterfaceDTO> findSearchTitles();
+
+    @Query(value = "SELECT p.project_id AS id, p.code, p.title FROM project p", nativeQuery = true)
+    List<SuggestInterfaceDTO> findSuggestEntries();
+
+    @Query(value = """
+            SELECT CONCAT_WS('.', COUNT(*), IFNULL(MAX(p.project_id), 0), IFNULL(MAX(p.updated_at), ''),
+                             IFNULL(SUM(CRC32(CONCAT_WS(':', p.project_id, p.status, p.amount_needed_to_raise))), 0)) AS version,
+                   MAX(p.updated_at) AS lastModified
+            FROM project p
+            """, nativeQuery = true)
+    ContentVersionInterfaceDTO findContentVersion();
+
+    @Query(value = """
+            SELECT p.project_id AS projectId,
+                   p.code,
+                   p.campaign_id AS campaignId,
+                   p.status,
+                   p.amount_needed_to_raise AS goal,
+                   IFNULL(pl.total_donation, 0) AS totalDonation
+            FROM project p
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            """, nativeQuery = true)
+    List<AllocationProjectInterfaceDTO> findAllocationProjects();
+
+    /**
+     * The least funded open project among the given ones that belongs to the challenge. The projects are
+     * read by primary key and checked against the challenge through the challenge_project project index.
+     */
+    @Query(value = """
+            SELECT p.project_id AS projectId,
+                   p.code,
+                   p.amount_needed_to_raise AS goal,
+                   p.status,
+                   IFNULL(pl.total_donation, 0) AS totalDonation
+            FROM project p
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
+            WHERE p.project_id IN (:projectIds)
               AND p.status = 2
-              AND (:donationDescription IS NULL OR :donationDescription LIKE CONCAT('%', p.code, '%'))
-            GROUP BY p.project_id, p.code, p.amount_needed_to_raise
-            HAVING (:isAll OR p.amount_needed_to_raise > totalDonation)
+              AND EXISTS (SELECT 1
+                          FROM challenge_project cp
+                          WHERE cp.project_id = p.project_id
+                            AND cp.challenge_id = :challengeId)
             ORDER BY totalDonation ASC
             LIMIT 1
             """, nativeQuery = true)
-    ProjectTransactionDTO findValidProjectByChallengeIdAndDescription(@Param("challengeId") BigInteger challengeId,
-                                                                      @Param("donationDescription") String donationDescription,
-                                                                      @Param("isAll") Boolean isAll);
+    ProjectTransactionDTO findChallengeProjectTransactionByProjectIds(@Param("challengeId") BigInteger challengeId,
+                                                                      @Param("projectIds") List<BigInteger> projectIds);
 
 
     @Query(value = """
             SELECT p.project_id AS projectId,
-                   IFNULL(SUM(CASE WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL THEN d.value ELSE 0 END) +
-                          SUM(CASE WHEN d.transferred_project_id = p.project_id THEN d.value ELSE 0 END), 0) AS totalDonation
+                   IFNULL(pl.total_donation, 0) AS totalDonation
             FROM project p
-            LEFT JOIN donation d ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
-            LEFT JOIN campaign c ON c.campaign_id = p.campaign_id
-            LEFT JOIN wrong_donation wd ON wd.donation_id = d.donation_id
+            LEFT JOIN project_donation_ledger pl ON pl.project_id = p.project_id
             WHERE p.project_id = :projectId
-            GROUP BY p.project_id, p.title, p.code, p.created_at, p.status, p.amount_needed_to_raise,
-                     c.campaign_id, c.title, p.address, p.ward, p.district, p.province, p.total_budget
             """, nativeQuery = true)
     ProjectInterfaceDTO getProjectDetailByProjectId(@Param("projectId") BigInteger projectId);
 
@@ -302,28 +558,27 @@ public interface ProjectRepository extends JpaRepository<Project, BigInteger> {
             SELECT
                 p.project_id AS projectId,
                 p.amount_needed_to_raise AS target,
-                IFNULL((
-                    SUM(CASE
-                        WHEN d.transferred_project_id IS NULL AND wd.wrong_donation_id IS NULL
-                        THEN d.value
-                        ELSE 0
-                    END) +
-                    SUM(CASE
-                        WHEN d.transferred_project_id = p.project_id
-                        THEN d.value
-                        ELSE 0
-                    END)
-                ), 0) AS totalDonation
+                IFNULL(pl.total_donation, 0) AS totalDonation
             FROM project p
-            LEFT JOIN donation d
-                ON p.project_id = d.project_id OR d.transferred_project_id = p.project_id
-            LEFT JOIN wrong_donation wd
-                ON wd.donation_id = d.donation_id
+            LEFT JOIN project_donation_ledger pl
+                ON pl.project_id = p.project_id
             WHERE p.project_id = :projectId
-            GROUP BY p.project_id, p.code, p.amount_needed_to_raise
             """, nativeQuery = true)
     ProjectDonationInformattionDTO getDonationInformationTotal(@Param("projectId") BigInteger projectId);
 
+    @Query(value = """
+            SELECT
+                p.project_id AS projectId,
+                p.amount_needed_to_raise AS target,
+                IFNULL(pl.total_donation, 0) AS totalDonation,
+                IFNULL(pl.donation_count, 0) AS donationCount
+            FROM project p
+            LEFT JOIN project_donation_ledger pl
+                ON pl.project_id = p.project_id
+            WHERE p.project_id IN (:projectIds)
+            """, nativeQuery = true)
+    List<ProjectProgressInterfaceDTO> findProgressByIds(@Param("projectIds") Collection<BigInteger> projectIds);
+
     @Query(value = """
     SELECT COUNT(DISTINCT p.project_id) AS totalProjects,
            COUNT(DISTINCT CASE WHEN p.status = 2 THEN p.project_id ELSE NULL END) AS totalOnGoingProjects,
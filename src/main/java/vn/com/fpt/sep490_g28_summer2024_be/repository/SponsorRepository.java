@@ -5,11 +5,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.sponsor.interfacedto.SponsorCountInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Sponsor;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface SponsorRepository extends JpaRepository<Sponsor, BigInteger> {
     @Query(value = """
@@ -33,6 +36,15 @@ public interface SponsorRepository extends JpaRepository<Sponsor, BigInteger> {
         """, nativeQuery = true)
     Integer countSponsorsByProjectId(@Param("projectId") BigInteger projectId);
 
+    @Query(value = """
+        SELECT s.project_id AS projectId,
+               COUNT(*) AS sponsorCount
+        FROM sponsor s
+        WHERE s.project_id IN (:projectIds)
+        GROUP BY s.project_id
+        """, nativeQuery = true)
+    List<SponsorCountInterfaceDTO> countSponsorsByProjectIds(@Param("projectIds") Collection<BigInteger> projectIds);
+
     @Query(value = """
     SELECT IFNULL(SUM(s.value), 0) FROM sponsor s
     WHERE (YEAR(s.created_at) = :year)
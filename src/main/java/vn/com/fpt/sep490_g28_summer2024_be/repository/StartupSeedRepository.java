@@ -0,0 +1,25 @@
+package vn.com.fpt.sep490_g28_summer2024_be.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.StartupSeed;
+
+@Repository
+public interface StartupSeedRepository extends JpaRepository<StartupSeed, String> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO startup_seed (seed_name) VALUES (:name)", nativeQuery = true)
+    void insertMarker(@Param("name") String name);
+
+    /**
+     * Locks the marker until the caller's transaction ends, so instances starting together seed once.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StartupSeed s WHERE s.seedName = :name")
+    StartupSeed findForUpdate(@Param("name") String name);
+}
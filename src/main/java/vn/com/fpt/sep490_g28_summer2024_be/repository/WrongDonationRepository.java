@@ -1,9 +1,23 @@
 package vn.com.fpt.sep490_g28_summer2024_be.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.WrongDonation;
 
 import java.math.BigInteger;
+import java.util.List;
 
 public interface WrongDonationRepository extends JpaRepository<WrongDonation, BigInteger> {
+
+    @Query("""
+            SELECT w FROM WrongDonation w
+            JOIN FETCH w.donation d
+            LEFT JOIN FETCH d.project p
+            LEFT JOIN FETCH p.campaign
+            WHERE w.wrongDonationId > :afterId
+            ORDER BY w.wrongDonationId
+            """)
+    List<WrongDonation> findPageAfter(@Param("afterId") BigInteger afterId, Pageable pageable);
 }
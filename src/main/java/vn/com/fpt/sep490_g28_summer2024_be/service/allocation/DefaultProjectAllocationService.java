@@ -0,0 +1,351 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.allocation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.common.StartupOrder;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.AllocationReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto.AllocationProjectInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto.ChallengeMembershipInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ChallengeProject;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Picks the project an overflowing or unroutable donation is redirected to. Fundable projects
+ * (status 2, goal not reached) are kept in ordered sets by total donation at three scopes - global,
+ * per campaign and per challenge - so the least-funded project is found without aggregating donations,
+ * and re-keying a project after a donation costs O(log n).
+ */
+@Service
+@Slf4j
+public class DefaultProjectAllocationService implements ProjectAllocationService {
+
+    private static final int FUNDABLE_STATUS = 2;
+    private static final Comparator<ProjectState> LEAST_FUNDED = Comparator
+            .comparing(ProjectState::getTotalDonation)
+            .thenComparing(ProjectState::getProjectId);
+
+    private final ProjectRepository projectRepository;
+    private final ChallengeProjectRepository challengeProjectRepository;
+
+    private final Map<BigInteger, ProjectState> projects = new HashMap<>();
+    private final Map<BigInteger, Set<BigInteger>> challengesByProject = new HashMap<>();
+    private final NavigableSet<ProjectState> global = new TreeSet<>(LEAST_FUNDED);
+    private final Map<BigInteger, NavigableSet<ProjectState>> byCampaign = new HashMap<>();
+    private final Map<BigInteger, NavigableSet<ProjectState>> byChallenge = new HashMap<>();
+
+    public DefaultProjectAllocationService(ProjectRepository projectRepository,
+                                           ChallengeProjectRepository challengeProjectRepository) {
+        this.projectRepository = projectRepository;
+        this.challengeProjectRepository = challengeProjectRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(StartupOrder.INDEX)
+    public void init() {
+        reload();
+    }
+
+    @Override
+    public synchronized ProjectTransactionDTO pickGlobal() {
+        return global.isEmpty() ? null : global.first();
+    }
+
+    @Override
+    public synchronized ProjectTransactionDTO pickInCampaign(BigInteger campaignId) {
+        NavigableSet<ProjectState> heap = byCampaign.get(campaignId);
+        return heap == null || heap.isEmpty() ? null : heap.first();
+    }
+
+    @Override
+    public synchronized ProjectTransactionDTO pickInChallenge(BigInteger challengeId) {
+        NavigableSet<ProjectState> heap = byChallenge.get(challengeId);
+        return heap == null || heap.isEmpty() ? null : heap.first();
+    }
+
+    @Override
+    public synchronized ProjectTransactionDTO findFundable(BigInteger projectId) {
+        ProjectState state = projectId == null ? null : projects.get(projectId);
+        return state != null && state.isFundable() ? state : null;
+    }
+
+    @Override
+    public ProjectTransactionDTO refreshProject(AllocationProjectInterfaceDTO row) {
+        ProjectState previous = put(row.getProjectId(), row.getCode(), row.getCampaignId(), row.getStatus(),
+                row.getGoal(), row.getTotalDonation() == null ? BigDecimal.ZERO : row.getTotalDonation());
+        afterRollback(() -> restore(row.getProjectId(), previous));
+        return findFundable(row.getProjectId());
+    }
+
+    @Override
+    public void applyDonation(BigInteger projectId, BigDecimal amount) {
+        if (projectId == null || amount == null || amount.signum() == 0) return;
+        addToTotal(projectId, amount);
+        afterRollback(() -> addToTotal(projectId, amount.negate()));
+    }
+
+    @Override
+    public void indexProject(Project project) {
+        if (project.getProjectId() == null) return;
+        ProjectState previous = put(project.getProjectId(), project.getCode(),
+                project.getCampaign() == null ? null : project.getCampaign().getCampaignId(),
+                project.getStatus(), project.getAmountNeededToRaise(), null);
+        afterRollback(() -> restore(project.getProjectId(), previous));
+    }
+
+    @Override
+    public void removeProject(Project project) {
+        ProjectState previous = remove(project.getProjectId());
+        afterRollback(() -> restore(project.getProjectId(), previous));
+    }
+
+    @Override
+    public void indexChallengeProject(ChallengeProject challengeProject) {
+        BigInteger challengeId = challengeProject.getChallenge() == null ? null : challengeProject.getChallenge().getChallengeId();
+        BigInteger projectId = challengeProject.getProject() == null ? null : challengeProject.getProject().getProjectId();
+        if (challengeId == null || projectId == null) return;
+        if (join(challengeId, projectId)) {
+            afterRollback(() -> leave(challengeId, projectId));
+        }
+    }
+
+    @Override
+    public void removeChallengeProject(ChallengeProject challengeProject) {
+        BigInteger challengeId = challengeProject.getChallenge() == null ? null : challengeProject.getChallenge().getChallengeId();
+        BigInteger projectId = challengeProject.getProject() == null ? null : challengeProject.getProject().getProjectId();
+        if (challengeId == null || projectId == null) return;
+        if (leave(challengeId, projectId)) {
+            afterRollback(() -> join(challengeId, projectId));
+        }
+    }
+
+    /**
+     * Compares the in-memory state with the project, ledger and challenge tables.
+     */
+    @Override
+    public AllocationReportDTO verify() {
+        List<AllocationProjectInterfaceDTO> rows = projectRepository.findAllocationProjects();
+        Map<BigInteger, Set<BigInteger>> memberships = loadMemberships();
+
+        List<BigInteger> mismatched = new ArrayList<>();
+        int fundable;
+        synchronized (this) {
+            Set<BigInteger> seen = new HashSet<>();
+            for (AllocationProjectInterfaceDTO row : rows) {
+                seen.add(row.getProjectId());
+                ProjectState state = projects.get(row.getProjectId());
+                if (state == null
+                        || !Objects.equals(state.getCampaignId(), row.getCampaignId())
+                        || !Objects.equals(state.getStatus(), row.getStatus())
+                        || compare(state.getGoal(), row.getGoal()) != 0
+                        || compare(state.getTotalDonation(), row.getTotalDonation()) != 0
+                        || !challengesByProject.getOrDefault(row.getProjectId(), Set.of())
+                                .equals(memberships.getOrDefault(row.getProjectId(), Set.of()))) {
+                    mismatched.add(row.getProjectId());
+                }
+            }
+            projects.keySet().stream()
+                    .filter(projectId -> !seen.contains(projectId))
+                    .forEach(mismatched::add);
+            fundable = global.size();
+        }
+
+        if (!mismatched.isEmpty()) {
+            log.warn("Project allocator differs from the database on {} project(s)", mismatched.size());
+        }
+        return AllocationReportDTO.builder()
+                .checkedAt(LocalDateTime.now())
+                .projectCount(rows.size())
+                .fundableCount(fundable)
+                .mismatchCount(mismatched.size())
+                .mismatchedProjectIds(mismatched)
+                .build();
+    }
+
+    @Override
+    public AllocationReportDTO reload() {
+        List<AllocationProjectInterfaceDTO> rows = projectRepository.findAllocationProjects();
+        Map<BigInteger, Set<BigInteger>> memberships = loadMemberships();
+        synchronized (this) {
+            projects.clear();
+            challengesByProject.clear();
+            global.clear();
+            byCampaign.clear();
+            byChallenge.clear();
+            memberships.forEach((projectId, challengeIds) -> challengesByProject.put(projectId, new HashSet<>(challengeIds)));
+            rows.forEach(row -> put(row.getProjectId(), row.getCode(), row.getCampaignId(), row.getStatus(),
+                    row.getGoal(), row.getTotalDonation()));
+            log.info("Project allocator loaded {} project(s), {} fundable", projects.size(), global.size());
+            return AllocationReportDTO.builder()
+                    .checkedAt(LocalDateTime.now())
+                    .projectCount(projects.size())
+                    .fundableCount(global.size())
+                    .reloaded(true)
+                    .build();
+        }
+    }
+
+    private Map<BigInteger, Set<BigInteger>> loadMemberships() {
+        Map<BigInteger, Set<BigInteger>> memberships = new HashMap<>();
+        for (ChallengeMembershipInterfaceDTO row : challengeProjectRepository.findAllMemberships()) {
+            memberships.computeIfAbsent(row.getProjectId(), k -> new HashSet<>()).add(row.getChallengeId());
+        }
+        return memberships;
+    }
+
+    /**
+     * Stores the project and files it under every scope it is fundable in. A null total keeps the total
+     * already known for the project. Returns the state it replaced.
+     */
+    private synchronized ProjectState put(BigInteger projectId, String code, BigInteger campaignId, Integer status,
+                                          BigDecimal goal, BigDecimal totalDonation) {
+        ProjectState previous = remove(projectId);
+        BigDecimal total = totalDonation != null ? totalDonation
+                : previous != null ? previous.getTotalDonation() : BigDecimal.ZERO;
+        ProjectState next = new ProjectState(projectId, code, campaignId, status,
+                goal == null ? BigDecimal.ZERO : goal, total);
+        projects.put(projectId, next);
+        file(next);
+        return previous;
+    }
+
+    private synchronized ProjectState remove(BigInteger projectId) {
+        ProjectState previous = projects.remove(projectId);
+        if (previous != null) unfile(previous);
+        return previous;
+    }
+
+    private synchronized void restore(BigInteger projectId, ProjectState previous) {
+        remove(projectId);
+        if (previous != null) {
+            projects.put(projectId, previous);
+            file(previous);
+        }
+    }
+
+    private synchronized void addToTotal(BigInteger projectId, BigDecimal amount) {
+        ProjectState state = remove(projectId);
+        if (state == null) return;
+        ProjectState next = new ProjectState(projectId, state.getCode(), state.getCampaignId(), state.getStatus(),
+                state.getGoal(), state.getTotalDonation().add(amount));
+        projects.put(projectId, next);
+        file(next);
+    }
+
+    private synchronized boolean join(BigInteger challengeId, BigInteger projectId) {
+        ProjectState state = remove(projectId);
+        boolean added = challengesByProject.computeIfAbsent(projectId, k -> new HashSet<>()).add(challengeId);
+        if (state != null) restore(projectId, state);
+        return added;
+    }
+
+    private synchronized boolean leave(BigInteger challengeId, BigInteger projectId) {
+        ProjectState state = remove(projectId);
+        Set<BigInteger> challengeIds = challengesByProject.get(projectId);
+        boolean removed = challengeIds != null && challengeIds.remove(challengeId);
+        if (challengeIds != null && challengeIds.isEmpty()) challengesByProject.remove(projectId);
+        if (state != null) restore(projectId, state);
+        return removed;
+    }
+
+    private void file(ProjectState state) {
+        if (!state.isFundable()) return;
+        global.add(state);
+        if (state.getCampaignId() != null) {
+            byCampaign.computeIfAbsent(state.getCampaignId(), k -> new TreeSet<>(LEAST_FUNDED)).add(state);
+        }
+        for (BigInteger challengeId : challengesByProject.getOrDefault(state.getProjectId(), Set.of())) {
+            byChallenge.computeIfAbsent(challengeId, k -> new TreeSet<>(LEAST_FUNDED)).add(state);
+        }
+    }
+
+    private void unfile(ProjectState state) {
+        if (!state.isFundable()) return;
+        global.remove(state);
+        if (state.getCampaignId() != null) {
+            removeFrom(byCampaign, state.getCampaignId(), state);
+        }
+        for (BigInteger challengeId : challengesByProject.getOrDefault(state.getProjectId(), Set.of())) {
+            removeFrom(byChallenge, challengeId, state);
+        }
+    }
+
+    private static void removeFrom(Map<BigInteger, NavigableSet<ProjectState>> scopes, BigInteger key, ProjectState state) {
+        NavigableSet<ProjectState> heap = scopes.get(key);
+        if (heap == null) return;
+        heap.remove(state);
+        if (heap.isEmpty()) scopes.remove(key);
+    }
+
+    private static int compare(BigDecimal left, BigDecimal right) {
+        return (left == null ? BigDecimal.ZERO : left).compareTo(right == null ? BigDecimal.ZERO : right);
+    }
+
+    /**
+     * Changes are visible right away to the writing transaction. If it rolls back they are undone in
+     * reverse order, so a project update following a donation restores the right total.
+     */
+    private static void afterRollback(Runnable undo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        UndoLog undoLog = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(UndoLog.class::isInstance)
+                .map(UndoLog.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    UndoLog created = new UndoLog();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        undoLog.actions.push(undo);
+    }
+
+    private static final class UndoLog implements TransactionSynchronization {
+        private final Deque<Runnable> actions = new ArrayDeque<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) actions.forEach(Runnable::run);
+            actions.clear();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class ProjectState implements ProjectTransactionDTO {
+        private final BigInteger projectId;
+        private final String code;
+        private final BigInteger campaignId;
+        private final Integer status;
+        private final BigDecimal goal;
+        private final BigDecimal totalDonation;
+
+        private boolean isFundable() {
+            return Objects.equals(status, FUNDABLE_STATUS) && goal.compareTo(totalDonation) > 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.allocation;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ChallengeProject;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+
+/**
+ * Keeps the project allocator in step with project status, goal and challenge membership changes.
+ */
+@Component
+public class ProjectAllocationEntityListener {
+
+    private final ProjectAllocationService projectAllocationService;
+
+    public ProjectAllocationEntityListener(@Lazy ProjectAllocationService projectAllocationService) {
+        this.projectAllocationService = projectAllocationService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Project project) {
+            projectAllocationService.indexProject(project);
+        } else if (entity instanceof ChallengeProject challengeProject) {
+            projectAllocationService.indexChallengeProject(challengeProject);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Project project) {
+            projectAllocationService.removeProject(project);
+        } else if (entity instanceof ChallengeProject challengeProject) {
+            projectAllocationService.removeChallengeProject(challengeProject);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.allocation;
+
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.AllocationReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto.AllocationProjectInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ChallengeProject;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public interface ProjectAllocationService {
+
+    ProjectTransactionDTO pickGlobal();
+
+    ProjectTransactionDTO pickInCampaign(BigInteger campaignId);
+
+    ProjectTransactionDTO pickInChallenge(BigInteger challengeId);
+
+    ProjectTransactionDTO findFundable(BigInteger projectId);
+
+    /**
+     * Replaces what is known about the project with the row read from the database and returns the
+     * project when that row still takes donations, null otherwise.
+     */
+    ProjectTransactionDTO refreshProject(AllocationProjectInterfaceDTO row);
+
+    void applyDonation(BigInteger projectId, BigDecimal amount);
+
+    void indexProject(Project project);
+
+    void removeProject(Project project);
+
+    void indexChallengeProject(ChallengeProject challengeProject);
+
+    void removeChallengeProject(ChallengeProject challengeProject);
+
+    AllocationReportDTO verify();
+
+    AllocationReportDTO reload();
+}
@@ -7,8 +7,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignRequestDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignStatisticsResponse;
@@ -20,6 +22,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.firebase.FirebaseServiceImpl;
 import vn.com.fpt.sep490_g28_summer2024_be.mapper.Mapper;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexService;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.SlugUtils;
 
 import java.io.IOException;
@@ -36,11 +39,19 @@ public class CampaignServiceImpl implements CampaignService {
     private final FirebaseServiceImpl firebaseService;
     private final ProjectRepository projectRepository;
     private final SlugUtils slugUtils;
+    private final SearchIndexService searchIndexService;
 
     @Override
     public PageResponse<?> viewByFilter(Integer page, Integer size, String title, Boolean isActive) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Campaign> campaignPage = campaignRepository.findCampaignsByFilters(title, isActive, pageable);
+        Page<Campaign> campaignPage;
+        if (StringUtils.hasText(title)) {
+            campaignPage = searchIndexService.search(SearchScope.CAMPAIGN, title, pageable,
+                    ids -> campaignRepository.findCampaignIdsInIds(ids, isActive),
+                    ids -> campaignRepository.findCampaignsByFiltersInIds(ids, StringUtils.collectionToCommaDelimitedString(ids), isActive, Pageable.unpaged()).getContent());
+        } else {
+            campaignPage = campaignRepository.findCampaignsByFilters(title, isActive, pageable);
+        }
 
         List<CampaignResponseDTO> campaignDTOS = campaignPage.map(campaign -> CampaignResponseDTO.builder()
                 .campaignId(campaign.getCampaignId())
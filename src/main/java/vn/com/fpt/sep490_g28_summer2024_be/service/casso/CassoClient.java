@@ -0,0 +1,184 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.logging.HttpLoggingInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoRecordDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * HTTP client for the Casso transaction API. It keeps its own connection pool and timeouts, logs
+ * headers only, and parses each page as a stream so records are handed over one by one instead of
+ * being buffered as a string first. A 429 is retried after the delay the server asks for.
+ */
+@Component
+@Slf4j
+public class CassoClient {
+
+    private static final String API_KEY = "Apikey AK_CS.d91801801f7111f0817bcdc74842cb1f.yYCdiseHkItpHIKOpl8idQckGnIFJGRw6NAoEEdazmztTVtn3KRxRpNt8yNiP2K1lMZaBAIa";
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final int maxRetries;
+    private final long maxRetryAfterMillis;
+
+    public CassoClient(ObjectMapper objectMapper,
+                       @Value("${casso.client.connect-timeout-ms:5000}") long connectTimeoutMs,
+                       @Value("${casso.client.read-timeout-ms:30000}") long readTimeoutMs,
+                       @Value("${casso.client.call-timeout-ms:60000}") long callTimeoutMs,
+                       @Value("${casso.client.max-idle-connections:8}") int maxIdleConnections,
+                       @Value("${casso.client.keep-alive-seconds:300}") long keepAliveSeconds,
+                       @Value("${casso.client.max-retries:3}") int maxRetries,
+                       @Value("${casso.client.max-retry-after-seconds:60}") long maxRetryAfterSeconds) {
+        HttpLoggingInterceptor logging = new HttpLoggingInterceptor(log::debug);
+        logging.setLevel(HttpLoggingInterceptor.Level.HEADERS);
+        logging.redactHeader("Authorization");
+
+        this.httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .callTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+                .addInterceptor(logging)
+                .build();
+        this.objectMapper = objectMapper;
+        this.maxRetries = maxRetries;
+        this.maxRetryAfterMillis = TimeUnit.SECONDS.toMillis(maxRetryAfterSeconds);
+    }
+
+    /**
+     * Fetches one page of transactions, passing each record to the consumer as it is parsed. Returns
+     * the paging fields of the page; its records list is left empty.
+     */
+    public CassoResponseDTO fetchPage(String url, Consumer<CassoRecordDTO> consumer) {
+        Request request = new Request.Builder()
+                .url(url)
+                .get()
+                .addHeader("Content-Type", "application/json")
+                .addHeader("Authorization", API_KEY)
+                .build();
+
+        for (int attempt = 0; ; attempt++) {
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (response.code() == TOO_MANY_REQUESTS && attempt < maxRetries) {
+                    long delay = retryAfterMillis(response.header("Retry-After"), attempt);
+                    log.warn("Casso rate limited, retrying in {} ms ({}/{})", delay, attempt + 1, maxRetries);
+                    sleep(delay);
+                    continue;
+                }
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) throw new IOException("Unexpected code " + response);
+                return readPage(body.byteStream(), consumer);
+            } catch (JsonProcessingException e) {
+                throw new AppException(ErrorCode.HTTP_MAPPING_FAILED);
+            } catch (IOException e) {
+                throw new AppException(ErrorCode.HTTP_FETCH_FAILED);
+            }
+        }
+    }
+
+    /**
+     * Reads {@code {"error":..,"message":..,"data":{.., "records":[..]}}} token by token. Only the
+     * record being handed to the consumer is held in memory.
+     */
+    public CassoResponseDTO readPage(InputStream body, Consumer<CassoRecordDTO> consumer) throws IOException {
+        CassoResponseDTO page = new CassoResponseDTO();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    readData(parser, page, consumer);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return page;
+    }
+
+    private void readData(JsonParser parser, CassoResponseDTO page, Consumer<CassoRecordDTO> consumer) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "page" -> page.setPage(intValue(parser, value));
+                case "pageSize" -> page.setPageSize(intValue(parser, value));
+                case "nextPage" -> page.setNextPage(intValue(parser, value));
+                case "prevPage" -> page.setPrevPage(intValue(parser, value));
+                case "totalPages" -> page.setTotalPages(intValue(parser, value));
+                case "totalRecords" -> page.setTotalRecords(intValue(parser, value));
+                case "records" -> {
+                    if (value != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(objectMapper.readValue(parser, CassoRecordDTO.class));
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static Integer intValue(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : parser.getValueAsInt();
+    }
+
+    /**
+     * Retry-After is either a number of seconds or an HTTP date. Without it the wait doubles from one
+     * second per attempt.
+     */
+    private long retryAfterMillis(String retryAfter, int attempt) {
+        long delay = TimeUnit.SECONDS.toMillis(1L << Math.min(attempt, 5));
+        if (retryAfter != null && !retryAfter.isBlank()) {
+            try {
+                delay = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime at = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    delay = Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis();
+                } catch (DateTimeParseException ignored) {
+                    // keep the default backoff
+                }
+            }
+        }
+        return Math.min(Math.max(delay, 0), maxRetryAfterMillis);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppException(ErrorCode.HTTP_FETCH_FAILED);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.InboxAckDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.InboxStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+
+import java.util.List;
+
+public interface CassoInboxService {
+
+    InboxAckDTO enqueue(List<TransactionDataDTO> transactions);
+
+    int drain();
+
+    int releaseExpiredClaims();
+
+    InboxStatsDTO getStats();
+
+    int requeueDead();
+}
@@ -1,7 +1,15 @@
 package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
 
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.RefundMatchStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SeenFilterStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SyncCursorDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SyncProgressDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.DonationResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionResultDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 
 
@@ -10,5 +18,21 @@ public interface CassoService {
 
     DonationResponseDTO handleOutPayment(TransactionDataDTO transactionDataDTO);
 
+    List<TransactionResultDTO> handleTransactions(List<TransactionDataDTO> transactions);
+
     void initMissingDonation() throws Exception;
+
+    /**
+     * Records that transfers up to {@code ingestedUpTo} arrived through the webhook, so the next
+     * catch-up sync starts from that day instead of the last one it paged through itself.
+     */
+    void checkpointSyncCursor(LocalDateTime ingestedUpTo);
+
+    SyncProgressDTO getSyncProgress();
+
+    SyncCursorDTO getSyncCursor();
+
+    RefundMatchStatsDTO getRefundMatchStats();
+
+    SeenFilterStatsDTO getSeenFilterStats();
 }
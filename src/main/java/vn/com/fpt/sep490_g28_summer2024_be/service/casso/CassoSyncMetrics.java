@@ -0,0 +1,83 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SyncProgressDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the current (or last) Casso catch-up run.
+ */
+@Component
+@Slf4j
+public class CassoSyncMetrics {
+
+    private final AtomicLong pagesProcessed = new AtomicLong();
+    private final AtomicLong recordsProcessed = new AtomicLong();
+    private final AtomicLong recordsCreated = new AtomicLong();
+    private volatile boolean running;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile LocalDateTime lastRecordAt;
+    private volatile int totalPages;
+
+    public void start(int totalPages) {
+        pagesProcessed.set(0);
+        recordsProcessed.set(0);
+        recordsCreated.set(0);
+        this.totalPages = totalPages;
+        this.lastRecordAt = null;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        this.startedNanos = System.nanoTime();
+        this.running = true;
+    }
+
+    public void recordPage(int records, int created, LocalDateTime lastRecordAt) {
+        pagesProcessed.incrementAndGet();
+        recordsProcessed.addAndGet(records);
+        recordsCreated.addAndGet(created);
+        if (lastRecordAt != null) this.lastRecordAt = lastRecordAt;
+
+        SyncProgressDTO progress = snapshot();
+        log.info("Casso sync page {}/{}: {} records ({} new), {} pages/s, {} records/s, lag {}s",
+                progress.getPagesProcessed(), progress.getTotalPages(), records, created,
+                String.format("%.2f", progress.getPagesPerSecond()),
+                String.format("%.1f", progress.getRecordsPerSecond()),
+                progress.getLagSeconds());
+    }
+
+    public void finish() {
+        if (!running) return;
+        this.finishedNanos = System.nanoTime();
+        this.finishedAt = LocalDateTime.now();
+        this.running = false;
+    }
+
+    public SyncProgressDTO snapshot() {
+        if (startedAt == null) {
+            return SyncProgressDTO.builder().running(false).build();
+        }
+        double seconds = Math.max(((running ? System.nanoTime() : finishedNanos) - startedNanos) / 1e9, 1e-3);
+        LocalDateTime last = lastRecordAt;
+        return SyncProgressDTO.builder()
+                .running(running)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .totalPages(totalPages)
+                .pagesProcessed(pagesProcessed.get())
+                .recordsProcessed(recordsProcessed.get())
+                .recordsCreated(recordsCreated.get())
+                .recordsSkipped(recordsProcessed.get() - recordsCreated.get())
+                .pagesPerSecond(pagesProcessed.get() / seconds)
+                .recordsPerSecond(recordsProcessed.get() / seconds)
+                .lastRecordAt(last)
+                .lagSeconds(last == null ? null : Duration.between(last, LocalDateTime.now()).getSeconds())
+                .build();
+    }
+}
@@ -0,0 +1,281 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.common.InboxStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.common.IngestStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.common.StartupOrder;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.InboxAckDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.InboxStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionResultDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.CassoInbox;
+import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CassoInboxRepository;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable inbox between the Casso webhook and donation routing. The webhook only appends the
+ * transactions and answers; a pool of workers drains the inbox through the per-project lanes, retrying
+ * failed entries with exponential backoff until they are parked as dead letters.
+ * <p>
+ * A worker claims its entries under a lease stamped with this instance's id. Claims are handed back
+ * once the lease runs out, so entries of a crashed instance are picked up by the others, and at
+ * startup also when this instance left them behind, which needs {@code casso.inbox.instance-id} to be
+ * stable across restarts.
+ */
+@Service
+@Slf4j
+public class DefaultCassoInboxService implements CassoInboxService {
+
+    private final CassoInboxRepository cassoInboxRepository;
+    private final DonationLaneDispatcher donationLaneDispatcher;
+    private final CassoService cassoService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final String instanceId;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffSeconds;
+    private final long maxBackoffSeconds;
+    private final long leaseSeconds;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private volatile LocalDateTime lastDrainAt;
+    private volatile boolean started;
+
+    public DefaultCassoInboxService(CassoInboxRepository cassoInboxRepository,
+                                    DonationLaneDispatcher donationLaneDispatcher,
+                                    CassoService cassoService,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Qualifier("cassoInboxExecutor") Executor executor,
+                                    @Value("${casso.inbox.instance-id:}") String instanceId,
+                                    @Value("${casso.inbox.workers:2}") int workers,
+                                    @Value("${casso.inbox.batch-size:100}") int batchSize,
+                                    @Value("${casso.inbox.max-attempts:6}") int maxAttempts,
+                                    @Value("${casso.inbox.backoff-seconds:5}") long backoffSeconds,
+                                    @Value("${casso.inbox.max-backoff-seconds:600}") long maxBackoffSeconds,
+                                    @Value("${casso.inbox.lease-seconds:300}") long leaseSeconds) {
+        this.cassoInboxRepository = cassoInboxRepository;
+        this.donationLaneDispatcher = donationLaneDispatcher;
+        this.cassoService = cassoService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.workers = Math.max(1, workers);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffSeconds = backoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * Entries this instance was working on before it stopped, and entries whose lease ran out, go back
+     * to the queue; entries other live instances are working on stay theirs. Draining starts only
+     * after this, which runs once the ledger, routing codes and allocator are loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(StartupOrder.INGEST)
+    @Transactional
+    public void recover() {
+        releaseClaims(instanceId);
+        started = true;
+    }
+
+    @Override
+    @Transactional
+    public int releaseExpiredClaims() {
+        return started ? releaseClaims(null) : 0;
+    }
+
+    private int releaseClaims(String owner) {
+        int released = cassoInboxRepository.releaseClaims(InboxStatus.PROCESSING, InboxStatus.PENDING, owner,
+                LocalDateTime.now().minusSeconds(leaseSeconds));
+        if (released > 0) log.info("Casso inbox: {} interrupted entries requeued", released);
+        return released;
+    }
+
+    @Override
+    @Transactional
+    public InboxAckDTO enqueue(List<TransactionDataDTO> transactions) {
+        int accepted = 0;
+        int duplicate = 0;
+        if (transactions == null) return InboxAckDTO.builder().accepted(0).duplicate(0).build();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (TransactionDataDTO transaction : transactions) {
+            if (cassoInboxRepository.append(transaction.getId(), toPayload(transaction), now) > 0) {
+                accepted++;
+            } else {
+                duplicate++;
+            }
+        }
+        return InboxAckDTO.builder().accepted(accepted).duplicate(duplicate).build();
+    }
+
+    /**
+     * Runs the workers until the inbox has nothing due. Each worker claims its own batches, so they
+     * never share an entry, and hands them to the lanes, which keep one project's transfers in order
+     * whichever worker claimed them.
+     */
+    @Override
+    public int drain() {
+        // the schedule fires as soon as the context is refreshed, before the routing state is loaded
+        if (!started) return 0;
+        List<CompletableFuture<Integer>> running = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            running.add(CompletableFuture.supplyAsync(this::drainBatches, executor));
+        }
+        int drained = running.stream().mapToInt(CompletableFuture::join).sum();
+        lastDrainAt = LocalDateTime.now();
+        return drained;
+    }
+
+    private int drainBatches() {
+        int drained = 0;
+        List<CassoInbox> claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> claim());
+            if (claimed == null || claimed.isEmpty()) break;
+            process(claimed);
+            drained += claimed.size();
+        } while (claimed.size() >= batchSize);
+        return drained;
+    }
+
+    private List<CassoInbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CassoInbox> due = cassoInboxRepository.findDue(InboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+        for (CassoInbox entry : due) {
+            entry.setStatus(InboxStatus.PROCESSING);
+            entry.setClaimedBy(instanceId);
+            entry.setClaimedAt(now);
+        }
+        return due;
+    }
+
+    private void process(List<CassoInbox> claimed) {
+        List<CassoInbox> entries = new ArrayList<>();
+        List<TransactionDataDTO> transactions = new ArrayList<>();
+        for (CassoInbox entry : claimed) {
+            try {
+                transactions.add(objectMapper.readValue(entry.getPayload(), TransactionDataDTO.class));
+                entries.add(entry);
+            } catch (JsonProcessingException e) {
+                // a payload that cannot be read will never succeed
+                fail(entry, e.getOriginalMessage(), false);
+            }
+        }
+
+        // a lane that fails reports its own entries as failed, the other lanes' results stand
+        List<TransactionResultDTO> results = donationLaneDispatcher.dispatch(transactions);
+
+        LocalDateTime ingestedUpTo = null;
+        for (int i = 0; i < entries.size(); i++) {
+            CassoInbox entry = entries.get(i);
+            TransactionResultDTO result = results.get(i);
+            if (result.getStatus() == IngestStatus.FAILED) {
+                fail(entry, result.getMessage(), true);
+            } else {
+                LocalDateTime when = transactions.get(i).getWhen();
+                if (when != null && (ingestedUpTo == null || when.isAfter(ingestedUpTo))) ingestedUpTo = when;
+                entry.setStatus(InboxStatus.DONE);
+                entry.setOutcome(result.getStatus().name());
+                entry.setLastError(result.getMessage());
+                entry.setProcessedAt(LocalDateTime.now());
+                processed.incrementAndGet();
+            }
+        }
+        LocalDateTime checkpoint = ingestedUpTo;
+        transactionTemplate.executeWithoutResult(status -> {
+            cassoInboxRepository.saveAll(claimed);
+            cassoService.checkpointSyncCursor(checkpoint);
+        });
+    }
+
+    private void fail(CassoInbox entry, String message, boolean retryable) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(message == null ? null : message.substring(0, Math.min(message.length(), 1000)));
+        if (!retryable || attempts >= maxAttempts) {
+            entry.setStatus(InboxStatus.DEAD);
+            entry.setProcessedAt(LocalDateTime.now());
+            deadLettered.incrementAndGet();
+            log.warn("Casso inbox entry {} (casso id {}) dead-lettered: {}", entry.getInboxId(), entry.getCassoId(), message);
+        } else {
+            long delay = Math.min(backoffSeconds << Math.min(attempts - 1, 20), maxBackoffSeconds);
+            entry.setStatus(InboxStatus.PENDING);
+            entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+            retried.incrementAndGet();
+        }
+    }
+
+    private String toPayload(TransactionDataDTO transaction) {
+        // writeValueAsString needs a newer jackson-core than the one Spring Boot brings in
+        StringWriter writer = new StringWriter();
+        try {
+            objectMapper.writeValue(writer, transaction);
+        } catch (IOException e) {
+            throw new AppException(ErrorCode.HTTP_MAPPING_FAILED);
+        }
+        return writer.toString();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public InboxStatsDTO getStats() {
+        Map<InboxStatus, Long> counts = new EnumMap<>(InboxStatus.class);
+        for (Object[] row : cassoInboxRepository.countGroupedByStatus()) {
+            counts.put((InboxStatus) row[0], ((Number) row[1]).longValue());
+        }
+        LocalDateTime oldestPending = cassoInboxRepository.findOldestReceivedAt(InboxStatus.PENDING);
+        return InboxStatsDTO.builder()
+                .pending(counts.getOrDefault(InboxStatus.PENDING, 0L))
+                .processing(counts.getOrDefault(InboxStatus.PROCESSING, 0L))
+                .done(counts.getOrDefault(InboxStatus.DONE, 0L))
+                .dead(counts.getOrDefault(InboxStatus.DEAD, 0L))
+                .oldestPendingSeconds(oldestPending == null ? null : Duration.between(oldestPending, LocalDateTime.now()).getSeconds())
+                .processedSinceStart(processed.get())
+                .retriedSinceStart(retried.get())
+                .deadSinceStart(deadLettered.get())
+                .lastDrainAt(lastDrainAt)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public int requeueDead() {
+        return cassoInboxRepository.requeue(InboxStatus.DEAD, InboxStatus.PENDING, LocalDateTime.now());
+    }
+}
@@ -1,131 +1,369 @@
 package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import vn.com.fpt.sep490_g28_summer2024_be.common.AppConfig;
-import vn.com.fpt.sep490_g28_summer2024_be.common.DonationStatus;
 import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.common.IngestStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.common.StartupOrder;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.account.admin.AccountDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.ApiCassoResponseDTO;
-import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.PageInfoDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoRecordDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.RefundMatchStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SeenFilterStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SyncCursorDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SyncProgressDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionResultDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.challenge.ChallengeResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.DonationResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.ProjectResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.RoutingMatchDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.*;
 import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.*;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.DonationFeedService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.ProjectLedgerService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
 
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
 @Service
+@Slf4j
 public class DefaultCassoService implements CassoService {
+    private static final String SYNC_CURSOR = "casso";
+
     private final ProjectRepository projectRepository;
     private final DonationRepository donationRepository;
-    private final WrongDonationRepository wrongDonationRepository;
     private final AccountRepository accountRepository;
     private final ChallengeRepository challengeRepository;
-    private final OkHttpClient okHttpClient;
-    private final ObjectMapper objectMapper;
+    private final ProjectLedgerService projectLedgerService;
+    private final ProjectAllocationService projectAllocationService;
+    private final RoutingCodeService routingCodeService;
+    private final RefundMatcher refundMatcher;
+    private final SeenTransactionFilter seenTransactionFilter;
+    private final DonationDailyStatsService donationDailyStatsService;
+    private final DonationFeedService donationFeedService;
+    private final EntityManager entityManager;
+    private final DonationBatchRepository donationBatchRepository;
+    private final CassoSyncCursorRepository cassoSyncCursorRepository;
+    private final CassoClient cassoClient;
     private final Executor executor;
+    private final Executor cassoSyncExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final CassoSyncMetrics cassoSyncMetrics;
+    private final int pageSize;
+    private final int concurrency;
 
     public DefaultCassoService(ProjectRepository projectRepository,
                                DonationRepository donationRepository,
-                               WrongDonationRepository wrongDonationRepository,
                                AccountRepository accountRepository,
                                ChallengeRepository challengeRepository,
-                               OkHttpClient okHttpClient,
-                               ObjectMapper objectMapper,
-                               @Qualifier("initExecutor") Executor executor) {
+                               ProjectLedgerService projectLedgerService,
+                               ProjectAllocationService projectAllocationService,
+                               RoutingCodeService routingCodeService,
+                               RefundMatcher refundMatcher,
+                               SeenTransactionFilter seenTransactionFilter,
+                               DonationDailyStatsService donationDailyStatsService,
+                               DonationFeedService donationFeedService,
+                               EntityManager entityManager,
+                               DonationBatchRepository donationBatchRepository,
+                               CassoSyncCursorRepository cassoSyncCursorRepository,
+                               CassoClient cassoClient,
+                               @Qualifier("initExecutor") Executor executor,
+                               @Qualifier("cassoSyncExecutor") Executor cassoSyncExecutor,
+                               PlatformTransactionManager transactionManager,
+                               CassoSyncMetrics cassoSyncMetrics,
+                               @Value("${casso.sync.page-size:100}") int pageSize,
+                               @Value("${casso.sync.concurrency:4}") int concurrency) {
         this.projectRepository = projectRepository;
         this.donationRepository = donationRepository;
-        this.wrongDonationRepository = wrongDonationRepository;
         this.accountRepository = accountRepository;
         this.challengeRepository = challengeRepository;
-        this.okHttpClient = okHttpClient;
-        this.objectMapper = objectMapper;
+        this.projectLedgerService = projectLedgerService;
+        this.projectAllocationService = projectAllocationService;
+        this.routingCodeService = routingCodeService;
+        this.refundMatcher = refundMatcher;
+        this.seenTransactionFilter = seenTransactionFilter;
+        this.donationDailyStatsService = donationDailyStatsService;
+        this.donationFeedService = donationFeedService;
+        this.entityManager = entityManager;
+        this.donationBatchRepository = donationBatchRepository;
+        this.cassoSyncCursorRepository = cassoSyncCursorRepository;
+        this.cassoClient = cassoClient;
         this.executor = executor;
+        this.cassoSyncExecutor = cassoSyncExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cassoSyncMetrics = cassoSyncMetrics;
+        this.pageSize = pageSize;
+        this.concurrency = Math.max(concurrency, 1);
     }
 
     @Override
     @Transactional
     public DonationResponseDTO handleInPayment(TransactionDataDTO transactionDataDTO) {
-        //donation request base init
-        Donation savedDonation = donationRepository.save(initDonationByTransaction(transactionDataDTO));
+        Donation donation = routeInPayment(initDonationByTransaction(transactionDataDTO));
+        writeRoutedDonation(donation);
+        return toDonationResponse(donation);
+    }
+
+    @Override
+    @Transactional
+    public DonationResponseDTO handleOutPayment(TransactionDataDTO transactionDataDTO) {
+        Donation baseDonation = initDonationByTransaction(transactionDataDTO);
+        if (routeOutPayment(baseDonation) != null) {
+            writeRoutedDonation(baseDonation);
+        }
+        return DonationResponseDTO.builder()
+                .donationId(baseDonation.getDonationId())
+                .value(baseDonation.getValue())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public List<TransactionResultDTO> handleTransactions(List<TransactionDataDTO> transactions) {
+        List<TransactionResultDTO> results = new ArrayList<>();
+        if (transactions == null || transactions.isEmpty()) return results;
+
+        // pending JPA writes reach the seen filter through the entity listener and must precede the JDBC batch
+        entityManager.flush();
+        Set<String> existingIds = seenTransactionFilter.existingIds(transactions.stream()
+                .map(TransactionDataDTO::getId)
+                .filter(Objects::nonNull)
+                .map(String::valueOf)
+                .toList());
+        List<RoutingMatchDTO> matches = prefetchRouting(transactions);
+
+        List<Donation> routedDonations = new ArrayList<>();
+        List<TransactionResultDTO> routedResults = new ArrayList<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionDataDTO transaction = transactions.get(i);
+            TransactionResultDTO result = TransactionResultDTO.builder()
+                    .id(transaction.getId())
+                    .tid(transaction.getTid())
+                    .build();
+            results.add(result);
+
+            if (transaction.getId() == null || transaction.getAmount() == null || !existingIds.add(transaction.getId().toString())) {
+                result.setStatus(IngestStatus.DUPLICATE);
+                continue;
+            }
+            try {
+                boolean inPayment = transaction.getAmount().compareTo(BigDecimal.ZERO) > 0;
+                if (!inPayment) {
+                    // a refund may point at a transfer earlier in this batch, which must be written first
+                    writeBatch(routedDonations, routedResults);
+                }
+                Donation donation = inPayment
+                        ? routeInPayment(initDonationByTransaction(transaction), matches.get(i))
+                        : routeOutPayment(initDonationByTransaction(transaction));
+                if (donation == null) {
+                    result.setStatus(IngestStatus.SKIPPED);
+                    result.setMessage("Không tìm thấy chuyển khoản gốc cho giao dịch hoàn tiền");
+                    continue;
+                }
+                // keep running totals current so the next record in the batch is routed on them
+                projectLedgerService.recordDonation(donation);
+                routedDonations.add(donation);
+                routedResults.add(result);
+            } catch (AppException e) {
+                result.setStatus(IngestStatus.FAILED);
+                result.setMessage(e.getMessage());
+            }
+        }
+
+        writeBatch(routedDonations, routedResults);
+        return results;
+    }
+
+    private void writeBatch(List<Donation> donations, List<TransactionResultDTO> results) {
+        if (donations.isEmpty()) return;
+        List<Boolean> created = writeDonations(donations);
 
-        if(savedDonation.getDescription().toUpperCase().contains(AppConfig.REFER_PREFIX)){
-            savedDonation = addReferToDonation(savedDonation);
-        } else if (savedDonation.getDescription().toUpperCase().contains(AppConfig.CHALLENGE_PREFIX)) {
-            savedDonation = addChallengeToDonation(savedDonation);
+        for (int i = 0; i < donations.size(); i++) {
+            if (created.get(i)) {
+                results.get(i).setStatus(IngestStatus.CREATED);
+                results.get(i).setDonation(toDonationResponse(donations.get(i)));
+            } else {
+                results.get(i).setStatus(IngestStatus.DUPLICATE);
+            }
+        }
+        donations.clear();
+        results.clear();
+    }
+
+    /**
+     * Writes one routed donation with a single statement. Returns false when the transaction was
+     * already stored, e.g. by a webhook racing the catch-up sync. A new row is attached to the session
+     * as written, so reads later in the transaction get it without a reload.
+     */
+    private boolean writeRoutedDonation(Donation donation) {
+        entityManager.flush();
+        projectLedgerService.recordDonation(donation);
+        boolean created = writeDonations(List.of(donation)).get(0);
+        if (created) entityManager.unwrap(Session.class).lock(donation, LockMode.NONE);
+        return created;
+    }
+
+    /**
+     * Inserts donations whose ledger entries are already recorded. Donations another writer stored first
+     * keep the stored row, and their ledger entries are taken back. New rows are added to the daily stats
+     * and pushed to the live feed once committed.
+     */
+    private List<Boolean> writeDonations(List<Donation> donations) {
+        List<Boolean> created = donationBatchRepository.insertDonations(donations);
+
+        List<String> createdIds = new ArrayList<>();
+        List<Donation> createdDonations = new ArrayList<>();
+        List<BigInteger> createdDonationIds = new ArrayList<>();
+        List<BigInteger> wrongDonationIds = new ArrayList<>();
+        for (int i = 0; i < donations.size(); i++) {
+            Donation donation = donations.get(i);
+            if (!created.get(i)) {
+                projectLedgerService.moveDonation(donation, projectLedgerService.resolveProjectId(donation), null);
+                continue;
+            }
+            createdIds.add(donation.getId());
+            createdDonations.add(donation);
+            createdDonationIds.add(donation.getDonationId());
+            if (donation.getWrongDonation() != null) wrongDonationIds.add(donation.getDonationId());
+        }
+        seenTransactionFilter.record(createdIds);
+        donationBatchRepository.insertWrongDonations(wrongDonationIds);
+        donationDailyStatsService.recordDonations(createdDonationIds);
+        donationFeedService.publish(createdDonations);
+        return created;
+    }
+
+    public Donation routeInPayment(Donation donation) {
+        return routeInPayment(donation, routingCodeService.match(donation.getDescription()));
+    }
+
+    /**
+     * Routes a transfer on the codes already found in its description, so the description is matched
+     * once however many routing steps it goes through.
+     */
+    public Donation routeInPayment(Donation donation, RoutingMatchDTO match) {
+        if(donation.getDescription().toUpperCase().contains(AppConfig.REFER_PREFIX)){
+            donation = addReferToDonation(donation, match);
+        } else if (donation.getDescription().toUpperCase().contains(AppConfig.CHALLENGE_PREFIX)) {
+            donation = addChallengeToDonation(donation, match);
         }else {
-            savedDonation = addProjectToDonation(savedDonation);
+            donation = addProjectToDonation(donation, match);
         }
 
-        if (savedDonation.getDescription().toUpperCase().contains(AppConfig.ACCOUNT_PREFIX)){
-            savedDonation = addAccountToDonation(savedDonation);
+        if (donation.getDescription().toUpperCase().contains(AppConfig.ACCOUNT_PREFIX)){
+            donation = addAccountToDonation(donation, match);
         }
+        return donation;
+    }
 
-        donationRepository.save(savedDonation);
+    /**
+     * Copies the routing of the refunded donation, or returns null when it cannot be found.
+     */
+    public Donation routeOutPayment(Donation baseDonation) {
+        Donation referDonation = refundMatcher.findOriginal(baseDonation.getDescription());
+        if (referDonation == null) return null;
+
+        baseDonation.setProject(referDonation.getProject() == null ? null : referDonation.getProject());
+        baseDonation.setChallenge(referDonation.getChallenge() == null ? null : referDonation.getChallenge());
+        baseDonation.setTransferredProject(referDonation.getTransferredProject() == null ? null : referDonation.getTransferredProject());
+        baseDonation.setRefer(referDonation.getRefer() == null ? null : referDonation.getRefer());
+        baseDonation.setNote("Chuyển tiền lại cho chuyển khoản có mã "+referDonation.getTid());
+        if (referDonation.getWrongDonation() != null) {
+            markWrongDonation(baseDonation);
+        }
+        return baseDonation;
+    }
+
+    private void markWrongDonation(Donation donation) {
+        donation.setWrongDonation(WrongDonation.builder()
+                .donation(donation)
+                .build());
+    }
+
+    /**
+     * Matches the codes of every record in a batch and loads the accounts and challenges they reference
+     * in two queries, so routing each record finds them in the persistence context. Returns the matches
+     * in the order of the records.
+     */
+    private List<RoutingMatchDTO> prefetchRouting(List<TransactionDataDTO> transactions) {
+        List<RoutingMatchDTO> matches = new ArrayList<>(transactions.size());
+        Set<BigInteger> accountIds = new HashSet<>();
+        Set<BigInteger> challengeIds = new HashSet<>();
+        transactions.forEach(transaction -> {
+            RoutingMatchDTO match = routingCodeService.match(transaction.getDescription());
+            matches.add(match);
+            if (match.getReferAccountId() != null) accountIds.add(match.getReferAccountId());
+            if (match.getAccountId() != null) accountIds.add(match.getAccountId());
+            if (match.getChallengeId() != null) challengeIds.add(match.getChallengeId());
+        });
+        if (!accountIds.isEmpty()) accountRepository.findAllById(accountIds);
+        if (!challengeIds.isEmpty()) challengeRepository.findAllById(challengeIds);
+        return matches;
+    }
+
+    private DonationResponseDTO toDonationResponse(Donation donation) {
         return DonationResponseDTO.builder()
-                .donationId(savedDonation.getDonationId())
-                .refer(savedDonation.getRefer() == null ? null : AccountDTO.builder()
-                        .accountId(savedDonation.getRefer().getAccountId())
+                .donationId(donation.getDonationId())
+                .refer(donation.getRefer() == null ? null : AccountDTO.builder()
+                        .accountId(donation.getRefer().getAccountId())
                         .build())
-                .challenge(savedDonation.getChallenge() == null ? null : ChallengeResponseDTO.builder()
-                        .challengeId(savedDonation.getChallenge().getChallengeId())
+                .challenge(donation.getChallenge() == null ? null : ChallengeResponseDTO.builder()
+                        .challengeId(donation.getChallenge().getChallengeId())
                         .build())
-                .project(savedDonation.getProject() == null ? null : ProjectResponseDTO.builder()
-                        .projectId(savedDonation.getProject().getProjectId())
+                .project(donation.getProject() == null ? null : ProjectResponseDTO.builder()
+                        .projectId(donation.getProject().getProjectId())
                         .build())
-                .transferredProject(savedDonation.getTransferredProject() == null ? null : ProjectResponseDTO.builder()
-                        .projectId(savedDonation.getTransferredProject().getProjectId())
+                .transferredProject(donation.getTransferredProject() == null ? null : ProjectResponseDTO.builder()
+                        .projectId(donation.getTransferredProject().getProjectId())
                         .build())
-                .createdBy(savedDonation.getCreatedBy() == null ? null : AccountDTO.builder()
-                        .accountId(savedDonation.getCreatedBy().getAccountId())
+                .createdBy(donation.getCreatedBy() == null ? null : AccountDTO.builder()
+                        .accountId(donation.getCreatedBy().getAccountId())
                         .build())
-                .description(savedDonation.getDescription())
-                .value(savedDonation.getValue())
-                .build();
-    }
-
-    @Override
-    @Transactional
-    public DonationResponseDTO handleOutPayment(TransactionDataDTO transactionDataDTO) {
-        Donation baseDonation = initDonationByTransaction(transactionDataDTO);
-        Donation referDonation = donationRepository.getDonationByTid(transactionDataDTO.getDescription());
-        if (referDonation != null){
-            baseDonation.setProject(referDonation.getProject() == null ? null : referDonation.getProject());
-            baseDonation.setChallenge(referDonation.getChallenge() == null ? null : referDonation.getChallenge());
-            baseDonation.setTransferredProject(referDonation.getTransferredProject() == null ? null : referDonation.getTransferredProject());
-            baseDonation.setRefer(referDonation.getRefer() == null ? null : referDonation.getRefer());
-            baseDonation.setNote("Chuyển tiền lại cho chuyển khoản có mã "+referDonation.getTid());
-            donationRepository.save(baseDonation);
-            if (referDonation.getWrongDonation() != null) {
-                wrongDonationRepository.save(WrongDonation.builder().donation(baseDonation).build());
-            }
-        }
-        return DonationResponseDTO.builder()
-                .donationId(baseDonation.getDonationId())
-                .value(baseDonation.getValue())
+                .description(donation.getDescription())
+                .value(donation.getValue())
                 .build();
     }
 
+    /**
+     * Starts the catch-up sync once the ledger is seeded and the routing codes, seen filter and
+     * allocator are loaded; a transfer routed before that would land on an empty matcher.
+     */
     @Override
-    @PostConstruct
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(StartupOrder.INGEST)
     public void initMissingDonation() {
         handleInitMissingDonation();
     }
@@ -134,100 +372,210 @@ public class DefaultCassoService implements CassoService {
     public void handleInitMissingDonation() {
         CompletableFuture.runAsync(() -> {
             try {
-                LocalDateTime fromDate = donationRepository.getLastDonationDate() == null ? LocalDateTime.now() : donationRepository.getLastDonationDate();
-                int pageSize = 10;
-                PageInfoDTO pageInfoDTO = new PageInfoDTO(1, 0);
-                do {
-                    String url = String.format(AppConfig.CASSO_URL, fromDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
-                            pageInfoDTO.getPage(), pageSize);
-
-                    // Fetch data asynchronously
-                    fetchApiCasso(url).thenAccept(apiCassoResponseDTO -> {
-                        handleApiCasso(apiCassoResponseDTO);
-                        pageInfoDTO.setTotalPage(apiCassoResponseDTO.getData().getTotalPages());
-                    }).join();
-
-
-                    int page = pageInfoDTO.getPage() + 1;
-                    pageInfoDTO.setPage(page);
-                } while (pageInfoDTO.getPage() <= pageInfoDTO.getTotalPage());
+                CassoSyncCursor cursor = loadSyncCursor();
+                String date = cursor.getFromDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+                int startPage = cursor.getLastPage();
+                // the cursor only moves forward, so records behind its starting position can be dropped
+                // as soon as they are parsed; processPage filters again against the live cursor
+                CassoSyncCursor start = CassoSyncCursor.builder()
+                        .lastTransactionId(cursor.getLastTransactionId())
+                        .lastTransactionAt(cursor.getLastTransactionAt())
+                        .build();
+                Predicate<CassoRecordDTO> unseen = cassoRecordDTO -> isAfterCursor(cassoRecordDTO, start);
+
+                // keep up to `concurrency` pages in flight while the pages are processed strictly in order
+                Deque<CompletableFuture<ApiCassoResponseDTO>> inFlight = new ArrayDeque<>();
+                ApiCassoResponseDTO firstPage = fetchApiCassoInAsync(String.format(AppConfig.CASSO_URL, date, startPage, pageSize), unseen);
+                int totalPages = Math.max(firstPage.getData().getTotalPages(), startPage);
+                cassoSyncMetrics.start(totalPages - startPage + 1);
+                inFlight.add(CompletableFuture.completedFuture(firstPage));
+
+                int page = startPage;
+                int nextPage = startPage + 1;
+                while (!inFlight.isEmpty()) {
+                    while (inFlight.size() < concurrency && nextPage <= totalPages) {
+                        inFlight.add(fetchApiCasso(String.format(AppConfig.CASSO_URL, date, nextPage++, pageSize), unseen));
+                    }
+                    ApiCassoResponseDTO apiCassoResponseDTO = inFlight.poll().join();
+                    // transfers arriving during the sync can append pages at the tail
+                    totalPages = Math.max(totalPages, apiCassoResponseDTO.getData().getTotalPages());
+                    processPage(apiCassoResponseDTO, page++, cursor);
+                }
             } catch (Exception e) {
-                // Handle any exceptions that occur
-                e.printStackTrace();
+                log.error("Casso catch-up sync stopped", e);
+            } finally {
+                cassoSyncMetrics.finish();
             }
         }, executor);
     }
 
-    @Async("initExecutor")
-    public CompletableFuture<ApiCassoResponseDTO> fetchApiCasso(String url){
-        return CompletableFuture.supplyAsync(() -> fetchApiCassoInAsync(url), executor);
+    @Override
+    @Transactional
+    public void checkpointSyncCursor(LocalDateTime ingestedUpTo) {
+        if (ingestedUpTo == null) return;
+        // only the day moves: transfers the webhook missed earlier that day are still fetched and
+        // deduplicated, as with the fixed lookback from the last donation before the cursor existed
+        cassoSyncCursorRepository.advanceFromDate(SYNC_CURSOR, ingestedUpTo.toLocalDate());
     }
 
-    public ApiCassoResponseDTO fetchApiCassoInAsync(String url) {
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .addHeader("Content-Type", "application/json")
-                .addHeader("Authorization", "Apikey AK_CS.d91801801f7111f0817bcdc74842cb1f.yYCdiseHkItpHIKOpl8idQckGnIFJGRw6NAoEEdazmztTVtn3KRxRpNt8yNiP2K1lMZaBAIa")
-                .build();
-        try {
-            Response response = okHttpClient.newCall(request).execute();
-            if (!response.isSuccessful()) throw new IOException("Unexpected code " + response);
-
-            // fetch response (body)
-            String responseBody = response.body() == null ? null : response.body().string();
-
-            // Parse the JSON response and map it to your entity
-            return objectMapper.readValue(responseBody, ApiCassoResponseDTO.class);
-        } catch (IOException e) {
-            throw new AppException(ErrorCode.HTTP_FETCH_FAILED);
-        } catch (Exception e) {
-            throw new AppException(ErrorCode.HTTP_MAPPING_FAILED);
+    /**
+     * Returns the persisted sync position. When the last ingested transaction, or a webhook
+     * checkpoint, is on a later day than the listing the cursor pages through (or the page size
+     * changed), the listing restarts at page 1 of that day; the cursor still filters out everything
+     * up to the last transaction the sync itself ingested.
+     */
+    private CassoSyncCursor loadSyncCursor() {
+        CassoSyncCursor cursor = cassoSyncCursorRepository.findById(SYNC_CURSOR).orElse(null);
+        if (cursor == null) {
+            // first run: fall back to the latest donation once, the cursor takes over afterwards
+            LocalDateTime lastDonationDate = donationRepository.getLastDonationDate();
+            return CassoSyncCursor.builder()
+                    .cursorName(SYNC_CURSOR)
+                    .fromDate((lastDonationDate == null ? LocalDateTime.now() : lastDonationDate).toLocalDate())
+                    .lastPage(1)
+                    .pageSize(pageSize)
+                    .build();
+        }
+
+        LocalDate lastDay = cursor.getFromDate();
+        if (cursor.getLastTransactionAt() != null
+                && (lastDay == null || cursor.getLastTransactionAt().toLocalDate().isAfter(lastDay))) {
+            lastDay = cursor.getLastTransactionAt().toLocalDate();
         }
+        if (lastDay == null) lastDay = LocalDate.now();
+        if (!lastDay.equals(cursor.getFromDate()) || !Objects.equals(cursor.getPageSize(), pageSize)) {
+            cursor.setFromDate(lastDay);
+            cursor.setLastPage(1);
+            cursor.setPageSize(pageSize);
+        }
+        return cursor;
     }
 
-    @Transactional
-    public void handleApiCasso(ApiCassoResponseDTO apiCassoResponseDTO){
-        apiCassoResponseDTO.getData().getRecords().forEach(cassoRecordDTO -> {
-            if (!donationRepository.existsDonationById(cassoRecordDTO.getId().toString())){
-                DonationStatus status = cassoRecordDTO.getAmount().compareTo(BigDecimal.ZERO) > 0 ? DonationStatus.IN : DonationStatus.OUT;
-                switch (status) {
-                    case IN ->
-                        handleInPayment(TransactionDataDTO.builder()
-                                .id(cassoRecordDTO.getId())
-                                .tid(cassoRecordDTO.getTid())
-                                .description(cassoRecordDTO.getDescription())
-                                .amount(cassoRecordDTO.getAmount())
-                                .cusumBalance(cassoRecordDTO.getCusumBalance())
-                                .when(cassoRecordDTO.getWhen())
-                                .bankSubAccId(cassoRecordDTO.getBankSubAccId())
-                                .virtualAccount(cassoRecordDTO.getVirtualAccount())
-                                .virtualAccountName(cassoRecordDTO.getVirtualAccountName())
-                                .corresponsiveName(cassoRecordDTO.getCorresponsiveName())
-                                .corresponsiveAccount(cassoRecordDTO.getCorresponsiveAccount())
-                                .corresponsiveBankName(cassoRecordDTO.getCorresponsiveBankName())
-                                .corresponsiveBankId(cassoRecordDTO.getCorresponsiveBankId())
-                                .build());
-
-                    case OUT ->
-                        handleOutPayment(TransactionDataDTO.builder()
-                                .id(cassoRecordDTO.getId())
-                                .tid(cassoRecordDTO.getTid())
-                                .description(cassoRecordDTO.getDescription())
-                                .amount(cassoRecordDTO.getAmount())
-                                .cusumBalance(cassoRecordDTO.getCusumBalance())
-                                .when(cassoRecordDTO.getWhen())
-                                .bankSubAccId(cassoRecordDTO.getBankSubAccId())
-                                .virtualAccount(cassoRecordDTO.getVirtualAccount())
-                                .virtualAccountName(cassoRecordDTO.getVirtualAccountName())
-                                .corresponsiveName(cassoRecordDTO.getCorresponsiveName())
-                                .corresponsiveAccount(cassoRecordDTO.getCorresponsiveAccount())
-                                .corresponsiveBankName(cassoRecordDTO.getCorresponsiveBankName())
-                                .corresponsiveBankId(cassoRecordDTO.getCorresponsiveBankId())
-                                .build());
-                }
-            }
+    /**
+     * Ingests the records of a page that lie beyond the cursor and moves the cursor in the same
+     * transaction, so a restart resumes exactly where the last committed page ended.
+     */
+    private void processPage(ApiCassoResponseDTO apiCassoResponseDTO, int page, CassoSyncCursor cursor) {
+        List<CassoRecordDTO> records = apiCassoResponseDTO.getData().getRecords() == null
+                ? List.of() : apiCassoResponseDTO.getData().getRecords();
+        List<CassoRecordDTO> pending = records.stream()
+                .filter(cassoRecordDTO -> isAfterCursor(cassoRecordDTO, cursor))
+                .toList();
+
+        List<TransactionResultDTO> results = transactionTemplate.execute(status -> {
+            List<TransactionResultDTO> pageResults = handleTransactions(pending.stream()
+                    .map(this::toTransactionData)
+                    .toList());
+            pending.stream()
+                    .filter(cassoRecordDTO -> cassoRecordDTO.getId() != null)
+                    .reduce((first, second) -> second)
+                    .ifPresent(last -> {
+                        cursor.setLastTransactionId(last.getId());
+                        cursor.setLastTransactionAt(last.getWhen());
+                    });
+            cursor.setLastPage(page);
+            cursor.setUpdatedAt(LocalDateTime.now());
+            // not save(cursor): merging this copy would roll back a day moved by checkpointSyncCursor
+            cassoSyncCursorRepository.savePage(cursor.getCursorName(), cursor.getLastTransactionId(), cursor.getLastTransactionAt(),
+                    cursor.getFromDate(), cursor.getLastPage(), cursor.getPageSize(), cursor.getUpdatedAt());
+            return pageResults;
         });
+
+        int created = results == null ? 0 : (int) results.stream()
+                .filter(result -> result.getStatus() == IngestStatus.CREATED)
+                .count();
+        cassoSyncMetrics.recordPage(records.size(), created, records.stream()
+                .map(CassoRecordDTO::getWhen)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null));
+    }
+
+    private boolean isAfterCursor(CassoRecordDTO cassoRecordDTO, CassoSyncCursor cursor) {
+        if (cursor.getLastTransactionId() == null || cassoRecordDTO.getId() == null) return true;
+        if (cassoRecordDTO.getWhen() != null && cursor.getLastTransactionAt() != null
+                && !cassoRecordDTO.getWhen().isEqual(cursor.getLastTransactionAt())) {
+            return cassoRecordDTO.getWhen().isAfter(cursor.getLastTransactionAt());
+        }
+        return cassoRecordDTO.getId() > cursor.getLastTransactionId();
+    }
+
+    @Override
+    public SyncCursorDTO getSyncCursor() {
+        return cassoSyncCursorRepository.findById(SYNC_CURSOR)
+                .map(cursor -> SyncCursorDTO.builder()
+                        .lastTransactionId(cursor.getLastTransactionId())
+                        .lastTransactionAt(cursor.getLastTransactionAt())
+                        .fromDate(cursor.getFromDate())
+                        .lastPage(cursor.getLastPage())
+                        .pageSize(cursor.getPageSize())
+                        .updatedAt(cursor.getUpdatedAt())
+                        .build())
+                .orElseGet(SyncCursorDTO::new);
+    }
+
+    @Override
+    public SyncProgressDTO getSyncProgress() {
+        return cassoSyncMetrics.snapshot();
+    }
+
+    @Override
+    public RefundMatchStatsDTO getRefundMatchStats() {
+        return refundMatcher.snapshot();
+    }
+
+    @Override
+    public SeenFilterStatsDTO getSeenFilterStats() {
+        return seenTransactionFilter.snapshot();
+    }
+
+    public CompletableFuture<ApiCassoResponseDTO> fetchApiCasso(String url, Predicate<CassoRecordDTO> filter){
+        return CompletableFuture.supplyAsync(() -> fetchApiCassoInAsync(url, filter), cassoSyncExecutor);
+    }
+
+    /**
+     * Fetches a page keeping only the records accepted by the filter; the rest are dropped while the
+     * response is parsed.
+     */
+    public ApiCassoResponseDTO fetchApiCassoInAsync(String url, Predicate<CassoRecordDTO> filter) {
+        List<CassoRecordDTO> records = new ArrayList<>();
+        CassoResponseDTO data = cassoClient.fetchPage(url, cassoRecordDTO -> {
+            if (filter.test(cassoRecordDTO)) records.add(cassoRecordDTO);
+        });
+        data.setRecords(records);
+        return ApiCassoResponseDTO.builder()
+                .data(data)
+                .build();
+    }
+
+    /**
+     * Ingests one page of the Casso API through the batch path: one duplicate lookup for the page and
+     * batched inserts for the new records.
+     */
+    @Transactional
+    public List<TransactionResultDTO> handleApiCasso(ApiCassoResponseDTO apiCassoResponseDTO){
+        if (apiCassoResponseDTO.getData().getRecords() == null) return List.of();
+        return handleTransactions(apiCassoResponseDTO.getData().getRecords().stream()
+                .map(this::toTransactionData)
+                .toList());
+    }
+
+    private TransactionDataDTO toTransactionData(CassoRecordDTO cassoRecordDTO) {
+        return TransactionDataDTO.builder()
+                .id(cassoRecordDTO.getId())
+                .tid(cassoRecordDTO.getTid())
+                .description(cassoRecordDTO.getDescription())
+                .amount(cassoRecordDTO.getAmount())
+                .cusumBalance(cassoRecordDTO.getCusumBalance())
+                .when(cassoRecordDTO.getWhen())
+                .bankSubAccId(cassoRecordDTO.getBankSubAccId())
+                .virtualAccount(cassoRecordDTO.getVirtualAccount())
+                .virtualAccountName(cassoRecordDTO.getVirtualAccountName())
+                .corresponsiveName(cassoRecordDTO.getCorresponsiveName())
+                .corresponsiveAccount(cassoRecordDTO.getCorresponsiveAccount())
+                .corresponsiveBankName(cassoRecordDTO.getCorresponsiveBankName())
+                .corresponsiveBankId(cassoRecordDTO.getCorresponsiveBankId())
+                .build();
     }
 
     public Donation initDonationByTransaction(TransactionDataDTO transactionDataDTO){
@@ -246,25 +594,29 @@ public class DefaultCassoService implements CassoService {
                 .build();
     }
 
-    public Donation addReferToDonation(Donation baseDonation){
-        Account refer = accountRepository.findReferAccountByDescription(baseDonation.getDescription());
+    public Donation addReferToDonation(Donation baseDonation, RoutingMatchDTO match){
+        BigInteger referId = match.getReferAccountId();
+        Account refer = referId == null ? null : accountRepository.findById(referId).orElse(null);
         if (refer != null){
             baseDonation.setRefer(refer);
-            return addProjectToDonation(baseDonation);
+            return addProjectToDonation(baseDonation, match);
         }
-        return addChallengeToDonation(baseDonation);
+        return addChallengeToDonation(baseDonation, match);
     }
 
-    public Donation addChallengeToDonation(Donation baseDonation){
-        Challenge challenge = challengeRepository.findChallengeByDescription(baseDonation.getDescription());
+    public Donation addChallengeToDonation(Donation baseDonation, RoutingMatchDTO match){
+        BigInteger challengeId = match.getChallengeId();
+        Challenge challenge = challengeId == null ? null : challengeRepository.findById(challengeId).orElse(null);
         if(challenge != null){
             baseDonation.setChallenge(challenge);
-            ProjectTransactionDTO projectInChallenge = projectRepository.findValidProjectByChallengeIdAndDescription(challenge.getChallengeId(), baseDonation.getDescription(), true);
+            List<BigInteger> projectIds = match.getProjectIds();
+            ProjectTransactionDTO projectInChallenge = projectIds.isEmpty() ? null
+                    : projectRepository.findChallengeProjectTransactionByProjectIds(challenge.getChallengeId(), projectIds);
             if (projectInChallenge != null){
                 baseDonation.setProject(Project.builder()
                                 .projectId(projectInChallenge.getProjectId())
                         .build());
-                if (isEnoughDonation(projectInChallenge)){
+                if (projectLedgerService.claimFundable(projectInChallenge.getProjectId()) == null){
                     baseDonation = handleNotValidProjectInChallenge(baseDonation, challenge.getChallengeId());
                 }
             }else {
@@ -272,13 +624,13 @@ public class DefaultCassoService implements CassoService {
             }
             return baseDonation;
         }else {
-            return addProjectToDonation(baseDonation);
+            return addProjectToDonation(baseDonation, match);
         }
     }
 
-    public Donation addProjectToDonation(Donation baseDonation){
-        baseDonation = donationRepository.save(baseDonation);
-        ProjectTransactionDTO ref = projectRepository.findProjectByCampaignIdAndDonationDescriptionAndStatus(baseDonation.getDescription(), null, null, true);
+    public Donation addProjectToDonation(Donation baseDonation, RoutingMatchDTO match){
+        List<BigInteger> projectIds = match.getProjectIds();
+        ProjectTransactionDTO ref = projectIds.isEmpty() ? null : projectRepository.findProjectTransactionByProjectIds(projectIds);
         if (ref != null){
             baseDonation.setProject(Project.builder()
                     .projectId(ref.getProjectId())
@@ -288,9 +640,10 @@ public class DefaultCassoService implements CassoService {
             baseDonation = handleNoneProject(baseDonation, "Mã dự án không hợp lệ");
         }
 
-        if (ref != null && (ref.getStatus() != 2 || ref.getTotalDonation().compareTo(ref.getGoal()) >= 0)){
+        if (ref != null && projectLedgerService.claimFundable(ref.getProjectId()) == null){
             Project refProject = projectRepository.findById(ref.getProjectId()).orElseThrow(() -> new AppException(ErrorCode.PROJECT_NOT_EXISTED));
-            ProjectTransactionDTO minTotalDonationInCampaignProject = projectRepository.findProjectByCampaignIdAndDonationDescriptionAndStatus(null, refProject.getCampaign().getCampaignId(), 2, false);
+            BigInteger campaignId = refProject.getCampaign().getCampaignId();
+            ProjectTransactionDTO minTotalDonationInCampaignProject = projectLedgerService.claimFundable(() -> projectAllocationService.pickInCampaign(campaignId));
             if (minTotalDonationInCampaignProject != null){
                 baseDonation.setTransferredProject(Project.builder()
                         .projectId(minTotalDonationInCampaignProject.getProjectId())
@@ -304,8 +657,7 @@ public class DefaultCassoService implements CassoService {
     }
 
     public Donation handleNoneProject(Donation baseDonation, String reason){
-        donationRepository.save(baseDonation);
-        ProjectTransactionDTO minTotalDonationProject = projectRepository.findProjectByCampaignIdAndDonationDescriptionAndStatus(null, null, 2, false);
+        ProjectTransactionDTO minTotalDonationProject = projectLedgerService.claimFundable(projectAllocationService::pickGlobal);
         if (minTotalDonationProject != null){
             baseDonation.setTransferredProject(Project.builder()
                     .projectId(minTotalDonationProject.getProjectId())
@@ -313,15 +665,13 @@ public class DefaultCassoService implements CassoService {
             baseDonation.setNote(reason+" "+minTotalDonationProject.getCode());
         }else{
             baseDonation.setNote(reason + " và hiện không có dự án nào có thể chuyển nên chuyển khoản nhận trạng thái pending");
-            wrongDonationRepository.save(WrongDonation.builder()
-                            .donation(baseDonation)
-                    .build());
+            markWrongDonation(baseDonation);
         }
         return baseDonation;
     }
 
     public Donation handleNotValidProjectInChallenge(Donation baseDonation, BigInteger challengeId){
-        ProjectTransactionDTO validProjectInChallenge = projectRepository.findValidProjectByChallengeIdAndDescription(challengeId, null, false);
+        ProjectTransactionDTO validProjectInChallenge = projectLedgerService.claimFundable(() -> projectAllocationService.pickInChallenge(challengeId));
         if (validProjectInChallenge != null){
             baseDonation.setProject(Project.builder()
                     .projectId(validProjectInChallenge.getProjectId())
@@ -333,16 +683,13 @@ public class DefaultCassoService implements CassoService {
         return baseDonation;
     }
 
-    public Donation addAccountToDonation(Donation baseDonation){
-        Account account = accountRepository.findAccountByDescription(baseDonation.getDescription());
+    public Donation addAccountToDonation(Donation baseDonation, RoutingMatchDTO match){
+        BigInteger accountId = match.getAccountId();
+        Account account = accountId == null ? null : accountRepository.findById(accountId).orElse(null);
         if (account != null){
             baseDonation.setCreatedBy(account);
         }
         return baseDonation;
     }
 
-    public Boolean isEnoughDonation(ProjectTransactionDTO projectTransactionDTO){
-        return projectTransactionDTO.getGoal().compareTo(projectTransactionDTO.getTotalDonation()) <= 0;
-    }
-
 }
@@ -0,0 +1,149 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.common.IngestStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionResultDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.RoutingMatchDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeService;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.StripedExecutor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Parallel front of {@link CassoService} for webhook batches. Each transfer is keyed by the project
+ * its description names and handed to that key's lane, so transfers naming the same project queue
+ * behind each other instead of on its ledger row lock, while other projects proceed in parallel.
+ * <p>
+ * The lane only orders work: the project a transfer finally lands on is known after routing, which
+ * may redirect it to a project another lane, the catch-up sync or the wrong donation job is also
+ * writing to. One writer per project is kept by the ledger row lock routing takes on every
+ * candidate before it decides, see {@code ProjectLedgerService.claimFundable}. Two lanes taking those
+ * locks in opposite order deadlock; the database rolls one back and that lane's part is run again.
+ */
+@Component
+@Slf4j
+public class DonationLaneDispatcher {
+
+    private final CassoService cassoService;
+    private final RoutingCodeService routingCodeService;
+    private final StripedExecutor stripedExecutor;
+    private final int lockAttempts;
+
+    public DonationLaneDispatcher(CassoService cassoService,
+                                  RoutingCodeService routingCodeService,
+                                  @Qualifier("donationStripedExecutor") StripedExecutor stripedExecutor,
+                                  @Value("${casso.lane.lock-attempts:3}") int lockAttempts) {
+        this.cassoService = cassoService;
+        this.routingCodeService = routingCodeService;
+        this.stripedExecutor = stripedExecutor;
+        this.lockAttempts = lockAttempts;
+    }
+
+    /**
+     * Splits the batch by lane, keeping the batch order inside each lane, and returns the results in
+     * the original order. Each lane commits its part in its own transaction. A lane that fails runs its
+     * part again one transfer at a time and reports the transfers that still fail as FAILED; the other
+     * lanes are not touched.
+     */
+    public List<TransactionResultDTO> dispatch(List<TransactionDataDTO> transactions) {
+        if (transactions == null || transactions.isEmpty()) return new ArrayList<>();
+
+        Map<Integer, List<Integer>> positionsByLane = new LinkedHashMap<>();
+        Map<String, Object> keysByTid = new LinkedHashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionDataDTO transaction = transactions.get(i);
+            Object key = laneKey(transaction, keysByTid);
+            if (transaction.getTid() != null) keysByTid.put(transaction.getTid(), key);
+            positionsByLane.computeIfAbsent(stripedExecutor.laneOf(key), lane -> new ArrayList<>()).add(i);
+        }
+
+        TransactionResultDTO[] results = new TransactionResultDTO[transactions.size()];
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        positionsByLane.forEach((lane, positions) -> {
+            List<TransactionDataDTO> part = positions.stream().map(transactions::get).toList();
+            lanes.add(stripedExecutor.submitToLane(lane, () -> handleInLane(part))
+                    .thenAccept(laneResults -> {
+                        for (int i = 0; i < positions.size(); i++) {
+                            results[positions.get(i)] = laneResults.get(i);
+                        }
+                    }));
+        });
+        CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).join();
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private List<TransactionResultDTO> handleInLane(List<TransactionDataDTO> part) {
+        try {
+            return handleRetryingLocks(part);
+        } catch (RuntimeException e) {
+            if (part.size() == 1) return List.of(failed(part.get(0), e));
+            // isolate the transfer that broke the part
+            log.warn("Donation lane failed on {} transfer(s), applying them one by one", part.size(), e);
+            List<TransactionResultDTO> results = new ArrayList<>();
+            for (TransactionDataDTO transaction : part) {
+                try {
+                    results.add(handleRetryingLocks(List.of(transaction)).get(0));
+                } catch (RuntimeException single) {
+                    results.add(failed(transaction, single));
+                }
+            }
+            return results;
+        }
+    }
+
+    private List<TransactionResultDTO> handleRetryingLocks(List<TransactionDataDTO> part) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return cassoService.handleTransactions(part);
+            } catch (PessimisticLockingFailureException e) {
+                // the part was rolled back as a whole, in memory too, so it runs again from scratch
+                if (attempt >= lockAttempts) throw e;
+                log.warn("Donation lane lost a lock conflict, retrying {} transfer(s)", part.size());
+            }
+        }
+    }
+
+    private static TransactionResultDTO failed(TransactionDataDTO transaction, RuntimeException e) {
+        return TransactionResultDTO.builder()
+                .id(transaction.getId())
+                .tid(transaction.getTid())
+                .status(IngestStatus.FAILED)
+                .message(e.getMessage())
+                .build();
+    }
+
+    /**
+     * Transfers are keyed by the first project code they name, else by their challenge. A refund goes
+     * to the lane of the transfer it refers to when that transfer is in the same batch.
+     */
+    private Object laneKey(TransactionDataDTO transaction, Map<String, Object> keysByTid) {
+        if (transaction.getAmount() == null || transaction.getDescription() == null) return "UNROUTED";
+        if (transaction.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return keysByTid.entrySet().stream()
+                    .filter(entry -> transaction.getDescription().contains(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse("REFUND");
+        }
+
+        RoutingMatchDTO match = routingCodeService.match(transaction.getDescription());
+        if (!match.getProjectIds().isEmpty()) {
+            return "PROJECT:" + Collections.min(match.getProjectIds(), BigInteger::compareTo);
+        }
+        if (match.getChallengeId() != null) return "CHALLENGE:" + match.getChallengeId();
+        return "UNROUTED";
+    }
+}
@@ -0,0 +1,122 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.RefundMatchStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the transfer a refund points at. Refund descriptions quote the original tid as a separate
+ * word ("hoan tien FT24191827361538", "MBVCB.3278.FT24191827361538.hoan tien"), so the words of the
+ * description are looked up through the unique tid index. Only when none of them is a known tid are
+ * the most recent donations scanned for a tid contained in the description.
+ */
+@Component
+public class RefundMatcher {
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^A-Za-z0-9_-]+");
+    private static final int MIN_TOKEN_LENGTH = 4;
+    private static final int MAX_TOKENS = 32;
+
+    private final DonationRepository donationRepository;
+    private final int fallbackWindow;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong tokenHits = new AtomicLong();
+    private final AtomicLong fallbackHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RefundMatcher(DonationRepository donationRepository,
+                         @Value("${casso.refund.fallback-window:5000}") int fallbackWindow) {
+        this.donationRepository = donationRepository;
+        this.fallbackWindow = fallbackWindow;
+    }
+
+    public Donation findOriginal(String description) {
+        if (description == null) return null;
+        return findOriginals(List.of(description)).get(description);
+    }
+
+    /**
+     * Matches several refund descriptions with one index lookup. Descriptions without a match are
+     * left out of the result.
+     */
+    public Map<String, Donation> findOriginals(Collection<String> descriptions) {
+        Map<String, List<String>> tokensByDescription = new HashMap<>();
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String description : descriptions) {
+            if (description == null || tokensByDescription.containsKey(description)) continue;
+            List<String> descriptionTokens = extractTokens(description);
+            tokensByDescription.put(description, descriptionTokens);
+            tokens.addAll(descriptionTokens);
+        }
+
+        Map<String, Donation> byTid = new HashMap<>();
+        if (!tokens.isEmpty()) {
+            donationRepository.findAllByTidIn(tokens).forEach(donation -> byTid.put(donation.getTid(), donation));
+        }
+
+        Map<String, Donation> originals = new HashMap<>();
+        tokensByDescription.forEach((description, descriptionTokens) -> {
+            lookups.incrementAndGet();
+            Donation original = descriptionTokens.stream()
+                    .map(byTid::get)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+            if (original != null) {
+                tokenHits.incrementAndGet();
+            } else if (!description.isBlank()) {
+                original = donationRepository.findRecentByDescriptionContainingTid(description, fallbackWindow)
+                        .stream().findFirst().orElse(null);
+                if (original != null) fallbackHits.incrementAndGet();
+            }
+            if (original == null) {
+                misses.incrementAndGet();
+            } else {
+                originals.put(description, original);
+            }
+        });
+        return originals;
+    }
+
+    public RefundMatchStatsDTO snapshot() {
+        long total = lookups.get();
+        return RefundMatchStatsDTO.builder()
+                .lookups(total)
+                .tokenHits(tokenHits.get())
+                .fallbackHits(fallbackHits.get())
+                .misses(misses.get())
+                .tokenHitRate(rate(tokenHits.get(), total))
+                .fallbackHitRate(rate(fallbackHits.get(), total))
+                .missRate(rate(misses.get(), total))
+                .fallbackWindow(fallbackWindow)
+                .build();
+    }
+
+    static List<String> extractTokens(String description) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String trimmed = description.trim();
+        if (!trimmed.isEmpty() && trimmed.length() <= 100) tokens.add(trimmed);
+        for (String token : SEPARATOR.split(trimmed)) {
+            if (tokens.size() >= MAX_TOKENS) break;
+            if (token.length() >= MIN_TOKEN_LENGTH) tokens.add(token);
+        }
+        return List.copyOf(tokens);
+    }
+
+    private static Double rate(long count, long total) {
+        return total == 0 ? 0.0 : (double) count / total;
+    }
+}
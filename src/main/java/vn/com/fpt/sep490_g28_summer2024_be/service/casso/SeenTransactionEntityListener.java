@@ -0,0 +1,31 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+
+import java.util.List;
+
+/**
+ * Feeds Casso ids of donations written through JPA into the seen-transaction filter; the JDBC batch
+ * path records its ids itself.
+ */
+@Component
+public class SeenTransactionEntityListener {
+
+    private final SeenTransactionFilter seenTransactionFilter;
+
+    public SeenTransactionEntityListener(@Lazy SeenTransactionFilter seenTransactionFilter) {
+        this.seenTransactionFilter = seenTransactionFilter;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Donation donation) {
+        if (donation.getId() != null) {
+            seenTransactionFilter.record(List.of(donation.getId()));
+        }
+    }
+}
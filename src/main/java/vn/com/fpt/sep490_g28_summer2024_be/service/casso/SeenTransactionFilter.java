@@ -0,0 +1,186 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.casso;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.common.StartupOrder;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SeenFilterStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.interfacedto.DonationKeyInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which Casso transaction ids are already stored as donations. A Bloom filter over all ids
+ * answers "definitely new" without touching the database, and a small exact set of the latest
+ * committed ids answers "seen" for the records a catch-up sync fetches again. Only ids the filter
+ * cannot decide are checked against the donation table.
+ */
+@Component
+@Slf4j
+public class SeenTransactionFilter {
+
+    private static final int WARM_PAGE_SIZE = 10000;
+
+    private final DonationRepository donationRepository;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final int recentSize;
+
+    private volatile BloomFilter<CharSequence> bloomFilter;
+    private volatile boolean ready;
+    private final Map<String, Boolean> recent;
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong definitelyNew = new AtomicLong();
+    private final AtomicLong recentHits = new AtomicLong();
+    private final AtomicLong dbChecks = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public SeenTransactionFilter(DonationRepository donationRepository,
+                                 @Value("${casso.seen-filter.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${casso.seen-filter.fpp:0.01}") double fpp,
+                                 @Value("${casso.seen-filter.recent-size:10000}") int recentSize) {
+        this.donationRepository = donationRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.recentSize = recentSize;
+        this.bloomFilter = newBloomFilter();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > SeenTransactionFilter.this.recentSize;
+            }
+        };
+    }
+
+    /**
+     * Loads every stored transaction id. Until this finishes all ids go to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(StartupOrder.INDEX)
+    public void warm() {
+        ready = false;
+        // ids recorded while warming land in the new filter as well
+        BloomFilter<CharSequence> filter = newBloomFilter();
+        bloomFilter = filter;
+
+        long loaded = 0;
+        BigInteger afterId = BigInteger.ZERO;
+        while (true) {
+            List<DonationKeyInterfaceDTO> keys = donationRepository.findKeysAfter(afterId, WARM_PAGE_SIZE);
+            if (keys.isEmpty()) break;
+            keys.forEach(key -> filter.put(key.getId()));
+            loaded += keys.size();
+            afterId = keys.get(keys.size() - 1).getDonationId();
+        }
+        ready = true;
+        if (loaded > expectedInsertions) {
+            log.warn("Seen-transaction filter holds {} ids, sized for {}; raise casso.seen-filter.expected-insertions",
+                    loaded, expectedInsertions);
+        }
+        log.info("Seen-transaction filter warmed with {} ids", loaded);
+    }
+
+    /**
+     * Returns the ids among the given ones that are already stored.
+     */
+    public Set<String> existingIds(Collection<String> ids) {
+        Set<String> existing = new HashSet<>();
+        List<String> maybeSeen = new ArrayList<>();
+        BloomFilter<CharSequence> filter = bloomFilter;
+        boolean warmed = ready;
+        for (String id : ids) {
+            checks.incrementAndGet();
+            if (isRecent(id)) {
+                recentHits.incrementAndGet();
+                existing.add(id);
+            } else if (warmed && !filter.mightContain(id)) {
+                definitelyNew.incrementAndGet();
+            } else {
+                maybeSeen.add(id);
+            }
+        }
+        if (maybeSeen.isEmpty()) return existing;
+
+        dbChecks.addAndGet(maybeSeen.size());
+        List<String> found = donationRepository.findExistingIds(maybeSeen);
+        if (warmed) falsePositives.addAndGet(maybeSeen.size() - found.size());
+        existing.addAll(found);
+        return existing;
+    }
+
+    /**
+     * Records ids that were just inserted. The Bloom filter takes them right away (a rolled back id only
+     * costs a database check later); the exact set only after the transaction commits.
+     */
+    public void record(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        BloomFilter<CharSequence> filter = bloomFilter;
+        ids.forEach(filter::put);
+        // warm() may have swapped in a new filter meanwhile
+        while (filter != bloomFilter) {
+            filter = bloomFilter;
+            ids.forEach(filter::put);
+        }
+
+        List<String> committed = List.copyOf(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addRecent(committed);
+                }
+            });
+        } else {
+            addRecent(committed);
+        }
+    }
+
+    public SeenFilterStatsDTO snapshot() {
+        long total = checks.get();
+        long db = dbChecks.get();
+        return SeenFilterStatsDTO.builder()
+                .ready(ready)
+                .expectedInsertions(expectedInsertions)
+                .approximateInsertions(bloomFilter.approximateElementCount())
+                .expectedFpp(bloomFilter.expectedFpp())
+                .recentSize(recentSize)
+                .checks(total)
+                .definitelyNew(definitelyNew.get())
+                .recentHits(recentHits.get())
+                .dbChecks(db)
+                .falsePositives(falsePositives.get())
+                .skipRate(total == 0 ? 0.0 : (double) (total - db) / total)
+                .falsePositiveRate(db == 0 ? 0.0 : (double) falsePositives.get() / db)
+                .build();
+    }
+
+    private synchronized boolean isRecent(String id) {
+        return recent.containsKey(id);
+    }
+
+    private synchronized void addRecent(List<String> ids) {
+        ids.forEach(id -> recent.put(id, Boolean.TRUE));
+    }
+
+    private BloomFilter<CharSequence> newBloomFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+    }
+}
@@ -7,9 +7,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import vn.com.fpt.sep490_g28_summer2024_be.common.AppConfig;
 import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.account.admin.AccountDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.challenge.ChallengeRequestDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.challenge.ChallengeResponseDTO;
@@ -22,6 +24,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
 import vn.com.fpt.sep490_g28_summer2024_be.firebase.FirebaseService;
 import vn.com.fpt.sep490_g28_summer2024_be.mapper.Mapper;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.*;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexService;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.CodeUtils;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.SlugUtils;
 
@@ -50,6 +53,7 @@ public class ChallengerServiceImpl implements ChallengeService {
     private final SlugUtils slugUtils;
     private final ChallengeProjectRepository challengeProjectRepository;
     private final DonationRepository donationRepository;
+    private final SearchIndexService searchIndexService;
     private  static final BigInteger SYSTEM_USER_ROLE_ID = BigInteger.valueOf(4);
 
     @Override
@@ -264,7 +268,14 @@ public class ChallengerServiceImpl implements ChallengeService {
     @Override
     public PageResponse<ChallengeResponseDTO> viewChallengesAdminByFilter(Integer page, Integer size, String title, Integer year, BigDecimal minDonation, BigDecimal maxDonation) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ChallengeInterfaceDTO> challengePage = challengeRepository.findChallengesByFilters(title, year, minDonation, maxDonation, pageable);
+        Page<ChallengeInterfaceDTO> challengePage;
+        if (StringUtils.hasText(title)) {
+            challengePage = searchIndexService.search(SearchScope.CHALLENGE, title, pageable,
+                    ids -> challengeRepository.findChallengeIdsByFiltersInIds(ids, year, minDonation, maxDonation),
+                    ids -> challengeRepository.findChallengesByFiltersInIds(ids, StringUtils.collectionToCommaDelimitedString(ids), year, minDonation, maxDonation, Pageable.unpaged()).getContent());
+        } else {
+            challengePage = challengeRepository.findChallengesByFilters(title, year, minDonation, maxDonation, pageable);
+        }
 
         List<ChallengeResponseDTO> challengeResponseDTOS = challengePage.stream()
                 .map(this::mapToChallengeResponseDTO)
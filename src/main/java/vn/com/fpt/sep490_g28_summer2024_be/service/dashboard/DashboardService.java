@@ -0,0 +1,10 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.dashboard;
+
+import vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard.DashboardResultDTO;
+
+public interface DashboardService {
+
+    DashboardResultDTO getOverview(Integer month, Integer year);
+
+    DashboardResultDTO getCommon(Integer year);
+}
@@ -0,0 +1,151 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.dashboard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import vn.com.fpt.sep490_g28_summer2024_be.common.MetricStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard.DashboardMetricDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard.DashboardResultDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsService;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the independent statistics queries behind a dashboard endpoint at the same time, one virtual
+ * thread each, so the endpoint takes as long as its slowest query instead of their sum. Every query
+ * gets the same deadline counted from the start of the fan-out. A query that fails or misses it is
+ * answered with its last good value for the same period, marked stale, or with null, marked failed.
+ */
+@Service
+@Slf4j
+public class DefaultDashboardService implements DashboardService {
+
+    private static final String DONATION_STATS = "quyen-gop";
+    private static final String PROJECT_STATS = "du-an";
+
+    private final StatisticsService statisticsService;
+    private final ExecutorService executor;
+    private final long queryTimeoutNanos;
+    private final int lastGoodSize;
+    private final Map<String, Object> lastGood;
+
+    public DefaultDashboardService(StatisticsService statisticsService,
+                                   @Qualifier("dashboardExecutor") ExecutorService executor,
+                                   @Value("${dashboard.query-timeout-ms:2000}") long queryTimeoutMs,
+                                   @Value("${dashboard.last-good-size:256}") int lastGoodSize) {
+        this.statisticsService = statisticsService;
+        this.executor = executor;
+        this.queryTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queryTimeoutMs);
+        this.lastGoodSize = lastGoodSize;
+        this.lastGood = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > DefaultDashboardService.this.lastGoodSize;
+            }
+        };
+    }
+
+    @Override
+    public DashboardResultDTO getOverview(Integer month, Integer year) {
+        Map<String, Callable<Object>> queries = new LinkedHashMap<>();
+        queries.put("tong-so-luot-quyen-gop", () -> statisticsService.getTotalCountDonations(month, year));
+        queries.put("tong-so-quyen-gop", () -> statisticsService.getTotalDonation(month, year));
+        queries.put("tong-so-quyen-gop-sai", () -> statisticsService.getTotalWrongDonation(month, year));
+        queries.put("tong-so-tien-tai-tro", () -> statisticsService.getTotalSponsorValue(month, year));
+        return fanOut(year + "-" + month, queries);
+    }
+
+    @Override
+    public DashboardResultDTO getCommon(Integer year) {
+        Map<String, Callable<Object>> queries = new LinkedHashMap<>();
+        queries.put(DONATION_STATS, () -> statisticsService.getDonationStaticDataByCampaign(null, year));
+        queries.put(PROJECT_STATS, () -> statisticsService.getProjectStaticDataByCampaign(null, year));
+        DashboardResultDTO result = fanOut(String.valueOf(year), queries);
+
+        StatisticsInterfaceDTO donation = (StatisticsInterfaceDTO) result.getValues().get(DONATION_STATS);
+        StatisticsInterfaceDTO project = (StatisticsInterfaceDTO) result.getValues().get(PROJECT_STATS);
+        Map<String, Object> values = new HashMap<>();
+        values.put("tong-so-quyen-gop", donation == null ? null : donation.getTotalDonation());
+        values.put("tong-so-luot-quyen-gop", donation == null ? null : donation.getTotalNumberDonations());
+        values.put("tong-so-du-an", project == null ? null : project.getTotalProjects());
+        values.put("tong-so-du-an-can-quyen-gop", project == null ? null : project.getTotalOnGoingProjects());
+        values.put("tong-so-du-an-dang-thi-cong", project == null ? null : project.getTotalProcessingProjects());
+        values.put("tong-so-du-an-da-hoan-thanh", project == null ? null : project.getTotalDoneProjects());
+        result.setValues(values);
+        return result;
+    }
+
+    private DashboardResultDTO fanOut(String period, Map<String, Callable<Object>> queries) {
+        long start = System.nanoTime();
+        long deadline = start + queryTimeoutNanos;
+        Map<String, Long> elapsed = new ConcurrentHashMap<>();
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        queries.forEach((name, query) -> futures.put(name, executor.submit(() -> {
+            long queryStart = System.nanoTime();
+            try {
+                return query.call();
+            } finally {
+                elapsed.put(name, (System.nanoTime() - queryStart) / 1_000_000);
+            }
+        })));
+
+        Map<String, Object> values = new HashMap<>();
+        Map<String, DashboardMetricDTO> metrics = new LinkedHashMap<>();
+        futures.forEach((name, future) -> {
+            String key = name + ":" + period;
+            try {
+                Object value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                remember(key, value);
+                values.put(name, value);
+                metrics.put(name, DashboardMetricDTO.builder()
+                        .status(MetricStatus.OK)
+                        .elapsedMs(elapsed.get(name))
+                        .build());
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Dashboard query {} for {} timed out", name, period);
+                metrics.put(name, fallback(name, key, "timeout", (System.nanoTime() - start) / 1_000_000, values));
+            } catch (ExecutionException e) {
+                log.warn("Dashboard query {} for {} failed", name, period, e.getCause());
+                metrics.put(name, fallback(name, key, e.getCause().getClass().getSimpleName(), elapsed.get(name), values));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                metrics.put(name, fallback(name, key, "interrupted", (System.nanoTime() - start) / 1_000_000, values));
+            }
+        });
+        return DashboardResultDTO.builder()
+                .values(values)
+                .metrics(metrics)
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    private DashboardMetricDTO fallback(String name, String key, String error, Long elapsedMs, Map<String, Object> values) {
+        Object stale = lastGood(key);
+        values.put(name, stale);
+        return DashboardMetricDTO.builder()
+                .status(stale == null ? MetricStatus.FAILED : MetricStatus.STALE)
+                .elapsedMs(elapsedMs)
+                .error(error)
+                .build();
+    }
+
+    private synchronized void remember(String key, Object value) {
+        if (value != null) lastGood.put(key, value);
+    }
+
+    private synchronized Object lastGood(String key) {
+        return lastGood.get(key);
+    }
+}
@@ -20,11 +20,13 @@ import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.PageCursor;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +34,9 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DefaultDonationService implements DonationService {
 
+    private static final Function<Donation, String> TIMED_CURSOR = donation -> PageCursor.encode(donation.getCreatedAt(), donation.getDonationId());
+    private static final Function<Donation, String> ID_CURSOR = donation -> PageCursor.encode(donation.getDonationId());
+
     private final DonationRepository donationRepository;
     private final AccountRepository accountRepository;
     private final ProjectRepository projectRepository;
@@ -44,46 +49,7 @@ public class DefaultDonationService implements DonationService {
 
         ProjectDonationInformattionDTO projectDonationInformattionDTO = projectRepository.getDonationInformationTotal(projectId);
 
-        List<DonationResponseDTO> donationResponseDTOS = listDonations.stream().map(donation -> DonationResponseDTO.builder()
-                .donationId(donation.getDonationId())
-                .id(donation.getId())
-                .tid(donation.getTid())
-                .createdAt(donation.getCreatedAt())
-                .value(donation.getValue())
-                .description(donation.getDescription())
-                .bankSubAccId(donation.getBankSubAccId())
-                .bankName(donation.getBankName())
-                .corresponsiveName(donation.getCorresponsiveName())
-                .corresponsiveAccount(donation.getCorresponsiveAccount())
-                .corresponsiveBankId(donation.getCorresponsiveBankId())
-                .corresponsiveBankName(donation.getCorresponsiveBankName())
-                .note(donation.getNote())
-                .project(donation.getProject() == null ? null : ProjectResponseDTO.builder()
-                        .projectId(donation.getProject().getProjectId())
-                        .title(donation.getProject().getTitle())
-                        .slug(donation.getProject().getSlug())
-                        .code(donation.getProject().getCode())
-                        .build())
-                .transferredProject(donation.getTransferredProject() == null ? null : ProjectResponseDTO.builder()
-                        .projectId(donation.getTransferredProject().getProjectId())
-                        .title(donation.getTransferredProject().getTitle())
-                        .slug(donation.getTransferredProject().getSlug())
-                        .code(donation.getTransferredProject().getCode())
-                        .build())
-                .refer(donation.getRefer() == null ? null : AccountDTO.builder()
-                        .accountId(donation.getRefer().getAccountId())
-                        .fullname(donation.getRefer().getFullname())
-                        .build())
-                .challenge(donation.getChallenge() == null ? null : ChallengeResponseDTO.builder()
-                        .challengeId(donation.getChallenge().getChallengeId())
-                        .title(donation.getChallenge().getTitle())
-                        .build())
-                .createdBy(donation.getCreatedBy() == null ? null : AccountDTO.builder()
-                        .accountId(donation.getCreatedBy().getAccountId())
-                        .fullname(donation.getCreatedBy().getFullname())
-                        .build())
-                .status(donation.getWrongDonation() != null ? "Pending" : "")
-                .build()).toList();
+        List<DonationResponseDTO> donationResponseDTOS = listDonations.stream().map(this::toProjectDonationDTO).toList();
 
         return PageResponse.<DonationResponseDTO>builder()
                 .limit(size)
@@ -101,46 +67,7 @@ public class DefaultDonationService implements DonationService {
         Pageable pageable = PageRequest.of(page, size);
         Page<Donation> listDonations = donationRepository.findDonationsAdminByFilters(projectId, description, pageable);
 
-        List<DonationResponseDTO> donationResponseDTOS = listDonations.stream().map(donation -> DonationResponseDTO.builder()
-                .donationId(donation.getDonationId())
-                .id(donation.getId())
-                .tid(donation.getTid())
-                .createdAt(donation.getCreatedAt())
-                .value(donation.getValue())
-                .description(donation.getDescription())
-                .bankSubAccId(donation.getBankSubAccId())
-                .bankName(donation.getBankName())
-                .corresponsiveName(donation.getCorresponsiveName())
-                .corresponsiveAccount(donation.getCorresponsiveAccount())
-                .corresponsiveBankId(donation.getCorresponsiveBankId())
-                .corresponsiveBankName(donation.getCorresponsiveBankName())
-                .note(donation.getNote())
-                .project(donation.getProject() == null ? null : ProjectResponseDTO.builder()
-                        .projectId(donation.getProject().getProjectId())
-                        .title(donation.getProject().getTitle())
-                        .slug(donation.getProject().getSlug())
-                        .code(donation.getProject().getCode())
-                        .build())
-                .transferredProject(donation.getTransferredProject() == null ? null : ProjectResponseDTO.builder()
-                        .projectId(donation.getTransferredProject().getProjectId())
-                        .title(donation.getTransferredProject().getTitle())
-                        .slug(donation.getTransferredProject().getSlug())
-                        .code(donation.getTransferredProject().getCode())
-                        .build())
-                .refer(donation.getRefer() == null ? null : AccountDTO.builder()
-                        .accountId(donation.getRefer().getAccountId())
-                        .fullname(donation.getRefer().getFullname())
-                        .build())
-                .challenge(donation.getChallenge() == null ? null : ChallengeResponseDTO.builder()
-                        .challengeId(donation.getChallenge().getChallengeId())
-                        .title(donation.getChallenge().getTitle())
-                        .build())
-                .createdBy(donation.getCreatedBy() == null ? null : AccountDTO.builder()
-                        .accountId(donation.getCreatedBy().getAccountId())
-                        .fullname(donation.getCreatedBy().getFullname())
-                        .build())
-                .status(donation.getWrongDonation() != null ? "Pending" : "")
-                .build()).toList();
+        List<DonationResponseDTO> donationResponseDTOS = listDonations.stream().map(this::toProjectDonationDTO).toList();
 
         return PageResponse.<DonationResponseDTO>builder()
                 .limit(size)
@@ -150,6 +77,32 @@ public class DefaultDonationService implements DonationService {
                 .build();
     }
 
+    @Override
+    public PageResponse<DonationResponseDTO> viewListDonations(String cursor, Integer size, BigInteger projectId, String description, boolean withTotal) {
+        PageCursor after = PageCursor.decodeTimed(cursor);
+        List<Donation> rows = donationRepository.findDonationsByFiltersAfter(projectId, description,
+                PageCursor.createdAtOf(after), PageCursor.idOf(after), pageSize(size) + 1);
+
+        ProjectDonationInformattionDTO projectDonationInformattionDTO = projectRepository.getDonationInformationTotal(projectId);
+
+        return cursorPage(rows, size, TIMED_CURSOR, this::toProjectDonationDTO)
+                .total(withTotal ? (int) donationRepository.countDonationsByFilters(projectId, description) : null)
+                .summary(Map.of("target", projectDonationInformattionDTO.getTarget(),
+                        "total_donation", projectDonationInformattionDTO.getTotalDonation()))
+                .build();
+    }
+
+    @Override
+    public PageResponse<DonationResponseDTO> viewListDonationsAdmin(String cursor, Integer size, BigInteger projectId, String description, boolean withTotal) {
+        PageCursor after = PageCursor.decodeTimed(cursor);
+        List<Donation> rows = donationRepository.findDonationsByFiltersAfter(projectId, description,
+                PageCursor.createdAtOf(after), PageCursor.idOf(after), pageSize(size) + 1);
+
+        return cursorPage(rows, size, TIMED_CURSOR, this::toProjectDonationDTO)
+                .total(withTotal ? (int) donationRepository.countDonationsByFilters(projectId, description) : null)
+                .build();
+    }
+
     @Override
     public PageResponse<DonationResponseDTO> viewDonationsByChallengeId(Integer page, Integer size, BigInteger challengeId, String description) {
         Pageable pageable = PageRequest.of(page, size);
@@ -283,7 +236,124 @@ public class DefaultDonationService implements DonationService {
         Pageable pageable = PageRequest.of(page, size);
         var listDonations = donationRepository.getDonationsByReferId(null, account.getAccountId(), pageable);
 
-        var listDTO = listDonations.stream().map(donation -> DonationResponseDTO.builder()
+        var listDTO = listDonations.stream().map(this::toReferDonationDTO).toList();
+        
+        return PageResponse.<DonationResponseDTO>builder()
+                .limit(size)
+                .offset(page)
+                .total((int) listDonations.getTotalElements())
+                .content(listDTO)
+                .summary(Map.of("total_donation_by_refer", donationRepository.getTotalDonationByReferId(account.getAccountId())))
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public PageResponse<?> viewDonationsByReferCode(String cursor, Integer size, String code, boolean withTotal) {
+        Account account = accountRepository.findSystemUserAccountByAccountCode(code).orElseThrow(() ->  new AppException(ErrorCode.ACCOUNT_NO_CONTENT));
+
+        PageCursor after = PageCursor.decode(cursor);
+        List<Donation> rows = donationRepository.getDonationsByReferIdAfter(null, account.getAccountId(),
+                PageCursor.idOf(after), pageSize(size) + 1);
+
+        return cursorPage(rows, size, ID_CURSOR, this::toReferDonationDTO)
+                .total(withTotal ? (int) donationRepository.countDonationsByReferIdAndDescription(null, account.getAccountId()) : null)
+                .summary(Map.of("total_donation_by_refer", donationRepository.getTotalDonationByReferId(account.getAccountId())))
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public PageResponse<?> viewAllDonations(Integer page, Integer size, String description) {
+        Pageable pageable = PageRequest.of(page, size);
+        var listDonations = donationRepository.findAllDonationsByFilters(description, pageable);
+
+        List<DonationResponseDTO> list = listDonations.map(this::toListedDonationDTO).toList();
+
+        return PageResponse.<DonationResponseDTO>builder()
+                .limit(size)
+                .offset(page)
+                .total((int) listDonations.getTotalElements())
+                .content(list)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public PageResponse<?> viewAllDonations(String cursor, Integer size, String description, boolean withTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<Donation> rows = donationRepository.findAllDonationsByFiltersAfter(description, PageCursor.idOf(after), pageSize(size) + 1);
+
+        return cursorPage(rows, size, ID_CURSOR, this::toListedDonationDTO)
+                .total(withTotal ? (int) donationRepository.countAllDonationsByFilters(description) : null)
+                .build();
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null || size < 1) throw new AppException(ErrorCode.HTTP_BAD_REQUEST);
+        return size;
+    }
+
+    /**
+     * Builds a keyset page from rows read with one extra row; that row only tells whether more follow.
+     */
+    private PageResponse.PageResponseBuilder<DonationResponseDTO> cursorPage(List<Donation> rows, int size,
+                                                                            Function<Donation, String> cursorOf,
+                                                                            Function<Donation, DonationResponseDTO> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<Donation> page = hasMore ? rows.subList(0, size) : rows;
+        return PageResponse.<DonationResponseDTO>builder()
+                .content(page.stream().map(mapper).toList())
+                .limit(size)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null);
+    }
+
+    private DonationResponseDTO toProjectDonationDTO(Donation donation) {
+        return DonationResponseDTO.builder()
+                .donationId(donation.getDonationId())
+                .id(donation.getId())
+                .tid(donation.getTid())
+                .createdAt(donation.getCreatedAt())
+                .value(donation.getValue())
+                .description(donation.getDescription())
+                .bankSubAccId(donation.getBankSubAccId())
+                .bankName(donation.getBankName())
+                .corresponsiveName(donation.getCorresponsiveName())
+                .corresponsiveAccount(donation.getCorresponsiveAccount())
+                .corresponsiveBankId(donation.getCorresponsiveBankId())
+                .corresponsiveBankName(donation.getCorresponsiveBankName())
+                .note(donation.getNote())
+                .project(donation.getProject() == null ? null : ProjectResponseDTO.builder()
+                        .projectId(donation.getProject().getProjectId())
+                        .title(donation.getProject().getTitle())
+                        .slug(donation.getProject().getSlug())
+                        .code(donation.getProject().getCode())
+                        .build())
+                .transferredProject(donation.getTransferredProject() == null ? null : ProjectResponseDTO.builder()
+                        .projectId(donation.getTransferredProject().getProjectId())
+                        .title(donation.getTransferredProject().getTitle())
+                        .slug(donation.getTransferredProject().getSlug())
+                        .code(donation.getTransferredProject().getCode())
+                        .build())
+                .refer(donation.getRefer() == null ? null : AccountDTO.builder()
+                        .accountId(donation.getRefer().getAccountId())
+                        .fullname(donation.getRefer().getFullname())
+                        .build())
+                .challenge(donation.getChallenge() == null ? null : ChallengeResponseDTO.builder()
+                        .challengeId(donation.getChallenge().getChallengeId())
+                        .title(donation.getChallenge().getTitle())
+                        .build())
+                .createdBy(donation.getCreatedBy() == null ? null : AccountDTO.builder()
+                        .accountId(donation.getCreatedBy().getAccountId())
+                        .fullname(donation.getCreatedBy().getFullname())
+                        .build())
+                .status(donation.getWrongDonation() != null ? "Pending" : "")
+                .build();
+    }
+
+    private DonationResponseDTO toReferDonationDTO(Donation donation) {
+        return DonationResponseDTO.builder()
                 .donationId(donation.getDonationId())
                 .id(donation.getId())
                 .tid(donation.getTid())
@@ -323,24 +393,11 @@ public class DefaultDonationService implements DonationService {
                 .corresponsiveBankName(donation.getCorresponsiveBankName())
                 .note(donation.getNote())
                 .status(donation.getWrongDonation() != null ? "Pending" : "")
-                .build()).toList();
-        
-        return PageResponse.<DonationResponseDTO>builder()
-                .limit(size)
-                .offset(page)
-                .total((int) listDonations.getTotalElements())
-                .content(listDTO)
-                .summary(Map.of("total_donation_by_refer", donationRepository.getTotalDonationByReferId(account.getAccountId())))
                 .build();
     }
 
-    @Override
-    @Transactional
-    public PageResponse<?> viewAllDonations(Integer page, Integer size, String description) {
-        Pageable pageable = PageRequest.of(page, size);
-        var listDonations = donationRepository.findAllDonationsByFilters(description, pageable);
-
-        List<DonationResponseDTO> list = listDonations.map(donation -> DonationResponseDTO.builder()
+    private DonationResponseDTO toListedDonationDTO(Donation donation) {
+        return DonationResponseDTO.builder()
                 .donationId(donation.getDonationId())
                 .id(donation.getId())
                 .tid(donation.getTid())
@@ -385,13 +442,6 @@ public class DefaultDonationService implements DonationService {
                 .corresponsiveBankName(donation.getCorresponsiveBankName())
                 .note(donation.getNote())
                 .status(donation.getWrongDonation() != null ? "Pending" : "")
-                .build()).toList();
-
-        return PageResponse.<DonationResponseDTO>builder()
-                .limit(size)
-                .offset(page)
-                .total((int) listDonations.getTotalElements())
-                .content(list)
                 .build();
     }
 }
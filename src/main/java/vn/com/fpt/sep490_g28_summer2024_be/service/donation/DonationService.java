@@ -14,11 +14,19 @@ public interface DonationService {
 
     PageResponse<DonationResponseDTO> viewListDonationsAdmin(Integer page, Integer size, BigInteger projectId, String description);
 
+    PageResponse<DonationResponseDTO> viewListDonations(String cursor, Integer size, BigInteger projectId, String description, boolean withTotal);
+
+    PageResponse<DonationResponseDTO> viewListDonationsAdmin(String cursor, Integer size, BigInteger projectId, String description, boolean withTotal);
+
     PageResponse<DonationResponseDTO> viewDonationsByChallengeId(Integer page, Integer size, BigInteger challengeId, String description);
 
     PageResponse<DonationResponseDTO> viewDonationsByAccount(Integer page, Integer size, String email, String description);
 
     PageResponse<?> viewDonationsByReferCode(Integer page, Integer size, String code);
 
+    PageResponse<?> viewDonationsByReferCode(String cursor, Integer size, String code, boolean withTotal);
+
     PageResponse<?> viewAllDonations(Integer page, Integer size, String description);
+
+    PageResponse<?> viewAllDonations(String cursor, Integer size, String description, boolean withTotal);
 }
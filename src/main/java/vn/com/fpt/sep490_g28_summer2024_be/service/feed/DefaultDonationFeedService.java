@@ -0,0 +1,279 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.challenge.ChallengeResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.DonationResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.DonationFeedFrameDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.DonationFeedStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.ProjectProgressDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.ProjectResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ProjectDonationLedger;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.ProjectLedgerService;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes newly stored donations to the STOMP subscribers of the project, campaign and challenge they
+ * belong to. Donations are queued per topic once their transaction commits and sent by {@link #flush()},
+ * so a busy topic gets one frame per flush however many donations arrive in between. Ingestion only
+ * touches the pending map; the broker and slow clients are never on its path.
+ */
+@Service
+@Slf4j
+public class DefaultDonationFeedService implements DonationFeedService {
+
+    private static final String PROJECT_SCOPE = "project";
+    private static final String CAMPAIGN_SCOPE = "campaign";
+    private static final String CHALLENGE_SCOPE = "challenge";
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ProjectDonationLedgerRepository projectDonationLedgerRepository;
+    private final ProjectLedgerService projectLedgerService;
+    private final ProjectProgressService projectProgressService;
+    private final int maxDonationsPerFrame;
+    private final int maxPendingTopics;
+
+    private final Map<String, PendingFrame> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong publishedDonations = new AtomicLong();
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong coalescedUpdates = new AtomicLong();
+    private final AtomicLong droppedUpdates = new AtomicLong();
+    private final AtomicLong failedFrames = new AtomicLong();
+
+    public DefaultDonationFeedService(SimpMessageSendingOperations messagingTemplate,
+                                      ProjectDonationLedgerRepository projectDonationLedgerRepository,
+                                      ProjectLedgerService projectLedgerService,
+                                      ProjectProgressService projectProgressService,
+                                      @Value("${feed.max-donations-per-frame:20}") int maxDonationsPerFrame,
+                                      @Value("${feed.max-pending-topics:10000}") int maxPendingTopics) {
+        this.messagingTemplate = messagingTemplate;
+        this.projectDonationLedgerRepository = projectDonationLedgerRepository;
+        this.projectLedgerService = projectLedgerService;
+        this.projectProgressService = projectProgressService;
+        this.maxDonationsPerFrame = Math.max(maxDonationsPerFrame, 1);
+        this.maxPendingTopics = maxPendingTopics;
+    }
+
+    /**
+     * Queues the donations for their topics after the current transaction commits, or right away when
+     * there is none. What is sent is copied now, while the routing of the donations is still loaded.
+     */
+    @Override
+    public void publish(List<Donation> donations) {
+        List<FeedUpdate> updates = new ArrayList<>();
+        donations.forEach(donation -> addUpdates(donation, updates));
+        if (updates.isEmpty()) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(donations.size(), updates);
+                }
+            });
+        } else {
+            enqueue(donations.size(), updates);
+        }
+    }
+
+    /**
+     * Sends one frame for every topic with queued donations. Project frames carry the committed total
+     * from the ledger, read for all of them at once, which also goes to the progress streams.
+     */
+    @Override
+    public int flush() {
+        if (pending.isEmpty()) return 0;
+        Map<String, PendingFrame> frames = new LinkedHashMap<>();
+        for (String topic : pending.keySet()) {
+            PendingFrame frame = pending.remove(topic);
+            if (frame != null) frames.put(topic, frame);
+        }
+
+        Map<BigInteger, ProjectDonationLedger> totals = loadProjectTotals(frames.values());
+        LocalDateTime sentAt = LocalDateTime.now();
+        int sent = 0;
+        for (Map.Entry<String, PendingFrame> entry : frames.entrySet()) {
+            try {
+                messagingTemplate.convertAndSend(entry.getKey(), entry.getValue().toFrame(totals, sentAt));
+                sent++;
+            } catch (MessagingException e) {
+                failedFrames.incrementAndGet();
+                log.debug("Donation feed frame to {} not sent: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        sentFrames.addAndGet(sent);
+        projectProgressService.publish(totals.values().stream()
+                .map(entry -> ProjectProgressDTO.builder()
+                        .projectId(entry.getProjectId())
+                        .totalDonation(entry.getTotalDonation())
+                        .donationCount(entry.getDonationCount())
+                        .build())
+                .toList());
+        return sent;
+    }
+
+    @Override
+    public DonationFeedStatsDTO getStats() {
+        return DonationFeedStatsDTO.builder()
+                .publishedDonations(publishedDonations.get())
+                .sentFrames(sentFrames.get())
+                .coalescedUpdates(coalescedUpdates.get())
+                .droppedUpdates(droppedUpdates.get())
+                .failedFrames(failedFrames.get())
+                .pendingTopics(pending.size())
+                .progressStreams(projectProgressService.getStreamCount())
+                .build();
+    }
+
+    private void enqueue(int donationCount, List<FeedUpdate> updates) {
+        publishedDonations.addAndGet(donationCount);
+        for (FeedUpdate update : updates) {
+            // a full map takes no new topics; topics already queued keep merging
+            if (pending.size() >= maxPendingTopics && !pending.containsKey(update.topic())) {
+                droppedUpdates.incrementAndGet();
+                continue;
+            }
+            pending.compute(update.topic(), (topic, frame) -> {
+                if (frame == null) {
+                    frame = new PendingFrame(update.scope(), update.id());
+                } else {
+                    coalescedUpdates.incrementAndGet();
+                }
+                frame.add(update.donation(), maxDonationsPerFrame);
+                return frame;
+            });
+        }
+    }
+
+    /**
+     * A donation shows on the page of its project and of the project it was transferred to. It counts
+     * toward the campaign of the project the ledger credits, and toward its challenge.
+     */
+    private void addUpdates(Donation donation, List<FeedUpdate> updates) {
+        DonationResponseDTO item = toFeedItem(donation);
+        Project project = donation.getProject();
+        Project transferredProject = donation.getTransferredProject();
+        if (project != null) {
+            updates.add(new FeedUpdate(PROJECT_TOPIC + project.getProjectId(), PROJECT_SCOPE, project.getProjectId(), item));
+        }
+        if (transferredProject != null && (project == null
+                || !Objects.equals(project.getProjectId(), transferredProject.getProjectId()))) {
+            updates.add(new FeedUpdate(PROJECT_TOPIC + transferredProject.getProjectId(), PROJECT_SCOPE,
+                    transferredProject.getProjectId(), item));
+        }
+
+        BigInteger creditedProjectId = projectLedgerService.resolveProjectId(donation);
+        Project creditedProject = creditedProjectId == null ? null
+                : transferredProject != null ? transferredProject : project;
+        if (creditedProject != null && creditedProject.getCampaign() != null) {
+            BigInteger campaignId = creditedProject.getCampaign().getCampaignId();
+            updates.add(new FeedUpdate(CAMPAIGN_TOPIC + campaignId, CAMPAIGN_SCOPE, campaignId, item));
+        }
+        if (donation.getChallenge() != null) {
+            BigInteger challengeId = donation.getChallenge().getChallengeId();
+            updates.add(new FeedUpdate(CHALLENGE_TOPIC + challengeId, CHALLENGE_SCOPE, challengeId, item));
+        }
+    }
+
+    private static DonationResponseDTO toFeedItem(Donation donation) {
+        return DonationResponseDTO.builder()
+                .donationId(donation.getDonationId())
+                .tid(donation.getTid())
+                .createdAt(donation.getCreatedAt())
+                .value(donation.getValue())
+                .description(donation.getDescription())
+                .corresponsiveName(donation.getCorresponsiveName())
+                .project(donation.getProject() == null ? null : ProjectResponseDTO.builder()
+                        .projectId(donation.getProject().getProjectId())
+                        .build())
+                .transferredProject(donation.getTransferredProject() == null ? null : ProjectResponseDTO.builder()
+                        .projectId(donation.getTransferredProject().getProjectId())
+                        .build())
+                .challenge(donation.getChallenge() == null ? null : ChallengeResponseDTO.builder()
+                        .challengeId(donation.getChallenge().getChallengeId())
+                        .build())
+                .status(donation.getWrongDonation() != null ? "Pending" : "")
+                .build();
+    }
+
+    private Map<BigInteger, ProjectDonationLedger> loadProjectTotals(Iterable<PendingFrame> frames) {
+        List<BigInteger> projectIds = new ArrayList<>();
+        frames.forEach(frame -> {
+            if (PROJECT_SCOPE.equals(frame.scope)) projectIds.add(frame.id);
+        });
+        if (projectIds.isEmpty()) return Map.of();
+
+        Map<BigInteger, ProjectDonationLedger> totals = new HashMap<>();
+        try {
+            for (ProjectDonationLedger entry : projectDonationLedgerRepository.findAllById(projectIds)) {
+                totals.put(entry.getProjectId(), entry);
+            }
+        } catch (DataAccessException e) {
+            // the frames still go out, without totals
+            log.warn("Could not load project totals for the donation feed: {}", e.getMessage());
+        }
+        return totals;
+    }
+
+    private record FeedUpdate(String topic, String scope, BigInteger id, DonationResponseDTO donation) {
+    }
+
+    /**
+     * Donations queued for one topic. Only the latest ones are kept; the count and amount cover all.
+     */
+    private static final class PendingFrame {
+        private final String scope;
+        private final BigInteger id;
+        private final Deque<DonationResponseDTO> donations = new ArrayDeque<>();
+        private int count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        private PendingFrame(String scope, BigInteger id) {
+            this.scope = scope;
+            this.id = id;
+        }
+
+        private void add(DonationResponseDTO donation, int maxDonations) {
+            donations.addLast(donation);
+            if (donations.size() > maxDonations) donations.removeFirst();
+            count++;
+            if (donation.getValue() != null) amount = amount.add(donation.getValue());
+        }
+
+        private DonationFeedFrameDTO toFrame(Map<BigInteger, ProjectDonationLedger> totals, LocalDateTime sentAt) {
+            ProjectDonationLedger ledger = PROJECT_SCOPE.equals(scope) ? totals.get(id) : null;
+            return DonationFeedFrameDTO.builder()
+                    .scope(scope)
+                    .id(id)
+                    .donations(List.copyOf(donations))
+                    .donationCount(count)
+                    .amount(amount)
+                    .totalDonation(ledger == null ? null : ledger.getTotalDonation())
+                    .sentAt(sentAt)
+                    .build();
+        }
+    }
+}
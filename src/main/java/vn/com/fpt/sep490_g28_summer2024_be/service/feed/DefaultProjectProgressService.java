@@ -0,0 +1,298 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.ProjectProgressDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams the funding progress of a set of projects as Server-Sent Events. Open streams sit in a
+ * registry indexed by project and hold no thread while idle; each send runs on a virtual thread, so a
+ * slow client only delays itself. Changes waiting for a client are merged per project, so it gets at
+ * most one event per flush of the donation feed.
+ * <p>
+ * Every change batch gets an event id, and the latest batches are kept so that a client reconnecting
+ * with Last-Event-ID receives only what it missed. Ids carry the start time of the process; an id
+ * from before a restart, or older than the kept batches, gets a full snapshot instead.
+ */
+@Service
+@Slf4j
+public class DefaultProjectProgressService implements ProjectProgressService {
+
+    private static final String PROGRESS_EVENT = "progress";
+
+    private final ProjectRepository projectRepository;
+    private final Executor executor;
+    private final long streamTimeoutMs;
+    private final long retryMs;
+    private final int maxProjectsPerStream;
+    private final int maxStreams;
+    private final int replaySize;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<BigInteger, Set<Subscriber>> subscribersByProject = new ConcurrentHashMap<>();
+    private final Deque<ProgressChange> replay = new ArrayDeque<>();
+    private long sequence;
+
+    public DefaultProjectProgressService(ProjectRepository projectRepository,
+                                         @Qualifier("progressStreamExecutor") Executor executor,
+                                         @Value("${progress.stream-timeout-ms:1800000}") long streamTimeoutMs,
+                                         @Value("${progress.retry-ms:3000}") long retryMs,
+                                         @Value("${progress.max-projects-per-stream:50}") int maxProjectsPerStream,
+                                         @Value("${progress.max-streams:10000}") int maxStreams,
+                                         @Value("${progress.replay-size:4096}") int replaySize) {
+        this.projectRepository = projectRepository;
+        this.executor = executor;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.retryMs = retryMs;
+        this.maxProjectsPerStream = maxProjectsPerStream;
+        this.maxStreams = maxStreams;
+        this.replaySize = Math.max(replaySize, 1);
+    }
+
+    /**
+     * Opens a stream for the given projects. The first event is a snapshot of all of them, or on a
+     * resume the changes made since the given event id.
+     */
+    @Override
+    public SseEmitter subscribe(Collection<BigInteger> projectIds, String lastEventId) {
+        Set<BigInteger> ids = new LinkedHashSet<>();
+        if (projectIds != null) projectIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        if (ids.isEmpty() || ids.size() > maxProjectsPerStream) {
+            throw new AppException(ErrorCode.HTTP_BAD_REQUEST);
+        }
+        if (subscribers.size() >= maxStreams) {
+            throw new AppException(ErrorCode.HTTP_TOO_MANY_REQUESTS);
+        }
+
+        SseEmitter emitter = newEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, ids);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+        // registered first, so no change published while the snapshot is read is missed
+        register(subscriber);
+
+        long current;
+        List<ProjectProgressDTO> missed;
+        synchronized (this) {
+            current = sequence;
+            missed = missedSince(parseSequence(lastEventId), ids);
+        }
+        if (missed != null) {
+            subscriber.offer(current, missed, false);
+            return emitter;
+        }
+
+        subscriber.offer(current, projectRepository.findProgressByIds(ids).stream()
+                .map(row -> ProjectProgressDTO.builder()
+                        .projectId(row.getProjectId())
+                        .target(row.getTarget())
+                        .totalDonation(row.getTotalDonation())
+                        .donationCount(row.getDonationCount())
+                        .build())
+                .toList(), false);
+        // the snapshot may have overwritten changes published while it was read; offer them again
+        long latest;
+        List<ProjectProgressDTO> since;
+        synchronized (this) {
+            latest = sequence;
+            since = missedSince(current, ids);
+        }
+        if (since != null && !since.isEmpty()) subscriber.offer(latest, since, false);
+        return emitter;
+    }
+
+    /**
+     * Records a batch of changed project totals under a new event id and hands each open stream the
+     * ones it follows.
+     */
+    @Override
+    public void publish(List<ProjectProgressDTO> changes) {
+        if (changes.isEmpty()) return;
+        long seq;
+        synchronized (this) {
+            seq = ++sequence;
+            changes.forEach(change -> replay.addLast(new ProgressChange(seq, change)));
+            while (replay.size() > replaySize) replay.removeFirst();
+        }
+
+        Map<Subscriber, List<ProjectProgressDTO>> bySubscriber = new HashMap<>();
+        for (ProjectProgressDTO change : changes) {
+            for (Subscriber subscriber : subscribersByProject.getOrDefault(change.getProjectId(), Set.of())) {
+                bySubscriber.computeIfAbsent(subscriber, k -> new ArrayList<>()).add(change);
+            }
+        }
+        bySubscriber.forEach((subscriber, subscriberChanges) -> subscriber.offer(seq, subscriberChanges, false));
+    }
+
+    /**
+     * Sends a comment on every open stream, so proxies keep idle connections and dead ones are noticed.
+     */
+    @Override
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(-1, List.of(), true));
+    }
+
+    @Override
+    public int getStreamCount() {
+        return subscribers.size();
+    }
+
+    protected SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /**
+     * Returns the latest change per project since the given event, or null when the kept batches do
+     * not reach back that far.
+     */
+    private List<ProjectProgressDTO> missedSince(long lastSeq, Set<BigInteger> ids) {
+        if (lastSeq < 0 || lastSeq > sequence) return null;
+        if (lastSeq == sequence) return List.of();
+        // the oldest kept batch may have lost some of its changes to trimming
+        if (replay.isEmpty() || lastSeq < replay.peekFirst().seq()) return null;
+
+        Map<BigInteger, ProjectProgressDTO> latest = new LinkedHashMap<>();
+        for (ProgressChange change : replay) {
+            if (change.seq() > lastSeq && ids.contains(change.progress().getProjectId())) {
+                latest.put(change.progress().getProjectId(), change.progress());
+            }
+        }
+        return List.copyOf(latest.values());
+    }
+
+    private long parseSequence(String lastEventId) {
+        if (lastEventId == null) return -1;
+        int separator = lastEventId.indexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) return -1;
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void register(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        for (BigInteger projectId : subscriber.projectIds) {
+            subscribersByProject.compute(projectId, (k, set) -> {
+                if (set == null) set = ConcurrentHashMap.newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) return;
+        for (BigInteger projectId : subscriber.projectIds) {
+            subscribersByProject.computeIfPresent(projectId, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private record ProgressChange(long seq, ProjectProgressDTO progress) {
+    }
+
+    /**
+     * One open stream. Offers only merge into the pending changes; a single drain task at a time
+     * writes them to the emitter, so sends never overlap and a stalled client never blocks the caller.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<BigInteger> projectIds;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final Map<BigInteger, ProjectProgressDTO> pending = new LinkedHashMap<>();
+        private long pendingSeq = -1;
+        private boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, Set<BigInteger> projectIds) {
+            this.emitter = emitter;
+            this.projectIds = projectIds;
+        }
+
+        private void offer(long seq, List<ProjectProgressDTO> changes, boolean heartbeat) {
+            synchronized (this) {
+                for (ProjectProgressDTO change : changes) {
+                    ProjectProgressDTO previous = pending.get(change.getProjectId());
+                    // a change carries no target; keep the one from a snapshot not sent yet
+                    pending.put(change.getProjectId(), previous != null && change.getTarget() == null
+                            ? change.toBuilder().target(previous.getTarget()).build()
+                            : change);
+                }
+                if (!changes.isEmpty()) pendingSeq = Math.max(pendingSeq, seq);
+                heartbeatDue |= heartbeat;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<ProjectProgressDTO> changes;
+                    long seq;
+                    boolean heartbeat;
+                    synchronized (this) {
+                        if (pending.isEmpty() && !heartbeatDue) {
+                            draining.set(false);
+                            return;
+                        }
+                        changes = List.copyOf(pending.values());
+                        seq = pendingSeq;
+                        heartbeat = heartbeatDue;
+                        pending.clear();
+                        heartbeatDue = false;
+                    }
+                    if (!changes.isEmpty()) {
+                        emitter.send(SseEmitter.event()
+                                .id(epoch + "-" + seq)
+                                .name(PROGRESS_EVENT)
+                                .reconnectTime(retryMs)
+                                .data(changes, MediaType.APPLICATION_JSON));
+                    } else if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away; the container reports it through onError as well
+                log.debug("Progress stream closed: {}", e.getMessage());
+                unregister(this);
+                draining.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.feed;
+
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.DonationFeedStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+
+import java.util.List;
+
+public interface DonationFeedService {
+
+    String PROJECT_TOPIC = "/topic/projects/";
+
+    String CAMPAIGN_TOPIC = "/topic/campaigns/";
+
+    String CHALLENGE_TOPIC = "/topic/challenges/";
+
+    void publish(List<Donation> donations);
+
+    int flush();
+
+    DonationFeedStatsDTO getStats();
+}
@@ -0,0 +1,19 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.feed;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.ProjectProgressDTO;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProjectProgressService {
+
+    SseEmitter subscribe(Collection<BigInteger> projectIds, String lastEventId);
+
+    void publish(List<ProjectProgressDTO> changes);
+
+    void heartbeat();
+
+    int getStreamCount();
+}
@@ -0,0 +1,27 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.httpcache;
+
+import org.springframework.web.context.request.WebRequest;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.ConditionalGetStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
+
+import java.util.List;
+
+public interface ConditionalGetService {
+
+    /**
+     * Checks the request's validators against the current version of the given areas. Returns true
+     * when the client copy is still fresh and a 304 has been prepared; otherwise the validators of
+     * the fresh response are set and the caller builds the body as usual.
+     */
+    boolean checkNotModified(WebRequest request, ContentArea... areas);
+
+    /**
+     * Same check against a validator the caller already holds, such as the ETag of a cached body.
+     */
+    boolean checkNotModified(WebRequest request, String etag);
+
+    ContentVersionInterfaceDTO getVersion(ContentArea area);
+
+    List<ConditionalGetStatsDTO> getStats();
+}
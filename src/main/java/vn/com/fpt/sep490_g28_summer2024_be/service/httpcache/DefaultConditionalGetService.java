@@ -0,0 +1,138 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.httpcache;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.ConditionalGetStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.NewsRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32C;
+
+/**
+ * Answers conditional GETs on the public read endpoints from cheap version queries, one per content
+ * area: row count, highest id and latest updated_at, plus the ledger and the newest donation for
+ * funding totals. The weak ETag is a checksum of those versions; Last-Modified is the latest of the
+ * timestamps, left out when an area cannot give one precise enough. Either way the heavy listing
+ * queries only run when the client copy is stale.
+ * <p>
+ * Versions follow the updated_at columns, so writes that bypass them are not seen.
+ */
+@Service
+public class DefaultConditionalGetService implements ConditionalGetService {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectDonationLedgerRepository projectDonationLedgerRepository;
+    private final CampaignRepository campaignRepository;
+    private final NewsRepository newsRepository;
+    private final AccountRepository accountRepository;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public DefaultConditionalGetService(ProjectRepository projectRepository,
+                                        ProjectDonationLedgerRepository projectDonationLedgerRepository,
+                                        CampaignRepository campaignRepository,
+                                        NewsRepository newsRepository,
+                                        AccountRepository accountRepository) {
+        this.projectRepository = projectRepository;
+        this.projectDonationLedgerRepository = projectDonationLedgerRepository;
+        this.campaignRepository = campaignRepository;
+        this.newsRepository = newsRepository;
+        this.accountRepository = accountRepository;
+    }
+
+    @Override
+    public boolean checkNotModified(WebRequest request, ContentArea... areas) {
+        CRC32C checksum = new CRC32C();
+        long lastModified = 0;
+        for (ContentArea area : areas) {
+            ContentVersionInterfaceDTO version = getVersion(area);
+            checksum.update((area.name() + ':' + version.getVersion() + ';').getBytes(StandardCharsets.UTF_8));
+            if (version.getLastModified() == null) {
+                lastModified = -1;
+            } else if (lastModified >= 0) {
+                lastModified = Math.max(lastModified,
+                        version.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        String etag = "W/\"" + Long.toHexString(checksum.getValue()) + "\"";
+        return check(request, etag, lastModified);
+    }
+
+    @Override
+    public boolean checkNotModified(WebRequest request, String etag) {
+        return check(request, etag, -1);
+    }
+
+    private boolean check(WebRequest request, String etag, long lastModified) {
+        // clients must come back with their validators instead of reusing the copy on their own
+        HttpServletResponse response = request instanceof NativeWebRequest nativeRequest
+                ? nativeRequest.getNativeResponse(HttpServletResponse.class)
+                : null;
+        if (response != null) response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        boolean notModified = request.checkNotModified(etag, lastModified);
+        Counter counter = counters.computeIfAbsent(endpointOf(request), key -> new Counter());
+        counter.requests.increment();
+        if (notModified) counter.notModified.increment();
+        return notModified;
+    }
+
+    @Override
+    public List<ConditionalGetStatsDTO> getStats() {
+        return counters.entrySet().stream()
+                .map(entry -> {
+                    long requests = entry.getValue().requests.sum();
+                    long notModified = entry.getValue().notModified.sum();
+                    return ConditionalGetStatsDTO.builder()
+                            .endpoint(entry.getKey())
+                            .requests(requests)
+                            .notModified(notModified)
+                            .notModifiedRate(requests == 0 ? 0.0 : (double) notModified / requests)
+                            .build();
+                })
+                .sorted(Comparator.comparing(ConditionalGetStatsDTO::getEndpoint))
+                .toList();
+    }
+
+    @Override
+    public ContentVersionInterfaceDTO getVersion(ContentArea area) {
+        return switch (area) {
+            case PROJECTS -> projectRepository.findContentVersion();
+            case DONATIONS -> projectDonationLedgerRepository.findContentVersion();
+            case CAMPAIGNS -> campaignRepository.findContentVersion();
+            case NEWS -> newsRepository.findContentVersion();
+            case ACCOUNTS -> accountRepository.findContentVersion();
+        };
+    }
+
+    /**
+     * The mapped route, so that /api/projects/1 and /api/projects/2 count as one endpoint.
+     */
+    private static String endpointOf(WebRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        String path = pattern != null ? pattern.toString() : request.getDescription(false).replaceFirst("^uri=", "");
+        return "GET " + path;
+    }
+
+    private static final class Counter {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder notModified = new LongAdder();
+    }
+}
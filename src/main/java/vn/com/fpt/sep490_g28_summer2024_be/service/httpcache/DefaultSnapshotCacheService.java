@@ -0,0 +1,294 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.httpcache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.SnapshotCacheStatsDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the JSON body of the hottest anonymous reads serialized in memory, one snapshot per route
+ * and declared parameters, together with a gzip copy for clients that accept it. Requests never wait on
+ * the database once a snapshot exists: {@link #refresh()} polls the content versions of the areas
+ * each snapshot depends on and rebuilds it in the background when one moved, or at the latest
+ * after {@code snapshot.ttl-ms}. A snapshot is loaded in one read-only transaction that reads the
+ * versions first, so a write landing during the load is picked up by the next refresh.
+ * <p>
+ * At most {@code snapshot.max-entries} snapshots are kept; further parameter combinations are
+ * loaded on every request, as they were before. Each refresh rebuilds at most
+ * {@code snapshot.max-rebuilds-per-refresh} of them, those whose content changed first and then the
+ * oldest, so a burst of stale entries is spread over several refreshes.
+ */
+@Service
+@Slf4j
+public class DefaultSnapshotCacheService implements SnapshotCacheService {
+
+    private final ConditionalGetService conditionalGetService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMs;
+    private final long idleMs;
+    private final int maxEntries;
+    private final int maxRebuildsPerRefresh;
+    private final int maxSize;
+    private final boolean gzipEnabled;
+    private final int gzipMinBytes;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    public DefaultSnapshotCacheService(ConditionalGetService conditionalGetService,
+                                       ObjectMapper objectMapper,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${snapshot.ttl-ms:30000}") long ttlMs,
+                                       @Value("${snapshot.idle-ms:600000}") long idleMs,
+                                       @Value("${snapshot.max-entries:256}") int maxEntries,
+                                       @Value("${snapshot.max-rebuilds-per-refresh:16}") int maxRebuildsPerRefresh,
+                                       @Value("${snapshot.max-size:50}") int maxSize,
+                                       @Value("${snapshot.gzip:true}") boolean gzipEnabled,
+                                       @Value("${snapshot.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.conditionalGetService = conditionalGetService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.ttlMs = ttlMs;
+        this.idleMs = idleMs;
+        this.maxEntries = maxEntries;
+        this.maxRebuildsPerRefresh = Math.max(maxRebuildsPerRefresh, 1);
+        this.maxSize = Math.max(maxSize, 1);
+        this.gzipEnabled = gzipEnabled;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    @Override
+    public ResponseEntity<byte[]> serve(WebRequest request, List<?> parameters, Supplier<?> loader, ContentArea... areas) {
+        String key = keyOf(request, parameters);
+        Entry entry = entries.get(key);
+        if (entry == null && entries.size() < maxEntries) {
+            entry = entries.computeIfAbsent(key, k -> new Entry(loader, areas));
+        }
+
+        Snapshot snapshot;
+        if (entry == null) {
+            bypassed.increment();
+            snapshot = build(loader, areas);
+        } else {
+            entry.lastAccess = System.currentTimeMillis();
+            snapshot = entry.snapshot;
+            if (snapshot != null) {
+                hits.increment();
+            } else {
+                // one request loads, the others queued on the same key reuse its result
+                entry.lock.lock();
+                try {
+                    snapshot = entry.snapshot;
+                    if (snapshot == null) {
+                        misses.increment();
+                        snapshot = build(loader, areas);
+                        entry.snapshot = snapshot;
+                    } else {
+                        hits.increment();
+                    }
+                } finally {
+                    entry.lock.unlock();
+                }
+            }
+        }
+
+        if (conditionalGetService.checkNotModified(request, snapshot.etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (snapshot.gzip != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip);
+        }
+        return response.body(snapshot.json);
+    }
+
+    @Override
+    public int refresh() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now - entry.lastAccess > idleMs);
+
+        Set<ContentArea> areas = EnumSet.noneOf(ContentArea.class);
+        entries.values().forEach(entry -> areas.addAll(Arrays.asList(entry.areas)));
+        Map<ContentArea, String> current = new EnumMap<>(ContentArea.class);
+        for (ContentArea area : areas) {
+            current.put(area, conditionalGetService.getVersion(area).getVersion());
+        }
+
+        List<Entry> changed = new ArrayList<>();
+        List<Entry> expired = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            Snapshot snapshot = entry.snapshot;
+            if (snapshot == null) continue;
+            if (Arrays.stream(entry.areas).anyMatch(area -> !Objects.equals(current.get(area), snapshot.versions.get(area)))) {
+                changed.add(entry);
+            } else if (now - snapshot.builtAt >= ttlMs) {
+                expired.add(entry);
+            }
+        }
+        Comparator<Entry> oldestFirst = Comparator.comparingLong(entry -> entry.snapshot.builtAt);
+        changed.sort(oldestFirst);
+        expired.sort(oldestFirst);
+        List<Entry> stale = new ArrayList<>(changed);
+        stale.addAll(expired);
+
+        int rebuilt = 0;
+        int attempts = 0;
+        for (Entry entry : stale) {
+            if (attempts >= maxRebuildsPerRefresh) break;
+            // a request is loading this entry right now
+            if (!entry.lock.tryLock()) continue;
+            attempts++;
+            try {
+                entry.snapshot = build(entry.loader, entry.areas);
+                rebuilds.increment();
+                rebuilt++;
+            } catch (RuntimeException e) {
+                // keep answering with the previous body until a refresh succeeds
+                log.error("Snapshot refresh failed, serving the previous body", e);
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        return rebuilt;
+    }
+
+    @Override
+    public int clampSize(int size) {
+        return Math.max(1, Math.min(size, maxSize));
+    }
+
+    @Override
+    public SnapshotCacheStatsDTO getStats() {
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            Snapshot snapshot = entry.snapshot;
+            if (snapshot == null) continue;
+            bytes += snapshot.json.length + (snapshot.gzip == null ? 0 : snapshot.gzip.length);
+        }
+        return SnapshotCacheStatsDTO.builder()
+                .entries(entries.size())
+                .bytes(bytes)
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .bypassed(bypassed.sum())
+                .rebuilds(rebuilds.sum())
+                .build();
+    }
+
+    private Snapshot build(Supplier<?> loader, ContentArea[] areas) {
+        long builtAt = System.currentTimeMillis();
+        return transactionTemplate.execute(status -> {
+            Map<ContentArea, String> versions = new EnumMap<>(ContentArea.class);
+            for (ContentArea area : areas) {
+                versions.put(area, conditionalGetService.getVersion(area).getVersion());
+            }
+            // written the way the message converter writes a response, so the bytes are the same
+            ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+            try {
+                objectMapper.writeValue(body, loader.get());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot serialize snapshot body", e);
+            }
+            byte[] json = body.toByteArray();
+            byte[] gzip = gzipEnabled && json.length >= gzipMinBytes ? gzip(json) : null;
+
+            CRC32C checksum = new CRC32C();
+            checksum.update(json);
+            // weak, as the gzip copy carries the same validator
+            String etag = "W/\"" + Long.toHexString(checksum.getValue()) + "-" + Integer.toHexString(json.length) + "\"";
+            return new Snapshot(json, gzip, etag, versions, builtAt);
+        });
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String keyOf(WebRequest request, List<?> parameters) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        StringJoiner key = new StringJoiner("&", (pattern != null ? pattern.toString() : request.getDescription(false)) + "?", "");
+        for (Object parameter : parameters) {
+            // 1.0 and 1.00 are the same budget filter
+            key.add(parameter instanceof BigDecimal decimal
+                    ? decimal.stripTrailingZeros().toPlainString()
+                    : String.valueOf(parameter));
+        }
+        return key.toString();
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].replace(" ", "");
+                if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static final class Entry {
+        private final Supplier<?> loader;
+        private final ContentArea[] areas;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Snapshot snapshot;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Entry(Supplier<?> loader, ContentArea[] areas) {
+            this.loader = loader;
+            this.areas = areas;
+        }
+    }
+
+    private record Snapshot(byte[] json, byte[] gzip, String etag, Map<ContentArea, String> versions, long builtAt) {
+    }
+}
@@ -0,0 +1,36 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.httpcache;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.SnapshotCacheStatsDTO;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface SnapshotCacheService {
+
+    /**
+     * Answers a public read from the serialized body kept for its route and {@code parameters},
+     * building it with {@code loader} on first use. Only the parameters the endpoint declares go in,
+     * in a fixed order, so undeclared query parameters never make a new snapshot. The body is
+     * rebuilt in the background once one of {@code areas} changes, so the loader must depend on
+     * nothing but those parameters.
+     */
+    ResponseEntity<byte[]> serve(WebRequest request, List<?> parameters, Supplier<?> loader, ContentArea... areas);
+
+    /**
+     * Bounds a page size or limit to the largest one snapshots are kept for. Callers pass the result
+     * both to {@link #serve} and to the loader.
+     */
+    int clampSize(int size);
+
+    /**
+     * Rebuilds the snapshots whose content changed or outlived the TTL and drops idle ones.
+     *
+     * @return the number of snapshots rebuilt
+     */
+    int refresh();
+
+    SnapshotCacheStatsDTO getStats();
+}
@@ -0,0 +1,160 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.ledger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fpt.sep490_g28_summer2024_be.common.StartupOrder;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.interfacedto.AllocationProjectInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ledger.LedgerReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ledger.interfacedto.LedgerDriftInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.StartupSeed;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.StartupSeedRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationService;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DefaultProjectLedgerService implements ProjectLedgerService {
+
+    private static final String LEDGER_SEED = "project_donation_ledger";
+
+    private final ProjectDonationLedgerRepository projectDonationLedgerRepository;
+    private final ProjectAllocationService projectAllocationService;
+    private final StartupSeedRepository startupSeedRepository;
+
+    /**
+     * Seeds the ledger on the first start after it was introduced, so existing donations are counted.
+     * The seed is tracked by a marker rather than by the ledger being empty: rows written by a donation
+     * before the seed ran would otherwise skip it for good. Runs before the allocator loads and before
+     * any transfer is ingested.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(StartupOrder.SEED)
+    @Transactional
+    public void initLedger() {
+        startupSeedRepository.insertMarker(LEDGER_SEED);
+        StartupSeed seed = startupSeedRepository.findForUpdate(LEDGER_SEED);
+        if (seed.getSeededAt() != null) return;
+
+        // donations are the source of truth, so whatever reached the ledger before is recounted
+        projectDonationLedgerRepository.deleteAllEntries();
+        int rebuilt = projectDonationLedgerRepository.insertFromDonations();
+        seed.setSeededAt(LocalDateTime.now());
+        log.info("Project donation ledger initialized for {} project(s)", rebuilt);
+    }
+
+    /**
+     * A donation counts toward its transferred project when it has one, otherwise toward its own
+     * project unless it is still marked as a wrong donation.
+     */
+    @Override
+    public BigInteger resolveProjectId(Donation donation) {
+        if (donation.getTransferredProject() != null) {
+            return donation.getTransferredProject().getProjectId();
+        }
+        if (donation.getWrongDonation() == null && donation.getProject() != null) {
+            return donation.getProject().getProjectId();
+        }
+        return null;
+    }
+
+    @Override
+    @Transactional
+    public void recordDonation(Donation donation) {
+        BigInteger projectId = resolveProjectId(donation);
+        if (projectId == null || donation.getValue() == null) return;
+        projectDonationLedgerRepository.applyDelta(projectId, donation.getValue(), countOf(donation),
+                donation.getValue().signum() > 0 ? donation.getCreatedAt() : null);
+        projectAllocationService.applyDonation(projectId, donation.getValue());
+    }
+
+    /**
+     * A writer holding the lock sees every other write to the project either committed or not yet
+     * started, so the total it reads is the one its donation lands on. The decision is taken on the
+     * locked rows rather than on this instance's allocator, which misses what other instances wrote;
+     * the allocator is brought up to date from them on the way. This is what keeps a project from being
+     * overfunded by transfers redirected to it from different lanes, jobs or instances.
+     */
+    @Override
+    @Transactional
+    public ProjectTransactionDTO claimFundable(BigInteger projectId) {
+        if (projectId == null) return null;
+        projectDonationLedgerRepository.lockEntry(projectId);
+        AllocationProjectInterfaceDTO locked = projectDonationLedgerRepository.findAllocationForUpdate(projectId);
+        return locked == null ? null : projectAllocationService.refreshProject(locked);
+    }
+
+    @Override
+    @Transactional
+    public ProjectTransactionDTO claimFundable(Supplier<ProjectTransactionDTO> picker) {
+        ProjectTransactionDTO picked;
+        // a pick filled up while waiting on its lock has left the allocator's heaps, so the next pick differs
+        while ((picked = picker.get()) != null) {
+            ProjectTransactionDTO claimed = claimFundable(picked.getProjectId());
+            if (claimed != null) return claimed;
+        }
+        return null;
+    }
+
+    @Override
+    @Transactional
+    public void moveDonation(Donation donation, BigInteger fromProjectId, BigInteger toProjectId) {
+        if (Objects.equals(fromProjectId, toProjectId) || donation.getValue() == null) return;
+        if (fromProjectId != null) {
+            projectDonationLedgerRepository.applyDelta(fromProjectId, donation.getValue().negate(), -countOf(donation), null);
+            projectAllocationService.applyDonation(fromProjectId, donation.getValue().negate());
+        }
+        if (toProjectId != null) {
+            projectDonationLedgerRepository.applyDelta(toProjectId, donation.getValue(), countOf(donation),
+                    donation.getValue().signum() > 0 ? donation.getCreatedAt() : null);
+            projectAllocationService.applyDonation(toProjectId, donation.getValue());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LedgerReportDTO verify() {
+        List<LedgerDriftInterfaceDTO> drifts = projectDonationLedgerRepository.findDrift();
+        return LedgerReportDTO.builder()
+                .checkedAt(LocalDateTime.now())
+                .driftCount(drifts.size())
+                .drifts(drifts)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public LedgerReportDTO rebuild() {
+        List<LedgerDriftInterfaceDTO> drifts = projectDonationLedgerRepository.findDrift();
+        if (!drifts.isEmpty()) {
+            log.warn("Project donation ledger drifted on {} project(s), rebuilding", drifts.size());
+        }
+        projectDonationLedgerRepository.deleteAllEntries();
+        int rebuilt = projectDonationLedgerRepository.insertFromDonations();
+        projectAllocationService.reload();
+        return LedgerReportDTO.builder()
+                .checkedAt(LocalDateTime.now())
+                .driftCount(drifts.size())
+                .drifts(drifts)
+                .rebuiltProjects(rebuilt)
+                .build();
+    }
+
+    private long countOf(Donation donation) {
+        return donation.getValue().compareTo(BigDecimal.ZERO) > 0 ? 1L : 0L;
+    }
+}
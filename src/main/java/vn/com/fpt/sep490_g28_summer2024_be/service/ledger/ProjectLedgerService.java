@@ -0,0 +1,32 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.ledger;
+
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ledger.LedgerReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+
+import java.math.BigInteger;
+import java.util.function.Supplier;
+
+public interface ProjectLedgerService {
+
+    BigInteger resolveProjectId(Donation donation);
+
+    void recordDonation(Donation donation);
+
+    /**
+     * Locks the project's ledger entry until the transaction ends and returns the project when it
+     * still takes donations, null otherwise.
+     */
+    ProjectTransactionDTO claimFundable(BigInteger projectId);
+
+    /**
+     * Claims the first project handed out by the picker that still takes donations once locked.
+     */
+    ProjectTransactionDTO claimFundable(Supplier<ProjectTransactionDTO> picker);
+
+    void moveDonation(Donation donation, BigInteger fromProjectId, BigInteger toProjectId);
+
+    LedgerReportDTO verify();
+
+    LedgerReportDTO rebuild();
+}
@@ -4,10 +4,13 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
+import org.springframework.data.domain.Page;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.account.admin.AccountDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.category.CategoryResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.news.NewsChangeStatusDTO;
@@ -24,6 +27,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.mapper.Mapper;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.NewsRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.sercurity.CustomAccountDetails;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexService;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.SlugUtils;
 
 import java.io.IOException;
@@ -40,6 +44,7 @@ public class DefaultNewsService implements NewsService {
     private final AccountRepository accountRepository;
     private final FirebaseService firebaseService;
     private final SlugUtils slugUtils;
+    private final SearchIndexService searchIndexService;
 
     @Override
     public NewsResponseDTO create(NewsDTO request, MultipartFile image) throws IOException {
@@ -213,8 +218,15 @@ public class DefaultNewsService implements NewsService {
                                         String title, BigInteger authorId, Integer status,
                                         LocalDate startDate, LocalDate endDate) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<News> listedNews = newsRepository.findNewsByFilters(category_id, title, authorId, status,
-                startDate, endDate, pageable);
+        Page<News> listedNews;
+        if (StringUtils.hasText(title)) {
+            listedNews = searchIndexService.search(SearchScope.NEWS, title, pageable,
+                    ids -> newsRepository.findNewsIdsByFiltersInIds(ids, category_id, authorId, status, startDate, endDate),
+                    ids -> newsRepository.findNewsByFiltersInIds(ids, StringUtils.collectionToCommaDelimitedString(ids), category_id, authorId, status, startDate, endDate, Pageable.unpaged()).getContent());
+        } else {
+            listedNews = newsRepository.findNewsByFilters(category_id, title, authorId, status,
+                    startDate, endDate, pageable);
+        }
         List<NewsResponseDTO> newsResponseDTOList = listedNews.map(news -> NewsResponseDTO.builder()
                 .newsId(news.getNewsId())
                 .title(news.getTitle())
@@ -291,7 +303,14 @@ public class DefaultNewsService implements NewsService {
     public PageResponse<?> viewNewsClientByFilter(Integer page, Integer size, BigInteger category_id,
                                                   String title) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<News> listedNews = newsRepository.findNewsByTitleAndCategories(category_id, title, pageable);
+        Page<News> listedNews;
+        if (StringUtils.hasText(title)) {
+            listedNews = searchIndexService.search(SearchScope.NEWS, title, pageable,
+                    ids -> newsRepository.findNewsIdsByCategoriesInIds(ids, category_id),
+                    ids -> newsRepository.findNewsByCategoriesInIds(ids, StringUtils.collectionToCommaDelimitedString(ids), category_id, Pageable.unpaged()).getContent());
+        } else {
+            listedNews = newsRepository.findNewsByTitleAndCategories(category_id, title, pageable);
+        }
         List<NewsResponseDTO> newsResponseDTOList = listedNews.stream().map(news -> NewsResponseDTO.builder()
                 .newsId(news.getNewsId())
                 .title(news.getTitle())
@@ -7,9 +7,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import vn.com.fpt.sep490_g28_summer2024_be.common.AppConfig;
 import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignProjectsDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.construction.ConstructionResponseDTO;
@@ -17,13 +19,17 @@ import vn.com.fpt.sep490_g28_summer2024_be.dto.file.ProjectImageDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.file.RelatedFileDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.pageinfo.PageResponse;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.*;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectImageInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.*;
 import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
 import vn.com.fpt.sep490_g28_summer2024_be.firebase.FirebaseService;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.*;
 import vn.com.fpt.sep490_g28_summer2024_be.sercurity.CustomAccountDetails;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.CodeUtils;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.PageCursor;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.SlugUtils;
 
 import java.io.IOException;
@@ -50,29 +56,22 @@ public class DefaultProjectService implements ProjectService {
     private final ConstructionRepository constructionRepository;
     private final CodeUtils codeUtils;
     private final SlugUtils slugUtils;
+    private final SearchIndexService searchIndexService;
+    private final DonationDailyStatsService donationDailyStatsService;
 
     @Override
     public PageResponse<?> viewByFilter(Integer page, Integer size, String title, BigInteger campaignId, Integer status, String province, String year) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProjectInterfaceDTO> listedProject = projectRepository.findProjectByFilters(title, campaignId, year, province, status, pageable);
+        Page<ProjectInterfaceDTO> listedProject;
+        if (StringUtils.hasText(title)) {
+            listedProject = searchIndexService.search(SearchScope.PROJECT, title, pageable,
+                    ids -> projectRepository.findProjectIdsByFiltersInIds(ids, campaignId, year, province, status),
+                    ids -> projectRepository.findProjectByFiltersInIds(ids, StringUtils.collectionToCommaDelimitedString(ids), campaignId, year, province, status, Pageable.unpaged()).getContent());
+        } else {
+            listedProject = projectRepository.findProjectByFilters(title, campaignId, year, province, status, pageable);
+        }
 
-        var dtoList = listedProject.map(project -> ProjectResponseDTO.builder()
-                .projectId(project.getProjectId())
-                .code(project.getCode())
-                .title(project.getTitle())
-                .campaign(CampaignResponseDTO.builder()
-                        .title(project.getCampaignTitle())
-                        .build())
-                .totalBudget(project.getTotalBudget())
-                .amountNeededToRaise(project.getAmountNeededToRaise())
-                .totalDonation(project.getTotalDonation())
-                .address(project.getAddress())
-                .ward(project.getWard())
-                .district(project.getDistrict())
-                .province(project.getProvince())
-                .status(project.getStatus())
-                .createdAt(project.getCreatedAt())
-                .build()).toList();
+        var dtoList = listedProject.map(this::toListedProjectDTO).toList();
         return PageResponse.<ProjectResponseDTO>builder()
                 .content(dtoList)
                 .limit(size)
@@ -81,6 +80,31 @@ public class DefaultProjectService implements ProjectService {
                 .build();
     }
 
+    @Override
+    public PageResponse<?> viewByFilter(String cursor, Integer size, String title, BigInteger campaignId, Integer status, String province, String year, boolean withTotal) {
+        if (size == null || size < 1) throw new AppException(ErrorCode.HTTP_BAD_REQUEST);
+        BigInteger afterId = PageCursor.idOf(PageCursor.decode(cursor));
+        boolean searching = StringUtils.hasText(title);
+        // one extra row tells whether another page follows
+        List<ProjectInterfaceDTO> rows = searching
+                ? searchIndexService.searchAfter(SearchScope.PROJECT, title, afterId, size + 1,
+                        (ids, limit) -> projectRepository.findProjectByFiltersAfterInIds(ids, campaignId, year, province, status, limit))
+                : projectRepository.findProjectByFiltersAfter(null, campaignId, year, province, status, afterId, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<ProjectInterfaceDTO> listedProject = hasMore ? rows.subList(0, size) : rows;
+
+        return PageResponse.<ProjectResponseDTO>builder()
+                .content(listedProject.stream().map(this::toListedProjectDTO).toList())
+                .limit(size)
+                .total(!withTotal ? null : searching
+                        ? (int) searchIndexService.count(SearchScope.PROJECT, title,
+                                ids -> projectRepository.findProjectIdsByFiltersInIds(ids, campaignId, year, province, status))
+                        : (int) projectRepository.countProjectByFilters(null, campaignId, year, province, status))
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? PageCursor.encode(listedProject.get(size - 1).getProjectId()) : null)
+                .build();
+    }
+
     @Override
     public PageResponse<ProjectResponseDTO> viewProjectsByAccountId(Integer page, Integer size, String email, String title, BigInteger campaignId, Integer status, String province, String year) {
         Pageable pageable = PageRequest.of(page, size);
@@ -297,9 +321,18 @@ public class DefaultProjectService implements ProjectService {
             refProject.setWard(projectDTO.getWard());
             refProject.setDistrict(projectDTO.getDistrict());
             refProject.setProvince(projectDTO.getProvince());
+            //the daily stats are keyed by campaign, so the project's donations move with it
+            boolean campaignChanged = refProject.getCampaign() == null
+                    || !refProject.getCampaign().getCampaignId().equals(campaign.getCampaignId());
+            List<BigInteger> movedDonationIds = campaignChanged
+                    ? donationDailyStatsService.detachProject(refProject.getProjectId())
+                    : List.of();
             refProject.setCampaign(campaign);
             refProject.setUpdatedAt(LocalDateTime.now());
-            projectRepository.save(refProject);
+            projectRepository.saveAndFlush(refProject);
+            if (campaignChanged) {
+                donationDailyStatsService.recordDonations(movedDonationIds);
+            }
 
             List<ProjectImage> imageList = refProject.getProjectImages();
             //delete images
@@ -415,26 +448,29 @@ public class DefaultProjectService implements ProjectService {
     public PageResponse<?> viewProjectCards(Integer page, Integer size, String title, BigInteger campaignId, Integer status, Integer year, String code,BigDecimal minTotalBudget, BigDecimal maxTotalBudget) {
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<ProjectInterfaceDTO> listedProject = projectRepository.findProjectCards(title, campaignId, status, year, code, minTotalBudget, maxTotalBudget, pageable);
+        Page<ProjectInterfaceDTO> listedProject;
+        if (StringUtils.hasText(title)) {
+            listedProject = searchIndexService.search(SearchScope.PROJECT, title, pageable,
+                    ids -> projectRepository.findProjectCardIdsInIds(ids, campaignId, status, year, code, minTotalBudget, maxTotalBudget),
+                    ids -> projectRepository.findProjectCardsInIds(ids, StringUtils.collectionToCommaDelimitedString(ids), campaignId, status, year, code, minTotalBudget, maxTotalBudget, Pageable.unpaged()).getContent());
+        } else {
+            listedProject = projectRepository.findProjectCards(title, campaignId, status, year, code, minTotalBudget, maxTotalBudget, pageable);
+        }
+        Map<BigInteger, String> firstImages = findFirstImages(listedProject.map(ProjectInterfaceDTO::getProjectId).toList());
 
         List<ProjectResponseDTO> dtoList = new ArrayList<>();
 
         listedProject.forEach(project -> {
-            Project projectEntity = projectRepository.findById(project.getProjectId())
-                    .orElseThrow(() -> new AppException(ErrorCode.PROJECT_NOT_EXISTED));
-
-            ProjectImageDTO firstImageDTO = projectEntity.getProjectImages().stream()
-                    .findFirst()
-                    .map(projectImage -> ProjectImageDTO.builder()
-                            .image(projectImage.getImage())
-                            .build())
-                    .orElse(null);
+            String firstImage = firstImages.get(project.getProjectId());
+            ProjectImageDTO firstImageDTO = firstImage == null ? null : ProjectImageDTO.builder()
+                    .image(firstImage)
+                    .build();
 
             dtoList.add(ProjectResponseDTO.builder()
                     .projectId(project.getProjectId())
                     .code(project.getCode())
                     .title(project.getTitle())
-                    .slug(projectEntity.getSlug())
+                    .slug(project.getSlug())
                     .background(project.getBackground())
                     .campaign(CampaignResponseDTO.builder()
                             .title(project.getCampaignTitle())
@@ -467,51 +503,55 @@ public class DefaultProjectService implements ProjectService {
         Pageable pageable = PageRequest.of(page, size);
         Page<ProjectInterfaceDTO> listedProject = projectRepository.findProjectsClientByCampaignId(status, campaignId, minTotalBudget, maxTotalBudget, pageable);
 
-        List<ProjectResponseDTO> dtoList = new ArrayList<>();
-
-        listedProject.forEach(p -> {
-            long numberSponsors = sponsorRepository.countSponsorsByProjectId(p.getProjectId());
-
-            Project project = projectRepository.findById(p.getProjectId()).orElseThrow(() -> new AppException(ErrorCode.PROJECT_NOT_EXISTED));
-
-            List<ProjectImageDTO> projectImageDTOList = project.getProjectImages().stream()
-                    .map(projectImage -> ProjectImageDTO.builder()
-                            .projectImageId(projectImage.getProjectImageId())
-                            .image(projectImage.getImage())
-                            .build()).collect(Collectors.toList());
+        // everything the page needs beyond the project row comes from one query per kind
+        List<BigInteger> projectIds = listedProject.map(ProjectInterfaceDTO::getProjectId).toList();
+        Map<BigInteger, Long> sponsorCounts = new HashMap<>();
+        Map<BigInteger, List<ProjectImageDTO>> images = new HashMap<>();
+        Map<BigInteger, List<ConstructionResponseDTO>> constructions = new HashMap<>();
+        if (!projectIds.isEmpty()) {
+            sponsorRepository.countSponsorsByProjectIds(projectIds)
+                    .forEach(row -> sponsorCounts.put(row.getProjectId(), row.getSponsorCount()));
+            projectImageRepository.findByProjectIds(projectIds)
+                    .forEach(row -> images.computeIfAbsent(row.getProjectId(), k -> new ArrayList<>())
+                            .add(ProjectImageDTO.builder()
+                                    .projectImageId(row.getProjectImageId())
+                                    .image(row.getImage())
+                                    .build()));
+            constructionRepository.findByProjectIds(projectIds)
+                    .forEach(row -> constructions.computeIfAbsent(row.getProjectId(), k -> new ArrayList<>())
+                            .add(ConstructionResponseDTO.builder()
+                                    .constructionId(row.getConstructionId())
+                                    .title(row.getTitle())
+                                    .quantity(row.getQuantity())
+                                    .unit(row.getUnit())
+                                    .note(row.getNote())
+                                    .build()));
+        }
 
-            List<ConstructionResponseDTO> constructionResponseDTOS = project.getConstructions().stream()
-                    .map(construction -> ConstructionResponseDTO.builder()
-                            .constructionId(construction.getConstructionId())
-                            .title(construction.getTitle())
-                            .quantity(construction.getQuantity())
-                            .unit(construction.getUnit())
-                            .note(construction.getNote())
-                            .build()).collect(Collectors.toList());
+        List<ProjectResponseDTO> dtoList = new ArrayList<>();
 
-            dtoList.add(ProjectResponseDTO.builder()
-                    .projectId(project.getProjectId())
-                    .code(project.getCode())
-                    .title(project.getTitle())
-                    .slug(project.getSlug())
-                    .background(project.getBackground())
-                    .campaign(CampaignResponseDTO.builder()
-                            .title(project.getCampaign().getTitle())
-                            .build())
-                    .totalBudget(project.getTotalBudget())
-                    .amountNeededToRaise(project.getAmountNeededToRaise())
-                    .totalDonation(p.getTotalDonation())
-                    .address(project.getAddress())
-                    .ward(project.getWard())
-                    .district(project.getDistrict())
-                    .constructions(constructionResponseDTOS)
-                    .province(project.getProvince())
-                    .numberSponsors(numberSponsors)
-                    .status(project.getStatus())
-                    .images(projectImageDTOList)
-                    .createdAt(project.getCreatedAt())
-                    .build());
-        });
+        listedProject.forEach(project -> dtoList.add(ProjectResponseDTO.builder()
+                .projectId(project.getProjectId())
+                .code(project.getCode())
+                .title(project.getTitle())
+                .slug(project.getSlug())
+                .background(project.getBackground())
+                .campaign(CampaignResponseDTO.builder()
+                        .title(project.getCampaignTitle())
+                        .build())
+                .totalBudget(project.getTotalBudget())
+                .amountNeededToRaise(project.getAmountNeededToRaise())
+                .totalDonation(project.getTotalDonation())
+                .address(project.getAddress())
+                .ward(project.getWard())
+                .district(project.getDistrict())
+                .constructions(constructions.getOrDefault(project.getProjectId(), new ArrayList<>()))
+                .province(project.getProvince())
+                .numberSponsors(sponsorCounts.getOrDefault(project.getProjectId(), 0L))
+                .status(project.getStatus())
+                .images(images.getOrDefault(project.getProjectId(), new ArrayList<>()))
+                .createdAt(project.getCreatedAt())
+                .build()));
 
         return PageResponse.<ProjectResponseDTO>builder()
                 .content(dtoList)
@@ -592,4 +632,36 @@ public class DefaultProjectService implements ProjectService {
                 })
                 .collect(Collectors.toList());
     }
+
+    /**
+     * First image of each project on a page, read in one query.
+     */
+    private Map<BigInteger, String> findFirstImages(List<BigInteger> projectIds) {
+        if (projectIds.isEmpty()) return Collections.emptyMap();
+        Map<BigInteger, String> images = new HashMap<>();
+        for (ProjectImageInterfaceDTO row : projectImageRepository.findFirstImages(projectIds)) {
+            images.put(row.getProjectId(), row.getImage());
+        }
+        return images;
+    }
+
+    private ProjectResponseDTO toListedProjectDTO(ProjectInterfaceDTO project) {
+        return ProjectResponseDTO.builder()
+                .projectId(project.getProjectId())
+                .code(project.getCode())
+                .title(project.getTitle())
+                .campaign(CampaignResponseDTO.builder()
+                        .title(project.getCampaignTitle())
+                        .build())
+                .totalBudget(project.getTotalBudget())
+                .amountNeededToRaise(project.getAmountNeededToRaise())
+                .totalDonation(project.getTotalDonation())
+                .address(project.getAddress())
+                .ward(project.getWard())
+                .district(project.getDistrict())
+                .province(project.getProvince())
+                .status(project.getStatus())
+                .createdAt(project.getCreatedAt())
+                .build();
+    }
 }
@@ -13,6 +13,8 @@ import java.util.List;
 
 public interface ProjectService {
     PageResponse<?> viewByFilter(Integer page, Integer size, String title, BigInteger campaignId, Integer status, String province, String year);
+
+    PageResponse<?> viewByFilter(String cursor, Integer size, String title, BigInteger campaignId, Integer status, String province, String year, boolean withTotal);
     PageResponse<ProjectResponseDTO> viewProjectsByAccountId(Integer page, Integer size, String email, String title, BigInteger campaignId, Integer status, String province, String year);
     ProjectResponseDTO getProjectById(BigInteger id);
 
@@ -0,0 +1,230 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.common.RoutingCodeType;
+import vn.com.fpt.sep490_g28_summer2024_be.common.StartupOrder;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.RoutingMatchDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.interfacedto.RoutingCodeInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.AhoCorasickMatcher;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves project, challenge, refer and account codes in a transfer description with one pass of an
+ * Aho-Corasick automaton instead of reverse LIKE scans. The code registry is updated one entity at a
+ * time and the automaton is rebuilt from it lazily on the next match. Codes written by other instances
+ * are picked up by {@link #reloadIfChanged()}, which compares a checksum of the code columns with the
+ * one taken at the last load.
+ */
+@Service
+@Slf4j
+public class DefaultRoutingCodeService implements RoutingCodeService {
+
+    private final ProjectRepository projectRepository;
+    private final ChallengeRepository challengeRepository;
+    private final AccountRepository accountRepository;
+
+    private final Map<String, RoutingCode> codes = new ConcurrentHashMap<>();
+    private volatile AhoCorasickMatcher<RoutingCode> matcher = AhoCorasickMatcher.empty();
+    private volatile boolean dirty;
+    private volatile String loadedVersion;
+
+    public DefaultRoutingCodeService(ProjectRepository projectRepository,
+                                     ChallengeRepository challengeRepository,
+                                     AccountRepository accountRepository) {
+        this.projectRepository = projectRepository;
+        this.challengeRepository = challengeRepository;
+        this.accountRepository = accountRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(StartupOrder.INDEX)
+    public void init() {
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        // taken first, so a code written while loading moves the version past it
+        String version = currentVersion();
+        Map<String, RoutingCode> loaded = new ConcurrentHashMap<>();
+        for (RoutingCodeInterfaceDTO row : projectRepository.findAllRoutingCodes()) {
+            put(loaded, RoutingCodeType.PROJECT, row.getId(), row.getCode(), null);
+        }
+        for (RoutingCodeInterfaceDTO row : challengeRepository.findActiveRoutingCodes()) {
+            put(loaded, RoutingCodeType.CHALLENGE, row.getId(), row.getCode(), row.getFinishedAt());
+        }
+        for (RoutingCodeInterfaceDTO row : accountRepository.findActiveRoutingCodes()) {
+            put(loaded, RoutingCodeType.ACCOUNT, row.getId(), row.getCode(), null);
+            put(loaded, RoutingCodeType.REFER, row.getId(), row.getReferCode(), null);
+        }
+        synchronized (this) {
+            codes.clear();
+            codes.putAll(loaded);
+            dirty = true;
+            loadedVersion = version;
+        }
+        log.info("Routing codes loaded: {}", loaded.size());
+    }
+
+    @Override
+    public boolean reloadIfChanged() {
+        if (currentVersion().equals(loadedVersion)) return false;
+        reload();
+        return true;
+    }
+
+    private String currentVersion() {
+        return projectRepository.findRoutingCodeVersion() + "/" + challengeRepository.findRoutingCodeVersion()
+                + "/" + accountRepository.findRoutingCodeVersion();
+    }
+
+    @Override
+    public RoutingMatchDTO match(String description) {
+        List<BigInteger> projectIds = new ArrayList<>();
+        RoutingCode challenge = null;
+        RoutingCode refer = null;
+        RoutingCode account = null;
+
+        if (description != null) {
+            LocalDate today = LocalDate.now();
+            for (AhoCorasickMatcher.Match<RoutingCode> match : currentMatcher().findAll(description.toUpperCase(Locale.ROOT))) {
+                RoutingCode code = match.getValue();
+                switch (code.getType()) {
+                    case PROJECT -> {
+                        if (!projectIds.contains(code.getId())) projectIds.add(code.getId());
+                    }
+                    case CHALLENGE -> {
+                        if (code.getFinishedAt() != null && !code.getFinishedAt().isBefore(today)) {
+                            challenge = longest(challenge, code);
+                        }
+                    }
+                    case REFER -> refer = longest(refer, code);
+                    case ACCOUNT -> account = longest(account, code);
+                }
+            }
+        }
+
+        return RoutingMatchDTO.builder()
+                .projectIds(projectIds)
+                .challengeId(challenge == null ? null : challenge.getId())
+                .referAccountId(refer == null ? null : refer.getId())
+                .accountId(account == null ? null : account.getId())
+                .build();
+    }
+
+    @Override
+    public void indexProject(Project project) {
+        update(RoutingCodeType.PROJECT, project.getProjectId(), project.getCode(), null);
+    }
+
+    @Override
+    public void indexChallenge(Challenge challenge) {
+        update(RoutingCodeType.CHALLENGE, challenge.getChallengeId(), challenge.getChallengeCode(), challenge.getFinishedAt());
+    }
+
+    @Override
+    public void indexAccount(Account account) {
+        boolean active = account.getIsActive() == null || account.getIsActive();
+        update(RoutingCodeType.ACCOUNT, account.getAccountId(), active ? account.getCode() : null, null);
+        update(RoutingCodeType.REFER, account.getAccountId(), active ? account.getReferCode() : null, null);
+    }
+
+    @Override
+    public void removeProject(Project project) {
+        update(RoutingCodeType.PROJECT, project.getProjectId(), null, null);
+    }
+
+    @Override
+    public void removeChallenge(Challenge challenge) {
+        update(RoutingCodeType.CHALLENGE, challenge.getChallengeId(), null, null);
+    }
+
+    @Override
+    public void removeAccount(Account account) {
+        update(RoutingCodeType.ACCOUNT, account.getAccountId(), null, null);
+        update(RoutingCodeType.REFER, account.getAccountId(), null, null);
+    }
+
+    private void update(RoutingCodeType type, BigInteger id, String code, LocalDate finishedAt) {
+        if (id == null) return;
+        String key = type + ":" + id;
+        RoutingCode next = code == null || code.isBlank() ? null : new RoutingCode(type, id, normalize(code), finishedAt);
+        RoutingCode previous = next == null ? codes.remove(key) : codes.put(key, next);
+        if (previous == null ? next == null : previous.sameAs(next)) return;
+        dirty = true;
+
+        // the change is visible right away to the writing transaction, and undone if it rolls back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_ROLLED_BACK) return;
+                    codes.compute(key, (k, current) -> current == next ? previous : current);
+                    dirty = true;
+                }
+            });
+        }
+    }
+
+    private AhoCorasickMatcher<RoutingCode> currentMatcher() {
+        if (dirty) {
+            synchronized (this) {
+                if (dirty) {
+                    dirty = false;
+                    AhoCorasickMatcher.Builder<RoutingCode> builder = AhoCorasickMatcher.builder();
+                    codes.values().forEach(code -> builder.add(code.getCode(), code));
+                    matcher = builder.build();
+                }
+            }
+        }
+        return matcher;
+    }
+
+    private static void put(Map<String, RoutingCode> target, RoutingCodeType type, BigInteger id, String code, LocalDate finishedAt) {
+        if (id == null || code == null || code.isBlank()) return;
+        target.put(type + ":" + id, new RoutingCode(type, id, normalize(code), finishedAt));
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static RoutingCode longest(RoutingCode current, RoutingCode candidate) {
+        return current == null || candidate.getCode().length() > current.getCode().length() ? candidate : current;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class RoutingCode {
+        private final RoutingCodeType type;
+        private final BigInteger id;
+        private final String code;
+        private final LocalDate finishedAt;
+
+        private boolean sameAs(RoutingCode other) {
+            return other != null && code.equals(other.code) && Objects.equals(finishedAt, other.finishedAt);
+        }
+    }
+}
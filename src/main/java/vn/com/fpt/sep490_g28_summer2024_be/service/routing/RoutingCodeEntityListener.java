@@ -0,0 +1,46 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.routing;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+
+/**
+ * Keeps the routing code registry in step with every write to projects, challenges and accounts.
+ */
+@Component
+public class RoutingCodeEntityListener {
+
+    private final RoutingCodeService routingCodeService;
+
+    public RoutingCodeEntityListener(@Lazy RoutingCodeService routingCodeService) {
+        this.routingCodeService = routingCodeService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Project project) {
+            routingCodeService.indexProject(project);
+        } else if (entity instanceof Challenge challenge) {
+            routingCodeService.indexChallenge(challenge);
+        } else if (entity instanceof Account account) {
+            routingCodeService.indexAccount(account);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Project project) {
+            routingCodeService.removeProject(project);
+        } else if (entity instanceof Challenge challenge) {
+            routingCodeService.removeChallenge(challenge);
+        } else if (entity instanceof Account account) {
+            routingCodeService.removeAccount(account);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.routing;
+
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.RoutingMatchDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+
+public interface RoutingCodeService {
+
+    RoutingMatchDTO match(String description);
+
+    void indexProject(Project project);
+
+    void indexChallenge(Challenge challenge);
+
+    void indexAccount(Account account);
+
+    void removeProject(Project project);
+
+    void removeChallenge(Challenge challenge);
+
+    void removeAccount(Account account);
+
+    void reload();
+
+    boolean reloadIfChanged();
+}
@@ -0,0 +1,166 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SearchTitleInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.NewsRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.TitleIndex;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Keeps one title index per searchable entity. Title filters on listings are answered from here as
+ * a ranked id list, and the repositories only load those rows by primary key. The indexes are
+ * loaded at startup and follow every JPA write through {@link SearchIndexEntityListener}.
+ * <p>
+ * Searches are never cut to a fixed number of matches: the listing's other conditions are checked
+ * over every match, {@code search.batch-size} ids per query, so paging and totals are those of the
+ * whole match set. Only the rows of the requested page are loaded.
+ */
+@Service
+@Slf4j
+public class DefaultSearchIndexService implements SearchIndexService {
+
+    private final ProjectRepository projectRepository;
+    private final CampaignRepository campaignRepository;
+    private final NewsRepository newsRepository;
+    private final ChallengeRepository challengeRepository;
+    private final int batchSize;
+
+    private final Map<SearchScope, TitleIndex<BigInteger>> indexes = new EnumMap<>(SearchScope.class);
+
+    public DefaultSearchIndexService(ProjectRepository projectRepository,
+                                     CampaignRepository campaignRepository,
+                                     NewsRepository newsRepository,
+                                     ChallengeRepository challengeRepository,
+                                     @Value("${search.batch-size:1000}") int batchSize) {
+        this.projectRepository = projectRepository;
+        this.campaignRepository = campaignRepository;
+        this.newsRepository = newsRepository;
+        this.challengeRepository = challengeRepository;
+        this.batchSize = Math.max(batchSize, 1);
+        for (SearchScope scope : SearchScope.values()) {
+            indexes.put(scope, new TitleIndex<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        load(SearchScope.PROJECT, projectRepository.findSearchTitles());
+        load(SearchScope.CAMPAIGN, campaignRepository.findSearchTitles());
+        load(SearchScope.NEWS, newsRepository.findSearchTitles());
+        load(SearchScope.CHALLENGE, challengeRepository.findSearchTitles());
+    }
+
+    /**
+     * Returns the ids whose titles match the query, best match first.
+     */
+    @Override
+    public List<BigInteger> search(SearchScope scope, String query) {
+        return indexes.get(scope).search(query, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public <T> Page<T> search(SearchScope scope, String query, Pageable pageable,
+                              Function<List<BigInteger>, Collection<BigInteger>> filter,
+                              Function<List<BigInteger>, List<T>> loader) {
+        List<BigInteger> kept = keep(search(scope, query), filter);
+        int from = (int) Math.min(pageable.getOffset(), kept.size());
+        List<BigInteger> pageIds = kept.subList(from, Math.min(from + pageable.getPageSize(), kept.size()));
+        return new PageImpl<>(pageIds.isEmpty() ? List.of() : loader.apply(pageIds), pageable, kept.size());
+    }
+
+    @Override
+    public <T> List<T> searchAfter(SearchScope scope, String query, BigInteger afterId, int size,
+                                   BiFunction<List<BigInteger>, Integer, List<T>> loader) {
+        List<BigInteger> ids = search(scope, query).stream()
+                .filter(id -> afterId == null || id.compareTo(afterId) < 0)
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        List<T> rows = new ArrayList<>(size);
+        for (int from = 0; from < ids.size() && rows.size() < size; from += batchSize) {
+            rows.addAll(loader.apply(ids.subList(from, Math.min(from + batchSize, ids.size())), size - rows.size()));
+        }
+        return rows;
+    }
+
+    @Override
+    public long count(SearchScope scope, String query, Function<List<BigInteger>, Collection<BigInteger>> filter) {
+        return keep(search(scope, query), filter).size();
+    }
+
+    /**
+     * The ranked ids {@code filter} keeps, still in rank order.
+     */
+    private List<BigInteger> keep(List<BigInteger> ranked, Function<List<BigInteger>, Collection<BigInteger>> filter) {
+        Set<BigInteger> kept = new HashSet<>();
+        for (int from = 0; from < ranked.size(); from += batchSize) {
+            kept.addAll(filter.apply(ranked.subList(from, Math.min(from + batchSize, ranked.size()))));
+        }
+        return ranked.stream().filter(kept::contains).toList();
+    }
+
+    @Override
+    public void index(SearchScope scope, BigInteger id, String title) {
+        update(scope, id, title);
+    }
+
+    @Override
+    public void remove(SearchScope scope, BigInteger id) {
+        update(scope, id, null);
+    }
+
+    private void update(SearchScope scope, BigInteger id, String title) {
+        if (id == null) return;
+        TitleIndex<BigInteger> index = indexes.get(scope);
+        String previous = index.put(id, title);
+        if (Objects.equals(previous, title)) return;
+
+        // the change is visible right away to the writing transaction, and undone if it rolls back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_ROLLED_BACK) return;
+                    if (Objects.equals(index.get(id), title)) index.put(id, previous);
+                }
+            });
+        }
+    }
+
+    private void load(SearchScope scope, List<SearchTitleInterfaceDTO> rows) {
+        Map<BigInteger, String> titles = new HashMap<>();
+        rows.forEach(row -> titles.put(row.getId(), row.getTitle()));
+        indexes.get(scope).replaceAll(titles);
+        log.info("Search index {} loaded: {} titles", scope, titles.size());
+    }
+}
@@ -0,0 +1,178 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SuggestType;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.SuggestResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.SuggestionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SuggestInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.SlugUtils;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.SuggestTrie;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autocomplete over project codes and titles, challenge codes and ambassador codes and names, one
+ * prefix tree per type. Codes are keyed as typed; titles and names under every word onwards, so
+ * "hoc" finds "Xây trường học". Keys are cut to {@code suggest.max-key-length} characters, which
+ * keeps the trees small; a longer query is matched on that many characters.
+ * <p>
+ * The trees are loaded at startup and follow JPA writes through {@link SearchIndexEntityListener}.
+ */
+@Service
+@Slf4j
+public class DefaultSuggestService implements SuggestService {
+
+    private final ProjectRepository projectRepository;
+    private final ChallengeRepository challengeRepository;
+    private final AccountRepository accountRepository;
+    private final int maxLimit;
+    private final int maxKeyLength;
+
+    private final Map<SuggestType, SuggestTrie<SuggestionDTO>> tries = new EnumMap<>(SuggestType.class);
+    private final Map<SuggestType, Map<BigInteger, SuggestionDTO>> entries = new EnumMap<>(SuggestType.class);
+
+    public DefaultSuggestService(ProjectRepository projectRepository,
+                                 ChallengeRepository challengeRepository,
+                                 AccountRepository accountRepository,
+                                 @Value("${suggest.max-limit:10}") int maxLimit,
+                                 @Value("${suggest.max-key-length:24}") int maxKeyLength) {
+        this.projectRepository = projectRepository;
+        this.challengeRepository = challengeRepository;
+        this.accountRepository = accountRepository;
+        this.maxLimit = maxLimit;
+        this.maxKeyLength = maxKeyLength;
+        for (SuggestType type : SuggestType.values()) {
+            // newer rows first among equal keys
+            tries.put(type, new SuggestTrie<>(maxLimit, Comparator.comparing(SuggestionDTO::getId, Comparator.reverseOrder())));
+            entries.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        load(SuggestType.PROJECT, projectRepository.findSuggestEntries());
+        load(SuggestType.CHALLENGE, challengeRepository.findSuggestEntries());
+        load(SuggestType.AMBASSADOR, accountRepository.findAmbassadorSuggestEntries());
+    }
+
+    @Override
+    public SuggestResponseDTO suggest(String query, List<SuggestType> types, Integer limit) {
+        String prefix = truncate(SlugUtils.normalize(query));
+        int size = limit == null ? maxLimit : Math.max(1, Math.min(limit, maxLimit));
+        List<SuggestTrie.Entry<SuggestionDTO>> matches = new ArrayList<>();
+        if (!prefix.isEmpty()) {
+            for (SuggestType type : types == null || types.isEmpty() ? List.of(SuggestType.values()) : types) {
+                matches.addAll(tries.get(type).lookup(prefix, size));
+            }
+        }
+        // each list is ranked already; merge them on the same order
+        matches.sort(Comparator.<SuggestTrie.Entry<SuggestionDTO>>comparingInt(entry -> entry.key().length())
+                .thenComparing(SuggestTrie.Entry::key));
+        return SuggestResponseDTO.builder()
+                .query(query)
+                .suggestions(matches.stream().limit(size).map(SuggestTrie.Entry::value).toList())
+                .build();
+    }
+
+    @Override
+    public void index(SuggestType type, BigInteger id, String code, String title) {
+        if (id == null) return;
+        update(type, id, SuggestionDTO.builder().type(type).id(id).code(code).title(title).build());
+    }
+
+    @Override
+    public void remove(SuggestType type, BigInteger id) {
+        if (id == null) return;
+        update(type, id, null);
+    }
+
+    private void update(SuggestType type, BigInteger id, SuggestionDTO suggestion) {
+        SuggestionDTO previous = replace(type, id, suggestion);
+        if (Objects.equals(previous, suggestion)) return;
+
+        // the change is visible right away to the writing transaction, and undone if it rolls back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_ROLLED_BACK) return;
+                    if (Objects.equals(entries.get(type).get(id), suggestion)) replace(type, id, previous);
+                }
+            });
+        }
+    }
+
+    private SuggestionDTO replace(SuggestType type, BigInteger id, SuggestionDTO suggestion) {
+        SuggestTrie<SuggestionDTO> trie = tries.get(type);
+        synchronized (trie) {
+            SuggestionDTO previous = suggestion == null
+                    ? entries.get(type).remove(id)
+                    : entries.get(type).put(id, suggestion);
+            if (Objects.equals(previous, suggestion)) return previous;
+            if (previous != null) keys(previous).forEach(key -> trie.remove(key, previous));
+            if (suggestion != null) keys(suggestion).forEach(key -> trie.add(key, suggestion));
+            return previous;
+        }
+    }
+
+    private void load(SuggestType type, List<SuggestInterfaceDTO> rows) {
+        SuggestTrie<SuggestionDTO> trie = tries.get(type);
+        synchronized (trie) {
+            trie.clear();
+            entries.get(type).clear();
+            for (SuggestInterfaceDTO row : rows) {
+                replace(type, row.getId(), SuggestionDTO.builder()
+                        .type(type)
+                        .id(row.getId())
+                        .code(row.getCode())
+                        .title(row.getTitle())
+                        .build());
+            }
+        }
+        log.info("Suggest index {} loaded: {} entries", type, rows.size());
+    }
+
+    private Set<String> keys(SuggestionDTO suggestion) {
+        Set<String> keys = new LinkedHashSet<>();
+        String code = truncate(SlugUtils.normalize(suggestion.getCode()));
+        if (!code.isEmpty()) keys.add(code);
+        if (suggestion.getType() != SuggestType.CHALLENGE) {
+            String title = SlugUtils.normalize(suggestion.getTitle());
+            int start = 0;
+            while (start < title.length()) {
+                keys.add(truncate(title.substring(start)));
+                int space = title.indexOf(' ', start);
+                if (space < 0) break;
+                start = space + 1;
+            }
+        }
+        return keys;
+    }
+
+    private String truncate(String key) {
+        return key.length() <= maxKeyLength ? key : key.substring(0, maxKeyLength).stripTrailing();
+    }
+}
@@ -0,0 +1,83 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SuggestType;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.News;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+
+import java.math.BigInteger;
+
+/**
+ * Keeps the title search indexes and the autocomplete trees in step with every write to projects,
+ * campaigns, news, challenges and accounts.
+ */
+@Component
+public class SearchIndexEntityListener {
+
+    private static final BigInteger SYSTEM_USER_ROLE_ID = BigInteger.valueOf(4);
+
+    private final SearchIndexService searchIndexService;
+    private final SuggestService suggestService;
+
+    public SearchIndexEntityListener(@Lazy SearchIndexService searchIndexService,
+                                     @Lazy SuggestService suggestService) {
+        this.searchIndexService = searchIndexService;
+        this.suggestService = suggestService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof Project project) {
+            searchIndexService.index(SearchScope.PROJECT, project.getProjectId(), project.getTitle());
+            suggestService.index(SuggestType.PROJECT, project.getProjectId(), project.getCode(), project.getTitle());
+        } else if (entity instanceof Campaign campaign) {
+            searchIndexService.index(SearchScope.CAMPAIGN, campaign.getCampaignId(), campaign.getTitle());
+        } else if (entity instanceof News news) {
+            searchIndexService.index(SearchScope.NEWS, news.getNewsId(), news.getTitle());
+        } else if (entity instanceof Challenge challenge) {
+            searchIndexService.index(SearchScope.CHALLENGE, challenge.getChallengeId(), challenge.getTitle());
+            suggestService.index(SuggestType.CHALLENGE, challenge.getChallengeId(), challenge.getChallengeCode(), challenge.getTitle());
+        } else if (entity instanceof Account account) {
+            if (isAmbassador(account)) {
+                suggestService.index(SuggestType.AMBASSADOR, account.getAccountId(), account.getCode(), account.getFullname());
+            } else {
+                suggestService.remove(SuggestType.AMBASSADOR, account.getAccountId());
+            }
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Project project) {
+            searchIndexService.remove(SearchScope.PROJECT, project.getProjectId());
+            suggestService.remove(SuggestType.PROJECT, project.getProjectId());
+        } else if (entity instanceof Campaign campaign) {
+            searchIndexService.remove(SearchScope.CAMPAIGN, campaign.getCampaignId());
+        } else if (entity instanceof News news) {
+            searchIndexService.remove(SearchScope.NEWS, news.getNewsId());
+        } else if (entity instanceof Challenge challenge) {
+            searchIndexService.remove(SearchScope.CHALLENGE, challenge.getChallengeId());
+            suggestService.remove(SuggestType.CHALLENGE, challenge.getChallengeId());
+        } else if (entity instanceof Account account) {
+            suggestService.remove(SuggestType.AMBASSADOR, account.getAccountId());
+        }
+    }
+
+    /**
+     * Same rule as the ambassador listings: system users whose account is not disabled.
+     */
+    private static boolean isAmbassador(Account account) {
+        return account.getRole() != null
+                && SYSTEM_USER_ROLE_ID.equals(account.getRole().getRoleId())
+                && !Boolean.FALSE.equals(account.getIsActive());
+    }
+}
@@ -0,0 +1,45 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+public interface SearchIndexService {
+
+    List<BigInteger> search(SearchScope scope, String query);
+
+    /**
+     * One page of the matches of {@code query} that the listing's other conditions keep, best match
+     * first. {@code filter} is given every match, in batches, and returns the ids it keeps;
+     * {@code loader} loads the ids of the requested page in the order given. Paging and the total
+     * cover the whole match set.
+     */
+    <T> Page<T> search(SearchScope scope, String query, Pageable pageable,
+                       Function<List<BigInteger>, Collection<BigInteger>> filter,
+                       Function<List<BigInteger>, List<T>> loader);
+
+    /**
+     * Up to {@code size} rows for the matches of {@code query} below {@code afterId}, highest id first.
+     * {@code loader} is given batches of those ids, highest first, with the number of rows still
+     * wanted, and returns the rows it keeps in the same order.
+     */
+    <T> List<T> searchAfter(SearchScope scope, String query, BigInteger afterId, int size,
+                            BiFunction<List<BigInteger>, Integer, List<T>> loader);
+
+    /**
+     * Counts the matches of {@code query} that {@code filter} keeps.
+     */
+    long count(SearchScope scope, String query, Function<List<BigInteger>, Collection<BigInteger>> filter);
+
+    void index(SearchScope scope, BigInteger id, String title);
+
+    void remove(SearchScope scope, BigInteger id);
+
+    void reload();
+}
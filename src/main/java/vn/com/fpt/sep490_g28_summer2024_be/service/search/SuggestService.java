@@ -0,0 +1,18 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.search;
+
+import vn.com.fpt.sep490_g28_summer2024_be.common.SuggestType;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.SuggestResponseDTO;
+
+import java.math.BigInteger;
+import java.util.List;
+
+public interface SuggestService {
+
+    SuggestResponseDTO suggest(String query, List<SuggestType> types, Integer limit);
+
+    void index(SuggestType type, BigInteger id, String code, String title);
+
+    void remove(SuggestType type, BigInteger id);
+
+    void reload();
+}
@@ -0,0 +1,77 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.statistics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.ChartResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsInterfaceDTO;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * {@link StatisticsService} backed by {@link StatisticsCache}. Donation statistics are cached and
+ * invalidated by {@link DefaultDonationDailyStatsService} whenever the daily rollup changes. Sponsor and
+ * project statistics do not follow donations and are always read through.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class CachedStatisticsService implements StatisticsService {
+
+    private final DefaultStatisticsService statisticsService;
+    private final StatisticsCache statisticsCache;
+
+    @Override
+    public BigDecimal getTotalSponsorValue(Integer month, Integer year) {
+        return statisticsService.getTotalSponsorValue(month, year);
+    }
+
+    @Override
+    public BigDecimal getTotalDonation(Integer month, Integer year) {
+        return statisticsCache.get(new StatisticsCache.Key("total-donation", null, month, year),
+                () -> statisticsService.getTotalDonation(month, year));
+    }
+
+    @Override
+    public BigDecimal getTotalWrongDonation(Integer month, Integer year) {
+        return statisticsCache.get(new StatisticsCache.Key("total-wrong-donation", null, month, year),
+                () -> statisticsService.getTotalWrongDonation(month, year));
+    }
+
+    @Override
+    public Long getTotalCountDonations(Integer month, Integer year) {
+        return statisticsCache.get(new StatisticsCache.Key("count-donation", null, month, year),
+                () -> statisticsService.getTotalCountDonations(month, year));
+    }
+
+    @Override
+    public List<ChartResponseDTO> getDataPieChart(Integer month, Integer year) {
+        return statisticsCache.get(new StatisticsCache.Key("pie-chart", null, month, year),
+                () -> statisticsService.getDataPieChart(month, year));
+    }
+
+    @Override
+    public List<ChartResponseDTO> getDataLineChart(Integer year) {
+        return statisticsCache.get(new StatisticsCache.Key("line-chart", null, null, year),
+                () -> statisticsService.getDataLineChart(year));
+    }
+
+    @Override
+    public List<ChartResponseDTO> getDataBarChart(Integer month, Integer year) {
+        return statisticsCache.get(new StatisticsCache.Key("bar-chart", null, month, year),
+                () -> statisticsService.getDataBarChart(month, year));
+    }
+
+    @Override
+    public StatisticsInterfaceDTO getDonationStaticDataByCampaign(BigInteger campaignId, Integer year) {
+        return statisticsCache.get(new StatisticsCache.Key("campaign-donation", campaignId, null, year),
+                () -> statisticsService.getDonationStaticDataByCampaign(campaignId, year));
+    }
+
+    @Override
+    public StatisticsInterfaceDTO getProjectStaticDataByCampaign(BigInteger campaignId, Integer year) {
+        return statisticsService.getProjectStaticDataByCampaign(campaignId, year);
+    }
+}
@@ -0,0 +1,109 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.statistics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fpt.sep490_g28_summer2024_be.common.StartupOrder;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.DailyStatsReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.StatisticsCacheStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.StartupSeed;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationDailyStatsRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.StartupSeedRepository;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains donation_daily_stats. Writers call {@link #recordDonations} after inserting donations, and
+ * wrap a rerouting in {@link #removeDonations} / {@link #recordDonations} so the rows move between
+ * campaigns; a project moving to another campaign is wrapped in {@link #detachProject} /
+ * {@link #recordDonations} the same way. Both read the donations as stored, so they must run after the
+ * writes were flushed. Every change also evicts the cached statistics of the days and campaigns it
+ * touched.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DefaultDonationDailyStatsService implements DonationDailyStatsService {
+
+    private static final String DAILY_STATS_SEED = "donation_daily_stats";
+
+    private final DonationDailyStatsRepository donationDailyStatsRepository;
+    private final DonationRepository donationRepository;
+    private final StatisticsCache statisticsCache;
+    private final StartupSeedRepository startupSeedRepository;
+
+    /**
+     * Backfills the rollup on the first start after it was introduced. Like the ledger seed it is
+     * tracked by a marker rather than by the table being empty, and runs before any transfer is
+     * ingested.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(StartupOrder.SEED)
+    @Transactional
+    public void initDailyStats() {
+        startupSeedRepository.insertMarker(DAILY_STATS_SEED);
+        StartupSeed seed = startupSeedRepository.findForUpdate(DAILY_STATS_SEED);
+        if (seed.getSeededAt() != null) return;
+
+        donationDailyStatsRepository.deleteAllRows();
+        int rows = donationDailyStatsRepository.insertFromDonations();
+        statisticsCache.invalidateAll();
+        seed.setSeededAt(LocalDateTime.now());
+        log.info("Donation daily stats initialized with {} row(s)", rows);
+    }
+
+    @Override
+    @Transactional
+    public void recordDonations(Collection<BigInteger> donationIds) {
+        if (donationIds.isEmpty()) return;
+        donationDailyStatsRepository.applyDonations(donationIds, 1);
+        statisticsCache.invalidate(donationDailyStatsRepository.findKeysOf(donationIds));
+    }
+
+    @Override
+    @Transactional
+    public void removeDonations(Collection<BigInteger> donationIds) {
+        if (donationIds.isEmpty()) return;
+        statisticsCache.invalidate(donationDailyStatsRepository.findKeysOf(donationIds));
+        donationDailyStatsRepository.applyDonations(donationIds, -1);
+    }
+
+    /**
+     * Takes the donations counted toward the project out of the rollup, to be called before its
+     * campaign changes. Returns their ids for {@link #recordDonations} once the change is flushed.
+     */
+    @Override
+    @Transactional
+    public List<BigInteger> detachProject(BigInteger projectId) {
+        List<BigInteger> donationIds = donationRepository.findDonationIdsCountedFor(projectId);
+        removeDonations(donationIds);
+        return donationIds;
+    }
+
+    @Override
+    @Transactional
+    public DailyStatsReportDTO rebuild() {
+        long start = System.nanoTime();
+        donationDailyStatsRepository.deleteAllRows();
+        int rows = donationDailyStatsRepository.insertFromDonations();
+        statisticsCache.invalidateAll();
+        return DailyStatsReportDTO.builder()
+                .rebuiltAt(LocalDateTime.now())
+                .rows(rows)
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    @Override
+    public StatisticsCacheStatsDTO getCacheStats() {
+        return statisticsCache.snapshot();
+    }
+}
@@ -5,8 +5,7 @@ import org.springframework.stereotype.Service;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.ChartResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsByCampaignInterfaceDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.interfacedto.StatisticsInterfaceDTO;
-import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
-import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationDailyStatsRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.SponsorRepository;
 
@@ -15,12 +14,15 @@ import java.math.BigInteger;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * Donation statistics are answered from the donation_daily_stats rollup, see
+ * {@link DefaultDonationDailyStatsService}.
+ */
 @Service
 @RequiredArgsConstructor
 public class DefaultStatisticsService implements StatisticsService {
     public final ProjectRepository projectRepository;
-    public final DonationRepository donationRepository;
-    public final CampaignRepository campaignRepository;
+    public final DonationDailyStatsRepository donationDailyStatsRepository;
     public final SponsorRepository sponsorRepository;
 
     @Override
@@ -30,22 +32,22 @@ public class DefaultStatisticsService implements StatisticsService {
 
     @Override
     public BigDecimal getTotalDonation(Integer month, Integer year) {
-        return donationRepository.getTotalDonationByMonth(year, month);
+        return donationDailyStatsRepository.getTotalDonationByMonth(year, month);
     }
 
     @Override
     public BigDecimal getTotalWrongDonation(Integer month, Integer year) {
-        return donationRepository.getTotalWrongDonationByMonth(year, month);
+        return donationDailyStatsRepository.getTotalWrongDonationByMonth(year, month);
     }
 
     @Override
     public Long getTotalCountDonations(Integer month, Integer year) {
-        return donationRepository.getTotalCountDonationByMonth(year, month);
+        return donationDailyStatsRepository.getTotalCountDonationByMonth(year, month);
     }
 
     @Override
     public List<ChartResponseDTO> getDataPieChart(Integer month, Integer year) {
-        List<StatisticsByCampaignInterfaceDTO> campaign = campaignRepository.getCampaignPieChart(month, year);
+        List<StatisticsByCampaignInterfaceDTO> campaign = donationDailyStatsRepository.getCampaignPieChart(month, year);
         return campaign.stream().map(c -> ChartResponseDTO.builder()
                 .id(c.getId())
                 .value(c.getValue())
@@ -55,7 +57,7 @@ public class DefaultStatisticsService implements StatisticsService {
 
     @Override
     public List<ChartResponseDTO> getDataLineChart(Integer year) {
-        var dataChart = donationRepository.getTotalDonationByYear(year);
+        var dataChart = donationDailyStatsRepository.getTotalDonationByYear(year);
 
         return dataChart == null ? Collections.emptyList() : dataChart.stream().map(data -> ChartResponseDTO.builder()
                 .label("Tháng "+data.getMonthNumber().toString())
@@ -65,7 +67,7 @@ public class DefaultStatisticsService implements StatisticsService {
 
     @Override
     public List<ChartResponseDTO> getDataBarChart(Integer month, Integer year) {
-        var dataChart = donationRepository.getTotalDonationByWeekOfMonth(year, month);
+        var dataChart = donationDailyStatsRepository.getTotalDonationByWeekOfMonth(year, month);
         return dataChart == null ? Collections.emptyList() : dataChart.stream().map(data -> ChartResponseDTO.builder()
                 .label("Tuần "+data.getWeekOfMonth().toString())
                 .value(data.getValue())
@@ -74,7 +76,7 @@ public class DefaultStatisticsService implements StatisticsService {
 
     @Override
     public StatisticsInterfaceDTO getDonationStaticDataByCampaign(BigInteger campaignId, Integer year) {
-        return campaignRepository.getDonationStaticByCampaign(campaignId, year);
+        return donationDailyStatsRepository.getDonationStaticByCampaign(campaignId, year);
     }
 
     @Override
@@ -0,0 +1,21 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.statistics;
+
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.DailyStatsReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.StatisticsCacheStatsDTO;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+
+public interface DonationDailyStatsService {
+
+    void recordDonations(Collection<BigInteger> donationIds);
+
+    void removeDonations(Collection<BigInteger> donationIds);
+
+    List<BigInteger> detachProject(BigInteger projectId);
+
+    DailyStatsReportDTO rebuild();
+
+    StatisticsCacheStatsDTO getCacheStats();
+}
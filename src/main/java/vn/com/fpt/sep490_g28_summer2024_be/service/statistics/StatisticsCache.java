@@ -0,0 +1,129 @@
+package vn.com.fpt.sep490_g28_summer2024_be.service.statistics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.StatisticsCacheStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.interfacedto.DailyStatsKeyInterfaceDTO;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches donation statistics by (metric, campaign, month, year). Periods that ended before the current
+ * month are kept until a donation in them changes; the current and future periods also expire after a
+ * short time as a safety net.
+ * <p>
+ * An entry is evicted when a donation of its period and campaign is written, and again when that
+ * transaction completes, so a value read before the commit cannot outlive it. A load that overlapped
+ * an eviction is returned but not cached.
+ */
+@Component
+public class StatisticsCache {
+
+    public record Key(String metric, BigInteger campaignId, Integer month, Integer year) {
+
+        boolean isClosed() {
+            YearMonth now = YearMonth.now();
+            return month == null ? year < now.getYear() : YearMonth.of(year, month).isBefore(now);
+        }
+
+        /**
+         * A key without a campaign covers every campaign, one without a month the whole year.
+         */
+        boolean covers(LocalDate day, BigInteger dayCampaignId) {
+            return year == day.getYear()
+                    && (month == null || month == day.getMonthValue())
+                    && (campaignId == null || campaignId.equals(dayCampaignId));
+        }
+    }
+
+    private final Cache<Key, Object> closed;
+    private final Cache<Key, Object> current;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public StatisticsCache(@Value("${statistics.cache.max-entries:10000}") long maxEntries,
+                           @Value("${statistics.cache.current-ttl-seconds:300}") long currentTtlSeconds) {
+        this.closed = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        this.current = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(currentTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (key.year() == null || (key.month() != null && (key.month() < 1 || key.month() > 12))) {
+            return loader.get();
+        }
+        Cache<Key, Object> cache = key.isClosed() ? closed : current;
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) return (T) cached;
+
+        long loadedAt = generation.get();
+        T value = loader.get();
+        if (value != null && generation.get() == loadedAt) cache.put(key, value);
+        return value;
+    }
+
+    /**
+     * Evicts every entry that covers one of the given days and campaigns.
+     */
+    public void invalidate(Collection<? extends DailyStatsKeyInterfaceDTO> days) {
+        if (days.isEmpty()) return;
+        List<DailyStatsKeyInterfaceDTO> changed = List.copyOf(days);
+        evictOnWriteAndCompletion(key -> changed.stream()
+                .anyMatch(day -> key.covers(day.getStatDate(), day.getCampaignId())));
+    }
+
+    public void invalidateAll() {
+        evictOnWriteAndCompletion(key -> true);
+    }
+
+    public StatisticsCacheStatsDTO snapshot() {
+        CacheStats stats = closed.stats().plus(current.stats());
+        return StatisticsCacheStatsDTO.builder()
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRatio(stats.hitRate())
+                .closedEntries(closed.size())
+                .currentEntries(current.size())
+                .invalidations(invalidations.get())
+                .build();
+    }
+
+    private void evictOnWriteAndCompletion(Predicate<Key> affected) {
+        evict(affected);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(affected);
+                }
+            });
+        }
+    }
+
+    private void evict(Predicate<Key> affected) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        closed.asMap().keySet().removeIf(affected);
+        current.asMap().keySet().removeIf(affected);
+    }
+}
@@ -1,108 +1,207 @@
 package vn.com.fpt.sep490_g28_summer2024_be.service.wrongdonation;
 
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.wrongdonation.WrongDonationRunDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
-import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
-import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.WrongDonation;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationBatchRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.WrongDonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.RefundMatcher;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.ProjectLedgerService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
+/**
+ * Reassigns donations parked in wrong_donation. Rows are read in keyset pages and every page is
+ * written back with one batch update and one batch delete in its own short transaction, so a large
+ * backlog never holds a connection for the whole run.
+ */
 @Service
 @Slf4j
 public class DefaultWrongDonationService implements WrongDonationService{
 
     private final WrongDonationRepository wrongDonationRepository;
-    private final ProjectRepository projectRepository;
-    private final DonationRepository donationRepository;
+    private final RefundMatcher refundMatcher;
+    private final DonationBatchRepository donationBatchRepository;
+    private final ProjectLedgerService projectLedgerService;
+    private final ProjectAllocationService projectAllocationService;
+    private final DonationDailyStatsService donationDailyStatsService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
     private final Executor executor;
-
-    public DefaultWrongDonationService(WrongDonationRepository wrongDonationRepository, ProjectRepository projectRepository,
-                                       DonationRepository donationRepository,
-                                       @Qualifier("scheduleExecutor") Executor executor) {
+    private final int pageSize;
+
+    public DefaultWrongDonationService(WrongDonationRepository wrongDonationRepository,
+                                       RefundMatcher refundMatcher,
+                                       DonationBatchRepository donationBatchRepository,
+                                       ProjectLedgerService projectLedgerService,
+                                       ProjectAllocationService projectAllocationService,
+                                       DonationDailyStatsService donationDailyStatsService,
+                                       EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       @Qualifier("scheduleExecutor") Executor executor,
+                                       @Value("${casso.wrong-donation.page-size:200}") int pageSize) {
         this.wrongDonationRepository = wrongDonationRepository;
-        this.projectRepository = projectRepository;
-        this.donationRepository = donationRepository;
+        this.refundMatcher = refundMatcher;
+        this.donationBatchRepository = donationBatchRepository;
+        this.projectLedgerService = projectLedgerService;
+        this.projectAllocationService = projectAllocationService;
+        this.donationDailyStatsService = donationDailyStatsService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.executor = executor;
+        this.pageSize = pageSize;
     }
 
     @Override
-    @Async("scheduleExecutor")
-    @Transactional
-    public CompletableFuture<Void> updateWrongDonation() {
-        return CompletableFuture.runAsync(() -> {
-            updateWrongDonationInAsync();
-        }, executor);
+    public CompletableFuture<WrongDonationRunDTO> updateWrongDonation() {
+        return CompletableFuture.supplyAsync(this::updateWrongDonationInAsync, executor);
+    }
+
+    public WrongDonationRunDTO updateWrongDonationInAsync() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        int pages = 0;
+        int scanned = 0;
+        int reassigned = 0;
+
+        BigInteger afterId = BigInteger.ZERO;
+        while (true) {
+            BigInteger pageAfterId = afterId;
+            PageResult result = transactionTemplate.execute(status -> processPage(pageAfterId));
+            if (result == null || result.scanned() == 0) break;
+            pages++;
+            scanned += result.scanned();
+            reassigned += result.reassigned();
+            afterId = result.lastId();
+            if (result.scanned() < pageSize) break;
+        }
+
+        WrongDonationRunDTO run = WrongDonationRunDTO.builder()
+                .startedAt(startedAt)
+                .pages(pages)
+                .scanned(scanned)
+                .reassigned(reassigned)
+                .stillPending(wrongDonationRepository.count())
+                .elapsedMs((System.nanoTime() - start) / 1_000_000)
+                .build();
+        log.info("Wrong donation run: {}", run);
+        return run;
     }
 
-    public void updateWrongDonationInAsync() {
-        wrongDonationRepository.findAll().forEach(wrongDonation -> {
+    private PageResult processPage(BigInteger afterId) {
+        List<WrongDonation> page = wrongDonationRepository.findPageAfter(afterId, PageRequest.of(0, pageSize));
+        if (page.isEmpty()) return new PageResult(0, 0, afterId);
+
+        Map<String, Donation> referDonations = loadReferDonations(page);
+        List<Donation> updates = new ArrayList<>();
+        List<BigInteger> resolved = new ArrayList<>();
+
+        for (WrongDonation wrongDonation : page) {
             Donation donation = wrongDonation.getDonation();
+            Donation routed = route(donation, referDonations);
+            if (routed == null) continue;
+
+            // The decision reads the donation's own link, as the per-row job did before.
+            boolean clear = donation.getWrongDonation() != null;
             if (donation.getValue().compareTo(BigDecimal.ZERO) < 0) {
-                Donation referDonation = donationRepository.getDonationByTid(donation.getDescription());
-                System.out.println("refer-donation: "+referDonation);
-
-                if (referDonation != null) {
-                    donation.setTransferredProject(referDonation.getTransferredProject());
-                    donation.setProject(referDonation.getProject());
-                    donation.setCreatedBy(referDonation.getCreatedBy());
-                    donation.setChallenge(referDonation.getChallenge());
-                    donationRepository.save(donation);
-                    if (referDonation.getWrongDonation() == null && donation.getWrongDonation() != null) {
-                        wrongDonationRepository.delete(donation.getWrongDonation());
-                    }
-
-                }
-            } else {
-                Project project = donation.getProject();
-                if (project != null) {
-                    ProjectTransactionDTO validProject = projectRepository.findProjectByCampaignIdAndDonationDescriptionAndStatus(
-                            project.getCode(), project.getCampaign().getCampaignId(), 2, false);
-
-                    validProject = validProject != null ? validProject : projectRepository.findProjectByCampaignIdAndDonationDescriptionAndStatus(
-                            null, project.getCampaign().getCampaignId(), 2, false);
-
-                    validProject = validProject != null ? validProject : projectRepository.findProjectByCampaignIdAndDonationDescriptionAndStatus(
-                            null, null, 2, false);
-
-                    if (validProject != null) {
-                        donation.setTransferredProject(Project.builder()
-                                .projectId(validProject.getProjectId())
-                                .code(validProject.getCode())
-                                .build());
-
-                        donationRepository.save(donation);
-                        if (donation.getWrongDonation() != null) {
-                            wrongDonationRepository.delete(donation.getWrongDonation());
-                        }
-                    }
-
-                } else {
-                    ProjectTransactionDTO validProject = projectRepository.findProjectByCampaignIdAndDonationDescriptionAndStatus(
-                            null, null, 2, false);
-
-                    if (validProject != null) {
-                        donation.setTransferredProject(Project.builder()
-                                .projectId(validProject.getProjectId())
-                                .code(validProject.getCode())
-                                .build());
-                        donationRepository.save(donation);
-                        if (donation.getWrongDonation() != null) {
-                            wrongDonationRepository.delete(donation.getWrongDonation());
-                        }
-                    }
-                }
+                Donation referDonation = referDonations.get(donation.getDescription());
+                clear = clear && referDonation.getWrongDonation() == null;
             }
-        });
+            if (clear) resolved.add(wrongDonation.getWrongDonationId());
+            routed.setWrongDonation(clear ? null : donation.getWrongDonation());
+            updates.add(routed);
+
+            // moved right away, so the allocator routes the next row of the page on this one's total
+            projectLedgerService.moveDonation(routed, projectLedgerService.resolveProjectId(donation),
+                    projectLedgerService.resolveProjectId(routed));
+        }
+
+        entityManager.flush();
+        List<BigInteger> donationIds = updates.stream().map(Donation::getDonationId).toList();
+        donationDailyStatsService.removeDonations(donationIds);
+        donationBatchRepository.updateRouting(updates);
+        donationBatchRepository.deleteWrongDonations(resolved);
+        donationDailyStatsService.recordDonations(donationIds);
+        // Rows were rewritten behind Hibernate's back, drop the stale copies.
+        entityManager.clear();
+
+        return new PageResult(page.size(), updates.size(), page.get(page.size() - 1).getWrongDonationId());
     }
 
+    /**
+     * Returns the new routing of the donation as a detached copy, or null when it stays pending.
+     */
+    private Donation route(Donation donation, Map<String, Donation> referDonations) {
+        Donation routed = Donation.builder()
+                .donationId(donation.getDonationId())
+                .createdAt(donation.getCreatedAt())
+                .value(donation.getValue())
+                .project(donation.getProject())
+                .createdBy(donation.getCreatedBy())
+                .challenge(donation.getChallenge())
+                .transferredProject(donation.getTransferredProject())
+                .build();
+
+        if (donation.getValue().compareTo(BigDecimal.ZERO) < 0) {
+            Donation referDonation = donation.getDescription() == null ? null : referDonations.get(donation.getDescription());
+            if (referDonation == null) return null;
+            routed.setTransferredProject(referDonation.getTransferredProject());
+            routed.setProject(referDonation.getProject());
+            routed.setCreatedBy(referDonation.getCreatedBy());
+            routed.setChallenge(referDonation.getChallenge());
+            return routed;
+        }
+
+        Project project = donation.getProject();
+        ProjectTransactionDTO validProject = null;
+        if (project != null) {
+            BigInteger campaignId = project.getCampaign() == null ? null : project.getCampaign().getCampaignId();
+            validProject = projectLedgerService.claimFundable(project.getProjectId());
+            if (validProject == null && campaignId != null) {
+                validProject = projectLedgerService.claimFundable(() -> projectAllocationService.pickInCampaign(campaignId));
+            }
+        }
+        validProject = validProject != null ? validProject : projectLedgerService.claimFundable(projectAllocationService::pickGlobal);
+        if (validProject == null) return null;
+
+        routed.setTransferredProject(Project.builder()
+                .projectId(validProject.getProjectId())
+                .code(validProject.getCode())
+                .build());
+        return routed;
+    }
+
+    private Map<String, Donation> loadReferDonations(List<WrongDonation> page) {
+        List<String> descriptions = page.stream()
+                .map(WrongDonation::getDonation)
+                .filter(donation -> donation.getValue().compareTo(BigDecimal.ZERO) < 0)
+                .map(Donation::getDescription)
+                .filter(Objects::nonNull)
+                .toList();
+        return descriptions.isEmpty() ? Map.of() : refundMatcher.findOriginals(descriptions);
+    }
+
+    private record PageResult(int scanned, int reassigned, BigInteger lastId) {
+    }
 
 }
@@ -2,11 +2,13 @@ package vn.com.fpt.sep490_g28_summer2024_be.service.wrongdonation;
 
 
 
+import vn.com.fpt.sep490_g28_summer2024_be.dto.wrongdonation.WrongDonationRunDTO;
+
 import java.util.concurrent.CompletableFuture;
 
 public interface WrongDonationService {
 
-    CompletableFuture<Void> updateWrongDonation();
+    CompletableFuture<WrongDonationRunDTO> updateWrongDonation();
 
 
 }
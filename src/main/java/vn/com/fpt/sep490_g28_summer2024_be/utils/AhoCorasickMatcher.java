@@ -0,0 +1,117 @@
+package vn.com.fpt.sep490_g28_summer2024_be.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Immutable Aho-Corasick automaton: finds every registered pattern occurring in a text in a
+ * single pass, whatever the number of patterns. Build a new instance when the pattern set changes.
+ */
+public final class AhoCorasickMatcher<V> {
+
+    private final Node<V> root;
+    private final int size;
+
+    private AhoCorasickMatcher(Node<V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    public static <V> AhoCorasickMatcher<V> empty() {
+        return new Builder<V>().build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<Match<V>> findAll(CharSequence text) {
+        if (text == null || text.isEmpty() || size == 0) return Collections.emptyList();
+
+        List<Match<V>> matches = new ArrayList<>();
+        Node<V> state = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (state != root && !state.next.containsKey(c)) {
+                state = state.fail;
+            }
+            state = state.next.getOrDefault(c, root);
+
+            for (Node<V> out = state.pattern != null ? state : state.output; out != null; out = out.output) {
+                matches.add(new Match<>(out.pattern, out.value, i + 1 - out.pattern.length()));
+            }
+        }
+        return matches;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Match<V> {
+        private final String pattern;
+        private final V value;
+        private final int start;
+    }
+
+    public static final class Builder<V> {
+        private final Node<V> root = new Node<>();
+        private int size;
+
+        public Builder<V> add(String pattern, V value) {
+            if (pattern == null || pattern.isEmpty()) return this;
+            Node<V> node = root;
+            for (int i = 0; i < pattern.length(); i++) {
+                node = node.next.computeIfAbsent(pattern.charAt(i), k -> new Node<>());
+            }
+            if (node.pattern == null) size++;
+            node.pattern = pattern;
+            node.value = value;
+            return this;
+        }
+
+        public AhoCorasickMatcher<V> build() {
+            Queue<Node<V>> queue = new ArrayDeque<>();
+            root.fail = root;
+            for (Node<V> child : root.next.values()) {
+                child.fail = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                Node<V> node = queue.poll();
+                for (Map.Entry<Character, Node<V>> entry : node.next.entrySet()) {
+                    char c = entry.getKey();
+                    Node<V> child = entry.getValue();
+
+                    Node<V> fail = node.fail;
+                    while (fail != root && !fail.next.containsKey(c)) {
+                        fail = fail.fail;
+                    }
+                    Node<V> target = fail.next.get(c);
+                    child.fail = target != null && target != child ? target : root;
+                    child.output = child.fail.pattern != null ? child.fail : child.fail.output;
+                    queue.add(child);
+                }
+            }
+            return new AhoCorasickMatcher<>(root, size);
+        }
+    }
+
+    private static final class Node<V> {
+        private final Map<Character, Node<V>> next = new HashMap<>();
+        private Node<V> fail;
+        private Node<V> output;
+        private String pattern;
+        private V value;
+    }
+}
@@ -0,0 +1,67 @@
+package vn.com.fpt.sep490_g28_summer2024_be.utils;
+
+import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page. Clients get it as an opaque string and send it back
+ * to read the rows after it; the listing then seeks past that key instead of skipping an offset.
+ * Listings ordered by creation time carry both columns, the others only the id.
+ */
+public record PageCursor(LocalDateTime createdAt, BigInteger id) {
+
+    private static final char SEPARATOR = '_';
+
+    public static String encode(BigInteger id) {
+        return encode(id.toString());
+    }
+
+    public static String encode(LocalDateTime createdAt, BigInteger id) {
+        return encode(createdAt.toString() + SEPARATOR + id);
+    }
+
+    /**
+     * Reads a cursor sent by a client. A blank cursor is the first page and gives null.
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf(SEPARATOR);
+            if (separator < 0) return new PageCursor(null, new BigInteger(key));
+            return new PageCursor(LocalDateTime.parse(key.substring(0, separator)),
+                    new BigInteger(key.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new AppException(ErrorCode.HTTP_BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Reads a cursor of a listing ordered by creation time; an id-only cursor does not fit it.
+     */
+    public static PageCursor decodeTimed(String cursor) {
+        PageCursor pageCursor = decode(cursor);
+        if (pageCursor != null && pageCursor.createdAt() == null) {
+            throw new AppException(ErrorCode.HTTP_BAD_REQUEST);
+        }
+        return pageCursor;
+    }
+
+    public static BigInteger idOf(PageCursor cursor) {
+        return cursor == null ? null : cursor.id();
+    }
+
+    public static LocalDateTime createdAtOf(PageCursor cursor) {
+        return cursor == null ? null : cursor.createdAt();
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 
 import java.text.Normalizer;
 import java.util.Arrays;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Component
@@ -16,10 +17,27 @@ public class SlugUtils {
         String normalizedString = Normalizer.normalize(input, Normalizer.Form.NFD);
 
         return Arrays.stream(normalizedString.split("\\s+"))
-                .map(word -> word.replaceAll("\\p{InCombiningDiacriticalMarks}+", ""))
+                .map(SlugUtils::stripDiacritics)
                 .map(word -> word.replaceAll("[^\\w-]", "").toLowerCase())
                 .filter(word -> !word.isEmpty())
                 .collect(Collectors.joining("-"));
     }
 
+    /**
+     * Folds text for accent-insensitive search: lower case, no diacritics, "đ" read as "d", and
+     * anything that is not a letter or digit turned into a single space.
+     */
+    public static String normalize(String input) {
+        if (input == null) return "";
+        String folded = stripDiacritics(Normalizer.normalize(input, Normalizer.Form.NFD))
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+        return folded.replaceAll("[^\\p{Alnum}]+", " ").trim();
+    }
+
+    private static String stripDiacritics(String decomposed) {
+        return decomposed.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+    }
+
 }
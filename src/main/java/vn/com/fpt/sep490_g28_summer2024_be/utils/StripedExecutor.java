@@ -0,0 +1,64 @@
+package vn.com.fpt.sep490_g28_summer2024_be.utils;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of single-thread lanes. Tasks with the same key always run on the same lane, one after
+ * another in submission order, while tasks whose keys fall on different lanes run in parallel.
+ */
+public final class StripedExecutor implements AutoCloseable {
+
+    private final ExecutorService[] lanes;
+
+    public StripedExecutor(int stripes, String threadNamePrefix) {
+        if (stripes < 1) throw new IllegalArgumentException("stripes must be positive");
+        this.lanes = new ExecutorService[stripes];
+        for (int i = 0; i < stripes; i++) {
+            AtomicInteger count = new AtomicInteger();
+            String prefix = threadNamePrefix + i + "-";
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int stripes() {
+        return lanes.length;
+    }
+
+    public int laneOf(Object key) {
+        int hash = Objects.hashCode(key);
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[laneOf(key)]);
+    }
+
+    public <T> CompletableFuture<T> submitToLane(int lane, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[lane]);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            try {
+                if (!lane.awaitTermination(30, TimeUnit.SECONDS)) lane.shutdownNow();
+            } catch (InterruptedException e) {
+                lane.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package vn.com.fpt.sep490_g28_summer2024_be.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix tree for autocomplete. Children are kept in sorted char arrays rather than maps, and every
+ * node caches the best {@code capacity} entries below it, so a lookup only walks the prefix and
+ * copies that cache: its cost does not depend on how many keys are stored. Keys are expected to be
+ * normalized already.
+ * <p>
+ * Entries rank shorter keys first, then keys in alphabetical order, then by the given comparator.
+ * A value stored under several keys is only listed once, with its best key.
+ */
+public final class SuggestTrie<V> {
+
+    private final int capacity;
+    private final Comparator<Entry<V>> order;
+    private final Node<V> root = new Node<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SuggestTrie(int capacity, Comparator<? super V> tieBreak) {
+        this.capacity = capacity;
+        this.order = Comparator.<Entry<V>>comparingInt(entry -> entry.key().length())
+                .thenComparing(Entry::key)
+                .thenComparing(Entry::value, tieBreak);
+    }
+
+    public record Entry<V>(String key, V value) {
+    }
+
+    public void add(String key, V value) {
+        if (key == null || key.isEmpty()) return;
+        Entry<V> entry = new Entry<>(key, value);
+        lock.writeLock().lock();
+        try {
+            List<Node<V>> path = path(key, true);
+            path.get(path.size() - 1).own.add(entry);
+            for (Node<V> node : path) offer(node, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key, V value) {
+        if (key == null || key.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            List<Node<V>> path = path(key, false);
+            if (path == null) return;
+            Node<V> last = path.get(path.size() - 1);
+            if (!last.own.remove(new Entry<>(key, value))) return;
+            // rebuild the caches bottom-up and drop the branches left empty
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                Node<V> node = path.get(depth);
+                if (depth > 0 && node.own.isEmpty() && node.size == 0) {
+                    path.get(depth - 1).unlink(key.charAt(depth - 1));
+                } else {
+                    rebuild(node);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} of the best entries whose keys start with the prefix.
+     */
+    public List<Entry<V>> lookup(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            Node<V> node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            if (node == null || prefix.isEmpty()) return List.of();
+            return List.of(Arrays.copyOf(node.top, Math.min(limit, node.topSize)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.labels = new char[0];
+            root.children = newNodes(0);
+            root.size = 0;
+            root.own.clear();
+            root.topSize = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Node<V>> path(String key, boolean create) {
+        List<Node<V>> path = new ArrayList<>(key.length() + 1);
+        Node<V> node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node<V> next = node.child(key.charAt(i));
+            if (next == null) {
+                if (!create) return null;
+                next = node.link(key.charAt(i));
+            }
+            node = next;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Puts a new entry into a node's cache if it ranks high enough.
+     */
+    private void offer(Node<V> node, Entry<V> entry) {
+        for (int i = 0; i < node.topSize; i++) {
+            if (!node.top[i].value().equals(entry.value())) continue;
+            if (order.compare(entry, node.top[i]) >= 0) return;
+            // the value moves up with its better key
+            System.arraycopy(node.top, i + 1, node.top, i, node.topSize - i - 1);
+            node.topSize--;
+            break;
+        }
+        int position = node.topSize;
+        while (position > 0 && order.compare(entry, node.top[position - 1]) < 0) position--;
+        if (position >= capacity) return;
+        if (node.topSize == capacity) node.topSize--;
+        if (node.top.length == 0) node.top = newEntries(capacity);
+        System.arraycopy(node.top, position, node.top, position + 1, node.topSize - position);
+        node.top[position] = entry;
+        node.topSize++;
+    }
+
+    private void rebuild(Node<V> node) {
+        List<Entry<V>> candidates = new ArrayList<>(node.own);
+        for (int i = 0; i < node.size; i++) {
+            Node<V> child = node.children[i];
+            candidates.addAll(Arrays.asList(child.top).subList(0, child.topSize));
+        }
+        candidates.sort(order);
+        if (node.top.length == 0 && !candidates.isEmpty()) node.top = newEntries(capacity);
+        node.topSize = 0;
+        for (Entry<V> candidate : candidates) {
+            if (node.topSize == capacity) break;
+            boolean listed = false;
+            for (int i = 0; i < node.topSize && !listed; i++) {
+                listed = node.top[i].value().equals(candidate.value());
+            }
+            if (!listed) node.top[node.topSize++] = candidate;
+        }
+        Arrays.fill(node.top, node.topSize, node.top.length, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newNodes(int length) {
+        return (Node<V>[]) new Node[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V>[] newEntries(int length) {
+        return (Entry<V>[]) new Entry[length];
+    }
+
+    private static final class Node<V> {
+        private char[] labels = new char[0];
+        private Node<V>[] children = newNodes(0);
+        private int size;
+        private final List<Entry<V>> own = new ArrayList<>(1);
+        private Entry<V>[] top = newEntries(0);
+        private int topSize;
+
+        private Node<V> child(char label) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+            return index < 0 ? null : children[index];
+        }
+
+        private Node<V> link(char label) {
+            int index = -Arrays.binarySearch(labels, 0, size, label) - 1;
+            if (size == labels.length) {
+                int grown = Math.max(2, size * 2);
+                labels = Arrays.copyOf(labels, grown);
+                children = Arrays.copyOf(children, grown);
+            }
+            System.arraycopy(labels, index, labels, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            Node<V> child = new Node<>();
+            labels[index] = label;
+            children[index] = child;
+            size++;
+            return child;
+        }
+
+        private void unlink(char label) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+            if (index < 0) return;
+            System.arraycopy(labels, index + 1, labels, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package vn.com.fpt.sep490_g28_summer2024_be.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over short titles, searched without regard to accents or case. Every
+ * word of a title is posted under its first one and two letters and under each of its trigrams.
+ * A search word of up to two letters matches words starting with it; a longer one matches any word
+ * containing it, found through its trigrams. A title matches when all search words do, so the work
+ * done depends on the matching titles, not on how many are indexed.
+ * <p>
+ * Results rank whole-word matches over prefix matches over infix ones; equal matches keep the
+ * listings' usual order, higher keys first.
+ */
+public final class TitleIndex<K extends Comparable<? super K>> {
+
+    private static final String PREFIX = "^";
+    private static final String GRAM = "~";
+    private static final int GRAM_SIZE = 3;
+
+    private final Map<K, Doc> docs = new HashMap<>();
+    private final Map<String, Set<K>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes a title under the key, replacing the one it had. Returns the previous title.
+     */
+    public String put(K key, String title) {
+        if (title == null) return remove(key);
+        Doc doc = new Doc(title);
+        lock.writeLock().lock();
+        try {
+            Doc previous = docs.put(key, doc);
+            if (previous != null) unpost(key, previous);
+            post(key, doc);
+            return previous == null ? null : previous.title;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the key from the index. Returns the title it had.
+     */
+    public String remove(K key) {
+        lock.writeLock().lock();
+        try {
+            Doc previous = docs.remove(key);
+            if (previous == null) return null;
+            unpost(key, previous);
+            return previous.title;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public String get(K key) {
+        lock.readLock().lock();
+        try {
+            Doc doc = docs.get(key);
+            return doc == null ? null : doc.title;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Swaps the whole content of the index for the given titles.
+     */
+    public void replaceAll(Map<K, String> titles) {
+        Map<K, Doc> loadedDocs = new HashMap<>();
+        Map<String, Set<K>> loadedPostings = new HashMap<>();
+        titles.forEach((key, title) -> {
+            if (title == null) return;
+            Doc doc = new Doc(title);
+            loadedDocs.put(key, doc);
+            doc.keys().forEach(postingKey -> loadedPostings.computeIfAbsent(postingKey, k -> new HashSet<>()).add(key));
+        });
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            docs.putAll(loadedDocs);
+            postings.clear();
+            postings.putAll(loadedPostings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} keys whose titles match every word of the query, best first.
+     */
+    public List<K> search(String query, int limit) {
+        String normalized = SlugUtils.normalize(query);
+        if (normalized.isEmpty() || limit <= 0) return Collections.emptyList();
+        String[] terms = new LinkedHashSet<>(Arrays.asList(normalized.split(" "))).toArray(String[]::new);
+
+        List<Hit<K>> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<K> candidates = null;
+            for (String term : terms) {
+                candidates = candidatesFor(term, candidates);
+                if (candidates.isEmpty()) return Collections.emptyList();
+            }
+            for (K key : candidates) {
+                Doc doc = docs.get(key);
+                int score = doc.text.contains(normalized) ? terms.length : 0;
+                for (String term : terms) score += doc.score(term);
+                hits.add(new Hit<>(key, score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.<Hit<K>>comparingInt(hit -> -hit.score)
+                .thenComparing(hit -> hit.key, Comparator.reverseOrder()));
+        return hits.stream().limit(limit).map(hit -> hit.key).toList();
+    }
+
+    /**
+     * Keys matching one search word, narrowed to those already matched by the previous words.
+     */
+    private Set<K> candidatesFor(String term, Set<K> within) {
+        if (term.length() < GRAM_SIZE) {
+            return retain(postings.getOrDefault(PREFIX + term, Set.of()), within);
+        }
+
+        // start from the rarest trigram; the rest only narrow it down
+        List<Set<K>> lists = new ArrayList<>();
+        for (String gram : grams(term)) {
+            Set<K> list = postings.get(GRAM + gram);
+            if (list == null) return Set.of();
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<K> matches = retain(lists.get(0), within);
+        for (int i = 1; i < lists.size() && !matches.isEmpty(); i++) {
+            matches.retainAll(lists.get(i));
+        }
+        // trigrams may come from different words, or out of order
+        matches.removeIf(key -> docs.get(key).score(term) == 0);
+        return matches;
+    }
+
+    private Set<K> retain(Set<K> list, Set<K> within) {
+        Set<K> result = new HashSet<>();
+        if (within == null) {
+            result.addAll(list);
+        } else {
+            Set<K> smaller = within.size() <= list.size() ? within : list;
+            Set<K> larger = smaller == within ? list : within;
+            for (K key : smaller) {
+                if (larger.contains(key)) result.add(key);
+            }
+        }
+        return result;
+    }
+
+    private void post(K key, Doc doc) {
+        doc.keys().forEach(postingKey -> postings.computeIfAbsent(postingKey, k -> new HashSet<>()).add(key));
+    }
+
+    private void unpost(K key, Doc doc) {
+        doc.keys().forEach(postingKey -> postings.computeIfPresent(postingKey, (k, list) -> {
+            list.remove(key);
+            return list.isEmpty() ? null : list;
+        }));
+    }
+
+    private static List<String> grams(String word) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM_SIZE <= word.length(); i++) {
+            grams.add(word.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private record Hit<K>(K key, int score) {
+    }
+
+    private static final class Doc {
+        private final String title;
+        private final String text;
+        private final String[] words;
+
+        private Doc(String title) {
+            this.title = title;
+            this.text = SlugUtils.normalize(title);
+            this.words = text.isEmpty() ? new String[0]
+                    : new LinkedHashSet<>(Arrays.asList(text.split(" "))).toArray(String[]::new);
+        }
+
+        private Set<String> keys() {
+            Set<String> keys = new HashSet<>();
+            for (String word : words) {
+                keys.add(PREFIX + word.charAt(0));
+                if (word.length() > 1) keys.add(PREFIX + word.substring(0, 2));
+                grams(word).forEach(gram -> keys.add(GRAM + gram));
+            }
+            return keys;
+        }
+
+        /**
+         * 3 for a whole word, 2 for a word prefix, 1 for any other part of a word, 0 for no match.
+         */
+        private int score(String term) {
+            int best = 0;
+            for (String word : words) {
+                if (word.equals(term)) return 3;
+                if (word.startsWith(term)) best = 2;
+                else if (best == 0 && word.contains(term)) best = 1;
+            }
+            return best;
+        }
+    }
+}
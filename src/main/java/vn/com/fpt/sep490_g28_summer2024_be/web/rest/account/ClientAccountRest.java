@@ -2,12 +2,18 @@ package vn.com.fpt.sep490_g28_summer2024_be.web.rest.account;
 
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
 import vn.com.fpt.sep490_g28_summer2024_be.service.account.AccountService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.ConditionalGetService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.SnapshotCacheService;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 
 @RestController
@@ -16,18 +22,22 @@ import java.math.BigDecimal;
 public class ClientAccountRest {
 
     private final AccountService accountService;
+    private final ConditionalGetService conditionalGetService;
+    private final SnapshotCacheService snapshotCacheService;
 
     @GetMapping("/top/{limit}")
-    public ApiResponse<?> getTopAmbassadors(@PathVariable("limit") Integer limit){
-        return ApiResponse.builder()
+    public ResponseEntity<?> getTopAmbassadors(@PathVariable("limit") Integer limit, WebRequest request){
+        int top = snapshotCacheService.clampSize(limit);
+        return snapshotCacheService.serve(request, List.of(top), () -> ApiResponse.builder()
                 .code("200")
                 .message("Successfully!")
-                .data(accountService.getTopAmbassador(limit))
-                .build();
+                .data(accountService.getTopAmbassador(top))
+                .build(), ContentArea.ACCOUNTS, ContentArea.DONATIONS);
     }
 
     @GetMapping("/top-donors/{limit}")
-    public ApiResponse<?> getTopDonor(@PathVariable("limit") Integer limit){
+    public ApiResponse<?> getTopDonor(@PathVariable("limit") Integer limit, WebRequest request){
+        if (conditionalGetService.checkNotModified(request, ContentArea.ACCOUNTS, ContentArea.DONATIONS)) return null;
         return ApiResponse.builder()
                 .code("200")
                 .message("Successfully!")
@@ -41,7 +51,9 @@ public class ClientAccountRest {
                                         @RequestParam(value = "fullname", required = false) String fullname,
                                         @RequestParam(value = "code", required = false) String code,
                                         @RequestParam(value = "min", required = false) BigDecimal min,
-                                        @RequestParam(value = "max", required = false) BigDecimal max){
+                                        @RequestParam(value = "max", required = false) BigDecimal max,
+                                        WebRequest request){
+        if (conditionalGetService.checkNotModified(request, ContentArea.ACCOUNTS, ContentArea.DONATIONS)) return null;
         return ApiResponse.builder()
                 .code("200")
                 .message("Successfully")
@@ -0,0 +1,34 @@
+package vn.com.fpt.sep490_g28_summer2024_be.web.rest.allocation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationService;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/allocation")
+public class AdminAllocationRest {
+    private final ProjectAllocationService projectAllocationService;
+
+    @GetMapping("/verify")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> verify(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(projectAllocationService.verify())
+                .build();
+    }
+
+    @PostMapping("/reload")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> reload(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(projectAllocationService.reload())
+                .build();
+    }
+}
@@ -1,12 +1,17 @@
 package vn.com.fpt.sep490_g28_summer2024_be.web.rest.campaign;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
 import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignStatisticsResponse;
 import vn.com.fpt.sep490_g28_summer2024_be.service.campaign.CampaignService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.ConditionalGetService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.SnapshotCacheService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.project.ProjectService;
 
 import java.math.BigDecimal;
@@ -21,14 +26,16 @@ public class ClientCampaignRest {
 
     private final CampaignService campaignService;
     private final ProjectService projectService;
+    private final ConditionalGetService conditionalGetService;
+    private final SnapshotCacheService snapshotCacheService;
 
     @GetMapping("")
-    public ApiResponse<?> viewListCampaigns(){
-        return ApiResponse.builder()
+    public ResponseEntity<?> viewListCampaigns(WebRequest request){
+        return snapshotCacheService.serve(request, List.of(), () -> ApiResponse.builder()
                 .code(ErrorCode.HTTP_OK.getCode())
                 .message("Lấy danh sách chiến dịch thành công!")
                 .data(campaignService.getAllCampaigns())
-                .build();
+                .build(), ContentArea.CAMPAIGNS, ContentArea.PROJECTS, ContentArea.DONATIONS);
     }
 
     @GetMapping("/{id}/projects")
@@ -37,7 +44,9 @@ public class ClientCampaignRest {
                                                        @RequestParam(required = false) Integer status,
                                                        @RequestParam(required = false) BigDecimal minTotalBudget,
                                                        @RequestParam(required = false) BigDecimal maxTotalBudget,
-                                                       @PathVariable BigInteger id) {
+                                                       @PathVariable BigInteger id,
+                                                       WebRequest request) {
+        if (conditionalGetService.checkNotModified(request, ContentArea.CAMPAIGNS, ContentArea.PROJECTS, ContentArea.DONATIONS)) return null;
         return ApiResponse.builder()
                 .code(ErrorCode.HTTP_OK.getCode())
                 .message("danh sách dự án của chiến dịch!")
@@ -47,7 +56,8 @@ public class ClientCampaignRest {
 
 
     @GetMapping("/{id}")
-    public ApiResponse<?> viewCampaignDetail(@PathVariable BigInteger id) {
+    public ApiResponse<?> viewCampaignDetail(@PathVariable BigInteger id, WebRequest request) {
+        if (conditionalGetService.checkNotModified(request, ContentArea.CAMPAIGNS, ContentArea.PROJECTS, ContentArea.DONATIONS)) return null;
         CampaignResponseDTO campaignDTO = campaignService.getCampaignClientById(id);
         return ApiResponse.builder()
                 .code("200")
@@ -57,7 +67,8 @@ public class ClientCampaignRest {
     }
 
     @GetMapping("/id-title")
-    public ApiResponse<?> getAllCampaignsIdAndName() {
+    public ApiResponse<?> getAllCampaignsIdAndName(WebRequest request) {
+        if (conditionalGetService.checkNotModified(request, ContentArea.CAMPAIGNS)) return null;
         List<CampaignResponseDTO> campaignDTO = campaignService.getAllCampaignsIdAndName();
         return ApiResponse.builder()
                 .code("200")
@@ -66,7 +77,8 @@ public class ClientCampaignRest {
                 .build();
     }
     @GetMapping("/statistics")
-    public ApiResponse<CampaignStatisticsResponse> viewProjectStatistics() {
+    public ApiResponse<CampaignStatisticsResponse> viewProjectStatistics(WebRequest request) {
+        if (conditionalGetService.checkNotModified(request, ContentArea.CAMPAIGNS, ContentArea.PROJECTS)) return null;
         CampaignStatisticsResponse statistics = campaignService.getCountProjectsGroupedByCampaignAndStatus();
         return ApiResponse.<CampaignStatisticsResponse>builder()
                 .code("200")
@@ -0,0 +1,88 @@
+package vn.com.fpt.sep490_g28_summer2024_be.web.rest.casso;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoInboxService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.DonationFeedService;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/casso")
+public class AdminCassoRest {
+    private final CassoService cassoService;
+    private final CassoInboxService cassoInboxService;
+    private final DonationFeedService donationFeedService;
+
+    @GetMapping("/sync-progress")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getSyncProgress(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(cassoService.getSyncProgress())
+                .build();
+    }
+
+    @GetMapping("/sync-cursor")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getSyncCursor(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(cassoService.getSyncCursor())
+                .build();
+    }
+
+    @GetMapping("/refund-matching")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getRefundMatchStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(cassoService.getRefundMatchStats())
+                .build();
+    }
+
+    @GetMapping("/seen-filter")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getSeenFilterStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(cassoService.getSeenFilterStats())
+                .build();
+    }
+
+    @GetMapping("/inbox")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getInboxStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(cassoInboxService.getStats())
+                .build();
+    }
+
+    @GetMapping("/feed")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getFeedStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(donationFeedService.getStats())
+                .build();
+    }
+
+    @PostMapping("/inbox/requeue-dead")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> requeueDead(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(cassoInboxService.requeueDead())
+                .build();
+    }
+}
@@ -4,7 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.WebhookResponseDTO;
-import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoInboxService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.wrongdonation.WrongDonationService;
 
 
@@ -13,29 +13,33 @@ import vn.com.fpt.sep490_g28_summer2024_be.service.wrongdonation.WrongDonationSe
 @RequiredArgsConstructor
 public class CassoRest {
 
-    private final CassoService cassoService;
+    private final CassoInboxService cassoInboxService;
     private final WrongDonationService wrongDonationService;
 
     @PostMapping("/in")
     public ApiResponse<?> addInPayment(@RequestBody WebhookResponseDTO payload){
         return ApiResponse.builder()
-                .data(cassoService.handleInPayment(payload.getData().get(0)))
+                .code("200")
+                .message("success")
+                .data(cassoInboxService.enqueue(payload.getData()))
                 .build();
     }
 
     @PostMapping("/out")
     public ApiResponse<?> addOutPayment(@RequestBody WebhookResponseDTO payload){
         return ApiResponse.builder()
-                .data(cassoService.handleOutPayment(payload.getData().get(0)))
+                .code("200")
+                .message("success")
+                .data(cassoInboxService.enqueue(payload.getData()))
                 .build();
     }
 
     @GetMapping("/update-all-wrong-donations")
     public ApiResponse<?> updateWrongDonation(){
-        wrongDonationService.updateWrongDonation().join();
         return ApiResponse.builder()
                 .code("200")
                 .message("Successfully!")
+                .data(wrongDonationService.updateWrongDonation().join())
                 .build();
     }
 }
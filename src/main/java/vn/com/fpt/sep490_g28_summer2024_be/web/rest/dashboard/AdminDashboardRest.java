@@ -1,8 +1,14 @@
 package vn.com.fpt.sep490_g28_summer2024_be.web.rest.dashboard;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard.DashboardResultDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.service.dashboard.DashboardService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.ConditionalGetService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.SnapshotCacheService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsService;
 
 import java.time.LocalDateTime;
@@ -14,6 +20,10 @@ import java.util.Map;
 @RequestMapping("/api/admin/dashboard")
 public class AdminDashboardRest {
     public final StatisticsService statisticsService;
+    public final DonationDailyStatsService donationDailyStatsService;
+    public final DashboardService dashboardService;
+    public final ConditionalGetService conditionalGetService;
+    public final SnapshotCacheService snapshotCacheService;
 
     @GetMapping("/overview")
     public ApiResponse<?> dashboard(@RequestParam(value = "month", required = false) Integer month,
@@ -22,11 +32,10 @@ public class AdminDashboardRest {
         month = month == null ? LocalDateTime.now().getMonthValue() : month;
         year = year == null ? LocalDateTime.now().getYear() : year;
 
-        Map<String, Object> res = new HashMap<>();
-        res.put("tong-so-luot-quyen-gop", statisticsService.getTotalCountDonations(month, year));
-        res.put("tong-so-quyen-gop", statisticsService.getTotalDonation(month, year));
-        res.put("tong-so-quyen-gop-sai", statisticsService.getTotalWrongDonation(month, year));
-        res.put("tong-so-tien-tai-tro", statisticsService.getTotalSponsorValue(month, year));
+        DashboardResultDTO result = dashboardService.getOverview(month, year);
+        Map<String, Object> res = new HashMap<>(result.getValues());
+        res.put("metrics", result.getMetrics());
+        res.put("elapsed_ms", result.getElapsedMs());
 
         return ApiResponse.builder()
                 .code("200")
@@ -81,4 +90,44 @@ public class AdminDashboardRest {
                 .build();
     }
 
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getCacheStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(donationDailyStatsService.getCacheStats())
+                .build();
+    }
+
+    @GetMapping("/conditional-get-stats")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getConditionalGetStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(conditionalGetService.getStats())
+                .build();
+    }
+
+    @GetMapping("/snapshot-cache-stats")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> getSnapshotCacheStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(snapshotCacheService.getStats())
+                .build();
+    }
+
+    @PostMapping("/daily-stats/rebuild")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> rebuildDailyStats(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(donationDailyStatsService.rebuild())
+                .build();
+    }
+
 }
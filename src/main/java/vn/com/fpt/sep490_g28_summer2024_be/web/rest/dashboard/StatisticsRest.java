@@ -3,10 +3,13 @@ package vn.com.fpt.sep490_g28_summer2024_be.web.rest.dashboard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard.DashboardResultDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.service.dashboard.DashboardService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsService;
 
 import java.math.BigInteger;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -15,6 +18,7 @@ import java.util.Map;
 public class StatisticsRest {
 
     private final StatisticsService statisticsService;
+    private final DashboardService dashboardService;
 
     @GetMapping("/by-campaign-id/{id}")
     public ApiResponse<?> getByCampaignId(@PathVariable("id") BigInteger campaignId,
@@ -41,17 +45,14 @@ public class StatisticsRest {
 
         year = year == null ? LocalDateTime.now().getYear() : year;
 
-        var dataDonation = statisticsService.getDonationStaticDataByCampaign(null, year);
-        var dataProject = statisticsService.getProjectStaticDataByCampaign(null, year);
+        DashboardResultDTO result = dashboardService.getCommon(year);
+        Map<String, Object> res = new HashMap<>(result.getValues());
+        res.put("metrics", result.getMetrics());
+        res.put("elapsed_ms", result.getElapsedMs());
         return ApiResponse.builder()
                 .code("200")
                 .message("Successfully")
-                .data(Map.of("tong-so-quyen-gop", dataDonation.getTotalDonation(),
-                        "tong-so-luot-quyen-gop", dataDonation.getTotalNumberDonations(),
-                        "tong-so-du-an", dataProject.getTotalProjects(),
-                        "tong-so-du-an-can-quyen-gop", dataProject.getTotalOnGoingProjects(),
-                        "tong-so-du-an-dang-thi-cong", dataProject.getTotalProcessingProjects(),
-                        "tong-so-du-an-da-hoan-thanh", dataProject.getTotalDoneProjects()))
+                .data(res)
                 .build();
     }
 
@@ -16,11 +16,15 @@ public class DonationRest {
     @GetMapping
     public ApiResponse<?> viewAllDonation(@RequestParam(defaultValue = "0", required = false) Integer page,
                                           @RequestParam(defaultValue = "10", required = false) Integer size,
-                                          @RequestParam(required = false) String description){
+                                          @RequestParam(required = false) String description,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal){
         return ApiResponse.builder()
                 .code("200")
                 .message("Successfully!")
-                .data(donationService.viewAllDonations(page, size, description))
+                .data(cursor != null
+                        ? donationService.viewAllDonations(cursor, size, description, withTotal)
+                        : donationService.viewAllDonations(page, size, description))
                 .build();
     }
 
@@ -0,0 +1,34 @@
+package vn.com.fpt.sep490_g28_summer2024_be.web.rest.ledger;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.ProjectLedgerService;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/ledger")
+public class AdminLedgerRest {
+    private final ProjectLedgerService projectLedgerService;
+
+    @GetMapping("/verify")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> verify(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(projectLedgerService.verify())
+                .build();
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+    public ApiResponse<?> rebuild(){
+        return ApiResponse.builder()
+                .code("200")
+                .message("success")
+                .data(projectLedgerService.rebuild())
+                .build();
+    }
+}
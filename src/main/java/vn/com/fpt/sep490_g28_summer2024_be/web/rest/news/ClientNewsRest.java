@@ -3,7 +3,10 @@ package vn.com.fpt.sep490_g28_summer2024_be.web.rest.news;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.ConditionalGetService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.news.NewsService;
 import java.math.BigInteger;
 
@@ -13,8 +16,11 @@ import java.math.BigInteger;
 public class ClientNewsRest {
 
     public final NewsService newsService;
+    public final ConditionalGetService conditionalGetService;
+
     @GetMapping("/{id}")
-    public ApiResponse<?> viewDetail(@PathVariable("id") BigInteger id){
+    public ApiResponse<?> viewDetail(@PathVariable("id") BigInteger id, WebRequest request){
+        if (conditionalGetService.checkNotModified(request, ContentArea.NEWS)) return null;
         return ApiResponse.builder()
                 .code("200")
                 .message("CHI TIẾT TIN TỨC")
@@ -26,7 +32,9 @@ public class ClientNewsRest {
     public ApiResponse<?> view(@RequestParam(defaultValue = "0", required = false) Integer page,
                                @RequestParam(defaultValue = "10", required = false) Integer size,
                                @RequestParam(required = false) BigInteger category_id,
-                               @RequestParam(required = false) String title) {
+                               @RequestParam(required = false) String title,
+                               WebRequest request) {
+        if (conditionalGetService.checkNotModified(request, ContentArea.NEWS)) return null;
         return ApiResponse.builder()
                 .code("200")
                 .message("Danh sách tin tức")
@@ -91,11 +91,15 @@ public class ProfilePageRest {
     @GetMapping("/{code}/refer-donations")
     public ApiResponse<?> getAllDonationsByReferCode(@PathVariable("code") String referCode,
                                                      @RequestParam(defaultValue = "0") Integer page,
-                                                     @RequestParam(defaultValue = "10") Integer size) {
+                                                     @RequestParam(defaultValue = "10") Integer size,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal) {
         return ApiResponse.builder()
                 .code("200")
                 .message("Successfully!")
-                .data(donationService.viewDonationsByReferCode(page, size, referCode))
+                .data(cursor != null
+                        ? donationService.viewDonationsByReferCode(cursor, size, referCode, withTotal)
+                        : donationService.viewDonationsByReferCode(page, size, referCode))
                 .build();
     }
 
@@ -1,18 +1,27 @@
 package vn.com.fpt.sep490_g28_summer2024_be.web.rest.project;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
 import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignProjectsDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.tracking.GroupedTrackingImageDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.service.donation.DonationService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.ProjectProgressService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.ConditionalGetService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.SnapshotCacheService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.project.ProjectService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.sponsor.SponsorService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.tracking.TrackingService;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -24,21 +33,38 @@ public class ClientProjectRest {
     private final DonationService donationService;
     private final TrackingService trackingService;
     private final SponsorService sponsorService;
+    private final ProjectProgressService projectProgressService;
+    private final ConditionalGetService conditionalGetService;
+    private final SnapshotCacheService snapshotCacheService;
+
     @GetMapping("/{id}/donations")
     public ApiResponse<?> viewListDonationByProjectId(@RequestParam(defaultValue = "0", required = false) Integer page,
                                                       @RequestParam(defaultValue = "10", required = false) Integer size,
                                                       @RequestParam(required = false) String description,
-                                                      @PathVariable BigInteger id) {
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal,
+                                                      @PathVariable BigInteger id,
+                                                      WebRequest request) {
+        if (conditionalGetService.checkNotModified(request, ContentArea.DONATIONS)) return null;
         return ApiResponse.builder()
                 .code("200")
                 .message("Danh sách donate")
-                .data(donationService.viewListDonations(page, size, id, description))
+                .data(cursor != null
+                        ? donationService.viewListDonations(cursor, size, id, description, withTotal)
+                        : donationService.viewListDonations(page, size, id, description))
                 .build();
     }
 
 
+    @GetMapping(value = "/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@RequestParam("ids") List<BigInteger> ids,
+                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return projectProgressService.subscribe(ids, lastEventId);
+    }
+
+
     @GetMapping("/cards")
-    public ApiResponse<?> viewListProjectsCard(@RequestParam(defaultValue = "0", required = false) Integer page,
+    public ResponseEntity<?> viewListProjectsCard(@RequestParam(defaultValue = "0", required = false) Integer page,
                                                @RequestParam(defaultValue = "16", required = false) Integer size,
                                                @RequestParam(required = false) String title,
                                                @RequestParam(value = "campaign_id", required = false) BigInteger campaignId,
@@ -46,17 +72,30 @@ public class ClientProjectRest {
                                                @RequestParam(required = false) Integer year,
                                                @RequestParam(required = false) String code,
                                                @RequestParam(required = false) BigDecimal minTotalBudget,
-                                               @RequestParam(required = false) BigDecimal maxTotalBudget) {
-        return ApiResponse.builder()
-                .code("200")
-                .message("Danh sách dự án!")
-                .data(projectService.viewProjectCards(page, size, title, campaignId, status, year, code,minTotalBudget, maxTotalBudget))
-                .build();
+                                               @RequestParam(required = false) BigDecimal maxTotalBudget,
+                                               WebRequest request) {
+        // free-text searches rarely repeat, keep them out of the snapshots
+        if (title != null || code != null) {
+            if (conditionalGetService.checkNotModified(request, ContentArea.PROJECTS, ContentArea.DONATIONS)) return null;
+            return ResponseEntity.ok(ApiResponse.builder()
+                    .code("200")
+                    .message("Danh sách dự án!")
+                    .data(projectService.viewProjectCards(page, size, title, campaignId, status, year, code,minTotalBudget, maxTotalBudget))
+                    .build());
+        }
+        int pageSize = snapshotCacheService.clampSize(size);
+        return snapshotCacheService.serve(request, Arrays.asList(page, pageSize, campaignId, status, year, minTotalBudget, maxTotalBudget),
+                () -> ApiResponse.builder()
+                        .code("200")
+                        .message("Danh sách dự án!")
+                        .data(projectService.viewProjectCards(page, pageSize, null, campaignId, status, year, null, minTotalBudget, maxTotalBudget))
+                        .build(), ContentArea.PROJECTS, ContentArea.DONATIONS);
     }
 
 
     @GetMapping("/{id}")
-    public ApiResponse<?> viewProjectDetail(@PathVariable BigInteger id) {
+    public ApiResponse<?> viewProjectDetail(@PathVariable BigInteger id, WebRequest request) {
+        if (conditionalGetService.checkNotModified(request, ContentArea.PROJECTS, ContentArea.CAMPAIGNS, ContentArea.DONATIONS)) return null;
         return ApiResponse.builder()
                 .code("200")
                 .message("Chi tiết dự án")
@@ -89,12 +128,14 @@ public class ClientProjectRest {
     }
 
     @GetMapping("/by-status")
-    public ApiResponse<?> getProjectsByStatus() {
-        List<CampaignProjectsDTO> campaignProjects = projectService.getProjectsByStatus();
-        return ApiResponse.builder()
-                .code("200")
-                .message("OK")
-                .data(campaignProjects)
-                .build();
+    public ResponseEntity<?> getProjectsByStatus(WebRequest request) {
+        return snapshotCacheService.serve(request, List.of(), () -> {
+            List<CampaignProjectsDTO> campaignProjects = projectService.getProjectsByStatus();
+            return ApiResponse.builder()
+                    .code("200")
+                    .message("OK")
+                    .data(campaignProjects)
+                    .build();
+        }, ContentArea.PROJECTS, ContentArea.CAMPAIGNS, ContentArea.DONATIONS);
     }
 }
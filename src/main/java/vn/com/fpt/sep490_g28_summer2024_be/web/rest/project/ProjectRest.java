@@ -56,11 +56,15 @@ public class ProjectRest {
                                            @RequestParam(value = "campaign_id", required = false) BigInteger campaignId,
                                            @RequestParam(required = false) String year,
                                            @RequestParam(required = false) String province,
-                                           @RequestParam(required = false) Integer status) {
+                                           @RequestParam(required = false) Integer status,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal) {
         return ApiResponse.builder()
                 .code("200")
                 .message("Danh sách dự án!")
-                .data(projectService.viewByFilter(page, size, title, campaignId, status, province, year))
+                .data(cursor != null
+                        ? projectService.viewByFilter(cursor, size, title, campaignId, status, province, year, withTotal)
+                        : projectService.viewByFilter(page, size, title, campaignId, status, province, year))
                 .build();
     }
     @GetMapping("/is-assigned")
@@ -430,12 +434,16 @@ public class ProjectRest {
     public ApiResponse<?> viewListDonationByProjectId(@RequestParam(defaultValue = "0", required = false) Integer page,
                                                       @RequestParam(defaultValue = "10", required = false) Integer size,
                                                       @RequestParam(required = false) String description,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(value = "with_total", defaultValue = "false") boolean withTotal,
                                                       @PathVariable BigInteger id
     ) {
         return ApiResponse.builder()
                 .code("200")
                 .message("Danh sách donate")
-                .data(donationService.viewListDonationsAdmin(page,size,id,description))
+                .data(cursor != null
+                        ? donationService.viewListDonationsAdmin(cursor, size, id, description, withTotal)
+                        : donationService.viewListDonationsAdmin(page,size,id,description))
                 .build();
     }
 }
@@ -0,0 +1,43 @@
+package vn.com.fpt.sep490_g28_summer2024_be.web.rest.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SuggestType;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SuggestService;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/suggest")
+@RequiredArgsConstructor
+public class SuggestRest {
+
+    private final SuggestService suggestService;
+
+    @GetMapping("")
+    public ApiResponse<?> suggest(@RequestParam(value = "q", required = false) String query,
+                                  @RequestParam(value = "type", required = false) List<String> types,
+                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        return ApiResponse.builder()
+                .code("200")
+                .message("Successfully")
+                .data(suggestService.suggest(query, toSuggestTypes(types), limit))
+                .build();
+    }
+
+    private List<SuggestType> toSuggestTypes(List<String> types) {
+        if (types == null) return null;
+        try {
+            return types.stream()
+                    .filter(type -> !type.isBlank())
+                    .map(type -> SuggestType.valueOf(type.trim().toUpperCase(Locale.ROOT)))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new AppException(ErrorCode.HTTP_BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package vn.com.fpt.sep490_g28_summer2024_be.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import vn.com.fpt.sep490_g28_summer2024_be.Sep490G28Summer2024BeApplication;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.donation.DonationService;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.PageCursor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a deep donation page read with OFFSET against the same page read from a cursor, for the
+ * admin listing and for one project's listing. Needs the database configured in application.yml; the
+ * seeded campaign, project and donations are removed again after the run. Run the main method from the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DonationPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final String TID_PREFIX = "BENCHPAGE";
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"10", "1000", "4000"})
+    private int page;
+
+    private ConfigurableApplicationContext context;
+
+    private DonationService donationService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BigInteger campaignId;
+
+    private BigInteger projectId;
+
+    private String allCursor;
+
+    private String projectCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Sep490G28Summer2024BeApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of("spring.main.banner-mode", "off"))
+                .run();
+        donationService = context.getBean(DonationService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Campaign campaign = context.getBean(CampaignRepository.class).save(Campaign.builder()
+                .title("Chiến dịch benchmark phân trang")
+                .description("Benchmark")
+                .isActive(true)
+                .createdAt(LocalDate.now())
+                .updatedAt(LocalDate.now())
+                .build());
+        campaignId = campaign.getCampaignId();
+        Project project = context.getBean(ProjectRepository.class).save(Project.builder()
+                .title("Dự án benchmark phân trang")
+                .slug("du-an-benchmark-phan-trang")
+                .code("BENCHPAGE")
+                .status(2)
+                .totalBudget(new BigDecimal("100000000"))
+                .amountNeededToRaise(new BigDecimal("100000000"))
+                .ward("Ward")
+                .district("District")
+                .province("Province")
+                .campaign(campaign)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        projectId = project.getProjectId();
+
+        seedDonations();
+
+        // Con trỏ trỏ tới bản ghi cuối của trang ngay trước trang cần đo
+        int skipped = page * PAGE_SIZE - 1;
+        allCursor = PageCursor.encode(jdbcTemplate.queryForObject(
+                "SELECT donation_id FROM donation ORDER BY donation_id DESC LIMIT 1 OFFSET ?",
+                BigInteger.class, skipped));
+        projectCursor = jdbcTemplate.queryForObject(
+                "SELECT created_at, donation_id FROM donation WHERE project_id = ? "
+                        + "ORDER BY created_at DESC, donation_id DESC LIMIT 1 OFFSET ?",
+                (rs, rowNum) -> PageCursor.encode(rs.getTimestamp("created_at").toLocalDateTime(),
+                        BigInteger.valueOf(rs.getLong("donation_id"))),
+                projectId, skipped);
+    }
+
+    private void seedDonations() {
+        LocalDateTime start = LocalDateTime.now().minusDays(30).withNano(0);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{TID_PREFIX + i, projectId, Timestamp.valueOf(start.plusSeconds(i)),
+                    BigDecimal.valueOf(10000), "Benchmark " + i});
+            if (batch.size() == 5000) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO donation (tid, project_id, created_at, value, description) "
+                + "VALUES (?, ?, ?, ?, ?)", batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM donation WHERE project_id = ? AND tid LIKE ?", projectId, TID_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM project_donation_ledger WHERE project_id = ?", projectId);
+        jdbcTemplate.update("DELETE FROM project WHERE project_id = ?", projectId);
+        jdbcTemplate.update("DELETE FROM campaign WHERE campaign_id = ?", campaignId);
+        context.close();
+    }
+
+    @Benchmark
+    public void allDonationsOffset(Blackhole blackhole) {
+        blackhole.consume(donationService.viewAllDonations(page, PAGE_SIZE, null));
+    }
+
+    @Benchmark
+    public void allDonationsCursor(Blackhole blackhole) {
+        blackhole.consume(donationService.viewAllDonations(allCursor, PAGE_SIZE, null, false));
+    }
+
+    @Benchmark
+    public void projectDonationsOffset(Blackhole blackhole) {
+        blackhole.consume(donationService.viewListDonations(page, PAGE_SIZE, projectId, null));
+    }
+
+    @Benchmark
+    public void projectDonationsCursor(Blackhole blackhole) {
+        blackhole.consume(donationService.viewListDonations(projectCursor, PAGE_SIZE, projectId, null, false));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DonationPagingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,72 @@
+package vn.com.fpt.sep490_g28_summer2024_be.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.SlugUtils;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.SuggestTrie;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of the autocomplete tree for short and longer prefixes, with as many generated
+ * titles and codes as a large deployment would hold. Run the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestTrieBenchmark {
+
+    private static final String[] WORDS = {"Xây", "trường", "học", "cầu", "treo", "nhà", "văn", "hóa", "giếng",
+            "nước", "sạch", "Điện", "Biên", "Hà", "Giang", "Lào", "Cai", "bản", "thôn", "em"};
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private SuggestTrie<Integer> trie;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        trie = new SuggestTrie<>(10, Comparator.reverseOrder());
+        for (int id = 0; id < size; id++) {
+            StringBuilder title = new StringBuilder();
+            for (int word = 0; word < 6; word++) {
+                title.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            String normalized = SlugUtils.normalize(title.toString());
+            trie.add(String.format("da%06d", id), id);
+            trie.add(normalized.substring(0, Math.min(24, normalized.length())), id);
+        }
+    }
+
+    @Benchmark
+    public void shortPrefix(Blackhole blackhole) {
+        blackhole.consume(trie.lookup("t", 10));
+    }
+
+    @Benchmark
+    public void wordPrefix(Blackhole blackhole) {
+        blackhole.consume(trie.lookup("xay truong h", 10));
+    }
+
+    @Benchmark
+    public void codePrefix(Blackhole blackhole) {
+        blackhole.consume(trie.lookup("da0042", 10));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SuggestTrieBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,140 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ErrorCode;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoRecordDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CassoClientTest {
+
+    private static final String PAGE = """
+            {"error":0,"message":"success","data":{"page":2,"pageSize":2,"nextPage":3,"prevPage":1,
+             "totalPages":5,"totalRecords":10,"unknown":{"nested":[1,2]},"records":[
+              {"id":101,"tid":"FT001","description":"ung ho PRJ01","amount":50000,"when":"2024-07-01T10:00:00","extra":"x"},
+              {"id":102,"tid":"FT002","description":"hoan tien FT001","amount":-50000,"when":"2024-07-01T11:00:00"}
+             ]}}
+            """;
+
+    private HttpServer server;
+    private CassoClient cassoClient;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+        // cấu hình giống ObjectMapper của Spring Boot: bỏ qua trường lạ
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        cassoClient = new CassoClient(objectMapper,
+                1000, 2000, 5000, 2, 30, 2, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("CC_fetchPage_01")
+    void fetchPage_shouldStreamRecordsAndPagingFields() {
+        // Máy chủ trả về một trang hợp lệ
+        respond(200, PAGE, null);
+        List<CassoRecordDTO> records = new ArrayList<>();
+
+        CassoResponseDTO page = cassoClient.fetchPage(url(), records::add);
+
+        assertEquals(2, page.getPage());
+        assertEquals(5, page.getTotalPages());
+        assertEquals(10, page.getTotalRecords());
+        assertNull(page.getRecords());
+        assertEquals(2, records.size());
+        assertEquals("FT001", records.get(0).getTid());
+        assertEquals(-50000, records.get(1).getAmount().intValue());
+        assertEquals(11, records.get(1).getWhen().getHour());
+    }
+
+    @Test
+    @DisplayName("CC_fetchPage_02")
+    void fetchPage_shouldRetryAfterTooManyRequests() {
+        // Lần gọi đầu bị giới hạn tần suất, lần sau thành công
+        server.createContext("/transactions", exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                exchange.sendResponseHeaders(429, -1);
+                exchange.close();
+                return;
+            }
+            write(exchange, 200, PAGE);
+        });
+        List<CassoRecordDTO> records = new ArrayList<>();
+
+        cassoClient.fetchPage(url(), records::add);
+
+        assertEquals(2, calls.get());
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    @DisplayName("CC_fetchPage_03")
+    void fetchPage_shouldFail_whenStillRateLimitedAfterRetries() {
+        respond(429, "", "0");
+
+        AppException exception = assertThrows(AppException.class, () -> cassoClient.fetchPage(url(), record -> { }));
+
+        assertEquals(ErrorCode.HTTP_FETCH_FAILED, exception.getErrorCode());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    @DisplayName("CC_fetchPage_04")
+    void fetchPage_shouldFailMapping_whenBodyIsNotJson() {
+        respond(200, "<html>bad gateway</html>", null);
+
+        AppException exception = assertThrows(AppException.class, () -> cassoClient.fetchPage(url(), record -> { }));
+
+        assertEquals(ErrorCode.HTTP_MAPPING_FAILED, exception.getErrorCode());
+    }
+
+    private void respond(int status, String body, String retryAfter) {
+        server.createContext("/transactions", exchange -> {
+            calls.incrementAndGet();
+            if (retryAfter != null) exchange.getResponseHeaders().add("Retry-After", retryAfter);
+            write(exchange, status, body);
+        });
+    }
+
+    private static void write(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/transactions";
+    }
+}
@@ -0,0 +1,166 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import vn.com.fpt.sep490_g28_summer2024_be.common.InboxStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.InboxAckDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.InboxStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.CassoInbox;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CassoInboxRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoInboxService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.DefaultCassoInboxService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.DonationLaneDispatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Không dùng @Transactional: các làn xử lý chạy trên luồng riêng nên dữ liệu phải được commit
+@SpringBootTest
+public class CassoInboxServiceTest {
+
+    @Autowired
+    private CassoInboxService cassoInboxService;
+
+    @Autowired
+    private CassoInboxRepository cassoInboxRepository;
+
+    @AfterEach
+    void tearDown() {
+        cassoInboxRepository.deleteAll(cassoInboxRepository.findAll().stream()
+                .filter(entry -> entry.getCassoId() != null && entry.getCassoId() >= 920000L && entry.getCassoId() < 921000L)
+                .toList());
+    }
+
+    private TransactionDataDTO refund(Long id) {
+        // hoàn tiền không có chuyển khoản gốc: được xử lý mà không ghi dữ liệu quyên góp
+        return TransactionDataDTO.builder()
+                .id(id)
+                .tid("INBOX-TID-" + id)
+                .description("hoan tien INBOX-KHONG-CO-" + id)
+                .amount(BigDecimal.valueOf(-1000))
+                .when(LocalDateTime.of(2024, 7, 5, 10, 0))
+                .build();
+    }
+
+    private CassoInbox awaitSettled(Long cassoId) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            CassoInbox entry = cassoInboxRepository.findAll().stream()
+                    .filter(candidate -> cassoId.equals(candidate.getCassoId()))
+                    .findFirst()
+                    .orElseThrow();
+            if (entry.getStatus() == InboxStatus.DONE || entry.getStatus() == InboxStatus.DEAD) return entry;
+            cassoInboxService.drain();
+            Thread.sleep(100);
+        }
+        fail("inbox entry " + cassoId + " was not processed");
+        return null;
+    }
+
+    @Test
+    @DisplayName("CI_enqueue_01")
+    void enqueue_shouldIgnoreTransaction_whenCassoIdAlreadyInInbox() {
+        // Thực thi: Casso gửi lại cùng một giao dịch
+        InboxAckDTO first = cassoInboxService.enqueue(List.of(refund(920001L), refund(920002L)));
+        InboxAckDTO second = cassoInboxService.enqueue(List.of(refund(920002L)));
+
+        // Kiểm tra kết quả
+        assertEquals(2, first.getAccepted());
+        assertEquals(0, first.getDuplicate());
+        assertEquals(0, second.getAccepted());
+        assertEquals(1, second.getDuplicate());
+    }
+
+    @Test
+    @DisplayName("CI_drain_01")
+    void drain_shouldMarkEntryDone_whenTransactionIsHandled() throws InterruptedException {
+        cassoInboxService.enqueue(List.of(refund(920011L)));
+
+        // Thực thi
+        cassoInboxService.drain();
+
+        // Kiểm tra kết quả
+        CassoInbox entry = awaitSettled(920011L);
+        assertEquals(InboxStatus.DONE, entry.getStatus());
+        assertEquals("SKIPPED", entry.getOutcome());
+        assertNotNull(entry.getProcessedAt());
+    }
+
+    @Test
+    @DisplayName("CI_drain_02")
+    void drain_shouldDeadLetterEntry_whenPayloadCannotBeRead() throws InterruptedException {
+        cassoInboxRepository.save(CassoInbox.builder()
+                .cassoId(920021L)
+                .payload("{not json")
+                .status(InboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .receivedAt(LocalDateTime.now())
+                .build());
+
+        // Thực thi
+        cassoInboxService.drain();
+
+        // Kiểm tra kết quả: chuyển sang dead letter, có thể đưa lại vào hàng đợi
+        CassoInbox entry = awaitSettled(920021L);
+        assertEquals(InboxStatus.DEAD, entry.getStatus());
+        assertNotNull(entry.getLastError());
+        InboxStatsDTO stats = cassoInboxService.getStats();
+        assertTrue(stats.getDead() >= 1);
+        assertTrue(cassoInboxService.requeueDead() >= 1);
+    }
+
+    @Test
+    @DisplayName("CI_drain_03")
+    void drain_shouldWait_untilStartupRecoveryRan() {
+        CassoInboxRepository repository = mock(CassoInboxRepository.class);
+        DefaultCassoInboxService service = new DefaultCassoInboxService(repository, mock(DonationLaneDispatcher.class), mock(CassoService.class),
+                new ObjectMapper(), mock(PlatformTransactionManager.class), Runnable::run, "test", 2, 100, 6, 5, 600, 300);
+
+        // Lịch chạy bắt đầu trước khi bộ định tuyến được nạp: chưa được lấy giao dịch nào
+        assertEquals(0, service.drain());
+        verifyNoInteractions(repository);
+
+        service.recover();
+        service.drain();
+        // mỗi worker trong pool lấy một lô riêng
+        verify(repository, times(2)).findDue(eq(InboxStatus.PENDING), any(), any());
+    }
+
+    @Test
+    @DisplayName("CI_releaseExpiredClaims_01")
+    void releaseExpiredClaims_shouldRequeueOnlyExpiredLeases_whenOtherInstanceStillWorks() {
+        // Tạo dữ liệu test: một phiên bản đã dừng từ lâu, một phiên bản khác vẫn đang xử lý
+        CassoInbox abandoned = cassoInboxRepository.save(CassoInbox.builder()
+                .cassoId(920031L).payload("{}").status(InboxStatus.PROCESSING).attempts(0)
+                .nextAttemptAt(LocalDateTime.now().minusHours(1))
+                .claimedBy("instance-da-dung").claimedAt(LocalDateTime.now().minusHours(1))
+                .receivedAt(LocalDateTime.now().minusHours(1))
+                .build());
+        CassoInbox live = cassoInboxRepository.save(CassoInbox.builder()
+                .cassoId(920032L).payload("{}").status(InboxStatus.PROCESSING).attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .claimedBy("instance-dang-chay").claimedAt(LocalDateTime.now())
+                .receivedAt(LocalDateTime.now())
+                .build());
+
+        // Thực thi
+        assertTrue(cassoInboxService.releaseExpiredClaims() >= 1);
+
+        // Kiểm tra kết quả: chỉ mục hết hạn thuê quay lại hàng đợi
+        assertEquals(InboxStatus.PENDING, cassoInboxRepository.findById(abandoned.getInboxId()).orElseThrow().getStatus());
+        assertEquals(InboxStatus.PROCESSING, cassoInboxRepository.findById(live.getInboxId()).orElseThrow().getStatus());
+    }
+}
@@ -2,6 +2,7 @@ package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
 import okhttp3.OkHttpClient;
 import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,28 +12,43 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 import vn.com.fpt.sep490_g28_summer2024_be.common.AppConfig;
+import vn.com.fpt.sep490_g28_summer2024_be.common.IngestStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.ApiCassoResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoRecordDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.CassoResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SyncCursorDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionResultDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.donation.DonationResponseDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.CassoSyncCursor;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ChallengeProject;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Role;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.WrongDonation;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CassoSyncCursorRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeProjectRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.RoleRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.WrongDonationRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.service.casso.DefaultCassoService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsService;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -61,6 +77,9 @@ public class CassoServiceTest {
     @Autowired
     private ChallengeRepository challengeRepository;
 
+    @Autowired
+    private ChallengeProjectRepository challengeProjectRepository;
+
     @Autowired
     private OkHttpClient okHttpClient;
 
@@ -74,6 +93,12 @@ public class CassoServiceTest {
     @Autowired
     private DefaultCassoService defaultCassoService;
 
+    @Autowired
+    private CassoSyncCursorRepository cassoSyncCursorRepository;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
     // Khai báo các đối tượng dữ liệu test
     private Project project;
     private Challenge challenge;
@@ -226,6 +251,58 @@ public class CassoServiceTest {
         assertNotNull(savedDonation);
     }
 
+    @Test
+    @DisplayName("CS_handleInPayment_05")
+    void handleInPayment_shouldKeepStoredDonation_whenTransactionArrivesTwice() {
+        saveTestData();
+
+        // Chuẩn bị dữ liệu test: cùng một giao dịch được gửi hai lần
+        transactionDataDTO.setId(800031L);
+        transactionDataDTO.setTid("BATCH-TID-31");
+        transactionDataDTO.setDescription("ung ho " + project.getCode());
+
+        // Thực thi phương thức test
+        DonationResponseDTO first = defaultCassoService.handleInPayment(transactionDataDTO);
+        DonationResponseDTO second = defaultCassoService.handleInPayment(transactionDataDTO);
+
+        // Kiểm tra kết quả: chỉ có một bản ghi và lần gửi thứ hai trả về bản ghi đã lưu
+        assertNotNull(first.getDonationId());
+        assertEquals(first.getDonationId(), second.getDonationId());
+        assertEquals(List.of("800031"), donationRepository.findExistingIds(List.of("800031")));
+    }
+
+    @Test
+    @DisplayName("CS_handleInPayment_06")
+    void handleInPayment_shouldRouteToChallengeMember_whenDescriptionNamesSeveralProjects() {
+        challenge.setFinishedAt(LocalDate.now().plusDays(7));
+        saveTestData();
+        // Chuẩn bị dữ liệu test: chỉ dự án thứ hai thuộc thử thách
+        Project member = projectRepository.save(Project.builder()
+                .title("Challenge Member Project")
+                .code("PRJ002")
+                .status(2)
+                .ward("wardtest")
+                .district("districttest")
+                .province("provincetest")
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
+                .amountNeededToRaise(BigDecimal.valueOf(500000))
+                .campaign(campaign)
+                .build());
+        challengeProjectRepository.save(ChallengeProject.builder().challenge(challenge).project(member).build());
+        transactionDataDTO.setId(800061L);
+        transactionDataDTO.setDescription(AppConfig.CHALLENGE_PREFIX + " " + challenge.getChallengeCode()
+                + " " + project.getCode() + " " + member.getCode());
+
+        // Thực thi phương thức test
+        DonationResponseDTO result = defaultCassoService.handleInPayment(transactionDataDTO);
+
+        // Kiểm tra kết quả: khoản ủng hộ thuộc thử thách và vào đúng dự án của thử thách
+        Donation savedDonation = donationRepository.findById(result.getDonationId()).orElseThrow();
+        assertEquals(challenge.getChallengeId(), savedDonation.getChallenge().getChallengeId());
+        assertEquals(member.getProjectId(), savedDonation.getProject().getProjectId());
+        assertNull(savedDonation.getTransferredProject());
+    }
+
     @Test
     @DisplayName("CS_handleOutPayment_01")
     void handleOutPayment_shouldReturnDonationWithoutRefer_whenReferNotExist() {
@@ -398,4 +475,245 @@ public class CassoServiceTest {
         assertNotNull(savedWrongDonation);
         assertEquals(savedDonation.getDonationId(), savedWrongDonation.getDonation().getDonationId());
     }
+
+    @Test
+    @DisplayName("CS_handleTransactions_01")
+    void handleTransactions_shouldCreateEveryDonation_whenBatchContainsSeveralRecords() {
+        saveTestData();
+
+        // Chuẩn bị dữ liệu test: 3 giao dịch trong cùng một lô
+        List<TransactionDataDTO> batch = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            batch.add(TransactionDataDTO.builder()
+                    .id(800000L + i)
+                    .tid("BATCH-TID-" + i)
+                    .description("ung ho " + project.getCode())
+                    .amount(BigDecimal.valueOf(10000 * i))
+                    .when(LocalDateTime.of(2024, 7, 1, 10, 0))
+                    .build());
+        }
+
+        // Thực thi phương thức test
+        List<TransactionResultDTO> results = defaultCassoService.handleTransactions(batch);
+
+        // Kiểm tra kết quả
+        assertEquals(3, results.size());
+        for (TransactionResultDTO result : results) {
+            assertEquals(IngestStatus.CREATED, result.getStatus());
+            assertNotNull(result.getDonation().getDonationId());
+            Donation savedDonation = donationRepository.findById(result.getDonation().getDonationId()).orElse(null);
+            assertNotNull(savedDonation);
+            assertEquals(project.getProjectId(), savedDonation.getProject().getProjectId());
+            assertEquals(LocalDateTime.of(2024, 7, 1, 10, 0), savedDonation.getCreatedAt());
+        }
+    }
+
+    @Test
+    @DisplayName("CS_handleTransactions_02")
+    void handleTransactions_shouldMarkDuplicate_whenRecordAlreadyExistsOrRepeated() {
+        saveTestData();
+        existingDonation.setId("800010");
+        donationRepository.save(existingDonation);
+
+        // Chuẩn bị dữ liệu test: một giao dịch đã tồn tại và một giao dịch lặp lại trong lô
+        TransactionDataDTO existing = TransactionDataDTO.builder()
+                .id(800010L).tid("BATCH-TID-10").description("ung ho").amount(BigDecimal.valueOf(10000))
+                .when(LocalDateTime.now()).build();
+        TransactionDataDTO fresh = TransactionDataDTO.builder()
+                .id(800011L).tid("BATCH-TID-11").description("ung ho").amount(BigDecimal.valueOf(10000))
+                .when(LocalDateTime.now()).build();
+
+        // Thực thi phương thức test
+        List<TransactionResultDTO> results = defaultCassoService.handleTransactions(List.of(existing, fresh, fresh));
+
+        // Kiểm tra kết quả
+        assertEquals(IngestStatus.DUPLICATE, results.get(0).getStatus());
+        assertEquals(IngestStatus.CREATED, results.get(1).getStatus());
+        assertEquals(IngestStatus.DUPLICATE, results.get(2).getStatus());
+    }
+
+    @Test
+    @DisplayName("CS_handleTransactions_03")
+    void handleTransactions_shouldRouteRefund_whenOriginalTransferIsInSameBatch() {
+        saveTestData();
+
+        // Chuẩn bị dữ liệu test: chuyển khoản và hoàn tiền trong cùng một lô
+        TransactionDataDTO in = TransactionDataDTO.builder()
+                .id(800021L).tid("BATCH-TID-21").description("ung ho " + project.getCode())
+                .amount(BigDecimal.valueOf(50000)).when(LocalDateTime.now()).build();
+        TransactionDataDTO out = TransactionDataDTO.builder()
+                .id(800022L).tid("BATCH-TID-22").description("hoan tien BATCH-TID-21")
+                .amount(BigDecimal.valueOf(-50000)).when(LocalDateTime.now()).build();
+        TransactionDataDTO orphan = TransactionDataDTO.builder()
+                .id(800023L).tid("BATCH-TID-23").description("hoan tien KHONG-CO")
+                .amount(BigDecimal.valueOf(-1000)).when(LocalDateTime.now()).build();
+
+        // Thực thi phương thức test
+        List<TransactionResultDTO> results = defaultCassoService.handleTransactions(List.of(in, out, orphan));
+
+        // Kiểm tra kết quả
+        assertEquals(IngestStatus.CREATED, results.get(0).getStatus());
+        assertEquals(IngestStatus.CREATED, results.get(1).getStatus());
+        assertEquals(project.getProjectId(), results.get(1).getDonation().getProject().getProjectId());
+        assertEquals(IngestStatus.SKIPPED, results.get(2).getStatus());
+    }
+
+    @Test
+    @DisplayName("CS_handleTransactions_04")
+    void handleTransactions_shouldUpdateDailyStats_whenDonationsAreCreated() {
+        saveTestData();
+        BigDecimal totalBefore = statisticsService.getTotalDonation(3, 2031);
+        Long countBefore = statisticsService.getTotalCountDonations(3, 2031);
+
+        // Chuẩn bị dữ liệu test: hai giao dịch trong tháng 3/2031
+        TransactionDataDTO first = TransactionDataDTO.builder()
+                .id(800041L).tid("BATCH-TID-41").description("ung ho " + project.getCode())
+                .amount(BigDecimal.valueOf(20000)).when(LocalDateTime.of(2031, 3, 5, 9, 0)).build();
+        TransactionDataDTO second = TransactionDataDTO.builder()
+                .id(800042L).tid("BATCH-TID-42").description("ung ho")
+                .amount(BigDecimal.valueOf(30000)).when(LocalDateTime.of(2031, 3, 20, 9, 0)).build();
+
+        // Thực thi phương thức test
+        defaultCassoService.handleTransactions(List.of(first, second, first));
+
+        // Kiểm tra kết quả: thống kê được cập nhật ngay, giao dịch lặp lại không bị tính hai lần
+        assertEquals(0, totalBefore.add(BigDecimal.valueOf(50000)).compareTo(statisticsService.getTotalDonation(3, 2031)));
+        assertEquals(countBefore + 2, statisticsService.getTotalCountDonations(3, 2031));
+    }
+
+    @Test
+    @DisplayName("CS_handleTransactions_05")
+    void handleTransactions_shouldRejectBatch_whenFieldWouldBeTruncated() {
+        saveTestData();
+
+        // Chuẩn bị dữ liệu test: tên người chuyển vượt @Length, nội dung vượt độ dài cột
+        TransactionDataDTO longName = TransactionDataDTO.builder()
+                .id(800041L).tid("BATCH-TID-41").description("ung ho").corresponsiveName("N".repeat(150))
+                .amount(BigDecimal.valueOf(10000)).when(LocalDateTime.now()).build();
+        TransactionDataDTO longDescription = TransactionDataDTO.builder()
+                .id(800042L).tid("BATCH-TID-42").description("ung ho " + "x".repeat(300))
+                .amount(BigDecimal.valueOf(10000)).when(LocalDateTime.now()).build();
+
+        // Thực thi và kiểm tra: không ghi dữ liệu bị cắt, lỗi được báo ra thay vì chỉ là cảnh báo
+        assertThrows(ConstraintViolationException.class, () -> defaultCassoService.handleTransactions(List.of(longName)));
+        assertThrows(DataIntegrityViolationException.class, () -> defaultCassoService.handleTransactions(List.of(longDescription)));
+    }
+
+    @Test
+    @DisplayName("CS_handleApiCasso_01")
+    void handleApiCasso_shouldIngestPageAndSkipExisting_whenPageContainsKnownRecord() {
+        saveTestData();
+        existingDonation.setId("800030");
+        donationRepository.save(existingDonation);
+
+        // Chuẩn bị dữ liệu test: một trang API Casso gồm một giao dịch đã có và hai giao dịch mới
+        List<CassoRecordDTO> records = new ArrayList<>();
+        for (long i = 0; i < 3; i++) {
+            records.add(CassoRecordDTO.builder()
+                    .id(800030L + i)
+                    .tid("PAGE-TID-" + i)
+                    .description("ung ho " + project.getCode())
+                    .amount(BigDecimal.valueOf(20000))
+                    .when(LocalDateTime.of(2024, 7, 2, 9, 0))
+                    .build());
+        }
+        ApiCassoResponseDTO page = ApiCassoResponseDTO.builder()
+                .data(CassoResponseDTO.builder().page(1).totalPages(1).records(records).build())
+                .build();
+
+        // Thực thi phương thức test
+        List<TransactionResultDTO> results = defaultCassoService.handleApiCasso(page);
+
+        // Kiểm tra kết quả
+        assertEquals(3, results.size());
+        assertEquals(IngestStatus.DUPLICATE, results.get(0).getStatus());
+        assertEquals(IngestStatus.CREATED, results.get(1).getStatus());
+        assertEquals(IngestStatus.CREATED, results.get(2).getStatus());
+        assertTrue(donationRepository.existsDonationById("800032"));
+    }
+
+    @Test
+    @DisplayName("CS_getSyncCursor_01")
+    void getSyncCursor_shouldReturnPersistedCursor_whenCursorExists() {
+        // Chuẩn bị dữ liệu test: con trỏ đồng bộ đã lưu
+        cassoSyncCursorRepository.save(CassoSyncCursor.builder()
+                .cursorName("casso")
+                .lastTransactionId(900001L)
+                .lastTransactionAt(LocalDateTime.of(2024, 7, 3, 8, 30))
+                .fromDate(LocalDate.of(2024, 7, 3))
+                .lastPage(4)
+                .pageSize(100)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        // Thực thi phương thức test
+        SyncCursorDTO result = defaultCassoService.getSyncCursor();
+
+        // Kiểm tra kết quả
+        assertEquals(900001L, result.getLastTransactionId());
+        assertEquals(LocalDateTime.of(2024, 7, 3, 8, 30), result.getLastTransactionAt());
+        assertEquals(LocalDate.of(2024, 7, 3), result.getFromDate());
+        assertEquals(4, result.getLastPage());
+    }
+
+    @Test
+    @DisplayName("CS_checkpointSyncCursor_01")
+    void checkpointSyncCursor_shouldMoveListingDayForwardOnly() {
+        cassoSyncCursorRepository.saveAndFlush(CassoSyncCursor.builder()
+                .cursorName("casso")
+                .lastTransactionId(900001L)
+                .lastTransactionAt(LocalDateTime.of(2024, 7, 3, 8, 30))
+                .fromDate(LocalDate.of(2024, 7, 3))
+                .lastPage(4)
+                .pageSize(100)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        // Thực thi: webhook đã nhận giao dịch của ngày sau
+        defaultCassoService.checkpointSyncCursor(LocalDateTime.of(2024, 7, 20, 9, 0));
+        entityManager.clear();
+
+        SyncCursorDTO moved = defaultCassoService.getSyncCursor();
+        assertEquals(LocalDate.of(2024, 7, 20), moved.getFromDate());
+        assertEquals(1, moved.getLastPage());
+        // Vị trí lọc của lần đồng bộ giữ nguyên
+        assertEquals(900001L, moved.getLastTransactionId());
+
+        // Mốc cũ hơn không kéo con trỏ lùi lại
+        defaultCassoService.checkpointSyncCursor(LocalDateTime.of(2024, 7, 10, 9, 0));
+        entityManager.clear();
+        assertEquals(LocalDate.of(2024, 7, 20), defaultCassoService.getSyncCursor().getFromDate());
+    }
+
+    @Test
+    @DisplayName("CS_checkpointSyncCursor_02")
+    void checkpointSyncCursor_shouldSurvivePageWrittenFromOlderCursor() {
+        cassoSyncCursorRepository.saveAndFlush(CassoSyncCursor.builder()
+                .cursorName("casso")
+                .lastTransactionId(900001L)
+                .lastTransactionAt(LocalDateTime.of(2024, 7, 3, 8, 30))
+                .fromDate(LocalDate.of(2024, 7, 3))
+                .lastPage(4)
+                .pageSize(100)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        // Webhook chuyển ngày trong khi lần đồng bộ vẫn giữ bản con trỏ cũ (ngày 3, trang 4)
+        defaultCassoService.checkpointSyncCursor(LocalDateTime.of(2024, 7, 20, 9, 0));
+        cassoSyncCursorRepository.savePage("casso", 900002L, LocalDateTime.of(2024, 7, 3, 9, 0),
+                LocalDate.of(2024, 7, 3), 5, 100, LocalDateTime.now());
+        entityManager.clear();
+
+        // Ngày và trang bắt đầu lại của checkpoint được giữ, vị trí giao dịch vẫn được ghi
+        SyncCursorDTO cursor = defaultCassoService.getSyncCursor();
+        assertEquals(LocalDate.of(2024, 7, 20), cursor.getFromDate());
+        assertEquals(1, cursor.getLastPage());
+        assertEquals(900002L, cursor.getLastTransactionId());
+
+        // Cùng ngày thì trang mới được ghi bình thường
+        cassoSyncCursorRepository.savePage("casso", 900003L, LocalDateTime.of(2024, 7, 20, 9, 30),
+                LocalDate.of(2024, 7, 20), 2, 100, LocalDateTime.now());
+        entityManager.clear();
+        assertEquals(2, defaultCassoService.getSyncCursor().getLastPage());
+    }
 }
@@ -25,6 +25,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.firebase.FirebaseServiceImpl;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.*;
 import vn.com.fpt.sep490_g28_summer2024_be.service.challenge.ChallengeService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.challenge.ChallengerServiceImpl;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.SearchIndexService;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.CodeUtils;
 import vn.com.fpt.sep490_g28_summer2024_be.utils.SlugUtils;
 
@@ -88,6 +89,9 @@ public class ChallengeServiceTest {
     @Autowired
     private SlugUtils slugUtils;
 
+    @Autowired
+    private SearchIndexService searchIndexService;
+
     private Account account;
     private Role adminRole;
     private Role userRole;
@@ -1476,7 +1480,8 @@ public class ChallengeServiceTest {
                 codeUtils,
                 slugUtils,
                 challengeProjectRepository,
-                donationRepository
+                donationRepository,
+                searchIndexService
         );
 
         // Act
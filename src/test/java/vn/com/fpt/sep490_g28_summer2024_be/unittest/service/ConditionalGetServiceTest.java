@@ -0,0 +1,258 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.authentication.UserResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.ConditionalGetStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Role;
+import vn.com.fpt.sep490_g28_summer2024_be.firebase.FirebaseServiceImpl;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.RoleRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.sercurity.CustomAccountDetails;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.ConditionalGetService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.project.ProjectService;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+@MockBean(FirebaseServiceImpl.class)
+public class ConditionalGetServiceTest {
+
+    @Autowired
+    private ConditionalGetService conditionalGetService;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectDonationLedgerRepository projectDonationLedgerRepository;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest get(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private Campaign saveCampaign(String title) {
+        return campaignRepository.saveAndFlush(Campaign.builder()
+                .title(title)
+                .description("Mô tả")
+                .isActive(true)
+                .createdAt(LocalDate.now())
+                .updatedAt(LocalDate.now())
+                .build());
+    }
+
+    private Project saveProject(Campaign campaign, String code) {
+        return saveProject(campaign, code, LocalDateTime.now());
+    }
+
+    private Project saveProject(Campaign campaign, String code, LocalDateTime updatedAt) {
+        return projectRepository.saveAndFlush(Project.builder()
+                .title("Dự án " + code)
+                .slug("du-an-" + code.toLowerCase())
+                .code(code)
+                .status(2)
+                .totalBudget(new BigDecimal("100000"))
+                .amountNeededToRaise(new BigDecimal("50000"))
+                .ward("Ward")
+                .district("District")
+                .province("Province")
+                .campaign(campaign)
+                .createdAt(updatedAt)
+                .updatedAt(updatedAt)
+                .build());
+    }
+
+    private void loginAsAdmin() {
+        Role role = roleRepository.save(Role.builder().roleName("Admin").roleDescription("Administrator").build());
+        Account admin = accountRepository.save(Account.builder()
+                .email("etag-admin@test.com")
+                .password("Test@123")
+                .fullname("Quản trị ETag")
+                .role(role)
+                .isActive(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        CustomAccountDetails details = new CustomAccountDetails(UserResponse.builder()
+                .email(admin.getEmail())
+                .fullname(admin.getFullname())
+                .isActive(true)
+                .scope(role.getRoleName())
+                .build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+    }
+
+    @Test
+    @DisplayName("CG_checkNotModified_01")
+    void checkNotModified_shouldReturnTrue_whenEtagMatchesAndNothingChanged() {
+        Campaign campaign = saveCampaign("Chiến dịch ETag");
+        saveProject(campaign, "ETG001");
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertFalse(conditionalGetService.checkNotModified(new ServletWebRequest(get("/api/projects/cards"), first),
+                ContentArea.PROJECTS, ContentArea.DONATIONS));
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/"));
+        assertEquals("no-cache", first.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletRequest again = get("/api/projects/cards");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertTrue(conditionalGetService.checkNotModified(new ServletWebRequest(again, second),
+                ContentArea.PROJECTS, ContentArea.DONATIONS));
+        assertEquals(304, second.getStatus());
+
+        // Thêm dự án mới thì bản cũ của client không còn dùng được
+        saveProject(campaign, "ETG002");
+        MockHttpServletRequest changed = get("/api/projects/cards");
+        changed.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        assertFalse(conditionalGetService.checkNotModified(new ServletWebRequest(changed, third),
+                ContentArea.PROJECTS, ContentArea.DONATIONS));
+        assertNotEquals(etag, third.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("CG_checkNotModified_02")
+    void checkNotModified_shouldReturnFalse_whenDonationTotalsChange() {
+        Project project = saveProject(saveCampaign("Chiến dịch quyên góp"), "ETG003");
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        conditionalGetService.checkNotModified(new ServletWebRequest(get("/api/projects/{id}"), first),
+                ContentArea.PROJECTS, ContentArea.DONATIONS);
+
+        projectDonationLedgerRepository.applyDelta(project.getProjectId(), new BigDecimal("200000"), 1L, LocalDateTime.now());
+
+        MockHttpServletRequest again = get("/api/projects/{id}");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        assertFalse(conditionalGetService.checkNotModified(new ServletWebRequest(again, new MockHttpServletResponse()),
+                ContentArea.PROJECTS, ContentArea.DONATIONS));
+    }
+
+    @Test
+    @DisplayName("CG_checkNotModified_03")
+    void checkNotModified_shouldSeeCampaignEdit_whenMadeOnTheSameDay() {
+        Campaign campaign = saveCampaign("Chiến dịch cũ");
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        conditionalGetService.checkNotModified(new ServletWebRequest(get("/api/campaigns/id-title"), first),
+                ContentArea.CAMPAIGNS);
+        // updated_at của chiến dịch chỉ lưu ngày nên không gửi Last-Modified
+        assertNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+
+        campaign.setTitle("Chiến dịch mới");
+        campaignRepository.saveAndFlush(campaign);
+
+        MockHttpServletRequest again = get("/api/campaigns/id-title");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        assertFalse(conditionalGetService.checkNotModified(new ServletWebRequest(again, new MockHttpServletResponse()),
+                ContentArea.CAMPAIGNS));
+    }
+
+    @Test
+    @DisplayName("CG_checkNotModified_04")
+    void checkNotModified_shouldReturnTrue_whenNotModifiedSinceLastModified() {
+        saveProject(saveCampaign("Chiến dịch Last-Modified"), "ETG004");
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        conditionalGetService.checkNotModified(new ServletWebRequest(get("/api/projects/{id}"), first),
+                ContentArea.PROJECTS);
+        String lastModified = first.getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(lastModified);
+
+        MockHttpServletRequest again = get("/api/projects/{id}");
+        again.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        assertTrue(conditionalGetService.checkNotModified(new ServletWebRequest(again, second), ContentArea.PROJECTS));
+        assertEquals(304, second.getStatus());
+    }
+
+    @Test
+    @DisplayName("CG_checkNotModified_05")
+    void checkNotModified_shouldReturnFalse_whenProjectStatusChanges() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        Project project = saveProject(saveCampaign("Chiến dịch trạng thái"), "ETG005", yesterday);
+        loginAsAdmin();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        conditionalGetService.checkNotModified(new ServletWebRequest(get("/api/projects/{id}"), first),
+                ContentArea.PROJECTS);
+
+        // Đổi trạng thái không sửa trực tiếp updated_at nhưng client vẫn phải nhận 200
+        projectService.updateProjectStatus(project.getProjectId(), 3);
+        projectRepository.flush();
+
+        MockHttpServletRequest again = get("/api/projects/{id}");
+        again.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertFalse(conditionalGetService.checkNotModified(new ServletWebRequest(again, second), ContentArea.PROJECTS));
+        assertEquals(200, second.getStatus());
+        assertTrue(projectRepository.findById(project.getProjectId()).orElseThrow().getUpdatedAt().isAfter(yesterday));
+    }
+
+    @Test
+    @DisplayName("CG_getStats_01")
+    void getStats_shouldCountNotModifiedPerEndpoint() {
+        String endpoint = "/api/ambassadors/top/{limit}";
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        conditionalGetService.checkNotModified(new ServletWebRequest(get(endpoint), first),
+                ContentArea.ACCOUNTS, ContentArea.DONATIONS);
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest again = get(endpoint);
+            again.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+            conditionalGetService.checkNotModified(new ServletWebRequest(again, new MockHttpServletResponse()),
+                    ContentArea.ACCOUNTS, ContentArea.DONATIONS);
+        }
+
+        ConditionalGetStatsDTO stats = conditionalGetService.getStats().stream()
+                .filter(item -> item.getEndpoint().equals("GET " + endpoint))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(4L, stats.getRequests());
+        assertEquals(3L, stats.getNotModified());
+        assertEquals(0.75, stats.getNotModifiedRate(), 0.0001);
+    }
+}
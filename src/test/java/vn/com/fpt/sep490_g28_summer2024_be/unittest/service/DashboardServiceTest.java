@@ -0,0 +1,119 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.com.fpt.sep490_g28_summer2024_be.common.MetricStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.dashboard.DashboardResultDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.service.dashboard.DefaultDashboardService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DashboardServiceTest {
+
+    private StatisticsService statisticsService;
+    private ExecutorService executor;
+    private DefaultDashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService = mock(StatisticsService.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        dashboardService = new DefaultDashboardService(statisticsService, executor, 300, 16);
+
+        when(statisticsService.getTotalCountDonations(7, 2024)).thenReturn(3L);
+        when(statisticsService.getTotalDonation(7, 2024)).thenReturn(BigDecimal.valueOf(600000));
+        when(statisticsService.getTotalWrongDonation(7, 2024)).thenReturn(BigDecimal.valueOf(100000));
+        when(statisticsService.getTotalSponsorValue(7, 2024)).thenReturn(BigDecimal.valueOf(5000000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("DB_getOverview_01")
+    void getOverview_shouldRunQueriesConcurrently_whenAllQueriesSucceed() {
+        // Mỗi truy vấn mất 200ms, chạy tuần tự sẽ mất 800ms
+        when(statisticsService.getTotalDonation(7, 2024)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return BigDecimal.valueOf(600000);
+        });
+        when(statisticsService.getTotalWrongDonation(7, 2024)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return BigDecimal.valueOf(100000);
+        });
+        when(statisticsService.getTotalSponsorValue(7, 2024)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return BigDecimal.valueOf(5000000);
+        });
+
+        DashboardResultDTO result = dashboardService.getOverview(7, 2024);
+
+        // Kiểm tra kết quả
+        assertEquals(3L, result.getValues().get("tong-so-luot-quyen-gop"));
+        assertEquals(BigDecimal.valueOf(600000), result.getValues().get("tong-so-quyen-gop"));
+        assertEquals(BigDecimal.valueOf(100000), result.getValues().get("tong-so-quyen-gop-sai"));
+        assertEquals(BigDecimal.valueOf(5000000), result.getValues().get("tong-so-tien-tai-tro"));
+        assertEquals(4, result.getMetrics().size());
+        result.getMetrics().values().forEach(metric -> {
+            assertEquals(MetricStatus.OK, metric.getStatus());
+            assertNotNull(metric.getElapsedMs());
+        });
+        assertTrue(result.getElapsedMs() < 600, "elapsed " + result.getElapsedMs());
+    }
+
+    @Test
+    @DisplayName("DB_getOverview_02")
+    void getOverview_shouldReturnPartialResult_whenOneQueryFails() {
+        when(statisticsService.getTotalWrongDonation(7, 2024)).thenThrow(new IllegalStateException("db down"));
+
+        DashboardResultDTO result = dashboardService.getOverview(7, 2024);
+
+        // Kiểm tra kết quả: chỉ số lỗi trả về null, các chỉ số khác vẫn có giá trị
+        assertTrue(result.getValues().containsKey("tong-so-quyen-gop-sai"));
+        assertNull(result.getValues().get("tong-so-quyen-gop-sai"));
+        assertEquals(MetricStatus.FAILED, result.getMetrics().get("tong-so-quyen-gop-sai").getStatus());
+        assertEquals("IllegalStateException", result.getMetrics().get("tong-so-quyen-gop-sai").getError());
+        assertEquals(MetricStatus.OK, result.getMetrics().get("tong-so-quyen-gop").getStatus());
+        assertEquals(BigDecimal.valueOf(600000), result.getValues().get("tong-so-quyen-gop"));
+    }
+
+    @Test
+    @DisplayName("DB_getOverview_03")
+    void getOverview_shouldServeLastGoodValueAsStale_whenQueryTimesOut() {
+        dashboardService.getOverview(7, 2024);
+
+        // Lần gọi thứ hai: truy vấn tổng quyên góp chậm hơn thời gian chờ
+        when(statisticsService.getTotalDonation(7, 2024)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return BigDecimal.ONE;
+        });
+        DashboardResultDTO result = dashboardService.getOverview(7, 2024);
+
+        // Kiểm tra kết quả: trả về giá trị tốt gần nhất, đánh dấu stale
+        assertEquals(MetricStatus.STALE, result.getMetrics().get("tong-so-quyen-gop").getStatus());
+        assertEquals("timeout", result.getMetrics().get("tong-so-quyen-gop").getError());
+        assertEquals(BigDecimal.valueOf(600000), result.getValues().get("tong-so-quyen-gop"));
+        assertEquals(MetricStatus.OK, result.getMetrics().get("tong-so-tien-tai-tro").getStatus());
+        assertTrue(result.getElapsedMs() < 1500, "elapsed " + result.getElapsedMs());
+
+        // Kỳ khác chưa có giá trị tốt nên bị đánh dấu failed
+        when(statisticsService.getTotalDonation(8, 2024)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return BigDecimal.ONE;
+        });
+        DashboardResultDTO other = dashboardService.getOverview(8, 2024);
+        assertEquals(MetricStatus.FAILED, other.getMetrics().get("tong-so-quyen-gop").getStatus());
+        assertNull(other.getValues().get("tong-so-quyen-gop"));
+    }
+}
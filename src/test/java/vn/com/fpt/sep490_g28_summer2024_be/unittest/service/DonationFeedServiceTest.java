@@ -0,0 +1,165 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.DonationFeedFrameDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ProjectDonationLedger;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.StartupSeedRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.DefaultDonationFeedService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.ProjectProgressService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.DefaultProjectLedgerService;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DonationFeedServiceTest {
+
+    private SimpMessageSendingOperations messagingTemplate;
+    private ProjectDonationLedgerRepository projectDonationLedgerRepository;
+    private ProjectProgressService projectProgressService;
+    private Project project;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessageSendingOperations.class);
+        projectDonationLedgerRepository = mock(ProjectDonationLedgerRepository.class);
+        projectProgressService = mock(ProjectProgressService.class);
+        project = Project.builder()
+                .projectId(BigInteger.valueOf(10))
+                .campaign(Campaign.builder().campaignId(BigInteger.ONE).build())
+                .build();
+        when(projectDonationLedgerRepository.findAllById(any())).thenReturn(List.of(ProjectDonationLedger.builder()
+                .projectId(BigInteger.valueOf(10))
+                .totalDonation(BigDecimal.valueOf(900000))
+                .donationCount(3L)
+                .build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private DefaultDonationFeedService feedService(int maxDonationsPerFrame, int maxPendingTopics) {
+        return new DefaultDonationFeedService(messagingTemplate, projectDonationLedgerRepository,
+                new DefaultProjectLedgerService(projectDonationLedgerRepository, mock(ProjectAllocationService.class), mock(StartupSeedRepository.class)),
+                projectProgressService, maxDonationsPerFrame, maxPendingTopics);
+    }
+
+    private Donation donation(long donationId, Project project, long value) {
+        return Donation.builder()
+                .donationId(BigInteger.valueOf(donationId))
+                .tid("TID" + donationId)
+                .project(project)
+                .value(BigDecimal.valueOf(value))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("DF_publish_01")
+    void publish_shouldSendOneFramePerTopic_whenDonationsArriveBetweenFlushes() {
+        DefaultDonationFeedService feedService = feedService(20, 100);
+
+        feedService.publish(List.of(donation(1, project, 100000), donation(2, project, 200000)));
+        feedService.publish(List.of(donation(3, project, 600000)));
+        // Chưa flush thì chưa gửi gì
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+
+        int sent = feedService.flush();
+
+        assertEquals(2, sent);
+        ArgumentCaptor<DonationFeedFrameDTO> projectFrame = ArgumentCaptor.forClass(DonationFeedFrameDTO.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/projects/10"), projectFrame.capture());
+        assertEquals(3, projectFrame.getValue().getDonationCount());
+        assertEquals(3, projectFrame.getValue().getDonations().size());
+        assertEquals(0, BigDecimal.valueOf(900000).compareTo(projectFrame.getValue().getAmount()));
+        assertEquals(0, BigDecimal.valueOf(900000).compareTo(projectFrame.getValue().getTotalDonation()));
+
+        ArgumentCaptor<DonationFeedFrameDTO> campaignFrame = ArgumentCaptor.forClass(DonationFeedFrameDTO.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/campaigns/1"), campaignFrame.capture());
+        assertEquals(3, campaignFrame.getValue().getDonationCount());
+        assertNull(campaignFrame.getValue().getTotalDonation());
+
+        // Tổng của dự án cũng được gửi cho các luồng tiến độ
+        verify(projectProgressService).publish(argThat(changes -> changes.size() == 1
+                && changes.get(0).getProjectId().equals(BigInteger.valueOf(10))
+                && changes.get(0).getTotalDonation().compareTo(BigDecimal.valueOf(900000)) == 0));
+
+        assertEquals(0, feedService.flush());
+        assertEquals(4L, feedService.getStats().getCoalescedUpdates());
+    }
+
+    @Test
+    @DisplayName("DF_publish_02")
+    void publish_shouldKeepLatestDonations_whenFrameIsFull() {
+        DefaultDonationFeedService feedService = feedService(2, 100);
+
+        for (long i = 1; i <= 5; i++) {
+            feedService.publish(List.of(donation(i, project, 100000)));
+        }
+        feedService.flush();
+
+        ArgumentCaptor<DonationFeedFrameDTO> frame = ArgumentCaptor.forClass(DonationFeedFrameDTO.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/projects/10"), frame.capture());
+        assertEquals(5, frame.getValue().getDonationCount());
+        assertEquals(List.of(BigInteger.valueOf(4), BigInteger.valueOf(5)), frame.getValue().getDonations().stream()
+                .map(item -> item.getDonationId())
+                .toList());
+        assertEquals(0, BigDecimal.valueOf(500000).compareTo(frame.getValue().getAmount()));
+    }
+
+    @Test
+    @DisplayName("DF_publish_03")
+    void publish_shouldDropNewTopics_whenPendingTopicsAreFull() {
+        DefaultDonationFeedService feedService = feedService(20, 1);
+        Project first = Project.builder().projectId(BigInteger.valueOf(10)).build();
+        Project second = Project.builder().projectId(BigInteger.valueOf(11)).build();
+
+        feedService.publish(List.of(donation(1, first, 100000)));
+        feedService.publish(List.of(donation(2, second, 100000)));
+        // Chủ đề đã có trong hàng đợi vẫn được gộp
+        feedService.publish(List.of(donation(3, first, 100000)));
+
+        assertEquals(1, feedService.flush());
+        verify(messagingTemplate).convertAndSend(eq("/topic/projects/10"), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/projects/11"), any(Object.class));
+        assertEquals(1L, feedService.getStats().getDroppedUpdates());
+    }
+
+    @Test
+    @DisplayName("DF_publish_04")
+    void publish_shouldSendNothing_whenTransactionRollsBack() {
+        DefaultDonationFeedService feedService = feedService(20, 100);
+        TransactionSynchronizationManager.initSynchronization();
+
+        feedService.publish(List.of(donation(1, project, 100000)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, feedService.flush());
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+}
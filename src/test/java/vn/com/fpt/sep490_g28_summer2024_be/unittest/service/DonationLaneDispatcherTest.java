@@ -0,0 +1,224 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import vn.com.fpt.sep490_g28_summer2024_be.common.IngestStatus;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionResultDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.routing.RoutingMatchDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ProjectDonationLedger;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.DonationLaneDispatcher;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.StripedExecutor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Không dùng @Transactional: các làn xử lý chạy trên luồng riêng nên dữ liệu phải được commit
+@SpringBootTest
+public class DonationLaneDispatcherTest {
+
+    private static final int FULL_PROJECTS = 40;
+    private static final int OPEN_PROJECTS = 700;
+    private static final int BATCH_SIZE = 25;
+    private static final double MIN_THROUGHPUT = 30;
+    private static final BigDecimal GOAL = BigDecimal.valueOf(250000);
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(100000);
+
+    @Autowired
+    private DonationLaneDispatcher donationLaneDispatcher;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private ProjectDonationLedgerRepository projectDonationLedgerRepository;
+
+    @Autowired
+    private DonationDailyStatsService donationDailyStatsService;
+
+    private Campaign campaign;
+    private final List<Project> fullProjects = new ArrayList<>();
+    private final List<Project> openProjects = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        campaign = campaignRepository.save(Campaign.builder()
+                .title("Chiến dịch làn").description("desc").isActive(true)
+                .createdAt(LocalDate.now()).build());
+        // Dự án đã đóng: mọi chuyển khoản ghi mã của chúng đều bị chuyển sang dự án khác trong chiến dịch
+        List<Project> full = new ArrayList<>();
+        for (int i = 1; i <= FULL_PROJECTS; i++) {
+            full.add(Project.builder()
+                    .title("Dự án đã đủ " + i).code("LANEFULL" + i).status(3).campaign(campaign)
+                    .ward("ward").district("district").province("province")
+                    .amountNeededToRaise(GOAL)
+                    .createdAt(LocalDateTime.now()).build());
+        }
+        fullProjects.addAll(projectRepository.saveAll(full));
+        List<Project> open = new ArrayList<>();
+        for (int i = 1; i <= OPEN_PROJECTS; i++) {
+            open.add(Project.builder()
+                    .title("Dự án đang nhận " + i).code("LANEOPEN" + i).status(2).campaign(campaign)
+                    .ward("ward").district("district").province("province")
+                    .amountNeededToRaise(GOAL)
+                    .createdAt(LocalDateTime.now()).build());
+        }
+        openProjects.addAll(projectRepository.saveAll(open));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Set<BigInteger> projectIds = new HashSet<>();
+        fullProjects.forEach(project -> projectIds.add(project.getProjectId()));
+        openProjects.forEach(project -> projectIds.add(project.getProjectId()));
+        List<Donation> donations = donationRepository.findAll().stream()
+                .filter(donation -> donation.getTid() != null && donation.getTid().startsWith("LANE-TID-"))
+                .toList();
+        donationDailyStatsService.removeDonations(donations.stream().map(Donation::getDonationId).toList());
+        donationRepository.deleteAll(donations);
+        projectDonationLedgerRepository.deleteAllById(projectIds);
+        projectRepository.deleteAll(fullProjects);
+        projectRepository.deleteAll(openProjects);
+        campaignRepository.delete(campaign);
+        fullProjects.clear();
+        openProjects.clear();
+    }
+
+    private TransactionDataDTO transfer(int index) {
+        Project named = fullProjects.get(index % FULL_PROJECTS);
+        return TransactionDataDTO.builder()
+                .id(930000L + index)
+                .tid("LANE-TID-" + index)
+                .description("ung ho " + named.getCode())
+                .amount(AMOUNT)
+                .when(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("DL_dispatch_01")
+    void dispatch_shouldNotOverfundRedirectTarget_whenLanesRedirectConcurrently() {
+        // Tạo dữ liệu test: vừa đủ chuyển khoản để mỗi dự án đang nhận có đúng 3 khoản (300.000 >= mục tiêu 250.000)
+        int transfers = OPEN_PROJECTS * 3;
+        List<List<TransactionDataDTO>> batches = new ArrayList<>();
+        for (int start = 0; start < transfers; start += BATCH_SIZE) {
+            List<TransactionDataDTO> batch = new ArrayList<>();
+            for (int index = start; index < Math.min(start + BATCH_SIZE, transfers); index++) {
+                batch.add(transfer(index));
+            }
+            batches.add(batch);
+        }
+
+        // Thực thi: các lô gửi đồng thời, mỗi lô tách vào nhiều làn theo mã dự án đã đóng
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+        List<TransactionResultDTO> results;
+        long started = System.nanoTime();
+        try {
+            List<CompletableFuture<List<TransactionResultDTO>>> futures = batches.stream()
+                    .map(batch -> CompletableFuture.supplyAsync(() -> donationLaneDispatcher.dispatch(batch), senders))
+                    .toList();
+            results = futures.stream().flatMap(future -> future.join().stream()).toList();
+        } finally {
+            senders.shutdown();
+        }
+        double throughput = transfers / ((System.nanoTime() - started) / 1e9);
+
+        // Kiểm tra kết quả: mọi khoản được ghi, không dự án nào nhận thêm sau khi đã đạt mục tiêu
+        assertTrue(throughput >= MIN_THROUGHPUT, "throughput " + Math.round(throughput) + " transfers/s");
+        assertEquals(transfers, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == IngestStatus.CREATED),
+                results.stream().map(TransactionResultDTO::getStatus).collect(Collectors.toList()).toString());
+        for (Project project : openProjects) {
+            BigDecimal total = projectDonationLedgerRepository.findById(project.getProjectId())
+                    .map(ProjectDonationLedger::getTotalDonation)
+                    .orElse(BigDecimal.ZERO);
+            assertEquals(0, AMOUNT.multiply(BigDecimal.valueOf(3)).compareTo(total), project.getCode() + " nhận " + total);
+        }
+        for (Project project : fullProjects) {
+            BigDecimal total = projectDonationLedgerRepository.findById(project.getProjectId())
+                    .map(ProjectDonationLedger::getTotalDonation)
+                    .orElse(BigDecimal.ZERO);
+            assertEquals(0, BigDecimal.ZERO.compareTo(total));
+        }
+    }
+
+    @Test
+    @DisplayName("DL_dispatch_02")
+    void dispatch_shouldRetryOnlyFailedLane_whenOneTransferBreaksItsLane() {
+        CassoService cassoService = mock(CassoService.class);
+        RoutingCodeService routingCodeService = mock(RoutingCodeService.class);
+        try (StripedExecutor stripedExecutor = new StripedExecutor(8, "test-lane-")) {
+            // Tạo dữ liệu test: hai dự án rơi vào hai làn khác nhau
+            BigInteger first = BigInteger.ONE;
+            BigInteger second = BigInteger.TWO;
+            while (stripedExecutor.laneOf("PROJECT:" + second) == stripedExecutor.laneOf("PROJECT:" + first)) {
+                second = second.add(BigInteger.ONE);
+            }
+            BigInteger secondId = second;
+            when(routingCodeService.match(any())).thenAnswer(invocation -> RoutingMatchDTO.builder()
+                    .projectIds(List.of(((String) invocation.getArgument(0)).contains("TRUOC") ? first : secondId))
+                    .build());
+            // Giao dịch "LOI" luôn làm hỏng phần của làn chứa nó
+            when(cassoService.handleTransactions(any())).thenAnswer(invocation -> {
+                List<TransactionDataDTO> part = invocation.getArgument(0);
+                if (part.stream().anyMatch(transaction -> transaction.getDescription().contains("LOI"))) {
+                    throw new IllegalStateException("broken transfer");
+                }
+                return part.stream()
+                        .map(transaction -> TransactionResultDTO.builder()
+                                .id(transaction.getId()).status(IngestStatus.CREATED).build())
+                        .toList();
+            });
+            DonationLaneDispatcher dispatcher = new DonationLaneDispatcher(cassoService, routingCodeService, stripedExecutor, 3);
+            List<TransactionDataDTO> batch = List.of(
+                    TransactionDataDTO.builder().id(1L).tid("T1").description("ung ho TRUOC").amount(AMOUNT).build(),
+                    TransactionDataDTO.builder().id(2L).tid("T2").description("ung ho LOI").amount(AMOUNT).build(),
+                    TransactionDataDTO.builder().id(3L).tid("T3").description("ung ho SAU").amount(AMOUNT).build());
+
+            // Thực thi
+            List<TransactionResultDTO> results = dispatcher.dispatch(batch);
+
+            // Kiểm tra kết quả: chỉ giao dịch lỗi thất bại, làn còn lại chỉ chạy một lần
+            assertEquals(List.of(IngestStatus.CREATED, IngestStatus.FAILED, IngestStatus.CREATED),
+                    results.stream().map(TransactionResultDTO::getStatus).toList());
+            assertEquals("broken transfer", results.get(1).getMessage());
+            verify(cassoService, times(1)).handleTransactions(List.of(batch.get(0)));
+            verify(cassoService, times(1)).handleTransactions(List.of(batch.get(1), batch.get(2)));
+            verify(cassoService, times(1)).handleTransactions(List.of(batch.get(2)));
+        }
+    }
+}
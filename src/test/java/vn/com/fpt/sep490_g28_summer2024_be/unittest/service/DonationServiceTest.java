@@ -33,6 +33,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.WrongDonationRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.service.donation.DefaultDonationService;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.PageCursor;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -1222,4 +1223,155 @@ public class DonationServiceTest {
         assertNotNull(foundChallenge.get().getChallenge());
         assertEquals(challenge.getTitle(), foundChallenge.get().getChallenge().getTitle());
     }
-}
\ No newline at end of file
+
+    private List<Donation> saveDonations(int count, LocalDateTime createdAt) {
+        List<Donation> donations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            donations.add(Donation.builder()
+                    .tid("KEYSET" + i)
+                    .project(project)
+                    .createdBy(account)
+                    // Mỗi 3 bản ghi dùng chung một thời điểm để kiểm tra thứ tự theo donation_id
+                    .createdAt(createdAt.minusSeconds(i / 3))
+                    .value(BigDecimal.valueOf(1000))
+                    .description("Keyset Donation")
+                    .build());
+        }
+        return donationRepository.saveAll(donations);
+    }
+
+    @Test
+    @DisplayName("DS_viewListDonationsByCursor_01")
+    void viewListDonationsByCursor_shouldWalkAllDonationsInOrder_withoutOverlap() {
+        saveDonations(25, LocalDateTime.now().minusDays(1).withNano(0));
+
+        List<BigInteger> seen = new ArrayList<>();
+        String cursor = "";
+        PageResponse<DonationResponseDTO> response;
+        do {
+            response = defaultDonationService.viewListDonations(cursor, 10, project.getProjectId(), "Keyset", false);
+            response.getContent().forEach(item -> seen.add(item.getDonationId()));
+            // Không chạy truy vấn đếm khi không yêu cầu
+            assertNull(response.getTotal());
+            assertNull(response.getOffset());
+            assertNotNull(response.getSummary());
+            cursor = response.getNextCursor();
+        } while (response.getHasMore());
+
+        assertNull(response.getNextCursor());
+        assertEquals(25, seen.size());
+        assertEquals(25, new HashSet<>(seen).size());
+
+        // Thứ tự giống trang OFFSET: created_at giảm dần, cùng thời điểm thì donation_id giảm dần
+        List<BigInteger> expected = donationRepository.findAll().stream()
+                .filter(d -> "Keyset Donation".equals(d.getDescription()))
+                .sorted(Comparator.comparing(Donation::getCreatedAt)
+                        .thenComparing(Donation::getDonationId).reversed())
+                .map(Donation::getDonationId)
+                .toList();
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("DS_viewListDonationsByCursor_02")
+    void viewListDonationsByCursor_shouldReturnTotal_whenRequested() {
+        saveDonations(5, LocalDateTime.now().minusDays(1).withNano(0));
+
+        PageResponse<DonationResponseDTO> response = defaultDonationService.viewListDonationsAdmin(
+                "", 5, project.getProjectId(), null, true);
+
+        assertEquals(6, response.getTotal());
+        assertEquals(5, response.getContent().size());
+        assertTrue(response.getHasMore());
+
+        PageResponse<DonationResponseDTO> last = defaultDonationService.viewListDonationsAdmin(
+                response.getNextCursor(), 5, project.getProjectId(), null, false);
+        assertEquals(1, last.getContent().size());
+        assertFalse(last.getHasMore());
+    }
+
+    @Test
+    @DisplayName("DS_viewListDonationsByCursor_03")
+    void viewListDonationsByCursor_shouldThrowException_whenCursorIsInvalid() {
+        AppException invalid = assertThrows(AppException.class, () -> defaultDonationService.viewListDonations(
+                "not a cursor", 10, project.getProjectId(), null, false));
+        assertEquals(ErrorCode.HTTP_BAD_REQUEST, invalid.getErrorCode());
+
+        // Con trỏ chỉ có id (của danh sách khác) không dùng được cho danh sách theo thời gian
+        String idCursor = PageCursor.encode(donation.getDonationId());
+        assertThrows(AppException.class, () -> defaultDonationService.viewListDonations(
+                idCursor, 10, project.getProjectId(), null, false));
+
+        assertThrows(AppException.class, () -> defaultDonationService.viewAllDonations("", 0, null, false));
+    }
+
+    @Test
+    @DisplayName("DS_viewListDonationsByCursor_04")
+    void viewListDonationsByCursor_shouldMergeTransferredDonations_inOrder() {
+        Project source = projectRepository.save(Project.builder()
+                .title("Source Project")
+                .code("SRC004")
+                .status(3)
+                .campaign(campaign)
+                .ward("Test Ward")
+                .district("Test District")
+                .province("Test Province")
+                .slug("source-project")
+                .amountNeededToRaise(BigDecimal.valueOf(100000))
+                .createdAt(LocalDateTime.now())
+                .build());
+        // Khoản ghi thẳng vào dự án và khoản được chuyển từ dự án khác xen kẽ nhau, có cùng thời điểm
+        List<Donation> donations = saveDonations(12, LocalDateTime.now().minusDays(1).withNano(0));
+        for (int i = 0; i < donations.size(); i += 2) {
+            donations.get(i).setProject(source);
+            donations.get(i).setTransferredProject(project);
+        }
+        donationRepository.saveAll(donations);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BigInteger> seen = new ArrayList<>();
+        String cursor = "";
+        PageResponse<DonationResponseDTO> response;
+        do {
+            response = defaultDonationService.viewListDonationsAdmin(cursor, 5, project.getProjectId(), "Keyset", false);
+            response.getContent().forEach(item -> seen.add(item.getDonationId()));
+            cursor = response.getNextCursor();
+        } while (response.getHasMore());
+
+        List<BigInteger> expected = donations.stream()
+                .sorted(Comparator.comparing(Donation::getCreatedAt)
+                        .thenComparing(Donation::getDonationId).reversed())
+                .map(Donation::getDonationId)
+                .toList();
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("DS_viewAllDonationsByCursor_01")
+    void viewAllDonationsByCursor_shouldMatchDeepOffsetPage() {
+        int size = 20;
+        int pages = 60;
+        saveDonations(size * pages, LocalDateTime.now().minusDays(1).withNano(0));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Đi hết các trang bằng con trỏ, ghi lại con trỏ dẫn tới trang cuối
+        String cursor = "";
+        String deepCursor = null;
+        for (int i = 0; i < pages; i++) {
+            deepCursor = cursor;
+            cursor = ((PageResponse<?>) defaultDonationService.viewAllDonations(cursor, size, "Keyset", false)).getNextCursor();
+        }
+
+        PageResponse<?> offsetPage = defaultDonationService.viewAllDonations(pages - 1, size, "Keyset");
+        PageResponse<?> cursorPage = defaultDonationService.viewAllDonations(deepCursor, size, "Keyset", false);
+
+        List<BigInteger> offsetIds = ((List<DonationResponseDTO>) offsetPage.getContent()).stream()
+                .map(DonationResponseDTO::getDonationId).toList();
+        List<BigInteger> cursorIds = ((List<DonationResponseDTO>) cursorPage.getContent()).stream()
+                .map(DonationResponseDTO::getDonationId).toList();
+        assertEquals(size, cursorIds.size());
+        assertEquals(offsetIds, cursorIds);
+    }
+}
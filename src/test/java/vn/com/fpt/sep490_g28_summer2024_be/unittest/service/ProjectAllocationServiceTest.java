@@ -0,0 +1,157 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.allocation.AllocationReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Challenge;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.ChallengeProject;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.ProjectLedgerService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class ProjectAllocationServiceTest {
+
+    @Autowired
+    private ProjectAllocationService projectAllocationService;
+
+    @Autowired
+    private ProjectLedgerService projectLedgerService;
+
+    @Autowired
+    private CassoService cassoService;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private ChallengeProjectRepository challengeProjectRepository;
+
+    private Campaign campaign;
+    private Project project;
+    private Project otherProject;
+
+    @BeforeEach
+    void setUp() {
+        // Đưa sổ cái và bộ phân bổ về trạng thái khớp với dữ liệu hiện có
+        projectLedgerService.rebuild();
+
+        campaign = campaignRepository.save(Campaign.builder()
+                .title("Allocation Campaign")
+                .description("Allocation Campaign Description")
+                .build());
+        project = projectRepository.save(project("Allocation Project", "ALC001"));
+        otherProject = projectRepository.save(project("Allocation Project 2", "ALC002"));
+    }
+
+    private Project project(String title, String code) {
+        return Project.builder()
+                .title(title)
+                .code(code)
+                .status(2)
+                .ward("wardtest")
+                .district("districttest")
+                .province("provincetest")
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
+                .amountNeededToRaise(BigDecimal.valueOf(1000000))
+                .totalBudget(BigDecimal.valueOf(2000000))
+                .campaign(campaign)
+                .build();
+    }
+
+    private TransactionDataDTO transaction(Long id, String description, BigDecimal amount) {
+        return TransactionDataDTO.builder()
+                .id(id)
+                .tid("ALC-TID-" + id)
+                .description(description)
+                .amount(amount)
+                .when(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("PA_pickInCampaign_01")
+    void pickInCampaign_shouldReturnLeastFundedProject_whenDonationsLand() {
+        // Thực thi: quyên góp vào dự án đầu tiên
+        cassoService.handleInPayment(transaction(910001L, "ung ho ALC001", BigDecimal.valueOf(100000)));
+
+        // Kiểm tra: dự án còn lại có tổng quyên góp thấp nhất
+        ProjectTransactionDTO picked = projectAllocationService.pickInCampaign(campaign.getCampaignId());
+        assertNotNull(picked);
+        assertEquals(otherProject.getProjectId(), picked.getProjectId());
+
+        // Thực thi: dự án thứ hai nhận nhiều hơn
+        cassoService.handleInPayment(transaction(910002L, "ung ho ALC002", BigDecimal.valueOf(300000)));
+        assertEquals(project.getProjectId(), projectAllocationService.pickInCampaign(campaign.getCampaignId()).getProjectId());
+    }
+
+    @Test
+    @DisplayName("PA_pickInCampaign_02")
+    void pickInCampaign_shouldSkipProject_whenGoalReachedOrStatusChanged() {
+        // Thực thi: dự án đầu tiên đạt mục tiêu, dự án thứ hai chuyển trạng thái
+        cassoService.handleInPayment(transaction(910003L, "ung ho ALC001", BigDecimal.valueOf(1000000)));
+        otherProject.setStatus(3);
+        projectRepository.saveAndFlush(otherProject);
+
+        // Kiểm tra: không còn dự án nào cần quyên góp trong chiến dịch
+        assertNull(projectAllocationService.pickInCampaign(campaign.getCampaignId()));
+    }
+
+    @Test
+    @DisplayName("PA_pickInChallenge_01")
+    void pickInChallenge_shouldReturnOnlyMemberProjects_whenChallengeHasProjects() {
+        Challenge challenge = challengeRepository.save(Challenge.builder()
+                .title("Allocation Challenge")
+                .challengeCode("ALCCH1")
+                .finishedAt(LocalDate.now().plusDays(10))
+                .build());
+        challengeProjectRepository.saveAndFlush(ChallengeProject.builder()
+                .challenge(challenge)
+                .project(otherProject)
+                .build());
+        cassoService.handleInPayment(transaction(910004L, "ung ho ALC002", BigDecimal.valueOf(500000)));
+
+        // Kiểm tra: chỉ dự án thuộc thử thách được chọn dù có tổng quyên góp cao hơn
+        ProjectTransactionDTO picked = projectAllocationService.pickInChallenge(challenge.getChallengeId());
+        assertNotNull(picked);
+        assertEquals(otherProject.getProjectId(), picked.getProjectId());
+    }
+
+    @Test
+    @DisplayName("PA_verify_01")
+    void verify_shouldReportNoMismatch_whenAllocatorFollowsDatabase() {
+        cassoService.handleInPayment(transaction(910005L, "ung ho ALC001", BigDecimal.valueOf(200000)));
+
+        // Thực thi
+        AllocationReportDTO report = projectAllocationService.verify();
+
+        // Kiểm tra kết quả
+        assertEquals(0, report.getMismatchCount());
+        assertTrue(report.getFundableCount() >= 2);
+    }
+}
@@ -0,0 +1,246 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.TransactionDataDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ledger.LedgerReportDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectDonationInformattionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.project.interfacedto.ProjectTransactionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.WrongDonation;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.StartupSeedRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.WrongDonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.allocation.ProjectAllocationService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.CassoService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.DefaultProjectLedgerService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.ledger.ProjectLedgerService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class ProjectLedgerServiceTest {
+
+    @Autowired
+    private ProjectLedgerService projectLedgerService;
+
+    @Autowired
+    private CassoService cassoService;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private WrongDonationRepository wrongDonationRepository;
+
+    @Autowired
+    private DefaultProjectLedgerService defaultProjectLedgerService;
+
+    @Autowired
+    private StartupSeedRepository startupSeedRepository;
+
+    @Autowired
+    private ProjectDonationLedgerRepository projectDonationLedgerRepository;
+
+    @Autowired
+    private ProjectAllocationService projectAllocationService;
+
+    private Project project;
+    private Project otherProject;
+
+    @BeforeEach
+    void setUp() {
+        // Đưa sổ cái về trạng thái khớp với dữ liệu hiện có
+        projectLedgerService.rebuild();
+
+        Campaign campaign = campaignRepository.save(Campaign.builder()
+                .title("Ledger Campaign")
+                .description("Ledger Campaign Description")
+                .build());
+
+        project = projectRepository.save(Project.builder()
+                .title("Ledger Project")
+                .code("LDG001")
+                .status(2)
+                .ward("wardtest")
+                .district("districttest")
+                .province("provincetest")
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
+                .amountNeededToRaise(BigDecimal.valueOf(1000000))
+                .totalBudget(BigDecimal.valueOf(2000000))
+                .campaign(campaign)
+                .build());
+
+        otherProject = projectRepository.save(Project.builder()
+                .title("Ledger Project 2")
+                .code("LDG002")
+                .status(2)
+                .ward("wardtest")
+                .district("districttest")
+                .province("provincetest")
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
+                .amountNeededToRaise(BigDecimal.valueOf(1000000))
+                .totalBudget(BigDecimal.valueOf(2000000))
+                .campaign(campaign)
+                .build());
+    }
+
+    private TransactionDataDTO transaction(Long id, String description, BigDecimal amount) {
+        return TransactionDataDTO.builder()
+                .id(id)
+                .tid("LDG-TID-" + id)
+                .description(description)
+                .amount(amount)
+                .when(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("PL_recordDonation_01")
+    void recordDonation_shouldAddToProjectTotal_whenInPaymentHandled() {
+        // Thực thi: nhận một khoản quyên góp có mã dự án
+        cassoService.handleInPayment(transaction(900001L, "ung ho LDG001", BigDecimal.valueOf(150000)));
+
+        // Kiểm tra tổng tiền được đọc từ sổ cái
+        ProjectDonationInformattionDTO info = projectRepository.getDonationInformationTotal(project.getProjectId());
+        assertEquals(0, BigDecimal.valueOf(150000).compareTo(info.getTotalDonation()));
+        assertEquals(0, projectLedgerService.verify().getDriftCount());
+    }
+
+    @Test
+    @DisplayName("PL_recordDonation_02")
+    void recordDonation_shouldSubtractFromProjectTotal_whenOutPaymentRefersDonation() {
+        cassoService.handleInPayment(transaction(900002L, "ung ho LDG001", BigDecimal.valueOf(150000)));
+
+        // Thực thi: hoàn tiền cho giao dịch trên
+        cassoService.handleOutPayment(transaction(900003L, "hoan tien LDG-TID-900002", BigDecimal.valueOf(-50000)));
+
+        ProjectDonationInformattionDTO info = projectRepository.getDonationInformationTotal(project.getProjectId());
+        assertEquals(0, BigDecimal.valueOf(100000).compareTo(info.getTotalDonation()));
+        assertEquals(0, projectLedgerService.verify().getDriftCount());
+    }
+
+    @Test
+    @DisplayName("PL_moveDonation_01")
+    void moveDonation_shouldMoveAmountBetweenProjects_whenDonationTransferred() {
+        cassoService.handleInPayment(transaction(900004L, "ung ho LDG001", BigDecimal.valueOf(200000)));
+        Donation donation = donationRepository.findAll().stream()
+                .filter(d -> "900004".equals(d.getId()))
+                .findFirst().orElseThrow();
+
+        // Thực thi: chuyển khoản quyên góp sang dự án khác
+        donation.setTransferredProject(otherProject);
+        donationRepository.save(donation);
+        projectLedgerService.moveDonation(donation, project.getProjectId(), otherProject.getProjectId());
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(projectRepository.getDonationInformationTotal(project.getProjectId()).getTotalDonation()));
+        assertEquals(0, BigDecimal.valueOf(200000).compareTo(projectRepository.getDonationInformationTotal(otherProject.getProjectId()).getTotalDonation()));
+        assertEquals(0, projectLedgerService.verify().getDriftCount());
+    }
+
+    @Test
+    @DisplayName("PL_resolveProjectId_01")
+    void resolveProjectId_shouldReturnNull_whenDonationIsWrongAndNotTransferred() {
+        Donation donation = donationRepository.save(Donation.builder()
+                .id("900005")
+                .tid("LDG-TID-900005")
+                .value(BigDecimal.valueOf(10000))
+                .project(project)
+                .build());
+        donation.setWrongDonation(wrongDonationRepository.save(WrongDonation.builder().donation(donation).build()));
+
+        assertNull(projectLedgerService.resolveProjectId(donation));
+
+        donation.setTransferredProject(otherProject);
+        assertEquals(otherProject.getProjectId(), projectLedgerService.resolveProjectId(donation));
+    }
+
+    @Test
+    @DisplayName("PL_rebuild_01")
+    void rebuild_shouldReportAndFixDrift_whenDonationInsertedOutsideService() {
+        // Chèn trực tiếp donation, bỏ qua sổ cái
+        donationRepository.saveAndFlush(Donation.builder()
+                .id("900006")
+                .tid("LDG-TID-900006")
+                .value(BigDecimal.valueOf(30000))
+                .createdAt(LocalDateTime.now())
+                .project(project)
+                .build());
+
+        LedgerReportDTO before = projectLedgerService.verify();
+        assertEquals(1, before.getDriftCount());
+        assertEquals(project.getProjectId(), before.getDrifts().get(0).getProjectId());
+
+        LedgerReportDTO rebuilt = projectLedgerService.rebuild();
+        assertEquals(1, rebuilt.getDriftCount());
+        assertEquals(0, projectLedgerService.verify().getDriftCount());
+        assertEquals(0, BigDecimal.valueOf(30000).compareTo(projectRepository.getDonationInformationTotal(project.getProjectId()).getTotalDonation()));
+    }
+
+    @Test
+    @DisplayName("PL_initLedger_01")
+    void initLedger_shouldSeedOnce_whenLedgerAlreadyHasRowsButNoMarker() {
+        donationRepository.saveAndFlush(Donation.builder()
+                .id("900007")
+                .tid("LDG-TID-900007")
+                .value(BigDecimal.valueOf(40000))
+                .createdAt(LocalDateTime.now())
+                .project(project)
+                .build());
+        // Lần triển khai đầu: một giao dịch đã ghi vào sổ cái trước khi khởi tạo
+        startupSeedRepository.deleteAll();
+        startupSeedRepository.flush();
+        projectDonationLedgerRepository.applyDelta(otherProject.getProjectId(), BigDecimal.valueOf(5000), 1L, LocalDateTime.now());
+
+        defaultProjectLedgerService.initLedger();
+
+        assertEquals(0, projectLedgerService.verify().getDriftCount());
+        assertEquals(0, BigDecimal.valueOf(40000).compareTo(projectRepository.getDonationInformationTotal(project.getProjectId()).getTotalDonation()));
+        assertNotNull(startupSeedRepository.findById("project_donation_ledger").orElseThrow().getSeededAt());
+
+        // Đã có dấu nên lần khởi động sau không tính lại
+        projectDonationLedgerRepository.applyDelta(otherProject.getProjectId(), BigDecimal.valueOf(5000), 1L, LocalDateTime.now());
+        defaultProjectLedgerService.initLedger();
+        assertEquals(1, projectLedgerService.verify().getDriftCount());
+    }
+
+    @Test
+    @DisplayName("PL_claimFundable_01")
+    void claimFundable_shouldDecideFromLockedRows_whenAllocatorMissedOtherInstanceWrites() {
+        // Tạo dữ liệu test: một instance khác đã ghi đủ mục tiêu vào sổ cái, allocator ở đây chưa biết
+        projectDonationLedgerRepository.applyDelta(project.getProjectId(), BigDecimal.valueOf(1000000), 1L, LocalDateTime.now());
+        assertNotNull(projectAllocationService.findFundable(project.getProjectId()));
+
+        // Thực thi
+        ProjectTransactionDTO claimed = projectLedgerService.claimFundable(project.getProjectId());
+
+        // Kiểm tra kết quả: không nhận thêm, allocator được cập nhật theo sổ cái
+        assertNull(claimed);
+        assertNull(projectAllocationService.findFundable(project.getProjectId()));
+
+        // Dự án chưa đủ vẫn được nhận, với tổng tiền đọc từ sổ cái
+        projectDonationLedgerRepository.applyDelta(otherProject.getProjectId(), BigDecimal.valueOf(300000), 1L, LocalDateTime.now());
+        ProjectTransactionDTO open = projectLedgerService.claimFundable(otherProject.getProjectId());
+        assertNotNull(open);
+        assertEquals(0, BigDecimal.valueOf(300000).compareTo(open.getTotalDonation()));
+    }
+}
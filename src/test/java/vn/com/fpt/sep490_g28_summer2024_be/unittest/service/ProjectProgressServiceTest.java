@@ -0,0 +1,156 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.ProjectProgressDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.feed.interfacedto.ProjectProgressInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.feed.DefaultProjectProgressService;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ProjectProgressServiceTest {
+
+    private ProjectRepository projectRepository;
+    private DefaultProjectProgressService progressService;
+
+    /**
+     * Ghi lại các sự kiện được gửi thay vì ghi ra response.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<ProjectProgressDTO>> payloads = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof List<?> list) {
+                    payloads.add((List<ProjectProgressDTO>) list);
+                } else {
+                    lines.add(String.valueOf(data.getData()));
+                }
+            }
+        }
+
+        private String lastEventId() {
+            String text = String.join("", lines);
+            int start = text.lastIndexOf("id:");
+            return text.substring(start + 3, text.indexOf('\n', start));
+        }
+    }
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        // Gửi ngay trên luồng gọi để kiểm tra tuần tự
+        progressService = new DefaultProjectProgressService(projectRepository, Runnable::run, 60000, 3000, 2, 100, 16) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMs) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        when(projectRepository.findProgressByIds(any())).thenReturn(List.of(progressRow(10, 1000000, 400000)));
+    }
+
+    private static ProjectProgressInterfaceDTO progressRow(long projectId, long target, long total) {
+        return new ProjectProgressInterfaceDTO() {
+            public BigInteger getProjectId() { return BigInteger.valueOf(projectId); }
+            public BigDecimal getTarget() { return BigDecimal.valueOf(target); }
+            public BigDecimal getTotalDonation() { return BigDecimal.valueOf(total); }
+            public Long getDonationCount() { return 4L; }
+        };
+    }
+
+    private static ProjectProgressDTO change(long projectId, long total) {
+        return ProjectProgressDTO.builder()
+                .projectId(BigInteger.valueOf(projectId))
+                .totalDonation(BigDecimal.valueOf(total))
+                .donationCount(5L)
+                .build();
+    }
+
+    @Test
+    @DisplayName("PP_subscribe_01")
+    void subscribe_shouldSendSnapshotThenFollowedChanges_whenNoLastEventId() {
+        progressService.subscribe(List.of(BigInteger.valueOf(10)), null);
+        RecordingEmitter emitter = emitters.get(0);
+
+        assertEquals(1, emitter.payloads.size());
+        assertEquals(0, BigDecimal.valueOf(1000000).compareTo(emitter.payloads.get(0).get(0).getTarget()));
+
+        // Dự án 11 không được theo dõi nên không có trong sự kiện
+        progressService.publish(List.of(change(10, 500000), change(11, 200000)));
+
+        assertEquals(2, emitter.payloads.size());
+        assertEquals(1, emitter.payloads.get(1).size());
+        assertEquals(BigInteger.valueOf(10), emitter.payloads.get(1).get(0).getProjectId());
+        assertEquals(0, BigDecimal.valueOf(500000).compareTo(emitter.payloads.get(1).get(0).getTotalDonation()));
+        assertEquals(1, progressService.getStreamCount());
+    }
+
+    @Test
+    @DisplayName("PP_subscribe_02")
+    void subscribe_shouldSendOnlyMissedChanges_whenResumingWithLastEventId() {
+        progressService.subscribe(List.of(BigInteger.valueOf(10)), null);
+        progressService.publish(List.of(change(10, 500000)));
+        String lastEventId = emitters.get(0).lastEventId();
+
+        progressService.publish(List.of(change(10, 600000), change(11, 200000)));
+        progressService.publish(List.of(change(10, 700000)));
+        progressService.subscribe(List.of(BigInteger.valueOf(10)), lastEventId);
+        RecordingEmitter resumed = emitters.get(1);
+
+        // Chỉ gửi giá trị mới nhất của dự án đang theo dõi, không đọc lại từ DB
+        assertEquals(1, resumed.payloads.size());
+        assertEquals(1, resumed.payloads.get(0).size());
+        assertEquals(0, BigDecimal.valueOf(700000).compareTo(resumed.payloads.get(0).get(0).getTotalDonation()));
+        verify(projectRepository, times(1)).findProgressByIds(any());
+    }
+
+    @Test
+    @DisplayName("PP_subscribe_03")
+    void subscribe_shouldSendSnapshot_whenLastEventIdIsUnknown() {
+        progressService.subscribe(List.of(BigInteger.valueOf(10)), "abc-5");
+
+        assertEquals(1, emitters.get(0).payloads.size());
+        assertNotNull(emitters.get(0).payloads.get(0).get(0).getTarget());
+        verify(projectRepository).findProgressByIds(any());
+    }
+
+    @Test
+    @DisplayName("PP_subscribe_04")
+    void subscribe_shouldThrowException_whenTooManyProjects() {
+        assertThrows(AppException.class, () -> progressService.subscribe(
+                List.of(BigInteger.ONE, BigInteger.TWO, BigInteger.TEN), null));
+        assertThrows(AppException.class, () -> progressService.subscribe(List.of(), null));
+        assertEquals(0, progressService.getStreamCount());
+    }
+
+    @Test
+    @DisplayName("PP_heartbeat_01")
+    void heartbeat_shouldSendComment_whenStreamIsIdle() {
+        progressService.subscribe(List.of(BigInteger.valueOf(10)), null);
+
+        progressService.heartbeat();
+
+        assertTrue(emitters.get(0).lines.stream().anyMatch(line -> line.startsWith(":heartbeat")));
+        assertEquals(1, emitters.get(0).payloads.size());
+    }
+}
@@ -1,5 +1,7 @@
 package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
 
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -20,6 +22,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.exception.AppException;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.*;
 import vn.com.fpt.sep490_g28_summer2024_be.sercurity.CustomAccountDetails;
 import vn.com.fpt.sep490_g28_summer2024_be.service.project.DefaultProjectService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.campaign.CampaignProjectsDTO;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.annotation.Rollback;
@@ -28,6 +31,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.firebase.FirebaseService;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.construction.ConstructionRequestDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.dto.construction.ConstructionUpdateRequestDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.ProjectImage;
+import jakarta.persistence.EntityManager;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
@@ -38,6 +42,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,6 +75,27 @@ public class ProjectServiceTest {
     @Autowired
     private FirebaseService firebaseService;
 
+    @Autowired
+    private ProjectImageRepository projectImageRepository;
+
+    @Autowired
+    private ConstructionRepository constructionRepository;
+
+    @Autowired
+    private SponsorRepository sponsorRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private DonationDailyStatsRepository donationDailyStatsRepository;
+
+    @Autowired
+    private DonationDailyStatsService donationDailyStatsService;
+
     private Project project;
     private Campaign campaign;
     private Account employeeAccount;
@@ -509,6 +535,143 @@ public class ProjectServiceTest {
         assertNotEquals(firstProjectPage1.getProjectId(), firstProjectPage2.getProjectId());
     }
 
+    @Test
+    @DisplayName("PS_viewByFilter_06")
+    void testViewByFilter_CursorPagination() {
+        // Arrange - Tạo campaign và 7 dự án
+        final Campaign campaign = campaignRepository.save(Campaign.builder()
+                .title("Cursor Campaign")
+                .description("Cursor Campaign Description")
+                .isActive(true)
+                .build());
+        IntStream.range(1, 8).forEach(i -> projectRepository.save(Project.builder()
+                .title("Cursor Project " + i)
+                .slug("cursor-project-" + i)
+                .code("CUR00" + i)
+                .status(1)
+                .totalBudget(new BigDecimal("100000"))
+                .amountNeededToRaise(new BigDecimal("50000"))
+                .ward("Ward " + i)
+                .district("District " + i)
+                .province("Province " + i)
+                .campaign(campaign)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build()));
+
+        // Act - Đi qua các trang bằng con trỏ
+        PageResponse<?> first = projectService.viewByFilter("", 3, "Cursor Project", null, null, null, null, true);
+        PageResponse<?> second = projectService.viewByFilter(first.getNextCursor(), 3, "Cursor Project", null, null, null, null, false);
+        PageResponse<?> third = projectService.viewByFilter(second.getNextCursor(), 3, "Cursor Project", null, null, null, null, false);
+
+        // Assert
+        assertEquals(7, first.getTotal());
+        assertNull(second.getTotal());
+        assertTrue(first.getHasMore());
+        assertTrue(second.getHasMore());
+        assertFalse(third.getHasMore());
+        assertNull(third.getNextCursor());
+        assertEquals(1, third.getContent().size());
+
+        List<BigInteger> ids = new ArrayList<>();
+        for (PageResponse<?> response : List.of(first, second, third)) {
+            response.getContent().forEach(item -> ids.add(((ProjectResponseDTO) item).getProjectId()));
+        }
+        // Giống thứ tự của trang OFFSET: project_id giảm dần, không trùng lặp
+        List<BigInteger> offsetIds = projectService.viewByFilter(0, 10, "Cursor Project", null, null, null, null)
+                .getContent().stream()
+                .map(item -> ((ProjectResponseDTO) item).getProjectId())
+                .toList();
+        assertEquals(offsetIds, ids);
+    }
+
+    @Test
+    @DisplayName("PS_viewByFilter_07")
+    void testViewByFilter_FilterByTitleWithoutAccents() {
+        // Arrange - Tiêu đề có dấu tiếng Việt
+        final Campaign campaign = campaignRepository.save(Campaign.builder()
+                .title("Chiến dịch Giáo dục")
+                .description("Mô tả")
+                .isActive(true)
+                .build());
+        Project school = projectRepository.save(Project.builder()
+                .title("Xây trường học Điện Biên")
+                .slug("xay-truong-hoc-dien-bien")
+                .code("TIT001")
+                .status(1)
+                .totalBudget(new BigDecimal("100000"))
+                .amountNeededToRaise(new BigDecimal("50000"))
+                .ward("Mường Phăng")
+                .district("Điện Biên Phủ")
+                .province("Điện Biên")
+                .campaign(campaign)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        projectRepository.save(Project.builder()
+                .title("Xây cầu Điện Biên")
+                .slug("xay-cau-dien-bien")
+                .code("TIT002")
+                .status(1)
+                .totalBudget(new BigDecimal("100000"))
+                .amountNeededToRaise(new BigDecimal("50000"))
+                .ward("Mường Phăng")
+                .district("Điện Biên Phủ")
+                .province("Điện Biên")
+                .campaign(campaign)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        // Act - Tìm không dấu
+        PageResponse<?> result = projectService.viewByFilter(0, 10, "truong hoc dien bien", null, null, null, null);
+        PageResponse<?> both = projectService.viewByFilter(0, 10, "DIEN BIEN", campaign.getCampaignId(), null, null, null);
+
+        // Assert
+        assertEquals(1, result.getTotal());
+        assertEquals(school.getProjectId(), ((ProjectResponseDTO) result.getContent().get(0)).getProjectId());
+        assertEquals(2, both.getTotal());
+    }
+
+    @Test
+    @DisplayName("PS_viewByFilter_08")
+    void testViewByFilter_CursorSearchUsesTitleIndex() {
+        // Arrange - Tìm theo con trỏ cũng phải bỏ qua dấu như trang OFFSET
+        final Campaign campaign = campaignRepository.save(Campaign.builder()
+                .title("Chiến dịch Nước sạch")
+                .description("Mô tả")
+                .isActive(true)
+                .build());
+        List<Project> wells = IntStream.range(1, 6).mapToObj(i -> projectRepository.save(Project.builder()
+                .title("Giếng nước sạch Hà Giang " + i)
+                .slug("gieng-nuoc-sach-ha-giang-" + i)
+                .code("GNS00" + i)
+                .status(i % 2 == 0 ? 2 : 1)
+                .totalBudget(new BigDecimal("100000"))
+                .amountNeededToRaise(new BigDecimal("50000"))
+                .ward("Ward")
+                .district("District")
+                .province("Hà Giang")
+                .campaign(campaign)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build())).toList();
+
+        // Act
+        PageResponse<?> first = projectService.viewByFilter("", 2, "gieng nuoc ha giang", null, 1, null, null, true);
+        PageResponse<?> second = projectService.viewByFilter(first.getNextCursor(), 2, "gieng nuoc ha giang", null, 1, null, null, false);
+
+        // Assert - 3 dự án trạng thái 1, id giảm dần
+        assertEquals(3, first.getTotal());
+        assertTrue(first.getHasMore());
+        assertFalse(second.getHasMore());
+        List<BigInteger> ids = new ArrayList<>();
+        for (PageResponse<?> response : List.of(first, second)) {
+            response.getContent().forEach(item -> ids.add(((ProjectResponseDTO) item).getProjectId()));
+        }
+        assertEquals(List.of(wells.get(4).getProjectId(), wells.get(2).getProjectId(), wells.get(0).getProjectId()), ids);
+    }
+
     // ==================== View Projects By Account ID Tests ====================
 
     @Test
@@ -1084,6 +1247,78 @@ public class ProjectServiceTest {
         assertEquals(ErrorCode.PROJECT_CONSTRUCTION_CONFLICT, exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("PS_updateProject_08")
+    void updateProject_shouldMoveDailyStats_whenCampaignChanges() {
+        // Arrange: dự án không có ảnh và tệp, có hai khoản ủng hộ đã được ghi vào thống kê theo ngày
+        Campaign target = campaignRepository.save(Campaign.builder()
+                .title("Target Campaign")
+                .description("Target Campaign Description")
+                .isActive(true)
+                .build());
+        Project moving = projectRepository.save(Project.builder()
+                .title("Moving Project")
+                .background("Moving Project Background")
+                .status(2)
+                .campaign(campaign)
+                .amountNeededToRaise(BigDecimal.valueOf(800))
+                .province("Test Province")
+                .district("Test District")
+                .ward("Test Ward")
+                .projectImages(new ArrayList<>())
+                .relatedFile(new ArrayList<>())
+                .constructions(new ArrayList<>())
+                .createdAt(testDateTime)
+                .updatedAt(testDateTime)
+                .build());
+        Construction construction = constructionRepository.save(Construction.builder()
+                .project(moving)
+                .title("Construction 1")
+                .quantity(5)
+                .unit("Meter")
+                .build());
+        List<BigInteger> donationIds = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            donationIds.add(donationRepository.saveAndFlush(Donation.builder()
+                    .id("9808" + i).tid("TIDPS08" + i)
+                    .value(BigDecimal.valueOf(100))
+                    .project(moving)
+                    .description("desc08")
+                    .createdAt(testDateTime)
+                    .build()).getDonationId());
+        }
+        donationDailyStatsService.recordDonations(donationIds);
+
+        ProjectUpdateRequestDTO updateDTO = new ProjectUpdateRequestDTO();
+        updateDTO.setCampaign(new CampaignResponseDTO());
+        updateDTO.getCampaign().setCampaignId(target.getCampaignId());
+        updateDTO.setTitle("Moving Project");
+        updateDTO.setProvince("Test Province");
+        updateDTO.setDistrict("Test District");
+        updateDTO.setWard("Test Ward");
+        updateDTO.setConstructions(List.of(ConstructionUpdateRequestDTO.builder()
+                .constructionId(construction.getConstructionId())
+                .title("Construction 1")
+                .quantity(5)
+                .unit("Meter")
+                .build()));
+
+        mockSecurityContext(adminAccount);
+
+        // Act
+        projectService.updateProject(updateDTO, moving.getProjectId(), null, null);
+
+        // Assert: các khoản ủng hộ được tính sang chiến dịch mới
+        LocalDate day = testDateTime.toLocalDate();
+        assertTrue(donationDailyStatsRepository.findById(new DonationDailyStatsId(day, campaign.getCampaignId()))
+                .map(stats -> stats.getDonationCount() == 0)
+                .orElse(true));
+        DonationDailyStats moved = donationDailyStatsRepository.findById(new DonationDailyStatsId(day, target.getCampaignId()))
+                .orElseThrow();
+        assertEquals(2L, moved.getDonationCount());
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(moved.getTotalDonation()));
+    }
+
     // ==================== Update Project Status Tests ====================
 
     @Test
@@ -1469,6 +1704,86 @@ public class ProjectServiceTest {
                 .anyMatch(p -> p.getTitle().equals("Budget Test Project 1")));
     }
 
+    @Test
+    @DisplayName("PS_viewProjectCards_03")
+    void PS_viewProjectCards_03() {
+        // Arrange
+        Project cardProject = projectRepository.save(Project.builder()
+                .title("Card Image Project")
+                .slug("card-image-project")
+                .status(2)
+                .campaign(campaign)
+                .totalBudget(BigDecimal.valueOf(1000))
+                .amountNeededToRaise(BigDecimal.valueOf(800))
+                .province("Test Province")
+                .district("Test District")
+                .ward("Test Ward")
+                .createdAt(testDateTime)
+                .updatedAt(testDateTime)
+                .build());
+        projectImageRepository.save(ProjectImage.builder().project(cardProject).image("card-first.jpg").build());
+        projectImageRepository.save(ProjectImage.builder().project(cardProject).image("card-second.jpg").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        PageResponse<?> response = projectService.viewProjectCards(0, 10, "Card Image Project", null, null, null, null, null, null);
+
+        // Assert
+        List<ProjectResponseDTO> cards = (List<ProjectResponseDTO>) response.getContent();
+        assertEquals(1, cards.size());
+        assertEquals("card-image-project", cards.get(0).getSlug());
+        assertEquals(1, cards.get(0).getImages().size());
+        assertEquals("card-first.jpg", cards.get(0).getImages().get(0).getImage());
+    }
+
+    @Test
+    @DisplayName("PS_viewProjectCards_04")
+    void PS_viewProjectCards_04() {
+        // Arrange
+        for (int i = 1; i <= 6; i++) {
+            Project cardProject = projectRepository.save(Project.builder()
+                    .title("Card Count Project " + i)
+                    .slug("card-count-project-" + i)
+                    .status(2)
+                    .campaign(campaign)
+                    .totalBudget(BigDecimal.valueOf(1000 + i))
+                    .amountNeededToRaise(BigDecimal.valueOf(800))
+                    .province("Test Province")
+                    .district("Test District")
+                    .ward("Test Ward")
+                    .createdAt(testDateTime)
+                    .updatedAt(testDateTime)
+                    .build());
+            projectImageRepository.save(ProjectImage.builder().project(cardProject).image("card-" + i + ".jpg").build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        long smallPage = countStatements(() -> projectService.viewProjectCards(0, 2, "Card Count Project", null, null, null, null, null, null));
+        long largePage = countStatements(() -> projectService.viewProjectCards(0, 5, "Card Count Project", null, null, null, null, null, null));
+
+        // Assert
+        // Số câu lệnh không phụ thuộc vào số thẻ trên trang: danh sách, đếm, ảnh
+        assertEquals(smallPage, largePage);
+        assertTrue(largePage <= 3, "Expected at most 3 statements but was " + largePage);
+    }
+
+    private long countStatements(Runnable action) {
+        entityManager.clear();
+        // Đếm trên session của test, không tính câu lệnh của các tác vụ định kỳ chạy ở luồng khác
+        AtomicLong statements = new AtomicLong();
+        entityManager.unwrap(Session.class).addEventListeners(new BaseSessionEventListener() {
+            @Override
+            public void jdbcPrepareStatementEnd() {
+                statements.incrementAndGet();
+            }
+        });
+        action.run();
+        return statements.get();
+    }
+
     // ==================== View Projects Client By Campaign ID Tests ====================
 
     @Test
@@ -1508,6 +1823,58 @@ public class ProjectServiceTest {
         }
     }
 
+    @Test
+    @DisplayName("PS_viewProjectsClientByCampaignId_03")
+    void PS_viewProjectsClientByCampaignId_03() {
+        // Arrange
+        Campaign listingCampaign = campaignRepository.save(Campaign.builder()
+                .title("Listing Campaign")
+                .description("Listing Campaign Description")
+                .isActive(true)
+                .build());
+        for (int i = 1; i <= 6; i++) {
+            Project listedProject = projectRepository.save(Project.builder()
+                    .title("Listing Project " + i)
+                    .slug("listing-project-" + i)
+                    .status(2)
+                    .campaign(listingCampaign)
+                    .totalBudget(BigDecimal.valueOf(1000))
+                    .amountNeededToRaise(BigDecimal.valueOf(800))
+                    .province("Test Province")
+                    .district("Test District")
+                    .ward("Test Ward")
+                    .createdAt(testDateTime.minusMinutes(i))
+                    .updatedAt(testDateTime)
+                    .build());
+            projectImageRepository.save(ProjectImage.builder().project(listedProject).image("listing-" + i + "-a.jpg").build());
+            projectImageRepository.save(ProjectImage.builder().project(listedProject).image("listing-" + i + "-b.jpg").build());
+            constructionRepository.save(Construction.builder().project(listedProject).title("Phòng học").quantity(i).unit("phòng").build());
+            sponsorRepository.save(Sponsor.builder().project(listedProject).companyName("Sponsor A").value(BigDecimal.TEN).build());
+            sponsorRepository.save(Sponsor.builder().project(listedProject).companyName("Sponsor B").value(BigDecimal.TEN).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        long smallPage = countStatements(() -> projectService.viewProjectsClientByCampaignId(0, 2, 2, listingCampaign.getCampaignId(), null, null));
+        long largePage = countStatements(() -> projectService.viewProjectsClientByCampaignId(0, 5, 2, listingCampaign.getCampaignId(), null, null));
+        PageResponse<ProjectResponseDTO> response = projectService.viewProjectsClientByCampaignId(0, 5, 2, listingCampaign.getCampaignId(), null, null);
+
+        // Assert
+        // Danh sách, đếm, nhà tài trợ, ảnh, hạng mục: không phụ thuộc số dự án trên trang
+        assertEquals(smallPage, largePage);
+        assertTrue(largePage <= 5, "Expected at most 5 statements but was " + largePage);
+
+        ProjectResponseDTO first = response.getContent().get(0);
+        assertEquals("Listing Project 1", first.getTitle());
+        assertEquals("listing-project-1", first.getSlug());
+        assertEquals("Listing Campaign", first.getCampaign().getTitle());
+        assertEquals(2L, first.getNumberSponsors());
+        assertEquals(List.of("listing-1-a.jpg", "listing-1-b.jpg"), first.getImages().stream().map(image -> image.getImage()).toList());
+        assertEquals(1, first.getConstructions().size());
+        assertEquals(1, first.getConstructions().get(0).getQuantity());
+    }
+
     // ==================== Get Projects By Status Tests ====================
 
     @Test
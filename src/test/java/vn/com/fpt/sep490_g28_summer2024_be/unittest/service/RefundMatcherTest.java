@@ -0,0 +1,104 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.RefundMatchStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.RefundMatcher;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class RefundMatcherTest {
+
+    @Autowired
+    private RefundMatcher refundMatcher;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    private Donation original;
+
+    @BeforeEach
+    void setUp() {
+        // Chuyển khoản gốc mà các giao dịch hoàn tiền sẽ trỏ tới
+        original = donationRepository.save(Donation.builder()
+                .id("930001").tid("FT24193000001")
+                .value(BigDecimal.valueOf(100000))
+                .description("ung ho du an")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Test
+    @DisplayName("RM_findOriginal_01")
+    void findOriginal_shouldMatchTokenThroughTidIndex() {
+        RefundMatchStatsDTO before = refundMatcher.snapshot();
+
+        // Mã giao dịch nằm giữa các dấu phân cách
+        Donation result = refundMatcher.findOriginal("MBVCB.3278.FT24193000001.hoan tien");
+
+        assertNotNull(result);
+        assertEquals(original.getDonationId(), result.getDonationId());
+        RefundMatchStatsDTO after = refundMatcher.snapshot();
+        assertEquals(before.getTokenHits() + 1, after.getTokenHits());
+        assertEquals(before.getFallbackHits(), after.getFallbackHits());
+    }
+
+    @Test
+    @DisplayName("RM_findOriginal_02")
+    void findOriginal_shouldFallBackToRecentWindow_whenTidIsNotAWord() {
+        RefundMatchStatsDTO before = refundMatcher.snapshot();
+
+        // Mã giao dịch dính liền với chữ khác nên không tách được thành từ riêng
+        Donation result = refundMatcher.findOriginal("hoantienFT24193000001xyz");
+
+        assertNotNull(result);
+        assertEquals(original.getDonationId(), result.getDonationId());
+        RefundMatchStatsDTO after = refundMatcher.snapshot();
+        assertEquals(before.getFallbackHits() + 1, after.getFallbackHits());
+    }
+
+    @Test
+    @DisplayName("RM_findOriginal_03")
+    void findOriginal_shouldReturnNullAndCountMiss_whenNoDonationMatches() {
+        RefundMatchStatsDTO before = refundMatcher.snapshot();
+
+        Donation result = refundMatcher.findOriginal("hoan tien KHONG-CO-MA");
+
+        assertNull(result);
+        RefundMatchStatsDTO after = refundMatcher.snapshot();
+        assertEquals(before.getMisses() + 1, after.getMisses());
+        assertEquals(before.getLookups() + 1, after.getLookups());
+    }
+
+    @Test
+    @DisplayName("RM_findOriginals_01")
+    void findOriginals_shouldMatchSeveralDescriptionsInOneCall() {
+        Donation second = donationRepository.save(Donation.builder()
+                .id("930002").tid("FT24193000002")
+                .value(BigDecimal.valueOf(50000))
+                .description("ung ho")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        Map<String, Donation> result = refundMatcher.findOriginals(List.of(
+                "hoan tien FT24193000001", "hoan tien FT24193000002", "hoan tien KHONG-CO-MA"));
+
+        assertEquals(2, result.size());
+        assertEquals(original.getDonationId(), result.get("hoan tien FT24193000001").getDonationId());
+        assertEquals(second.getDonationId(), result.get("hoan tien FT24193000002").getDonationId());
+        assertFalse(result.containsKey("hoan tien KHONG-CO-MA"));
+    }
+}
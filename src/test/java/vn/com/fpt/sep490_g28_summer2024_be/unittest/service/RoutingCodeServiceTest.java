@@ -0,0 +1,71 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Project;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.routing.RoutingCodeService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class RoutingCodeServiceTest {
+
+    @Autowired
+    private RoutingCodeService routingCodeService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private CampaignRepository campaignRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("RC_reloadIfChanged_01")
+    void reloadIfChanged_shouldPickUpCode_whenWrittenOutsideThisInstance() {
+        Campaign campaign = campaignRepository.save(Campaign.builder()
+                .title("Routing Campaign")
+                .description("Routing Campaign Description")
+                .build());
+        Project project = projectRepository.saveAndFlush(Project.builder()
+                .title("Routing Project")
+                .code("RTC001")
+                .status(2)
+                .ward("wardtest")
+                .district("districttest")
+                .province("provincetest")
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
+                .amountNeededToRaise(BigDecimal.valueOf(1000))
+                .campaign(campaign)
+                .build());
+        routingCodeService.reloadIfChanged();
+        assertFalse(routingCodeService.reloadIfChanged());
+
+        // Một instance khác đổi mã dự án: không đi qua entity listener của instance này
+        entityManager.createNativeQuery("UPDATE project SET code = 'RTC777' WHERE project_id = :projectId")
+                .setParameter("projectId", project.getProjectId())
+                .executeUpdate();
+        assertTrue(routingCodeService.match("ung ho RTC777").getProjectIds().isEmpty());
+
+        // Thực thi
+        assertTrue(routingCodeService.reloadIfChanged());
+
+        // Kiểm tra kết quả
+        assertEquals(List.of(project.getProjectId()), routingCodeService.match("ung ho RTC777").getProjectIds());
+        assertFalse(routingCodeService.reloadIfChanged());
+    }
+}
@@ -0,0 +1,83 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SearchScope;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.NewsRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.DefaultSearchIndexService;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class SearchIndexServiceTest {
+
+    private DefaultSearchIndexService searchIndexService;
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    // Giữ lại các dự án có id chẵn, như điều kiện lọc trạng thái của danh sách
+    private final Function<List<BigInteger>, Collection<BigInteger>> evenIds = ids -> {
+        batchSizes.add(ids.size());
+        return ids.stream().filter(id -> !id.testBit(0)).toList();
+    };
+
+    @BeforeEach
+    void setUp() {
+        searchIndexService = new DefaultSearchIndexService(mock(ProjectRepository.class), mock(CampaignRepository.class),
+                mock(NewsRepository.class), mock(ChallengeRepository.class), 3);
+        for (int id = 1; id <= 10; id++) {
+            searchIndexService.index(SearchScope.PROJECT, BigInteger.valueOf(id), "Giếng nước sạch " + id);
+        }
+        searchIndexService.index(SearchScope.PROJECT, BigInteger.valueOf(11), "Xây cầu treo");
+    }
+
+    @Test
+    @DisplayName("SI_search_01")
+    void search_shouldPageAndCountWholeMatchSet_whenMatchesExceedOneBatch() {
+        Page<BigInteger> page = searchIndexService.search(SearchScope.PROJECT, "gieng nuoc", PageRequest.of(1, 2),
+                evenIds, ids -> ids);
+
+        // 10 kết quả được lọc theo từng lô 3 id, tổng là của toàn bộ tập khớp
+        assertEquals(List.of(3, 3, 3, 1), batchSizes);
+        assertEquals(5, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(List.of(BigInteger.valueOf(6), BigInteger.valueOf(4)), page.getContent());
+        assertEquals(5, searchIndexService.count(SearchScope.PROJECT, "gieng nuoc", evenIds));
+    }
+
+    @Test
+    @DisplayName("SI_search_02")
+    void search_shouldLoadNothing_whenPageIsPastTheEnd() {
+        Page<BigInteger> page = searchIndexService.search(SearchScope.PROJECT, "gieng nuoc", PageRequest.of(5, 2),
+                evenIds, ids -> fail("Không được tải trang rỗng"));
+
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(5, page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("SI_searchAfter_01")
+    void searchAfter_shouldWalkIdsDownward_untilPageIsFull() {
+        List<Integer> limits = new ArrayList<>();
+        List<BigInteger> rows = searchIndexService.searchAfter(SearchScope.PROJECT, "gieng nuoc", BigInteger.valueOf(9), 3,
+                (ids, limit) -> {
+                    limits.add(limit);
+                    return ids.stream().filter(id -> !id.testBit(0)).limit(limit).toList();
+                });
+
+        // Lô đầu 8,7,6 giữ 8 và 6; lô sau 5,4,3 chỉ cần thêm 1
+        assertEquals(List.of(BigInteger.valueOf(8), BigInteger.valueOf(6), BigInteger.valueOf(4)), rows);
+        assertEquals(List.of(3, 1), limits);
+    }
+}
@@ -0,0 +1,85 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.casso.SeenFilterStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.casso.SeenTransactionFilter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+public class SeenTransactionFilterTest {
+
+    @Autowired
+    private SeenTransactionFilter seenTransactionFilter;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Test
+    @DisplayName("STF_existingIds_01")
+    void existingIds_shouldFindDonationSavedThroughJpa() {
+        // Lưu một khoản đóng góp có mã Casso qua JPA, bộ lọc phải ghi nhận ngay
+        donationRepository.save(Donation.builder()
+                .id("940001").tid("STF-TID-940001")
+                .value(BigDecimal.valueOf(10000))
+                .description("ung ho")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        Set<String> existing = seenTransactionFilter.existingIds(List.of("940001", "940002"));
+
+        assertEquals(Set.of("940001"), existing);
+    }
+
+    @Test
+    @DisplayName("STF_existingIds_02")
+    void existingIds_shouldSkipDatabaseForUnseenIds() {
+        SeenFilterStatsDTO before = seenTransactionFilter.snapshot();
+        assertTrue(before.getReady());
+
+        // 200 mã chưa từng thấy: đa số được loại ngay mà không truy vấn DB
+        List<String> ids = IntStream.range(0, 200)
+                .mapToObj(i -> "94100" + i)
+                .toList();
+        Set<String> existing = seenTransactionFilter.existingIds(ids);
+
+        assertTrue(existing.isEmpty());
+        SeenFilterStatsDTO after = seenTransactionFilter.snapshot();
+        long definitelyNew = after.getDefinitelyNew() - before.getDefinitelyNew();
+        long dbChecks = after.getDbChecks() - before.getDbChecks();
+        assertEquals(200, definitelyNew + dbChecks);
+        assertTrue(definitelyNew >= 180);
+        assertEquals(dbChecks, after.getFalsePositives() - before.getFalsePositives());
+    }
+
+    @Test
+    @DisplayName("STF_warm_01")
+    void warm_shouldLoadStoredIds() {
+        donationRepository.save(Donation.builder()
+                .id("942001").tid("STF-TID-942001")
+                .value(BigDecimal.valueOf(10000))
+                .description("ung ho")
+                .createdAt(LocalDateTime.now())
+                .build());
+        donationRepository.flush();
+
+        // Nạp lại toàn bộ mã đã lưu, mã vừa lưu phải được xem là đã thấy
+        seenTransactionFilter.warm();
+
+        assertTrue(seenTransactionFilter.snapshot().getReady());
+        assertEquals(Set.of("942001"), seenTransactionFilter.existingIds(List.of("942001")));
+    }
+}
@@ -0,0 +1,231 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import vn.com.fpt.sep490_g28_summer2024_be.common.ContentArea;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.ApiResponse;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.SnapshotCacheStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.httpcache.interfacedto.ContentVersionInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.NewsRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectDonationLedgerRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.DefaultConditionalGetService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.httpcache.DefaultSnapshotCacheService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SnapshotCacheServiceTest {
+
+    private ProjectRepository projectRepository;
+    private final AtomicReference<String> projectVersion = new AtomicReference<>("1");
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicReference<String> title = new AtomicReference<>("Xây trường học");
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findContentVersion()).thenAnswer(invocation -> version(projectVersion.get()));
+    }
+
+    private DefaultSnapshotCacheService service(long ttlMs, int maxEntries, int gzipMinBytes) {
+        return service(ttlMs, maxEntries, 16, gzipMinBytes);
+    }
+
+    private DefaultSnapshotCacheService service(long ttlMs, int maxEntries, int maxRebuilds, int gzipMinBytes) {
+        DefaultConditionalGetService conditionalGetService = new DefaultConditionalGetService(projectRepository,
+                mock(ProjectDonationLedgerRepository.class), mock(CampaignRepository.class),
+                mock(NewsRepository.class), mock(AccountRepository.class));
+        return new DefaultSnapshotCacheService(conditionalGetService, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), ttlMs, 600000, maxEntries, maxRebuilds, 50, true, gzipMinBytes);
+    }
+
+    private static ContentVersionInterfaceDTO version(String value) {
+        return new ContentVersionInterfaceDTO() {
+            public String getVersion() { return value; }
+            public LocalDateTime getLastModified() { return null; }
+        };
+    }
+
+    private Supplier<?> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return ApiResponse.builder().code("200").message("OK").data(title.get()).build();
+        };
+    }
+
+    private static ServletWebRequest get(String uri, String... headers) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static String text(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("SC_serve_01")
+    void serve_shouldLoadOnce_whenSameRequestRepeats() {
+        DefaultSnapshotCacheService snapshotCacheService = service(30000, 10, 1024);
+
+        ResponseEntity<byte[]> first = snapshotCacheService.serve(get("/api/campaigns"), List.of(), loader(), ContentArea.PROJECTS);
+        ResponseEntity<byte[]> second = snapshotCacheService.serve(get("/api/campaigns"), List.of(), loader(), ContentArea.PROJECTS);
+
+        assertEquals(1, loads.get());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertTrue(text(second).contains("Xây trường học"));
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertNull(second.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        // Tham số không khai báo trong query không tạo bản mới
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/api/projects/cards");
+        MockHttpServletRequest junk = new MockHttpServletRequest("GET", "/api/projects/cards");
+        junk.addParameter("utm_source", "facebook");
+        junk.addParameter("_", "1718000000000");
+        snapshotCacheService.serve(new ServletWebRequest(plain), Arrays.asList(0, 16, null, 2), loader(), ContentArea.PROJECTS);
+        snapshotCacheService.serve(new ServletWebRequest(junk), Arrays.asList(0, 16, null, 2), loader(), ContentArea.PROJECTS);
+        assertEquals(2, loads.get());
+
+        SnapshotCacheStatsDTO stats = snapshotCacheService.getStats();
+        assertEquals(2, stats.getEntries());
+        assertEquals(2L, stats.getHits());
+        assertEquals(2L, stats.getMisses());
+    }
+
+    @Test
+    @DisplayName("SC_serve_02")
+    void serve_shouldAnswerGzipAndNotModified_whenClientAsks() throws IOException {
+        DefaultSnapshotCacheService snapshotCacheService = service(30000, 10, 0);
+
+        ResponseEntity<byte[]> gzip = snapshotCacheService.serve(get("/api/campaigns", HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"),
+                List.of(), loader(), ContentArea.PROJECTS);
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeaders().getFirst(HttpHeaders.VARY));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getBody()))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("Xây trường học"));
+        }
+
+        // gzip;q=0 nghĩa là client không nhận gzip
+        ResponseEntity<byte[]> plain = snapshotCacheService.serve(get("/api/campaigns", HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"),
+                List.of(), loader(), ContentArea.PROJECTS);
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        ResponseEntity<byte[]> notModified = snapshotCacheService.serve(
+                get("/api/campaigns", HttpHeaders.IF_NONE_MATCH, gzip.getHeaders().getETag()), List.of(), loader(), ContentArea.PROJECTS);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("SC_refresh_01")
+    void refresh_shouldRebuildSnapshot_onlyWhenVersionChanges() {
+        DefaultSnapshotCacheService snapshotCacheService = service(30000, 10, 1024);
+        ResponseEntity<byte[]> before = snapshotCacheService.serve(get("/api/campaigns"), List.of(), loader(), ContentArea.PROJECTS);
+
+        assertEquals(0, snapshotCacheService.refresh());
+
+        title.set("Cầu treo Hà Giang");
+        projectVersion.set("2");
+        assertEquals(1, snapshotCacheService.refresh());
+        assertEquals(2, loads.get());
+
+        ResponseEntity<byte[]> after = snapshotCacheService.serve(get("/api/campaigns"), List.of(), loader(), ContentArea.PROJECTS);
+        assertTrue(text(after).contains("Cầu treo Hà Giang"));
+        assertNotEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("SC_refresh_02")
+    void refresh_shouldKeepPreviousBody_whenRebuildFails() {
+        DefaultSnapshotCacheService snapshotCacheService = service(0, 10, 1024);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<?> failing = () -> {
+            if (calls.incrementAndGet() > 1) throw new IllegalStateException("db down");
+            return ApiResponse.builder().code("200").data("cũ").build();
+        };
+        snapshotCacheService.serve(get("/api/ambassadors/top/5"), List.of(), failing, ContentArea.PROJECTS);
+
+        // TTL bằng 0 nên lần làm mới nào cũng dựng lại
+        assertEquals(0, snapshotCacheService.refresh());
+        assertEquals(2, calls.get());
+        assertTrue(text(snapshotCacheService.serve(get("/api/ambassadors/top/5"), List.of(), failing, ContentArea.PROJECTS)).contains("cũ"));
+    }
+
+    @Test
+    @DisplayName("SC_serve_03")
+    void serve_shouldLoadEveryTime_whenCacheIsFull() {
+        DefaultSnapshotCacheService snapshotCacheService = service(30000, 1, 1024);
+        snapshotCacheService.serve(get("/api/ambassadors/top/5"), List.of(), loader(), ContentArea.PROJECTS);
+
+        snapshotCacheService.serve(get("/api/ambassadors/top/6"), List.of(), loader(), ContentArea.PROJECTS);
+        snapshotCacheService.serve(get("/api/ambassadors/top/6"), List.of(), loader(), ContentArea.PROJECTS);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, snapshotCacheService.getStats().getEntries());
+        assertEquals(2L, snapshotCacheService.getStats().getBypassed());
+    }
+
+    @Test
+    @DisplayName("SC_serve_04")
+    void serve_shouldShareSnapshot_whenSizeIsClampedOrBudgetRewritten() {
+        DefaultSnapshotCacheService snapshotCacheService = service(30000, 10, 1024);
+
+        // Kích thước vượt giới hạn được kẹp lại trước khi vào khóa
+        assertEquals(50, snapshotCacheService.clampSize(5000));
+        assertEquals(50, snapshotCacheService.clampSize(51));
+        assertEquals(1, snapshotCacheService.clampSize(-3));
+        snapshotCacheService.serve(get("/api/projects/cards"),
+                Arrays.asList(0, snapshotCacheService.clampSize(5000), new BigDecimal("1000.00")), loader(), ContentArea.PROJECTS);
+        snapshotCacheService.serve(get("/api/projects/cards"),
+                Arrays.asList(0, snapshotCacheService.clampSize(51), new BigDecimal("1E+3")), loader(), ContentArea.PROJECTS);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, snapshotCacheService.getStats().getEntries());
+    }
+
+    @Test
+    @DisplayName("SC_refresh_03")
+    void refresh_shouldRebuildAtMostTheCap_whenManyEntriesAreStale() {
+        DefaultSnapshotCacheService snapshotCacheService = service(30000, 10, 2, 1024);
+        for (int limit = 1; limit <= 5; limit++) {
+            snapshotCacheService.serve(get("/api/ambassadors/top/{limit}"), List.of(limit), loader(), ContentArea.PROJECTS);
+        }
+        assertEquals(5, loads.get());
+
+        projectVersion.set("2");
+        // Mỗi lần làm mới chỉ dựng lại tối đa 2 bản, các bản còn lại chờ lần sau
+        assertEquals(2, snapshotCacheService.refresh());
+        assertEquals(2, snapshotCacheService.refresh());
+        assertEquals(1, snapshotCacheService.refresh());
+        assertEquals(0, snapshotCacheService.refresh());
+        assertEquals(10, loads.get());
+    }
+}
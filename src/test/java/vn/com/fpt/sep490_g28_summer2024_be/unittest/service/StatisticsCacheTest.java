@@ -0,0 +1,105 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.StatisticsCacheStatsDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.statistics.interfacedto.DailyStatsKeyInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsCache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatisticsCacheTest {
+
+    private StatisticsCache statisticsCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        statisticsCache = new StatisticsCache(100, 300);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("SC_get_01")
+    void get_shouldLoadOnce_whenPeriodIsClosed() {
+        StatisticsCache.Key key = new StatisticsCache.Key("total-donation", null, 4, 2024);
+
+        // Đọc hai lần cùng một kỳ đã đóng
+        statisticsCache.get(key, this::load);
+        BigDecimal value = statisticsCache.get(key, this::load);
+
+        // Kiểm tra kết quả: chỉ truy vấn một lần, lần thứ hai lấy từ cache
+        assertEquals(BigDecimal.ONE, value);
+        assertEquals(1, loads.get());
+        StatisticsCacheStatsDTO stats = statisticsCache.snapshot();
+        assertEquals(1L, stats.getHits());
+        assertEquals(1L, stats.getMisses());
+        assertEquals(0.5, stats.getHitRatio());
+        assertEquals(1L, stats.getClosedEntries());
+        assertEquals(0L, stats.getCurrentEntries());
+    }
+
+    @Test
+    @DisplayName("SC_invalidate_01")
+    void invalidate_shouldEvictOnlyCoveringEntries_whenDonationChangesInPeriodAndCampaign() {
+        StatisticsCache.Key april = new StatisticsCache.Key("total-donation", null, 4, 2024);
+        StatisticsCache.Key may = new StatisticsCache.Key("total-donation", null, 5, 2024);
+        StatisticsCache.Key yearly = new StatisticsCache.Key("line-chart", null, null, 2024);
+        StatisticsCache.Key campaign1 = new StatisticsCache.Key("campaign-donation", BigInteger.ONE, null, 2024);
+        StatisticsCache.Key campaign2 = new StatisticsCache.Key("campaign-donation", BigInteger.TWO, null, 2024);
+        List.of(april, may, yearly, campaign1, campaign2).forEach(key -> statisticsCache.get(key, this::load));
+
+        // Một khoản quyên góp của chiến dịch 1 trong tháng 4/2024 thay đổi
+        statisticsCache.invalidate(List.of(day(LocalDate.of(2024, 4, 10), BigInteger.ONE)));
+        List.of(april, may, yearly, campaign1, campaign2).forEach(key -> statisticsCache.get(key, this::load));
+
+        // Kiểm tra kết quả: tháng 4, cả năm và chiến dịch 1 được tải lại; tháng 5 và chiến dịch 2 vẫn dùng cache
+        assertEquals(5 + 3, loads.get());
+        assertEquals(1L, statisticsCache.snapshot().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("SC_get_02")
+    void get_shouldNotCacheValue_whenInvalidatedDuringLoad() {
+        YearMonth now = YearMonth.now();
+        StatisticsCache.Key key = new StatisticsCache.Key("total-donation", null, now.getMonthValue(), now.getYear());
+
+        // Một thay đổi xảy ra trong khi đang truy vấn
+        statisticsCache.get(key, () -> {
+            statisticsCache.invalidate(List.of(day(now.atDay(1), BigInteger.ONE)));
+            return load();
+        });
+        statisticsCache.get(key, this::load);
+
+        // Kiểm tra kết quả: giá trị cũ không được giữ lại, lần sau truy vấn lại
+        assertEquals(2, loads.get());
+        assertEquals(1L, statisticsCache.snapshot().getCurrentEntries());
+    }
+
+    private BigDecimal load() {
+        loads.incrementAndGet();
+        return BigDecimal.ONE;
+    }
+
+    private static DailyStatsKeyInterfaceDTO day(LocalDate statDate, BigInteger campaignId) {
+        return new DailyStatsKeyInterfaceDTO() {
+            @Override
+            public LocalDate getStatDate() {
+                return statDate;
+            }
+
+            @Override
+            public BigInteger getCampaignId() {
+                return campaignId;
+            }
+        };
+    }
+}
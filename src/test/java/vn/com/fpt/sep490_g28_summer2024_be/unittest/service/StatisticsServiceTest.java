@@ -18,6 +18,7 @@ import vn.com.fpt.sep490_g28_summer2024_be.repository.CampaignRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.SponsorRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsService;
 
 import java.math.BigDecimal;
@@ -49,6 +50,9 @@ public class StatisticsServiceTest {
     @Autowired
     private StatisticsService statisticsService;
 
+    @Autowired
+    private DonationDailyStatsService donationDailyStatsService;
+
     @Autowired
     private EntityManager entityManager;
 
@@ -114,6 +118,9 @@ public class StatisticsServiceTest {
             (500000, '2025-05-01')
         """).executeUpdate();
 
+        // Rows written directly bypass ingestion, so backfill the daily stats
+        donationDailyStatsService.rebuild();
+
         // Act
         BigDecimal totalValue = statisticsService.getTotalDonation(4, 2025);
 
@@ -147,6 +154,9 @@ public class StatisticsServiceTest {
             (3)  -- April 30th donation
         """).executeUpdate();
 
+        // Rows written directly bypass ingestion, so backfill the daily stats
+        donationDailyStatsService.rebuild();
+
         // Act
         BigDecimal totalValue = statisticsService.getTotalWrongDonation(4, 2025);
 
@@ -176,6 +186,9 @@ public class StatisticsServiceTest {
             (500000, '2025-05-01')
         """).executeUpdate();
 
+        // Rows written directly bypass ingestion, so backfill the daily stats
+        donationDailyStatsService.rebuild();
+
         // Act
         Long totalCount = statisticsService.getTotalCountDonations(4, 2025);
 
@@ -215,6 +228,9 @@ public class StatisticsServiceTest {
             (3, 4000000, '2025-04-01')
         """).executeUpdate();
 
+        // Rows written directly bypass ingestion, so backfill the daily stats
+        donationDailyStatsService.rebuild();
+
         // Act
         var result = statisticsService.getDataPieChart(4, 2025);
 
@@ -280,6 +296,9 @@ public class StatisticsServiceTest {
             (1000000, '2026-01-01')
         """).executeUpdate();
 
+        // Rows written directly bypass ingestion, so backfill the daily stats
+        donationDailyStatsService.rebuild();
+
         // Act
         var result = statisticsService.getDataLineChart(2025);
 
@@ -345,6 +364,9 @@ public class StatisticsServiceTest {
             (1000000, '2025-05-01')
         """).executeUpdate();
 
+        // Rows written directly bypass ingestion, so backfill the daily stats
+        donationDailyStatsService.rebuild();
+
         // Act
         var result = statisticsService.getDataBarChart(4, 2025);
 
@@ -528,6 +550,9 @@ public class StatisticsServiceTest {
 
         donationRepository.saveAll(Arrays.asList(donation1, donation2, donation3, donation4));
 
+        // Rows written directly bypass ingestion, so backfill the daily stats
+        donationDailyStatsService.rebuild();
+
         // Act
         StatisticsInterfaceDTO result = statisticsService.getDonationStaticDataByCampaign(campaign.getCampaignId(), 2025);
 
@@ -0,0 +1,114 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vn.com.fpt.sep490_g28_summer2024_be.common.SuggestType;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.SuggestResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.SuggestionDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.search.interfacedto.SuggestInterfaceDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.AccountRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.search.DefaultSuggestService;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SuggestServiceTest {
+
+    private DefaultSuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        ChallengeRepository challengeRepository = mock(ChallengeRepository.class);
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(projectRepository.findSuggestEntries()).thenReturn(List.of(
+                row(1, "DA001", "Xây trường học Điện Biên"),
+                row(2, "DA002", "Cầu treo Hà Giang")));
+        when(challengeRepository.findSuggestEntries()).thenReturn(List.of(
+                row(3, "TT001", "Thử thách đạp xe")));
+        when(accountRepository.findAmbassadorSuggestEntries()).thenReturn(List.of(
+                row(4, "DS001", "Trần Văn Đạt")));
+        suggestService = new DefaultSuggestService(projectRepository, challengeRepository, accountRepository, 5, 24);
+        suggestService.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static SuggestInterfaceDTO row(long id, String code, String title) {
+        return new SuggestInterfaceDTO() {
+            public BigInteger getId() { return BigInteger.valueOf(id); }
+            public String getCode() { return code; }
+            public String getTitle() { return title; }
+        };
+    }
+
+    private static List<BigInteger> ids(SuggestResponseDTO response) {
+        return response.getSuggestions().stream().map(SuggestionDTO::getId).toList();
+    }
+
+    @Test
+    @DisplayName("SG_suggest_01")
+    void suggest_shouldMatchCodesAndTitleWords_whenQueryHasNoAccents() {
+        assertEquals(List.of(BigInteger.valueOf(1), BigInteger.valueOf(2)),
+                ids(suggestService.suggest("da00", List.of(SuggestType.PROJECT), null)));
+        // Khớp từ giữa tiêu đề, không cần gõ dấu
+        assertEquals(List.of(BigInteger.valueOf(1)), ids(suggestService.suggest("truong h", null, null)));
+        assertEquals(List.of(BigInteger.valueOf(2)), ids(suggestService.suggest("ha giang", null, null)));
+        // Tên đại sứ, "Đ" đọc như "d"
+        SuggestResponseDTO ambassador = suggestService.suggest("dat", null, null);
+        assertEquals(List.of(BigInteger.valueOf(4)), ids(ambassador));
+        assertEquals(SuggestType.AMBASSADOR, ambassador.getSuggestions().get(0).getType());
+        assertEquals("dat", ambassador.getQuery());
+    }
+
+    @Test
+    @DisplayName("SG_suggest_02")
+    void suggest_shouldFilterTypesAndLimit() {
+        SuggestResponseDTO codes = suggestService.suggest("d", List.of(SuggestType.PROJECT, SuggestType.AMBASSADOR), 2);
+
+        assertEquals(2, codes.getSuggestions().size());
+        // Thử thách chỉ được gợi ý theo mã
+        assertEquals(List.of(BigInteger.valueOf(3)), ids(suggestService.suggest("tt", null, null)));
+        assertTrue(suggestService.suggest("dap xe", null, null).getSuggestions().isEmpty());
+        assertTrue(suggestService.suggest("  ", null, null).getSuggestions().isEmpty());
+    }
+
+    @Test
+    @DisplayName("SG_index_01")
+    void index_shouldReplaceOldKeys_whenTitleChanges() {
+        suggestService.index(SuggestType.PROJECT, BigInteger.valueOf(2), "DA002", "Nhà văn hóa");
+
+        assertTrue(suggestService.suggest("cau treo", null, null).getSuggestions().isEmpty());
+        assertEquals(List.of(BigInteger.valueOf(2)), ids(suggestService.suggest("van hoa", null, null)));
+
+        suggestService.remove(SuggestType.PROJECT, BigInteger.valueOf(2));
+        assertTrue(suggestService.suggest("da002", null, null).getSuggestions().isEmpty());
+    }
+
+    @Test
+    @DisplayName("SG_index_02")
+    void index_shouldRestorePreviousEntry_whenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        suggestService.index(SuggestType.PROJECT, BigInteger.valueOf(5), "DA005", "Giếng nước sạch");
+        assertEquals(List.of(BigInteger.valueOf(5)), ids(suggestService.suggest("gieng", null, null)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(suggestService.suggest("gieng", null, null).getSuggestions().isEmpty());
+    }
+}
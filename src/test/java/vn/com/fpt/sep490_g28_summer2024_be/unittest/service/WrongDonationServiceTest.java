@@ -6,6 +6,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.chart.ChartResponseDTO;
+import vn.com.fpt.sep490_g28_summer2024_be.dto.wrongdonation.WrongDonationRunDTO;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Account;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Campaign;
 import vn.com.fpt.sep490_g28_summer2024_be.entity.Donation;
@@ -17,11 +20,15 @@ import vn.com.fpt.sep490_g28_summer2024_be.repository.ChallengeRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.DonationRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.ProjectRepository;
 import vn.com.fpt.sep490_g28_summer2024_be.repository.WrongDonationRepository;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.DonationDailyStatsService;
+import vn.com.fpt.sep490_g28_summer2024_be.service.statistics.StatisticsService;
 import vn.com.fpt.sep490_g28_summer2024_be.service.wrongdonation.DefaultWrongDonationService;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +50,10 @@ public class WrongDonationServiceTest {
     private ChallengeRepository challengeRepository;
     @Autowired
     private CampaignRepository campaignRepository;
+    @Autowired
+    private StatisticsService statisticsService;
+    @Autowired
+    private DonationDailyStatsService donationDailyStatsService;
 
     private Account account;
     private Campaign campaign;
@@ -512,7 +523,128 @@ public class WrongDonationServiceTest {
         assertNotNull(updatedDonation);
         assertNull(updatedDonation.getProject());
     }
-}
 
+    @Test
+    @DisplayName("WD_updateWrongDonation_15")
+    void updateWrongDonation_shouldReassignAcrossPagesAndReportRunStats() {
+        // Tạo dữ liệu: 3 khoản thu không có dự án và 1 khoản chi không tìm thấy khoản gốc, đọc theo trang 2 dòng
+        ReflectionTestUtils.setField(defaultWrongDonationService, "pageSize", 2);
+        try {
+            Project validProject = projectRepository.save(Project.builder()
+                    .title("Dự án 15 hợp lệ").code("PRJ15VALID").status(2)
+                    .campaign(campaign)
+                    .ward("ward15").district("district15").province("province15")
+                    .amountNeededToRaise(BigDecimal.valueOf(10000000))
+                    .totalBudget(BigDecimal.valueOf(50000))
+                    .createdAt(LocalDateTime.now()).build());
+            for (int i = 0; i < 4; i++) {
+                Donation donation = donationRepository.save(Donation.builder()
+                        .id("15" + i).tid("TID015" + i)
+                        .value(BigDecimal.valueOf(i == 3 ? -100000 : 100000))
+                        .description(i == 3 ? "NO_MATCH" : "desc15")
+                        .createdBy(account)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                WrongDonation wrong = wrongDonationRepository.save(WrongDonation.builder().donation(donation).build());
+                donation.setWrongDonation(wrong);
+                donationRepository.save(donation);
+            }
+
+            WrongDonationRunDTO run = defaultWrongDonationService.updateWrongDonationInAsync();
+
+            // Kiểm tra thống kê: quét 4 dòng trong 2 trang, chuyển 3 khoản thu, còn lại khoản chi
+            assertEquals(2, run.getPages());
+            assertEquals(4, run.getScanned());
+            assertEquals(3, run.getReassigned());
+            assertEquals(1L, run.getStillPending());
+            assertNotNull(run.getElapsedMs());
+            List<Donation> donations = donationRepository.findAll();
+            assertEquals(3, donations.stream()
+                    .filter(donation -> donation.getTransferredProject() != null
+                            && validProject.getProjectId().equals(donation.getTransferredProject().getProjectId()))
+                    .count());
+        } finally {
+            ReflectionTestUtils.setField(defaultWrongDonationService, "pageSize", 200);
+        }
+    }
+
+    @Test
+    @DisplayName("WD_updateWrongDonation_16")
+    void updateWrongDonation_shouldMoveDailyStatsToCampaign_whenDonationIsReassigned() {
+        // Tạo dữ liệu: một khoản thu sai trong tháng 4/2031 và một dự án hợp lệ của chiến dịch
+        projectRepository.save(Project.builder()
+                .title("Dự án 16 hợp lệ").code("PRJ16VALID").status(2)
+                .campaign(campaign)
+                .ward("ward16").district("district16").province("province16")
+                .amountNeededToRaise(BigDecimal.valueOf(10000000))
+                .totalBudget(BigDecimal.valueOf(50000))
+                .createdAt(LocalDateTime.now()).build());
+        Donation donation = donationRepository.save(Donation.builder()
+                .id("160").tid("TID0160")
+                .value(BigDecimal.valueOf(100000))
+                .description("desc16")
+                .createdBy(account)
+                .createdAt(LocalDateTime.of(2031, 4, 10, 9, 0))
+                .build());
+        WrongDonation wrong = wrongDonationRepository.save(WrongDonation.builder().donation(donation).build());
+        donation.setWrongDonation(wrong);
+        donationRepository.save(donation);
+        // Dữ liệu được lưu trực tiếp nên cần dựng lại bảng thống kê theo ngày
+        donationDailyStatsService.rebuild();
+        assertEquals(0, BigDecimal.valueOf(100000).compareTo(statisticsService.getTotalWrongDonation(4, 2031)));
+
+        defaultWrongDonationService.updateWrongDonationInAsync();
 
+        // Kiểm tra kết quả: khoản thu không còn tính là sai và được tính vào chiến dịch
+        assertEquals(0, BigDecimal.ZERO.compareTo(statisticsService.getTotalWrongDonation(4, 2031)));
+        assertEquals(0, BigDecimal.valueOf(100000).compareTo(statisticsService.getTotalDonation(4, 2031)));
+        List<ChartResponseDTO> pieChart = statisticsService.getDataPieChart(4, 2031);
+        assertEquals(1, pieChart.size());
+        assertEquals(campaign.getCampaignId(), pieChart.get(0).getId());
+    }
 
+    @Test
+    @DisplayName("WD_updateWrongDonation_17")
+    void updateWrongDonation_shouldSpreadPageOverProjects_whenEachRowChangesLeastFunded() {
+        // Tạo dữ liệu: dự án gốc đã đóng, hai dự án cùng chiến dịch đang nhận quyên góp
+        Project closed = projectRepository.save(Project.builder()
+                .title("Dự án đã đóng").code("PRJ17").status(3).campaign(campaign)
+                .ward("ward17").district("district17").province("province17")
+                .amountNeededToRaise(BigDecimal.valueOf(100000))
+                .createdAt(LocalDateTime.now()).build());
+        Project first = projectRepository.save(Project.builder()
+                .title("Dự án 17A").code("PRJ17A").status(2).campaign(campaign)
+                .ward("ward17").district("district17").province("province17")
+                .amountNeededToRaise(BigDecimal.valueOf(100000))
+                .createdAt(LocalDateTime.now()).build());
+        Project second = projectRepository.save(Project.builder()
+                .title("Dự án 17B").code("PRJ17B").status(2).campaign(campaign)
+                .ward("ward17").district("district17").province("province17")
+                .amountNeededToRaise(BigDecimal.valueOf(100000))
+                .createdAt(LocalDateTime.now()).build());
+        List<Donation> donations = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            Donation donation = donationRepository.save(Donation.builder()
+                    .id("17" + i).tid("TID017" + i)
+                    .value(BigDecimal.valueOf(80000))
+                    .project(closed)
+                    .description("desc17")
+                    .createdBy(account)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            WrongDonation wrong = wrongDonationRepository.save(WrongDonation.builder().donation(donation).build());
+            donation.setWrongDonation(wrong);
+            donations.add(donationRepository.save(donation));
+        }
+
+        // Gọi hàm updateWrongDonation: cả hai khoản nằm trong cùng một trang
+        defaultWrongDonationService.updateWrongDonationInAsync();
+
+        // Kiểm tra: khoản thứ hai thấy khoản thứ nhất nên chuyển sang dự án còn lại
+        List<BigInteger> targets = donations.stream()
+                .map(donation -> donationRepository.findById(donation.getDonationId()).orElseThrow().getTransferredProject().getProjectId())
+                .sorted()
+                .toList();
+        assertEquals(List.of(first.getProjectId(), second.getProjectId()), targets);
+    }
+}
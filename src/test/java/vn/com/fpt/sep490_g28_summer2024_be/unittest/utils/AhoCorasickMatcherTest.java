@@ -0,0 +1,75 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.AhoCorasickMatcher;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AhoCorasickMatcherTest {
+
+    @Test
+    @DisplayName("AC_findAll_01")
+    void findAll_shouldReturnEveryCode_whenDescriptionContainsSeveralCodes() {
+        AhoCorasickMatcher<Integer> matcher = AhoCorasickMatcher.<Integer>builder()
+                .add("DA001", 1)
+                .add("TT002", 2)
+                .add("DS003", 3)
+                .add("ACC003", 4)
+                .build();
+
+        List<Integer> values = matcher.findAll("UNG HO DA001 TT002 DS003 ACC003").stream()
+                .map(AhoCorasickMatcher.Match::getValue)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(1, 2, 3, 4), values);
+    }
+
+    @Test
+    @DisplayName("AC_findAll_02")
+    void findAll_shouldReturnOverlappingCodes_whenOneCodeIsSuffixOfAnother() {
+        // "DA0010" chứa cả "DA001" và "A0010"
+        AhoCorasickMatcher<String> matcher = AhoCorasickMatcher.<String>builder()
+                .add("DA001", "short")
+                .add("DA0010", "long")
+                .add("A0010", "suffix")
+                .build();
+
+        List<String> values = matcher.findAll("XDA0010X").stream()
+                .map(AhoCorasickMatcher.Match::getValue)
+                .collect(Collectors.toList());
+
+        assertEquals(3, values.size());
+        assertTrue(values.containsAll(List.of("short", "long", "suffix")));
+    }
+
+    @Test
+    @DisplayName("AC_findAll_03")
+    void findAll_shouldReturnStartIndex_whenCodeMatched() {
+        AhoCorasickMatcher<Integer> matcher = AhoCorasickMatcher.<Integer>builder()
+                .add("TT01", 1)
+                .build();
+
+        List<AhoCorasickMatcher.Match<Integer>> matches = matcher.findAll("TTTT01");
+
+        assertEquals(1, matches.size());
+        assertEquals(2, matches.get(0).getStart());
+        assertEquals("TT01", matches.get(0).getPattern());
+    }
+
+    @Test
+    @DisplayName("AC_findAll_04")
+    void findAll_shouldReturnEmpty_whenNoCodeOrEmptyText() {
+        AhoCorasickMatcher<Integer> matcher = AhoCorasickMatcher.<Integer>builder()
+                .add("DA001", 1)
+                .build();
+
+        assertTrue(matcher.findAll("chuyen khoan").isEmpty());
+        assertTrue(matcher.findAll("").isEmpty());
+        assertTrue(matcher.findAll(null).isEmpty());
+        assertTrue(AhoCorasickMatcher.<Integer>empty().findAll("DA001").isEmpty());
+    }
+}
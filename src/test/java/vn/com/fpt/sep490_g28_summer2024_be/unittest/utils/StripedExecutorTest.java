@@ -0,0 +1,62 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.StripedExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedExecutorTest {
+
+    @Test
+    @DisplayName("SE_submit_01")
+    void submit_shouldRunSameKeyInSubmissionOrder_whenManyTasksShareKey() {
+        try (StripedExecutor executor = new StripedExecutor(4, "test-lane-")) {
+            // danh sách không đồng bộ: chỉ an toàn khi các tác vụ cùng khoá chạy tuần tự
+            List<Integer> applied = new ArrayList<>();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                int value = i;
+                futures.add(executor.submit("PROJECT:1", () -> applied.add(value)));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            assertEquals(IntStream.range(0, 1000).boxed().toList(), applied);
+        }
+    }
+
+    @Test
+    @DisplayName("SE_submit_02")
+    void submit_shouldRunDifferentKeysInParallel_whenKeysFallOnDifferentLanes() {
+        try (StripedExecutor executor = new StripedExecutor(8, "test-lane-")) {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int lane = 0; lane < executor.stripes(); lane++) {
+                for (int i = 0; i < 5; i++) {
+                    futures.add(executor.submitToLane(lane, () -> {
+                        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                        return null;
+                    }));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            // mỗi làn chỉ chạy một tác vụ tại một thời điểm, nhưng các làn chạy song song
+            assertTrue(peak.get() > 1);
+            assertTrue(peak.get() <= executor.stripes());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.SuggestTrie;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestTrieTest {
+
+    private static List<Integer> values(List<SuggestTrie.Entry<Integer>> entries) {
+        return entries.stream().map(SuggestTrie.Entry::value).toList();
+    }
+
+    @Test
+    @DisplayName("ST_lookup_01")
+    void lookup_shouldRankShorterKeysFirst() {
+        SuggestTrie<Integer> trie = new SuggestTrie<>(5, Comparator.reverseOrder());
+        trie.add("da0010", 1);
+        trie.add("da001", 2);
+        trie.add("da002", 3);
+        trie.add("tt001", 4);
+
+        assertEquals(List.of(2, 3, 1), values(trie.lookup("da", 10)));
+        assertEquals(List.of(2, 1), values(trie.lookup("da001", 10)));
+        assertTrue(trie.lookup("db", 10).isEmpty());
+        assertTrue(trie.lookup("", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("ST_lookup_02")
+    void lookup_shouldKeepOnlyTopEntries_whenManyKeysMatch() {
+        SuggestTrie<Integer> trie = new SuggestTrie<>(3, Comparator.reverseOrder());
+        for (int i = 1; i <= 20; i++) {
+            trie.add("nha " + "x".repeat(i), i);
+        }
+
+        assertEquals(List.of(1, 2, 3), values(trie.lookup("n", 10)));
+        assertEquals(List.of(1, 2), values(trie.lookup("nha", 2)));
+    }
+
+    @Test
+    @DisplayName("ST_lookup_03")
+    void lookup_shouldListValueOnce_whenStoredUnderSeveralKeys() {
+        SuggestTrie<Integer> trie = new SuggestTrie<>(5, Comparator.reverseOrder());
+        trie.add("truong hoc", 1);
+        trie.add("tr01", 1);
+        trie.add("truong", 2);
+
+        List<SuggestTrie.Entry<Integer>> entries = trie.lookup("tr", 10);
+
+        assertEquals(List.of(1, 2), values(entries));
+        assertEquals("tr01", entries.get(0).key());
+    }
+
+    @Test
+    @DisplayName("ST_remove_01")
+    void remove_shouldRefillTopEntries_whenBestEntryRemoved() {
+        SuggestTrie<Integer> trie = new SuggestTrie<>(2, Comparator.reverseOrder());
+        trie.add("ab", 1);
+        trie.add("abc", 2);
+        trie.add("abcd", 3);
+
+        trie.remove("ab", 1);
+
+        // Mục thứ ba được đưa lên thay cho mục vừa xóa
+        assertEquals(List.of(2, 3), values(trie.lookup("a", 10)));
+        trie.remove("abc", 2);
+        trie.remove("abcd", 3);
+        assertTrue(trie.lookup("a", 10).isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package vn.com.fpt.sep490_g28_summer2024_be.unittest.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.com.fpt.sep490_g28_summer2024_be.utils.TitleIndex;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TitleIndexTest {
+
+    @Test
+    @DisplayName("TI_search_01")
+    void search_shouldMatchTitle_whenQueryHasNoAccents() {
+        TitleIndex<Integer> index = new TitleIndex<>();
+        index.put(1, "Xây trường học cho trẻ em Điện Biên");
+        index.put(2, "Cầu đá Hà Giang");
+
+        assertEquals(List.of(1), index.search("truong hoc", 10));
+        assertEquals(List.of(1), index.search("dien bien", 10));
+        // Có dấu hay không dấu, hoa hay thường đều như nhau
+        assertEquals(List.of(2), index.search("CẦU ĐÁ", 10));
+    }
+
+    @Test
+    @DisplayName("TI_search_02")
+    void search_shouldRankWholeWordBeforePrefixAndInfix() {
+        TitleIndex<Integer> index = new TitleIndex<>();
+        index.put(1, "Dự án nhà tình thương");
+        index.put(2, "Nhà văn hóa thôn");
+        index.put(3, "Xây nhà");
+        index.put(4, "Nhà hàng");
+        index.put(5, "Hoàng hôn trên biển");
+
+        // Cả 4 đều có từ "nhà"; cùng điểm thì khóa lớn hơn đứng trước
+        assertEquals(List.of(4, 3, 2, 1), index.search("nha", 10));
+        // Trùng cả từ xếp trên trùng đầu từ, dù khóa nhỏ hơn
+        assertEquals(List.of(2, 5), index.search("hoa", 10));
+        // "thuong" trùng cả từ ở 1, "thon" chỉ có ở 2
+        assertEquals(List.of(1), index.search("thuong", 10));
+        assertEquals(List.of(2), index.search("thon", 10));
+    }
+
+    @Test
+    @DisplayName("TI_search_03")
+    void search_shouldMatchWordPrefix_whenTermIsShort() {
+        TitleIndex<Integer> index = new TitleIndex<>();
+        index.put(1, "Trường học vùng cao");
+        index.put(2, "Cầu treo");
+
+        assertEquals(List.of(1), index.search("tr ho", 10));
+        assertEquals(List.of(2), index.search("cau tr", 10));
+        // Từ ngắn chỉ khớp phần đầu của từ
+        assertTrue(index.search("eo", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("TI_search_04")
+    void search_shouldRequireEveryTerm() {
+        TitleIndex<Integer> index = new TitleIndex<>();
+        index.put(1, "Trường học Hà Giang");
+        index.put(2, "Trường học Lào Cai");
+
+        assertEquals(List.of(2), index.search("truong lao", 10));
+        assertTrue(index.search("truong son la", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("TI_search_05")
+    void search_shouldFollowUpdatesAndRemovals() {
+        TitleIndex<Integer> index = new TitleIndex<>();
+        index.put(1, "Cầu treo");
+
+        assertEquals("Cầu treo", index.put(1, "Nhà văn hóa"));
+        assertTrue(index.search("cau", 10).isEmpty());
+        assertEquals(List.of(1), index.search("van hoa", 10));
+
+        assertEquals("Nhà văn hóa", index.remove(1));
+        assertTrue(index.search("van hoa", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("TI_search_06")
+    void search_shouldLimitResults_whenManyTitlesMatch() {
+        TitleIndex<Integer> index = new TitleIndex<>();
+        index.replaceAll(Map.of(1, "Giếng nước 1", 2, "Giếng nước 2", 3, "Giếng nước 3"));
+
+        List<Integer> result = index.search("gieng nuoc", 2);
+
+        assertEquals(List.of(3, 2), result);
+    }
+}